@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.curator.factory.CuratorRetryPolicy;
+
+/**
+ * Measures the cost of building a client from the factory configuration and of
+ * starting and verifying it against an in-process server.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClientConstructionBenchmark {
+
+    private ZookeeperEnsemble ensemble;
+
+    @Setup
+    public void setUp() throws Exception {
+        ensemble = ZookeeperEnsemble.start(1);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ensemble.close();
+    }
+
+    /**
+     * Builds, but does not start, a client.
+     * @return The client.
+     * @throws Exception if the client cannot be built.
+     */
+    @Benchmark
+    public CuratorFramework build() throws Exception {
+        final BenchmarkFactoryBean factory = createFactory();
+        factory.buildClient();
+        return factory.getClient();
+    }
+
+    /**
+     * Builds, starts and verifies a client and then closes it.
+     * @return The startup time reported by the factory.
+     * @throws Exception if the client cannot be started.
+     */
+    @Benchmark
+    public Long buildAndStart() throws Exception {
+        final BenchmarkFactoryBean factory = createFactory();
+        try {
+            factory.afterPropertiesSet();
+            return factory.getStartupTime();
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private BenchmarkFactoryBean createFactory() {
+        final BenchmarkFactoryBean factory = new BenchmarkFactoryBean();
+        factory.setConnectionString(ensemble.getConnectString());
+        factory.setRetryPolicyType(CuratorRetryPolicy.RETRY_ONE_TIME.toString());
+        factory.setRetryPolicySleepBetweenRetries(10);
+        return factory;
+    }
+
+    /**
+     * Exposes the client building step of the factory to the benchmark.
+     */
+    static class BenchmarkFactoryBean extends CuratorFrameworkFactoryBean {
+
+        @Override
+        protected void buildClient() throws Exception {
+            super.buildClient();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.imps.GzipCompressionProvider;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.data.Stat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.curator.factory.CuratorRetryPolicy;
+
+/**
+ * Measures the throughput and latency of the core operations of a client created by
+ * the {@link CuratorFrameworkFactoryBean}, for a range of payload sizes, with and without
+ * compression.  The number of threads is controlled with the JMH {@code -t} option.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientOperationBenchmark {
+
+    private static final String DATA_PATH = "/benchmark/data";
+
+    private static final String CREATE_PATH = "/benchmark/created";
+
+    @Param({"1", "3"})
+    public int ensembleSize;
+
+    @Param({"16", "1024", "65536"})
+    public int payloadSize;
+
+    @Param({"false", "true"})
+    public boolean compressed;
+
+    private CuratorFramework client;
+    private CuratorFrameworkFactoryBean factory;
+    private ZookeeperEnsemble ensemble;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        ensemble = ZookeeperEnsemble.start(ensembleSize);
+
+        factory = new CuratorFrameworkFactoryBean();
+        factory.setConnectionString(ensemble.getConnectString());
+        factory.setRetryPolicyType(CuratorRetryPolicy.RETRY_ONE_TIME.toString());
+        factory.setRetryPolicySleepBetweenRetries(10);
+        if(compressed) {
+            factory.setCompressionProvider(new GzipCompressionProvider());
+        }
+        factory.afterPropertiesSet();
+        client = factory.getObject();
+
+        payload = createPayload(payloadSize);
+        client.create().creatingParentsIfNeeded().forPath(DATA_PATH, payload);
+        client.create().creatingParentsIfNeeded().forPath(CREATE_PATH);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        factory.destroy();
+        ensemble.close();
+    }
+
+    /**
+     * Removes the nodes created during the iteration so that the servers' memory use
+     * stays bounded.
+     * @throws Exception if the nodes cannot be removed.
+     */
+    @TearDown(Level.Iteration)
+    public void removeCreatedNodes() throws Exception {
+        for(final String child : client.getChildren().forPath(CREATE_PATH)) {
+            client.delete().forPath(CREATE_PATH + "/" + child);
+        }
+    }
+
+    @Benchmark
+    public byte[] getData() throws Exception {
+        return compressed ? client.getData().decompressed().forPath(DATA_PATH) : client.getData().forPath(DATA_PATH);
+    }
+
+    @Benchmark
+    public Stat setData() throws Exception {
+        return compressed ? client.setData().compressed().forPath(DATA_PATH, payload) : client.setData().forPath(DATA_PATH, payload);
+    }
+
+    @Benchmark
+    public String create() throws Exception {
+        return compressed
+            ? client.create().compressed().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(CREATE_PATH + "/node-", payload)
+            : client.create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(CREATE_PATH + "/node-", payload);
+    }
+
+    /**
+     * Creates a payload that resembles a configuration document, so that compression
+     * has a realistic amount of redundancy to work with.
+     */
+    private static byte[] createPayload(final int size) {
+        final StringBuilder builder = new StringBuilder(size + 64);
+        int i = 0;
+        while(builder.length() < size) {
+            builder.append("{\"key").append(i).append("\":\"value-").append(Integer.toHexString(i * 31)).append("\"},");
+            i++;
+        }
+        builder.setLength(size);
+        return builder.toString().getBytes(Charset.forName("UTF-8"));
+    }
+}
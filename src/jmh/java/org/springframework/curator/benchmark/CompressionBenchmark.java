@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.api.CompressionProvider;
+import org.apache.curator.framework.imps.GzipCompressionProvider;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.curator.compression.CuratorCompression;
+import org.springframework.curator.compression.CuratorCompressionProvider;
+
+/**
+ * Compares the compression codecs available to a client for throughput, in bytes of
+ * uncompressed data per second, and compression ratio.  Curator's default
+ * {@link GzipCompressionProvider} is included as the baseline.  The {@code compress}
+ * benchmark also reports the number of bytes it consumed and produced as the secondary
+ * {@code uncompressedBytes} and {@code compressedBytes} results, whose quotient is the
+ * compression ratio of the codec.
+ *
+ * <p>The payload is synthetic configuration data: repetitive keys with varying values,
+ * which is representative of the blobs typically stored in ZooKeeper.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    private static final String CURATOR_GZIP = "curator-gzip";
+
+    @Param({"curator-gzip", "gzip", "lz4", "zstd", "none"})
+    public String codec;
+
+    @Param({"1024", "65536", "1048576"})
+    public int payloadSize;
+
+    private CompressionProvider provider;
+    private byte[] payload;
+    private byte[] compressed;
+
+    @Setup
+    public void setUp() throws Exception {
+        provider = CURATOR_GZIP.equals(codec) ? new GzipCompressionProvider()
+                : new CuratorCompressionProvider(CuratorCompression.findByType(codec), 0);
+        payload = createPayload(payloadSize);
+        compressed = provider.compress("/benchmark", payload);
+    }
+
+    @Benchmark
+    public byte[] compress(final Sizes sizes) throws Exception {
+        final byte[] result = provider.compress("/benchmark", payload);
+        sizes.uncompressedBytes += payload.length;
+        sizes.compressedBytes += result.length;
+        return result;
+    }
+
+    @Benchmark
+    public byte[] decompress() throws Exception {
+        return provider.decompress("/benchmark", compressed);
+    }
+
+    /**
+     * The number of bytes consumed and produced by the {@code compress} benchmark.
+     */
+    @AuxCounters
+    @State(Scope.Thread)
+    public static class Sizes {
+
+        public long uncompressedBytes;
+        public long compressedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            uncompressedBytes = 0;
+            compressedBytes = 0;
+        }
+    }
+
+    private static byte[] createPayload(final int size) {
+        final Random random = new Random(size);
+        final StringBuilder builder = new StringBuilder(size + 64).append('{');
+        for(int i = 0; builder.length() < size; i++) {
+            builder.append("\"service.endpoint.").append(i % 50).append(".timeout-ms\":").append(random.nextInt(100000))
+                .append(",\"service.endpoint.").append(i % 50).append(".host\":\"host-").append(Integer.toHexString(random.nextInt())).append("\",");
+        }
+        return builder.substring(0, size).getBytes(Charset.forName("UTF-8"));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+
+/**
+ * Measures the time taken to parse and to bootstrap (refresh and close) an application
+ * context that defines a number of {@code <curator:client>} beans.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ContextBootstrapBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int clients;
+
+    @Param({"eager", "async"})
+    public String startupMode;
+
+    private ZookeeperEnsemble ensemble;
+    private byte[] configuration;
+
+    @Setup
+    public void setUp() throws Exception {
+        ensemble = ZookeeperEnsemble.start(1);
+
+        final StringBuilder xml = new StringBuilder()
+            .append("<beans xmlns=\"http://www.springframework.org/schema/beans\"")
+            .append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"")
+            .append(" xmlns:curator=\"http://www.springframework.org/schema/curator\"")
+            .append(" xsi:schemaLocation=\"http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans.xsd")
+            .append(" http://www.springframework.org/schema/curator http://www.springframework.org/schema/spring-curator.xsd\">");
+        for(int i = 0; i < clients; i++) {
+            xml.append("<curator:client id=\"client").append(i).append("\" connection-string=\"").append(ensemble.getConnectString())
+                .append("\" startup-mode=\"").append(startupMode).append("\" connect-wait-ms=\"10000\">")
+                .append("<curator:retry-policy><curator:retry-one-time sleep-between-retries=\"10\"/></curator:retry-policy>")
+                .append("</curator:client>");
+        }
+        xml.append("</beans>");
+        configuration = xml.toString().getBytes(Charset.forName("UTF-8"));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ensemble.close();
+    }
+
+    /**
+     * Parses the bean definitions, without creating any of the beans.
+     * @return The number of bean definitions parsed.
+     */
+    @Benchmark
+    public int parse() {
+        return new XmlBeanDefinitionReader(new DefaultListableBeanFactory()).loadBeanDefinitions(new ByteArrayResource(configuration));
+    }
+
+    /**
+     * Refreshes the context, which connects all of the clients, and then closes it.
+     * @return The number of beans in the context.
+     */
+    @Benchmark
+    public int bootstrap() {
+        final GenericXmlApplicationContext context = new GenericXmlApplicationContext();
+        try {
+            context.load(new ByteArrayResource(configuration));
+            context.refresh();
+            return context.getBeanDefinitionCount();
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.curator.discovery.ServiceInstance;
+import org.springframework.curator.discovery.ServiceInstances;
+import org.springframework.curator.discovery.ServiceSelectionStrategy;
+
+/**
+ * Measures the time taken to select an instance of a service from the in-memory snapshot
+ * kept by {@link org.springframework.curator.discovery.CuratorServiceDiscovery}, which is
+ * on the path of every outgoing request.  Run with {@code -prof gc} to verify that
+ * selection does not allocate.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceSelectionBenchmark {
+
+    @Param({"locality-aware", "power-of-two-choices", "round-robin"})
+    public String strategy;
+
+    @Param({"3", "100"})
+    public int instanceCount;
+
+    private ServiceSelectionStrategy selectionStrategy;
+    private ServiceInstances instances;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(instanceCount);
+        final List<ServiceInstance> all = new ArrayList<ServiceInstance>(instanceCount);
+        for(int i = 0; i < instanceCount; i++) {
+            all.add(new ServiceInstance("instance-" + i, "benchmark", "10.0.0." + i, 8080, "zone-" + (i % 3), random.nextDouble(), 0L));
+        }
+        selectionStrategy = ServiceSelectionStrategy.findByType(strategy);
+        instances = new ServiceInstances(all, "zone-0");
+    }
+
+    @Benchmark
+    public ServiceInstance select() {
+        return instances.select(selectionStrategy);
+    }
+}
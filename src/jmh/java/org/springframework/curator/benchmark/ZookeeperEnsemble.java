@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.curator.test.TestingCluster;
+import org.apache.curator.test.TestingServer;
+
+/**
+ * In-process ZooKeeper ensemble used by the benchmarks.  A single server is backed
+ * by a {@link TestingServer}, while larger ensembles are backed by a {@link TestingCluster}.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+final class ZookeeperEnsemble implements Closeable {
+
+    private final TestingServer server;
+    private final TestingCluster cluster;
+
+    private ZookeeperEnsemble(final TestingServer server, final TestingCluster cluster) {
+        this.server = server;
+        this.cluster = cluster;
+    }
+
+    /**
+     * Starts a new in-process ensemble.
+     * @param size The number of servers in the ensemble.
+     * @return The started ensemble.
+     * @throws Exception if the ensemble cannot be started.
+     */
+    static ZookeeperEnsemble start(final int size) throws Exception {
+        if(size <= 1) {
+            return new ZookeeperEnsemble(new TestingServer(), null);
+        }
+
+        final TestingCluster cluster = new TestingCluster(size);
+        cluster.start();
+        return new ZookeeperEnsemble(null, cluster);
+    }
+
+    String getConnectString() {
+        return server != null ? server.getConnectString() : cluster.getConnectString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(server != null) {
+            server.close();
+        } else {
+            cluster.close();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log-linear histogram of latencies, in microseconds.  Each power of two is split into
+ * {@value #SUB_BUCKETS} buckets, so a percentile is accurate to within about three percent
+ * while the histogram stays a small, fixed-size array no matter how long the run lasts.
+ * <p />
+ * A histogram is written by a single worker thread and merged once the workers have stopped,
+ * so it is not thread-safe.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_EXPONENT = 40;
+
+    private final long[] counts = new long[(MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Records a latency.
+     * @param nanos The latency, in nanoseconds.
+     */
+    void record(final long nanos) {
+        final long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts[indexOf(micros)]++;
+        count++;
+        total += micros;
+        max = Math.max(max, micros);
+    }
+
+    /**
+     * Adds the latencies recorded by another histogram to this one.
+     * @param other The histogram to add.
+     */
+    void merge(final LatencyHistogram other) {
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    long getMean() {
+        return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * Returns the latency below which the provided fraction of the recorded latencies fall.
+     * The upper bound of the matching bucket is returned, so the value is never optimistic.
+     * @param percentile The fraction, between 0 and 1 (e.g. 0.999).
+     * @return The latency, in microseconds, or zero if nothing was recorded.
+     */
+    long getPercentile(final double percentile) {
+        if(count == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long)Math.ceil(percentile * count));
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int indexOf(final long micros) {
+        if(micros < SUB_BUCKETS) {
+            return (int)micros;
+        }
+
+        final int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        final int subBucket = (int)((micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(final int index) {
+        if(index < SUB_BUCKETS) {
+            return index;
+        }
+
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final int subBucket = index % SUB_BUCKETS;
+        return ((long)(SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.curator.factory.CuratorRetryPolicy;
+
+/**
+ * A client of a soak run, built by the {@link CuratorFrameworkFactoryBean} the way an
+ * application would build it, together with the locks and watcher its workers share.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+final class SoakClient {
+
+    private final int index;
+    private final SoakWorkload workload;
+    private final CuratorFrameworkFactoryBean factory;
+    private final CuratorFramework client;
+    private final InterProcessMutex[] locks;
+    private final Watcher watcher;
+
+    private SoakClient(final int index, final SoakWorkload workload, final CuratorFrameworkFactoryBean factory, final AtomicLong watchEvents) throws Exception {
+        this.index = index;
+        this.workload = workload;
+        this.factory = factory;
+        this.client = factory.getObject();
+        this.locks = new InterProcessMutex[workload.getLocks()];
+        for(int i = 0; i < locks.length; i++) {
+            locks[i] = new InterProcessMutex(client, workload.getLockPath(i));
+        }
+        this.watcher = new Watcher() {
+            @Override
+            public void process(final WatchedEvent event) {
+                if(event.getType() != Event.EventType.None) {
+                    watchEvents.incrementAndGet();
+                }
+            }
+        };
+    }
+
+    /**
+     * Builds and starts a new client.
+     * @param index The index of the client, used in its name.
+     * @param connectString The connection string of the ensemble.
+     * @param workload The workload shared by the clients.
+     * @param watchEvents The counter of fired watches.
+     * @return The started client.
+     * @throws Exception if the client cannot be built.
+     */
+    static SoakClient start(final int index, final String connectString, final SoakWorkload workload, final AtomicLong watchEvents) throws Exception {
+        final CuratorFrameworkFactoryBean factory = new CuratorFrameworkFactoryBean();
+        factory.setBeanName("soak-client-" + index);
+        factory.setConnectionString(connectString);
+        factory.setConnectionTimeout(5000);
+        factory.setSessionTimeout(10000);
+        factory.setRetryPolicyType(CuratorRetryPolicy.BOUNDED_EXPONENTIAL_BACKOFF.toString());
+        factory.setRetryPolicyBaseSleepTime(100);
+        factory.setRetryPolicyMaxSleepTime(1000);
+        factory.setRetryPolicyMaxRetries(5);
+        factory.afterPropertiesSet();
+        return new SoakClient(index, workload, factory, watchEvents);
+    }
+
+    void close() throws Exception {
+        factory.destroy();
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    SoakWorkload getWorkload() {
+        return workload;
+    }
+
+    CuratorFramework getClient() {
+        return client;
+    }
+
+    InterProcessMutex getLock(final int lock) {
+        return locks[lock];
+    }
+
+    Watcher getWatcher() {
+        return watcher;
+    }
+}
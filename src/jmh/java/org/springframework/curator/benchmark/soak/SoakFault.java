@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.test.KillSession;
+import org.apache.curator.test.TestingCluster;
+import org.apache.curator.test.TestingZooKeeperServer;
+import org.apache.zookeeper.server.quorum.QuorumPeer;
+
+/**
+ * The faults a soak run injects into the in-process ensemble.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+enum SoakFault {
+
+    /**
+     * Kills a random server and restarts it once the downtime has passed.
+     */
+    KILL {
+        @Override
+        String inject(final TestingCluster cluster, final List<SoakClient> clients, final SoakRecovery recovery, final Random random, final int downtimeSeconds) throws Exception {
+            final List<TestingZooKeeperServer> servers = cluster.getServers();
+            return bounce(cluster, servers.get(random.nextInt(servers.size())), recovery, downtimeSeconds);
+        }
+    },
+
+    /**
+     * Expires the session of a random client.
+     */
+    EXPIRE {
+        @Override
+        String inject(final TestingCluster cluster, final List<SoakClient> clients, final SoakRecovery recovery, final Random random, final int downtimeSeconds) throws Exception {
+            final SoakClient client = clients.get(random.nextInt(clients.size()));
+            KillSession.kill(client.getClient().getZookeeperClient().getZooKeeper(), cluster.getConnectString());
+            recovery.faultInjected();
+            return "client-" + client.getIndex();
+        }
+    },
+
+    /**
+     * Kills the current leader, forcing an election, and restarts it once the downtime has
+     * passed.  A random server is killed if the ensemble has no leader (e.g. a single server).
+     */
+    LEADER {
+        @Override
+        String inject(final TestingCluster cluster, final List<SoakClient> clients, final SoakRecovery recovery, final Random random, final int downtimeSeconds) throws Exception {
+            for(final TestingZooKeeperServer server : cluster.getServers()) {
+                final QuorumPeer peer = server.getQuorumPeer();
+                if(peer != null && peer.getPeerState() == QuorumPeer.ServerState.LEADING) {
+                    return bounce(cluster, server, recovery, downtimeSeconds);
+                }
+            }
+            return KILL.inject(cluster, clients, recovery, random, downtimeSeconds);
+        }
+    };
+
+    /**
+     * Injects the fault.
+     * @param cluster The ensemble.
+     * @param clients The clients driving the workload.
+     * @param recovery The recovery tracker, told when the fault takes effect.
+     * @param random The source of the fault's target, seeded so that runs are reproducible.
+     * @param downtimeSeconds The time a killed server stays down.
+     * @return A description of the target of the fault.
+     * @throws Exception if the fault cannot be injected.
+     */
+    abstract String inject(TestingCluster cluster, List<SoakClient> clients, SoakRecovery recovery, Random random, int downtimeSeconds) throws Exception;
+
+    /**
+     * Returns the fault with the provided name, ignoring case.
+     * @param name The name of the fault.
+     * @return The matching fault.
+     * @throws IllegalArgumentException if no fault matches the name.
+     */
+    static SoakFault fromName(final String name) {
+        for(final SoakFault fault : values()) {
+            if(fault.name().equalsIgnoreCase(name)) {
+                return fault;
+            }
+        }
+        throw new IllegalArgumentException("[Assertion failed] unknown soak fault '" + name + "'.");
+    }
+
+    private static String bounce(final TestingCluster cluster, final TestingZooKeeperServer server, final SoakRecovery recovery, final int downtimeSeconds) throws Exception {
+        cluster.killServer(server.getInstanceSpec());
+        recovery.faultInjected();
+        TimeUnit.SECONDS.sleep(downtimeSeconds);
+        cluster.restartServer(server.getInstanceSpec());
+        return "server-" + server.getInstanceSpec().getServerId();
+    }
+}
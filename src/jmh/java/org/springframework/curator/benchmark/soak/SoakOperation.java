@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+
+/**
+ * The operations a soak run drives through its clients.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+enum SoakOperation {
+
+    /**
+     * Reads the data of a random node.
+     */
+    READ {
+        @Override
+        void execute(final SoakClient client, final Random random) throws Exception {
+            client.getClient().getData().forPath(client.getWorkload().getDataPath(random));
+        }
+    },
+
+    /**
+     * Replaces the data of a random node, firing the watches set on it.
+     */
+    WRITE {
+        @Override
+        void execute(final SoakClient client, final Random random) throws Exception {
+            client.getClient().setData().forPath(client.getWorkload().getDataPath(random), client.getWorkload().getPayload());
+        }
+    },
+
+    /**
+     * Reads the data of a random node and sets a watch on it.
+     */
+    WATCH {
+        @Override
+        void execute(final SoakClient client, final Random random) throws Exception {
+            client.getClient().getData().usingWatcher(client.getWatcher()).forPath(client.getWorkload().getDataPath(random));
+        }
+    },
+
+    /**
+     * Acquires and releases a random lock.
+     */
+    LOCK {
+        @Override
+        void execute(final SoakClient client, final Random random) throws Exception {
+            final InterProcessMutex lock = client.getLock(random.nextInt(client.getWorkload().getLocks()));
+            if(!lock.acquire(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Lock was not acquired within " + LOCK_TIMEOUT_SECONDS + " seconds.");
+            }
+            lock.release();
+        }
+    };
+
+    private static final int LOCK_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Executes the operation once.
+     * @param client The client to use.
+     * @param random The source of the node or lock to use.
+     * @throws Exception if the operation fails.
+     */
+    abstract void execute(SoakClient client, Random random) throws Exception;
+
+    /**
+     * Returns the operation with the provided name, ignoring case.
+     * @param name The name of the operation.
+     * @return The matching operation.
+     * @throws IllegalArgumentException if no operation matches the name.
+     */
+    static SoakOperation fromName(final String name) {
+        for(final SoakOperation operation : values()) {
+            if(operation.name().equalsIgnoreCase(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("[Assertion failed] unknown soak operation '" + name + "'.");
+    }
+}
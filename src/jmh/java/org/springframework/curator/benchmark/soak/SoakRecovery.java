@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures how long the clients take to recover from a fault.  A client has recovered once
+ * an operation that began after the fault was injected succeeds; the recovery time of the
+ * fault is the time until every client has recovered.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+final class SoakRecovery {
+
+    private final AtomicLongArray recoveredAt;
+    private volatile long faultAt = Long.MAX_VALUE;
+
+    SoakRecovery(final int clients) {
+        recoveredAt = new AtomicLongArray(clients);
+        for(int i = 0; i < clients; i++) {
+            recoveredAt.set(i, 1);
+        }
+    }
+
+    /**
+     * Marks the moment a fault takes effect.
+     */
+    void faultInjected() {
+        faultAt = System.nanoTime();
+        for(int i = 0; i < recoveredAt.length(); i++) {
+            recoveredAt.set(i, 0);
+        }
+    }
+
+    long getFaultAt() {
+        return faultAt;
+    }
+
+    /**
+     * Records a successful operation.
+     * @param client The index of the client.
+     * @param start The time the operation began, in nanoseconds.
+     * @param end The time the operation completed, in nanoseconds.
+     */
+    void succeeded(final int client, final long start, final long end) {
+        if(recoveredAt.get(client) == 0 && start >= faultAt) {
+            recoveredAt.compareAndSet(client, 0, end);
+        }
+    }
+
+    /**
+     * Waits for every client to recover from the last fault.
+     * @param timeout The maximum time to wait.
+     * @param unit The unit of the timeout.
+     * @return The recovery time in milliseconds, or -1 if a client did not recover in time.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    long awaitRecovery(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while(true) {
+            long latest = 0;
+            for(int i = 0; i < recoveredAt.length() && latest >= 0; i++) {
+                final long recovered = recoveredAt.get(i);
+                latest = recovered == 0 ? -1 : Math.max(latest, recovered);
+            }
+
+            if(latest > 0) {
+                return TimeUnit.NANOSECONDS.toMillis(latest - faultAt);
+            } else if(System.nanoTime() > deadline) {
+                return -1;
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+}
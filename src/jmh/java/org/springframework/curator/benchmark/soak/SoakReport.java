@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The results of a soak run: the throughput and latency percentiles of each operation,
+ * and the recovery time of each injected fault, together with the settings needed to
+ * reproduce the run.  Latencies are in microseconds.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+final class SoakReport {
+
+    private final Map<String, String> settings;
+    private final long elapsedMs;
+    private final Map<SoakOperation, LatencyHistogram> latencies = new EnumMap<SoakOperation, LatencyHistogram>(SoakOperation.class);
+    private final Map<SoakOperation, Long> failures = new EnumMap<SoakOperation, Long>(SoakOperation.class);
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final List<FaultRecord> faults = new ArrayList<FaultRecord>();
+    private long totalFailures;
+    private long watchEvents;
+
+    SoakReport(final SoakSettings settings, final long elapsedNanos) {
+        this.settings = settings.asMap();
+        this.elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        for(final SoakOperation operation : SoakOperation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            failures.put(operation, 0L);
+        }
+    }
+
+    void addWorker(final SoakWorker worker) {
+        for(final SoakOperation operation : SoakOperation.values()) {
+            latencies.get(operation).merge(worker.getLatencies(operation));
+            total.merge(worker.getLatencies(operation));
+            failures.put(operation, failures.get(operation) + worker.getFailures(operation));
+            totalFailures += worker.getFailures(operation);
+        }
+    }
+
+    void addFaults(final List<FaultRecord> records) {
+        faults.addAll(records);
+    }
+
+    void setWatchEvents(final long watchEvents) {
+        this.watchEvents = watchEvents;
+    }
+
+    List<FaultRecord> getFaults() {
+        return Collections.unmodifiableList(faults);
+    }
+
+    /**
+     * Renders the report as a table for the console.
+     * @return The rendered report.
+     */
+    String toText() {
+        final StringBuilder text = new StringBuilder();
+        text.append("Soak run settings: ").append(settings).append('\n');
+        text.append(String.format(Locale.ROOT, "Measured for %.1f s, %d watches fired%n%n", elapsedMs / 1000.0, watchEvents));
+        text.append(String.format(Locale.ROOT, "%-10s %10s %10s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "ops", "failures", "ops/s", "mean(us)", "p50(us)", "p99(us)", "p999(us)", "max(us)"));
+        for(final SoakOperation operation : SoakOperation.values()) {
+            appendRow(text, operation.name().toLowerCase(Locale.ROOT), latencies.get(operation), failures.get(operation));
+        }
+        appendRow(text, "all", total, totalFailures);
+
+        if(!faults.isEmpty()) {
+            text.append(String.format(Locale.ROOT, "%n%-10s %-12s %10s %14s%n", "fault", "target", "at(s)", "recovery(ms)"));
+            for(final FaultRecord fault : faults) {
+                text.append(String.format(Locale.ROOT, "%-10s %-12s %10.1f %14s%n", fault.fault.name().toLowerCase(Locale.ROOT),
+                        fault.target, fault.atMs / 1000.0, fault.recoveryMs >= 0 ? Long.toString(fault.recoveryMs) : "unrecovered"));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Renders the report as JSON, so that runs can be compared between builds.
+     * @return The rendered report.
+     */
+    String toJson() {
+        final StringBuilder json = new StringBuilder("{\n  \"settings\": {");
+        String separator = "";
+        for(final Map.Entry<String, String> setting : settings.entrySet()) {
+            json.append(separator).append("\n    ").append(quote(setting.getKey())).append(": ").append(quote(setting.getValue()));
+            separator = ",";
+        }
+        json.append("\n  },\n  \"elapsedMs\": ").append(elapsedMs);
+        json.append(",\n  \"watchEvents\": ").append(watchEvents);
+        json.append(",\n  \"operations\": {");
+        separator = "";
+        for(final SoakOperation operation : SoakOperation.values()) {
+            json.append(separator);
+            appendOperation(json, operation.name().toLowerCase(Locale.ROOT), latencies.get(operation), failures.get(operation));
+            separator = ",";
+        }
+        json.append(',');
+        appendOperation(json, "all", total, totalFailures);
+        json.append("\n  },\n  \"faults\": [");
+        separator = "";
+        for(final FaultRecord fault : faults) {
+            json.append(separator).append("\n    {\"fault\": ").append(quote(fault.fault.name().toLowerCase(Locale.ROOT)))
+                .append(", \"target\": ").append(quote(fault.target))
+                .append(", \"atMs\": ").append(fault.atMs)
+                .append(", \"recoveryMs\": ").append(fault.recoveryMs).append('}');
+            separator = ",";
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+
+    /**
+     * Writes the JSON report to the provided file, creating its directory if needed.
+     * @param file The file.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(final File file) throws IOException {
+        if(file.getAbsoluteFile().getParentFile() != null) {
+            file.getAbsoluteFile().getParentFile().mkdirs();
+        }
+
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"));
+        try {
+            writer.write(toJson());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void appendRow(final StringBuilder text, final String name, final LatencyHistogram histogram, final long failed) {
+        text.append(String.format(Locale.ROOT, "%-10s %10d %10d %10.1f %10d %10d %10d %10d %10d%n", name, histogram.getCount(), failed,
+                getThroughput(histogram), histogram.getMean(), histogram.getPercentile(0.5), histogram.getPercentile(0.99),
+                histogram.getPercentile(0.999), histogram.getMax()));
+    }
+
+    private void appendOperation(final StringBuilder json, final String name, final LatencyHistogram histogram, final long failed) {
+        json.append("\n    ").append(quote(name)).append(": {")
+            .append("\"ops\": ").append(histogram.getCount())
+            .append(", \"failures\": ").append(failed)
+            .append(", \"opsPerSecond\": ").append(String.format(Locale.ROOT, "%.1f", getThroughput(histogram)))
+            .append(", \"meanUs\": ").append(histogram.getMean())
+            .append(", \"p50Us\": ").append(histogram.getPercentile(0.5))
+            .append(", \"p99Us\": ").append(histogram.getPercentile(0.99))
+            .append(", \"p999Us\": ").append(histogram.getPercentile(0.999))
+            .append(", \"maxUs\": ").append(histogram.getMax()).append('}');
+    }
+
+    private double getThroughput(final LatencyHistogram histogram) {
+        return elapsedMs == 0 ? 0 : histogram.getCount() * 1000.0 / elapsedMs;
+    }
+
+    private static String quote(final String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /**
+     * A fault injected during the run.
+     */
+    static final class FaultRecord {
+
+        private final SoakFault fault;
+        private final String target;
+        private final long atMs;
+        private final long recoveryMs;
+
+        /**
+         * @param fault The fault.
+         * @param target The server or client the fault targeted.
+         * @param atMs The time the fault was injected, from the start of the measured run.
+         * @param recoveryMs The time until every client recovered, or -1 if they did not.
+         */
+        FaultRecord(final SoakFault fault, final String target, final long atMs, final long recoveryMs) {
+            this.fault = fault;
+            this.target = target;
+            this.atMs = atMs;
+            this.recoveryMs = recoveryMs;
+        }
+
+        long getRecoveryMs() {
+            return recoveryMs;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.test.TestingCluster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long-running load and fault-injection harness.  Starts an in-process ensemble, drives a
+ * seeded mix of reads, writes, watches and locks through clients built by the
+ * {@link org.springframework.curator.factory.CuratorFrameworkFactoryBean}, injects server
+ * kills, session expiries and leader changes at a fixed interval, and reports the throughput,
+ * latency percentiles and recovery time of the run.
+ * <p />
+ * The operation sequence of each worker and the order and targets of the faults depend only
+ * on the settings, so a run can be repeated to check a result.  See {@link SoakSettings} for
+ * the supported {@code key=value} arguments.  The process exits with a status of {@code 1}
+ * if the clients did not recover from a fault.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public final class SoakRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoakRunner.class);
+
+    private static final int RECOVERY_TIMEOUT_SECONDS = 60;
+
+    private final SoakSettings settings;
+
+    SoakRunner(final SoakSettings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final SoakReport report = new SoakRunner(SoakSettings.parse(args)).run();
+        for(final SoakReport.FaultRecord fault : report.getFaults()) {
+            if(fault.getRecoveryMs() < 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Runs the soak test, prints the report and writes it to the configured file.
+     * @return The report.
+     * @throws Exception if the ensemble or the clients cannot be started.
+     */
+    SoakReport run() throws Exception {
+        final TestingCluster cluster = new TestingCluster(settings.getEnsembleSize());
+        final List<SoakClient> clients = new ArrayList<SoakClient>();
+        final ExecutorService executor = Executors.newFixedThreadPool(settings.getClients() * settings.getThreadsPerClient());
+        try {
+            cluster.start();
+            final SoakWorkload workload = new SoakWorkload(settings);
+            final AtomicLong watchEvents = new AtomicLong();
+            for(int i = 0; i < settings.getClients(); i++) {
+                clients.add(SoakClient.start(i, cluster.getConnectString(), workload, watchEvents));
+            }
+            workload.create(clients.get(0).getClient());
+
+            final SoakRecovery recovery = new SoakRecovery(clients.size());
+            final List<SoakWorker> workers = new ArrayList<SoakWorker>();
+            for(final SoakClient client : clients) {
+                for(int i = 0; i < settings.getThreadsPerClient(); i++) {
+                    final SoakWorker worker = new SoakWorker(client, recovery, settings.getMix(), settings.getSeed() * 31 + workers.size());
+                    workers.add(worker);
+                    executor.execute(worker);
+                }
+            }
+
+            logger.info("Warming up {} workers for {} seconds.", workers.size(), settings.getWarmup());
+            TimeUnit.SECONDS.sleep(settings.getWarmup());
+            final long measureFrom = System.nanoTime();
+            for(final SoakWorker worker : workers) {
+                worker.startMeasuring();
+            }
+
+            final FaultInjector injector = new FaultInjector(cluster, clients, recovery, measureFrom);
+            final Thread injectorThread = new Thread(injector, "soak-fault-injector");
+            injectorThread.start();
+            logger.info("Measuring for {} seconds.", settings.getDuration());
+            TimeUnit.SECONDS.sleep(settings.getDuration());
+
+            // Let the fault in progress recover before the workers stop, so that its recovery is measured.
+            injector.stop();
+            injectorThread.join();
+            for(final SoakWorker worker : workers) {
+                worker.stop();
+            }
+            executor.shutdown();
+            executor.awaitTermination(RECOVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            final SoakReport report = new SoakReport(settings, System.nanoTime() - measureFrom);
+            for(final SoakWorker worker : workers) {
+                report.addWorker(worker);
+            }
+            report.addFaults(injector.getFaults());
+            report.setWatchEvents(watchEvents.get());
+
+            System.out.println(report.toText());
+            report.write(new File(settings.getReport()));
+            logger.info("Wrote the soak report to {}.", new File(settings.getReport()).getAbsolutePath());
+            return report;
+        } finally {
+            executor.shutdownNow();
+            for(final SoakClient client : clients) {
+                client.close();
+            }
+            cluster.close();
+        }
+    }
+
+    /**
+     * Injects the configured faults in turn, waiting for the clients to recover from each.
+     */
+    private final class FaultInjector implements Runnable {
+
+        private final TestingCluster cluster;
+        private final List<SoakClient> clients;
+        private final SoakRecovery recovery;
+        private final long measureFrom;
+        private final Random random = new Random(settings.getSeed());
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private final List<SoakReport.FaultRecord> faults = new ArrayList<SoakReport.FaultRecord>();
+
+        FaultInjector(final TestingCluster cluster, final List<SoakClient> clients, final SoakRecovery recovery, final long measureFrom) {
+            this.cluster = cluster;
+            this.clients = clients;
+            this.recovery = recovery;
+            this.measureFrom = measureFrom;
+        }
+
+        @Override
+        public void run() {
+            final List<SoakFault> schedule = settings.getFaults();
+            try {
+                for(int i = 0; !schedule.isEmpty() && !stopped.await(settings.getFaultInterval(), TimeUnit.SECONDS); i++) {
+                    final SoakFault fault = schedule.get(i % schedule.size());
+                    final String target = fault.inject(cluster, clients, recovery, random, settings.getFaultDowntime());
+                    final long recoveryMs = recovery.awaitRecovery(RECOVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    logger.info("Injected {} into {}; the clients recovered in {} ms.", fault, target, recoveryMs);
+                    faults.add(new SoakReport.FaultRecord(fault, target, TimeUnit.NANOSECONDS.toMillis(recovery.getFaultAt() - measureFrom), recoveryMs));
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final Exception e) {
+                logger.error("Unable to inject a fault.", e);
+            }
+        }
+
+        void stop() {
+            stopped.countDown();
+        }
+
+        List<SoakReport.FaultRecord> getFaults() {
+            return faults;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of a soak run, parsed from {@code key=value} arguments.  Every setting has a
+ * default, so a run without arguments drives a three server ensemble for one minute.
+ * <p />
+ * Supported settings:
+ * <ul>
+ *   <li>{@code ensemble-size} - the number of servers in the in-process ensemble (default 3)</li>
+ *   <li>{@code clients} - the number of factory-built clients (default 4)</li>
+ *   <li>{@code threads-per-client} - the number of worker threads driving each client (default 4)</li>
+ *   <li>{@code duration} - the length of the measured run, in seconds (default 60)</li>
+ *   <li>{@code warmup} - the length of the unmeasured warmup, in seconds (default 5)</li>
+ *   <li>{@code seed} - the seed of the operation and fault schedules (default 1)</li>
+ *   <li>{@code keys} - the number of data nodes read and written (default 100)</li>
+ *   <li>{@code payload-size} - the size of written data, in bytes (default 256)</li>
+ *   <li>{@code locks} - the number of distinct lock paths (default 4)</li>
+ *   <li>{@code mix} - the relative weight of each operation (default {@code read=70,write=20,watch=5,lock=5})</li>
+ *   <li>{@code faults} - the faults to inject in turn, or {@code none} (default {@code kill,expire,leader})</li>
+ *   <li>{@code fault-interval} - the time between faults, in seconds (default 15)</li>
+ *   <li>{@code fault-downtime} - the time a killed server stays down, in seconds (default 3)</li>
+ *   <li>{@code report} - the file the JSON report is written to (default {@code soak-report.json})</li>
+ * </ul>
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+final class SoakSettings {
+
+    private final Map<String, String> values = new LinkedHashMap<String, String>();
+
+    private SoakSettings() {
+        values.put("ensemble-size", "3");
+        values.put("clients", "4");
+        values.put("threads-per-client", "4");
+        values.put("duration", "60");
+        values.put("warmup", "5");
+        values.put("seed", "1");
+        values.put("keys", "100");
+        values.put("payload-size", "256");
+        values.put("locks", "4");
+        values.put("mix", "read=70,write=20,watch=5,lock=5");
+        values.put("faults", "kill,expire,leader");
+        values.put("fault-interval", "15");
+        values.put("fault-downtime", "3");
+        values.put("report", "soak-report.json");
+    }
+
+    /**
+     * Parses the provided arguments.
+     * @param args The {@code key=value} arguments.
+     * @return The settings.
+     * @throws IllegalArgumentException if an argument is malformed or unknown.
+     */
+    static SoakSettings parse(final String... args) {
+        final SoakSettings settings = new SoakSettings();
+        for(final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if(separator < 1) {
+                throw new IllegalArgumentException("[Assertion failed] soak arguments must be of the form key=value: '" + arg + "'.");
+            }
+            final String key = arg.substring(0, separator).trim();
+            if(!settings.values.containsKey(key)) {
+                throw new IllegalArgumentException("[Assertion failed] unknown soak setting '" + key + "'. Supported settings are " + settings.values.keySet() + ".");
+            }
+            settings.values.put(key, arg.substring(separator + 1).trim());
+        }
+        settings.getMix();
+        settings.getFaults();
+        return settings;
+    }
+
+    int getEnsembleSize() {
+        return getPositiveInt("ensemble-size");
+    }
+
+    int getClients() {
+        return getPositiveInt("clients");
+    }
+
+    int getThreadsPerClient() {
+        return getPositiveInt("threads-per-client");
+    }
+
+    int getDuration() {
+        return getPositiveInt("duration");
+    }
+
+    int getWarmup() {
+        return Integer.parseInt(values.get("warmup"));
+    }
+
+    long getSeed() {
+        return Long.parseLong(values.get("seed"));
+    }
+
+    int getKeys() {
+        return getPositiveInt("keys");
+    }
+
+    int getPayloadSize() {
+        return Integer.parseInt(values.get("payload-size"));
+    }
+
+    int getLocks() {
+        return getPositiveInt("locks");
+    }
+
+    int getFaultInterval() {
+        return getPositiveInt("fault-interval");
+    }
+
+    int getFaultDowntime() {
+        return Integer.parseInt(values.get("fault-downtime"));
+    }
+
+    String getReport() {
+        return values.get("report");
+    }
+
+    /**
+     * Returns the relative weight of each operation.  Operations that are not listed have
+     * a weight of zero.
+     * @return The weight of each operation.
+     */
+    Map<SoakOperation, Integer> getMix() {
+        final Map<SoakOperation, Integer> mix = new EnumMap<SoakOperation, Integer>(SoakOperation.class);
+        int total = 0;
+        for(final String entry : values.get("mix").split(",")) {
+            final String[] parts = entry.split("=");
+            if(parts.length != 2) {
+                throw new IllegalArgumentException("[Assertion failed] 'mix' entries must be of the form operation=weight: '" + entry + "'.");
+            }
+            final int weight = Integer.parseInt(parts[1].trim());
+            mix.put(SoakOperation.fromName(parts[0].trim()), weight);
+            total += weight;
+        }
+        if(total < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'mix' must give at least one operation a weight greater than zero.");
+        }
+        return mix;
+    }
+
+    /**
+     * Returns the faults to inject, in the order they are injected.
+     * @return The faults, which are empty if no faults are injected.
+     */
+    List<SoakFault> getFaults() {
+        final String faults = values.get("faults");
+        if("none".equalsIgnoreCase(faults) || faults.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<SoakFault> result = new ArrayList<SoakFault>();
+        for(final String name : faults.split(",")) {
+            result.add(SoakFault.fromName(name.trim()));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the settings as they were resolved, so that a report records everything
+     * needed to reproduce the run.
+     * @return The settings, keyed by name.
+     */
+    Map<String, String> asMap() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    private int getPositiveInt(final String key) {
+        final int value = Integer.parseInt(values.get(key));
+        if(value < 1) {
+            throw new IllegalArgumentException("[Assertion failed] '" + key + "' must be greater than zero.");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Drives a seeded, weighted sequence of operations through one client until the run
+ * stops.  The sequence depends only on the seed, so two runs with the same settings issue
+ * the same operations in the same order on each worker.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+final class SoakWorker implements Runnable {
+
+    private static final SoakOperation[] OPERATIONS = SoakOperation.values();
+
+    private final SoakClient client;
+    private final SoakRecovery recovery;
+    private final Random random;
+    private final int[] cumulativeWeights;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private final long[] failures = new long[OPERATIONS.length];
+    private volatile long measureFrom = Long.MAX_VALUE;
+    private volatile boolean running = true;
+
+    SoakWorker(final SoakClient client, final SoakRecovery recovery, final Map<SoakOperation, Integer> mix, final long seed) {
+        this.client = client;
+        this.recovery = recovery;
+        this.random = new Random(seed);
+        this.cumulativeWeights = new int[OPERATIONS.length];
+        int total = 0;
+        for(int i = 0; i < OPERATIONS.length; i++) {
+            final Integer weight = mix.get(OPERATIONS[i]);
+            total += weight != null ? weight : 0;
+            cumulativeWeights[i] = total;
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public void run() {
+        final int total = cumulativeWeights[cumulativeWeights.length - 1];
+        while(running) {
+            final SoakOperation operation = select(random.nextInt(total));
+            final long start = System.nanoTime();
+            try {
+                operation.execute(client, random);
+                final long end = System.nanoTime();
+                recovery.succeeded(client.getIndex(), start, end);
+                if(start >= measureFrom) {
+                    latencies[operation.ordinal()].record(end - start);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final Exception e) {
+                if(start >= measureFrom) {
+                    failures[operation.ordinal()]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts recording the operations that begin from now on.
+     */
+    void startMeasuring() {
+        measureFrom = System.nanoTime();
+    }
+
+    /**
+     * Stops the worker once its current operation completes.
+     */
+    void stop() {
+        running = false;
+    }
+
+    LatencyHistogram getLatencies(final SoakOperation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    long getFailures(final SoakOperation operation) {
+        return failures[operation.ordinal()];
+    }
+
+    private SoakOperation select(final int value) {
+        for(int i = 0; i < cumulativeWeights.length; i++) {
+            if(value < cumulativeWeights[i]) {
+                return OPERATIONS[i];
+            }
+        }
+        return OPERATIONS[OPERATIONS.length - 1];
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.benchmark.soak;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.curator.framework.CuratorFramework;
+
+/**
+ * The nodes and locks shared by the clients of a soak run.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+final class SoakWorkload {
+
+    static final String ROOT_PATH = "/soak";
+
+    private final String[] dataPaths;
+    private final byte[] payload;
+    private final int locks;
+
+    SoakWorkload(final SoakSettings settings) {
+        dataPaths = new String[settings.getKeys()];
+        for(int i = 0; i < dataPaths.length; i++) {
+            dataPaths[i] = ROOT_PATH + "/data/key-" + i;
+        }
+        payload = new byte[settings.getPayloadSize()];
+        Arrays.fill(payload, (byte)'x');
+        locks = settings.getLocks();
+    }
+
+    /**
+     * Creates the data nodes, so that reads and writes never miss.
+     * @param client The client used to create the nodes.
+     * @throws Exception if the nodes cannot be created.
+     */
+    void create(final CuratorFramework client) throws Exception {
+        for(final String dataPath : dataPaths) {
+            if(client.checkExists().forPath(dataPath) == null) {
+                client.create().creatingParentsIfNeeded().forPath(dataPath, payload);
+            }
+        }
+    }
+
+    String getDataPath(final Random random) {
+        return dataPaths[random.nextInt(dataPaths.length)];
+    }
+
+    String getLockPath(final int lock) {
+        return ROOT_PATH + "/locks/lock-" + lock;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    int getLocks() {
+        return locks;
+    }
+}
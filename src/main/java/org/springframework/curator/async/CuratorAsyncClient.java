@@ -0,0 +1,399 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.async;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Non-blocking facade over a {@link CuratorFramework} client.  Each operation is sent
+ * with a Curator background callback and returns a {@link ListenableFuture} that is
+ * completed by that callback, so no thread waits on the response from ZooKeeper.
+ *
+ * <p>At most {@code maxInFlight} operations may be outstanding at any time.  Once that
+ * limit is reached, new operations fail immediately with a {@link RejectedExecutionException}
+ * rather than blocking the calling thread.  An operation only stops counting towards the
+ * limit once ZooKeeper has responded, even if it has already timed out.
+ *
+ * <p>Each operation fails with a {@link TimeoutException} if ZooKeeper has not responded
+ * within the configured timeout.  A view with a different timeout, for instance the time
+ * remaining before the deadline of the request being served, is returned by
+ * {@link #withTimeout(long, TimeUnit)}.
+ *
+ * <p>Futures are completed on the thread that runs Curator's background callbacks.
+ * Listeners that block should therefore be registered with an executor of their own.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorAsyncClient implements InitializingBean, DisposableBean, BeanNameAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorAsyncClient.class);
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+
+    public static final int DEFAULT_TIMEOUT_MS = 30000;
+
+    private CuratorFramework client;
+    private Integer maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private Integer timeoutMs = DEFAULT_TIMEOUT_MS;
+    private ScheduledExecutorService timeoutExecutor;
+    private Semaphore permits;
+    private String beanName = "curator-async-client";
+    private boolean view;
+
+    public CuratorAsyncClient() {
+    }
+
+    private CuratorAsyncClient(final CuratorAsyncClient parent, final int timeoutMs) {
+        this.client = parent.client;
+        this.maxInFlight = parent.maxInFlight;
+        this.timeoutMs = timeoutMs;
+        this.timeoutExecutor = parent.timeoutExecutor;
+        this.permits = parent.permits;
+        this.beanName = parent.beanName;
+        this.view = true;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if(client == null) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' must be configured.");
+        }
+
+        if(maxInFlight < 1 || timeoutMs < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'max-in-flight' and 'timeout-ms' must be greater than zero.");
+        }
+
+        permits = new Semaphore(maxInFlight);
+        timeoutExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, beanName + "-timeouts");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if(!view && timeoutExecutor != null) {
+            logger.info("Closing Curator async client");
+            timeoutExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns a view of this client whose operations use the provided timeout.  The view
+     * shares the in-flight limit of this client.
+     * @param timeout The timeout.
+     * @param unit The unit of the timeout.
+     * @return The view.
+     */
+    public CuratorAsyncClient withTimeout(final long timeout, final TimeUnit unit) {
+        final long millis = unit.toMillis(timeout);
+        if(millis < 1 || millis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("[Assertion failed] timeout must be between 1 and " + Integer.MAX_VALUE + " milliseconds.");
+        }
+        return new CuratorAsyncClient(this, (int)millis);
+    }
+
+    /**
+     * Checks whether a node exists.
+     * @param path The path of the node.
+     * @return The future {@link Stat} of the node, which is {@code null} if the node does not exist.
+     */
+    public ListenableFuture<Stat> checkExists(final String path) {
+        return execute(path, new Operation<Stat>() {
+            @Override
+            void start(final BackgroundCallback callback) throws Exception {
+                client.checkExists().inBackground(callback).forPath(path);
+            }
+
+            @Override
+            Stat result(final CuratorEvent event) throws KeeperException {
+                if(event.getResultCode() == KeeperException.Code.NONODE.intValue()) {
+                    return null;
+                }
+                checkResultCode(event);
+                return event.getStat();
+            }
+        });
+    }
+
+    /**
+     * Creates a persistent node.
+     * @param path The path of the node.
+     * @param data The data of the node.
+     * @return The future path of the created node.
+     */
+    public ListenableFuture<String> create(final String path, final byte[] data) {
+        return create(path, data, CreateMode.PERSISTENT);
+    }
+
+    /**
+     * Creates a node.
+     * @param path The path of the node.
+     * @param data The data of the node.
+     * @param mode The mode of the node.
+     * @return The future path of the created node.
+     */
+    public ListenableFuture<String> create(final String path, final byte[] data, final CreateMode mode) {
+        return execute(path, new Operation<String>() {
+            @Override
+            void start(final BackgroundCallback callback) throws Exception {
+                client.create().withMode(mode).inBackground(callback).forPath(path, data);
+            }
+
+            @Override
+            String result(final CuratorEvent event) throws KeeperException {
+                checkResultCode(event);
+                return event.getName();
+            }
+        });
+    }
+
+    /**
+     * Deletes a node, regardless of its version.
+     * @param path The path of the node.
+     * @return The future completed once the node has been deleted.
+     */
+    public ListenableFuture<Void> delete(final String path) {
+        return delete(path, -1);
+    }
+
+    /**
+     * Deletes a node.
+     * @param path The path of the node.
+     * @param version The expected version of the node or {@code -1} to match any version.
+     * @return The future completed once the node has been deleted.
+     */
+    public ListenableFuture<Void> delete(final String path, final int version) {
+        return execute(path, new Operation<Void>() {
+            @Override
+            void start(final BackgroundCallback callback) throws Exception {
+                client.delete().withVersion(version).inBackground(callback).forPath(path);
+            }
+
+            @Override
+            Void result(final CuratorEvent event) throws KeeperException {
+                checkResultCode(event);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Reads the children of a node.
+     * @param path The path of the node.
+     * @return The future names of the children of the node.
+     */
+    public ListenableFuture<List<String>> getChildren(final String path) {
+        return execute(path, new Operation<List<String>>() {
+            @Override
+            void start(final BackgroundCallback callback) throws Exception {
+                client.getChildren().inBackground(callback).forPath(path);
+            }
+
+            @Override
+            List<String> result(final CuratorEvent event) throws KeeperException {
+                checkResultCode(event);
+                return event.getChildren();
+            }
+        });
+    }
+
+    /**
+     * Reads the data of a node.
+     * @param path The path of the node.
+     * @return The future data of the node.
+     */
+    public ListenableFuture<byte[]> getData(final String path) {
+        return execute(path, new Operation<byte[]>() {
+            @Override
+            void start(final BackgroundCallback callback) throws Exception {
+                client.getData().inBackground(callback).forPath(path);
+            }
+
+            @Override
+            byte[] result(final CuratorEvent event) throws KeeperException {
+                checkResultCode(event);
+                return event.getData();
+            }
+        });
+    }
+
+    /**
+     * Updates the data of a node, regardless of its version.
+     * @param path The path of the node.
+     * @param data The new data of the node.
+     * @return The future {@link Stat} of the updated node.
+     */
+    public ListenableFuture<Stat> setData(final String path, final byte[] data) {
+        return setData(path, data, -1);
+    }
+
+    /**
+     * Updates the data of a node.
+     * @param path The path of the node.
+     * @param data The new data of the node.
+     * @param version The expected version of the node or {@code -1} to match any version.
+     * @return The future {@link Stat} of the updated node.
+     */
+    public ListenableFuture<Stat> setData(final String path, final byte[] data, final int version) {
+        return execute(path, new Operation<Stat>() {
+            @Override
+            void start(final BackgroundCallback callback) throws Exception {
+                client.setData().withVersion(version).inBackground(callback).forPath(path, data);
+            }
+
+            @Override
+            Stat result(final CuratorEvent event) throws KeeperException {
+                checkResultCode(event);
+                return event.getStat();
+            }
+        });
+    }
+
+    private <T> ListenableFuture<T> execute(final String path, final Operation<T> operation) {
+        final SettableFuture<T> future = SettableFuture.create();
+        if(permits == null) {
+            future.setException(new IllegalStateException("Attempt to use a Curator async client that has not been initialized."));
+            return future;
+        }
+
+        if(!permits.tryAcquire()) {
+            future.setException(new RejectedExecutionException("Too many operations in flight (" + maxInFlight + "); rejected operation on " + path + "."));
+            return future;
+        }
+
+        final ScheduledFuture<?> timeout = timeoutExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                future.setException(new TimeoutException("Operation on " + path + " did not complete within " + timeoutMs + " ms."));
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+
+        try {
+            operation.start(new BackgroundCallback() {
+                @Override
+                public void processResult(final CuratorFramework curatorFramework, final CuratorEvent event) throws Exception {
+                    permits.release();
+                    timeout.cancel(false);
+                    try {
+                        future.set(operation.result(event));
+                    } catch (final Exception e) {
+                        future.setException(e);
+                    }
+                }
+            });
+        } catch (final Exception e) {
+            permits.release();
+            timeout.cancel(false);
+            future.setException(e);
+        }
+
+        return future;
+    }
+
+    private static void checkResultCode(final CuratorEvent event) throws KeeperException {
+        if(event.getResultCode() != KeeperException.Code.OK.intValue()) {
+            throw KeeperException.create(KeeperException.Code.get(event.getResultCode()), event.getPath());
+        }
+    }
+
+    /**
+     * Returns the number of operations that are waiting for a response from ZooKeeper.
+     * @return The number of operations in flight.
+     */
+    public int getInFlightCount() {
+        return permits != null ? maxInFlight - permits.availablePermits() : 0;
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public Integer getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(final Integer maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Integer getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(final Integer timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+
+    /**
+     * An operation sent to ZooKeeper in the background.
+     * @param <T> The type of the result of the operation.
+     */
+    private abstract static class Operation<T> {
+
+        /**
+         * Sends the operation to ZooKeeper.
+         * @param callback The callback invoked with the response.
+         * @throws Exception if the operation cannot be sent.
+         */
+        abstract void start(BackgroundCallback callback) throws Exception;
+
+        /**
+         * Converts the response to the result of the operation.
+         * @param event The response.
+         * @return The result.
+         * @throws KeeperException if ZooKeeper reported an error.
+         */
+        abstract T result(CuratorEvent event) throws KeeperException;
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.transaction.CuratorTransaction;
+import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
+import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Collects write operations submitted by any number of threads and sends them to
+ * ZooKeeper in batches, as multi-operation transactions, in order to reduce the
+ * number of round trips made to the ensemble.
+ *
+ * <p>A batch is sent once it contains the maximum number of operations or once the
+ * first operation in the batch has waited for the maximum linger time, whichever
+ * happens first.  Each submitted operation is given its own {@link ListenableFuture},
+ * which is completed with the result of the operation.  Because a transaction either
+ * succeeds or fails as a whole, the operations of a batch that is rejected because one
+ * of its operations failed are retried one at a time, so that only the operations that
+ * actually fail are reported as failures.  A batch that fails for any other reason, such
+ * as the loss of the connection, may already have been applied by the ensemble, so it is
+ * not retried: each of its operations fails with the exception raised.
+ *
+ * <p>At most {@code maxPendingOps} operations may be waiting to be sent; once that limit
+ * is reached, submitting threads block until there is room in the queue.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorBatchWriter implements SmartLifecycle, DisposableBean, BeanNameAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorBatchWriter.class);
+
+    public static final int DEFAULT_MAX_BATCH_OPS = 50;
+
+    public static final int DEFAULT_MAX_LINGER_MS = 5;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong operationCount = new AtomicLong();
+    private final AtomicLong retriedBatchCount = new AtomicLong();
+
+    private BlockingQueue<PendingOperation> queue;
+    private CuratorFramework client;
+    private Integer maxBatchOps = DEFAULT_MAX_BATCH_OPS;
+    private Integer maxLingerMs = DEFAULT_MAX_LINGER_MS;
+    private Integer maxPendingOps;
+    private String beanName = "curator-batch-writer";
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @Override
+    public synchronized void start() {
+        if(running) {
+            return;
+        }
+
+        if(client == null) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' must be configured.");
+        }
+
+        if(maxBatchOps < 1 || maxLingerMs < 0) {
+            throw new IllegalArgumentException("[Assertion failed] 'max-batch-ops' must be greater than zero and 'max-linger-ms' must not be negative.");
+        }
+
+        queue = new ArrayBlockingQueue<PendingOperation>(maxPendingOps != null ? maxPendingOps : maxBatchOps * 16);
+        running = true;
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeBatches();
+            }
+        }, beanName);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if(!running) {
+            return;
+        }
+
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final List<PendingOperation> abandoned = new ArrayList<PendingOperation>();
+        queue.drainTo(abandoned);
+        for(final PendingOperation operation : abandoned) {
+            operation.future.setException(new IllegalStateException("Batch writer was stopped before the operation was written."));
+        }
+    }
+
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return CuratorFrameworkFactoryBean.STARTUP_PHASE + 1;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        logger.info("Closing Curator batch writer");
+        stop();
+    }
+
+    /**
+     * Submits the creation of a persistent node.
+     * @param path The path of the node.
+     * @param data The data of the node.
+     * @return The future result of the operation.
+     * @throws InterruptedException if interrupted while waiting for room in the queue.
+     */
+    public ListenableFuture<CuratorTransactionResult> create(final String path, final byte[] data) throws InterruptedException {
+        return create(path, data, CreateMode.PERSISTENT);
+    }
+
+    /**
+     * Submits the creation of a node.
+     * @param path The path of the node.
+     * @param data The data of the node.
+     * @param mode The mode of the node.
+     * @return The future result of the operation.
+     * @throws InterruptedException if interrupted while waiting for room in the queue.
+     */
+    public ListenableFuture<CuratorTransactionResult> create(final String path, final byte[] data, final CreateMode mode) throws InterruptedException {
+        return submit(new PendingOperation(path) {
+            @Override
+            CuratorTransactionFinal addTo(final CuratorTransaction transaction) throws Exception {
+                return transaction.create().withMode(mode).forPath(path, data).and();
+            }
+        });
+    }
+
+    /**
+     * Submits an update of the data of a node, regardless of its version.
+     * @param path The path of the node.
+     * @param data The new data of the node.
+     * @return The future result of the operation.
+     * @throws InterruptedException if interrupted while waiting for room in the queue.
+     */
+    public ListenableFuture<CuratorTransactionResult> setData(final String path, final byte[] data) throws InterruptedException {
+        return setData(path, data, -1);
+    }
+
+    /**
+     * Submits an update of the data of a node.
+     * @param path The path of the node.
+     * @param data The new data of the node.
+     * @param version The expected version of the node or {@code -1} to match any version.
+     * @return The future result of the operation.
+     * @throws InterruptedException if interrupted while waiting for room in the queue.
+     */
+    public ListenableFuture<CuratorTransactionResult> setData(final String path, final byte[] data, final int version) throws InterruptedException {
+        return submit(new PendingOperation(path) {
+            @Override
+            CuratorTransactionFinal addTo(final CuratorTransaction transaction) throws Exception {
+                return transaction.setData().withVersion(version).forPath(path, data).and();
+            }
+        });
+    }
+
+    /**
+     * Submits the deletion of a node, regardless of its version.
+     * @param path The path of the node.
+     * @return The future result of the operation.
+     * @throws InterruptedException if interrupted while waiting for room in the queue.
+     */
+    public ListenableFuture<CuratorTransactionResult> delete(final String path) throws InterruptedException {
+        return delete(path, -1);
+    }
+
+    /**
+     * Submits the deletion of a node.
+     * @param path The path of the node.
+     * @param version The expected version of the node or {@code -1} to match any version.
+     * @return The future result of the operation.
+     * @throws InterruptedException if interrupted while waiting for room in the queue.
+     */
+    public ListenableFuture<CuratorTransactionResult> delete(final String path, final int version) throws InterruptedException {
+        return submit(new PendingOperation(path) {
+            @Override
+            CuratorTransactionFinal addTo(final CuratorTransaction transaction) throws Exception {
+                return transaction.delete().withVersion(version).forPath(path).and();
+            }
+        });
+    }
+
+    private ListenableFuture<CuratorTransactionResult> submit(final PendingOperation operation) throws InterruptedException {
+        if(!running) {
+            throw new IllegalStateException("Attempt to submit an operation to a batch writer that is not running.");
+        }
+
+        queue.put(operation);
+        if(!running && queue.remove(operation)) {
+            operation.future.setException(new IllegalStateException("Batch writer was stopped before the operation was written."));
+        }
+        return operation.future;
+    }
+
+    private void writeBatches() {
+        final List<PendingOperation> batch = new ArrayList<PendingOperation>(maxBatchOps);
+        final long linger = TimeUnit.MILLISECONDS.toNanos(maxLingerMs);
+
+        while(running || !queue.isEmpty()) {
+            try {
+                final PendingOperation first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if(first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                final long deadline = System.nanoTime() + linger;
+                while(batch.size() < maxBatchOps) {
+                    queue.drainTo(batch, maxBatchOps - batch.size());
+                    final long remaining = deadline - System.nanoTime();
+                    if(batch.size() >= maxBatchOps || remaining <= 0) {
+                        break;
+                    }
+
+                    final PendingOperation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if(next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+            } catch (final InterruptedException e) {
+                for(final PendingOperation operation : batch) {
+                    operation.future.setException(e);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the batch of operations as a single transaction.  If the transaction
+     * is rejected because one of its operations failed, each operation in the batch
+     * is retried in its own transaction.
+     * @param batch The batch of operations.
+     */
+    void write(final List<PendingOperation> batch) {
+        batchCount.incrementAndGet();
+        operationCount.addAndGet(batch.size());
+
+        try {
+            final List<CuratorTransactionResult> results = commit(batch);
+            for(int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.set(results.get(i));
+            }
+        } catch (final Exception e) {
+            if(batch.size() == 1 || !isOperationFailure(e)) {
+                for(final PendingOperation operation : batch) {
+                    operation.future.setException(e);
+                }
+                return;
+            }
+
+            logger.debug("Batch of {} operations failed, retrying each operation individually: {}", batch.size(), e.getMessage());
+            retriedBatchCount.incrementAndGet();
+            for(final PendingOperation operation : batch) {
+                try {
+                    operation.future.set(commit(Collections.singletonList(operation)).get(0));
+                } catch (final Exception operationException) {
+                    operation.future.setException(operationException);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the exception was raised because an operation of the transaction
+     * failed, in which case ZooKeeper reports the result of each operation and none of
+     * them has been applied.
+     * @param e The exception raised by the commit of the transaction.
+     * @return {@code true} if an operation of the transaction failed.
+     */
+    private boolean isOperationFailure(final Exception e) {
+        return e instanceof KeeperException && ((KeeperException)e).getResults() != null;
+    }
+
+    private List<CuratorTransactionResult> commit(final List<PendingOperation> operations) throws Exception {
+        CuratorTransaction transaction = client.inTransaction();
+        CuratorTransactionFinal transactionFinal = null;
+        for(final PendingOperation operation : operations) {
+            transactionFinal = operation.addTo(transaction);
+            transaction = transactionFinal;
+        }
+        return new ArrayList<CuratorTransactionResult>(transactionFinal.commit());
+    }
+
+    /**
+     * Returns the number of batches written to ZooKeeper.
+     * @return The number of batches.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Returns the number of operations written to ZooKeeper.
+     * @return The number of operations.
+     */
+    public long getOperationCount() {
+        return operationCount.get();
+    }
+
+    /**
+     * Returns the number of batches that failed and whose operations were retried individually.
+     * @return The number of retried batches.
+     */
+    public long getRetriedBatchCount() {
+        return retriedBatchCount.get();
+    }
+
+    /**
+     * Returns the number of operations waiting to be written.
+     * @return The number of pending operations.
+     */
+    public int getPendingCount() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public Integer getMaxBatchOps() {
+        return maxBatchOps;
+    }
+
+    public void setMaxBatchOps(final Integer maxBatchOps) {
+        this.maxBatchOps = maxBatchOps;
+    }
+
+    public Integer getMaxLingerMs() {
+        return maxLingerMs;
+    }
+
+    public void setMaxLingerMs(final Integer maxLingerMs) {
+        this.maxLingerMs = maxLingerMs;
+    }
+
+    public Integer getMaxPendingOps() {
+        return maxPendingOps;
+    }
+
+    public void setMaxPendingOps(final Integer maxPendingOps) {
+        this.maxPendingOps = maxPendingOps;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+
+    /**
+     * A write operation that is waiting to be added to a transaction.
+     */
+    abstract static class PendingOperation {
+
+        final String path;
+        final SettableFuture<CuratorTransactionResult> future = SettableFuture.create();
+
+        PendingOperation(final String path) {
+            this.path = path;
+        }
+
+        /**
+         * Adds this operation to the provided transaction.
+         * @param transaction The transaction.
+         * @return The transaction, including this operation.
+         * @throws Exception if the operation cannot be added to the transaction.
+         */
+        abstract CuratorTransactionFinal addTo(CuratorTransaction transaction) throws Exception;
+    }
+}
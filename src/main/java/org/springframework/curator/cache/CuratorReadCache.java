@@ -0,0 +1,481 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.cache;
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher.Event.EventType;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.util.StringUtils;
+
+/**
+ * Local, in-memory mirror of the data stored in a ZooKeeper subtree.
+ *
+ * <p>Reads are served from a {@link ConcurrentHashMap} without locking.  A read of a
+ * node that is not cached is loaded from ZooKeeper and a watch is left on the node, so
+ * that the cached copy is refreshed when the node changes and removed when the node is
+ * deleted.  At most one watch is left on each node: reads that reload an entry while its
+ * watch is still set do not set another.  An entry is only replaced by a copy of the node
+ * that is at least as recent, so a slow load cannot overwrite a newer copy.
+ *
+ * <p>The subtree is loaded in a single pass when the cache is started, leaving a child
+ * watch on each node loaded, so that nodes created within the subtree afterwards are
+ * loaded as they appear.
+ *
+ * <p>The cache may be bounded by the number of entries and/or the total number of bytes
+ * of data cached; once a bound is exceeded, the entries that were cached first are evicted.
+ * A time-to-live bounds how stale an entry may become should a watch notification be missed
+ * (for instance, while the client is disconnected).  The cache is cleared when the
+ * client's session is lost.
+ *
+ * <p>The cache is started after the client that it reads from has been started and is
+ * closed upon bean destroy.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorReadCache implements SmartLifecycle, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorReadCache.class);
+
+    private final ConcurrentMap<String, CacheEntry> entries = new ConcurrentHashMap<String, CacheEntry>();
+    private final Set<String> watched = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> childWatched = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final ConcurrentMap<String, Integer> loading = new ConcurrentHashMap<String, Integer>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<String>();
+    private final AtomicInteger insertionOrderSize = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong staleCount = new AtomicLong();
+
+    private final CuratorWatcher watcher = new CuratorWatcher() {
+        @Override
+        public void process(final WatchedEvent event) throws Exception {
+            handleEvent(event);
+        }
+    };
+
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener() {
+        @Override
+        public void stateChanged(final CuratorFramework client, final ConnectionState newState) {
+            if(newState == ConnectionState.LOST || newState == ConnectionState.RECONNECTED) {
+                logger.debug("Clearing cache of '{}' after connection state change to {}", path, newState);
+                clear();
+            }
+
+            if(newState == ConnectionState.LOST) {
+                // The watches may have been lost along with the session.
+                watched.clear();
+                childWatched.clear();
+            }
+        }
+    };
+
+    private CuratorFramework client;
+    private Integer maxEntries;
+    private Long maxBytes;
+    private Long ttl;
+    private String path;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        if(client == null || !StringUtils.hasText(path)) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' and 'path' must be configured.");
+        }
+
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+        // Running before the preload, so that the watches that it sets are acted upon.
+        running = true;
+        try {
+            preload(path);
+        } catch (final Exception e) {
+            logger.warn("Unable to preload cache of '" + path + "': ", e);
+        }
+        logger.info("Started cache of '{}' with {} entries", path, entries.size());
+    }
+
+    @Override
+    public void stop() {
+        if(running) {
+            running = false;
+            if(client != null) {
+                client.getConnectionStateListenable().removeListener(connectionStateListener);
+            }
+            clear();
+        }
+    }
+
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return CuratorFrameworkFactoryBean.STARTUP_PHASE + 1;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        logger.info("Closing cache of '{}'", path);
+        stop();
+    }
+
+    /**
+     * Returns the data of the node at the provided path, loading it from ZooKeeper if
+     * it is not cached or has expired.
+     * @param nodePath The path of the node, which must be within the cached subtree.
+     * @return The data of the node or {@code null} if the node does not exist.
+     * @throws Exception if an error occurs while loading the node from ZooKeeper.
+     */
+    public byte[] getData(final String nodePath) throws Exception {
+        if(!isWithinPath(nodePath)) {
+            throw new IllegalArgumentException("[Assertion failed] path '" + nodePath + "' is not within the cached path '" + path + "'.");
+        }
+
+        final CacheEntry entry = entries.get(nodePath);
+        if(entry != null) {
+            if(!entry.isExpired(ttl)) {
+                hitCount.incrementAndGet();
+                return entry.data;
+            }
+            staleCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+
+        final CacheEntry loaded = load(nodePath);
+        return loaded != null ? loaded.data : null;
+    }
+
+    /**
+     * Returns the {@link Stat} of the node at the provided path if it is currently cached.
+     * @param nodePath The path of the node.
+     * @return The {@link Stat} of the cached node or {@code null} if the node is not cached.
+     */
+    public Stat getCachedStat(final String nodePath) {
+        final CacheEntry entry = entries.get(nodePath);
+        return entry != null ? entry.stat : null;
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        for(final String key : entries.keySet()) {
+            remove(key);
+        }
+    }
+
+    private void preload(final String nodePath) throws Exception {
+        if(isFull() || load(nodePath) == null) {
+            return;
+        }
+
+        for(final String child : getChildren(nodePath)) {
+            preload(ZKPaths.makePath(nodePath, child));
+        }
+    }
+
+    private Iterable<String> getChildren(final String nodePath) throws Exception {
+        final boolean watch = childWatched.add(nodePath);
+        try {
+            if(watch) {
+                return client.getChildren().usingWatcher(watcher).forPath(nodePath);
+            }
+            return client.getChildren().forPath(nodePath);
+        } catch (final KeeperException.NoNodeException e) {
+            childWatched.remove(nodePath);
+            return Collections.emptyList();
+        } catch (final Exception e) {
+            if(watch) {
+                childWatched.remove(nodePath);
+            }
+            throw e;
+        }
+    }
+
+    private CacheEntry load(final String nodePath) throws Exception {
+        startLoading(nodePath);
+        try {
+            final Stat stat = new Stat();
+            final boolean watch = watched.add(nodePath);
+            final byte[] data;
+            try {
+                if(watch) {
+                    data = client.getData().storingStatIn(stat).usingWatcher(watcher).forPath(nodePath);
+                } else {
+                    data = client.getData().storingStatIn(stat).forPath(nodePath);
+                }
+            } catch (final KeeperException.NoNodeException e) {
+                watched.remove(nodePath);
+                remove(nodePath);
+                return null;
+            } catch (final Exception e) {
+                if(watch) {
+                    watched.remove(nodePath);
+                }
+                throw e;
+            }
+
+            return store(nodePath, new CacheEntry(data, stat));
+        } finally {
+            stopLoading(nodePath);
+        }
+    }
+
+    private CacheEntry store(final String nodePath, final CacheEntry entry) {
+        while(true) {
+            final CacheEntry previous = entries.get(nodePath);
+            if(previous == null) {
+                if(entries.putIfAbsent(nodePath, entry) == null) {
+                    bytes.addAndGet(entry.size());
+                    insertionOrder.offer(nodePath);
+                    insertionOrderSize.incrementAndGet();
+                    evict();
+                    return entry;
+                }
+            } else if(previous.stat.getMzxid() > entry.stat.getMzxid()) {
+                // A newer copy was cached while this one was being loaded.
+                return previous;
+            } else if(entries.replace(nodePath, previous, entry)) {
+                bytes.addAndGet(entry.size() - previous.size());
+                evict();
+                return entry;
+            }
+        }
+    }
+
+    private void startLoading(final String nodePath) {
+        while(true) {
+            final Integer count = loading.putIfAbsent(nodePath, 1);
+            if(count == null || loading.replace(nodePath, count, count + 1)) {
+                return;
+            }
+        }
+    }
+
+    private void stopLoading(final String nodePath) {
+        while(true) {
+            final Integer count = loading.get(nodePath);
+            if(count == 1 ? loading.remove(nodePath, count) : loading.replace(nodePath, count, count - 1)) {
+                return;
+            }
+        }
+    }
+
+    private void remove(final String nodePath) {
+        final CacheEntry removed = entries.remove(nodePath);
+        if(removed != null) {
+            bytes.addAndGet(-removed.size());
+        }
+    }
+
+    private void evict() {
+        while(isOverBounds()) {
+            final String eldest = insertionOrder.poll();
+            if(eldest == null) {
+                break;
+            }
+            insertionOrderSize.decrementAndGet();
+            if(entries.containsKey(eldest)) {
+                remove(eldest);
+                evictionCount.incrementAndGet();
+            }
+        }
+
+        /*
+         * Paths that have been removed since they were cached still occupy a slot in
+         * the insertion order.  Purge them once they make up the majority of it.
+         */
+        if(insertionOrderSize.get() > (entries.size() * 2) + 64) {
+            insertionOrder.retainAll(entries.keySet());
+            insertionOrderSize.set(insertionOrder.size());
+        }
+    }
+
+    private boolean isOverBounds() {
+        return (maxEntries != null && entries.size() > maxEntries) || (maxBytes != null && bytes.get() > maxBytes);
+    }
+
+    private boolean isFull() {
+        return (maxEntries != null && entries.size() >= maxEntries) || (maxBytes != null && bytes.get() >= maxBytes);
+    }
+
+    private boolean isWithinPath(final String nodePath) {
+        return nodePath != null && (nodePath.equals(path) || nodePath.startsWith("/".equals(path) ? path : path + "/"));
+    }
+
+    private void handleEvent(final WatchedEvent event) throws Exception {
+        if(event.getPath() == null) {
+            return;
+        }
+
+        // The watch has fired and must be set again by the next load or listing of the node.
+        final String nodePath = event.getPath();
+        if(event.getType() == EventType.NodeDeleted) {
+            watched.remove(nodePath);
+            childWatched.remove(nodePath);
+            remove(nodePath);
+        } else if(event.getType() == EventType.NodeDataChanged) {
+            watched.remove(nodePath);
+            /*
+             * A load that is still in flight may have read the data from before the
+             * change and is about to cache it, so the node is loaded again for it too.
+             */
+            if(running && (entries.containsKey(nodePath) || loading.containsKey(nodePath))) {
+                load(nodePath);
+            }
+        } else if(event.getType() == EventType.NodeChildrenChanged) {
+            childWatched.remove(nodePath);
+            if(running) {
+                for(final String child : getChildren(nodePath)) {
+                    final String childPath = ZKPaths.makePath(nodePath, child);
+                    if(!entries.containsKey(childPath)) {
+                        preload(childPath);
+                    }
+                }
+            }
+        }
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of reads of cached entries that had outlived the time-to-live
+     * and were reloaded from ZooKeeper.
+     * @return The number of stale reads.
+     */
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public Integer getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(final Integer maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(final Long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public Long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(final Long ttl) {
+        this.ttl = ttl;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(final String path) {
+        this.path = path;
+    }
+
+    /**
+     * An immutable cached copy of a node.
+     */
+    private static final class CacheEntry {
+
+        private final byte[] data;
+        private final Stat stat;
+        private final long loadedAt;
+
+        CacheEntry(final byte[] data, final Stat stat) {
+            this.data = data;
+            this.stat = stat;
+            this.loadedAt = System.nanoTime();
+        }
+
+        boolean isExpired(final Long ttl) {
+            return ttl != null && System.nanoTime() - loadedAt > TimeUnit.MILLISECONDS.toNanos(ttl);
+        }
+
+        long size() {
+            return data != null ? data.length : 0;
+        }
+    }
+}
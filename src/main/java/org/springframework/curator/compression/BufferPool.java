@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of scratch buffers.  Buffers that are larger than the maximum pooled
+ * size are not returned to the pool, so that a single large payload does not pin a
+ * large amount of memory.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class BufferPool {
+
+    private final BlockingQueue<byte[]> buffers;
+    private final int minSize;
+    private final int maxPooledSize;
+
+    /**
+     * Constructs a new pool.
+     * @param capacity The maximum number of pooled buffers.
+     * @param minSize The minimum size of an allocated buffer.
+     * @param maxPooledSize The maximum size of a buffer that is returned to the pool.
+     */
+    public BufferPool(final int capacity, final int minSize, final int maxPooledSize) {
+        this.buffers = new ArrayBlockingQueue<byte[]>(capacity);
+        this.minSize = minSize;
+        this.maxPooledSize = maxPooledSize;
+    }
+
+    /**
+     * Takes a buffer of at least the provided size from the pool, allocating one if necessary.
+     * @param size The minimum size of the buffer.
+     * @return The buffer.
+     */
+    public byte[] acquire(final int size) {
+        final byte[] buffer = buffers.poll();
+        if(buffer != null && buffer.length >= size) {
+            return buffer;
+        }
+        return new byte[Math.max(size, minSize)];
+    }
+
+    /**
+     * Returns a buffer to the pool.
+     * @param buffer The buffer.
+     */
+    public void release(final byte[] buffer) {
+        if(buffer.length <= maxPooledSize) {
+            buffers.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.compression;
+
+/**
+ * A block compression codec that reads from and writes to caller supplied arrays, so
+ * that the caller controls (and may reuse) the buffers involved.  Implementations are
+ * thread-safe.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+interface CompressionCodec {
+
+    /**
+     * Compresses the provided data.
+     * @param data The data to compress.
+     * @param dest The array to write the compressed data to.
+     * @param destOffset The offset in {@code dest} at which to start writing.
+     * @param maxLength The maximum number of bytes that may be written.
+     * @return The number of bytes written or {@code -1} if the compressed data
+     * 	does not fit within {@code maxLength} bytes.
+     */
+    int compress(byte[] data, byte[] dest, int destOffset, int maxLength);
+
+    /**
+     * Decompresses the provided data.
+     * @param src The array that holds the compressed data.
+     * @param srcOffset The offset of the compressed data in {@code src}.
+     * @param srcLength The length of the compressed data.
+     * @param dest The array to write the decompressed data to, sized to its exact length.
+     * @throws Exception if the data cannot be decompressed.
+     */
+    void decompress(byte[] src, int srcOffset, int srcLength, byte[] dest) throws Exception;
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.compression;
+
+/**
+ * Enumeration of the compression codecs that may be selected for a client with
+ * the {@code compression} attribute.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public enum CuratorCompression {
+
+    GZIP("gzip"),
+    LZ4("lz4"),
+    NONE("none"),
+    ZSTD("zstd");
+
+    /**
+     * The type of the compression, as defined in the XML schema.
+     */
+    private final String type;
+
+    /**
+     * Constructs a new enumerated value for the given type.
+     * @param type The compression type.
+     */
+    private CuratorCompression(final String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    /**
+     * Finds the matching {@link CuratorCompression} enumerated value
+     * that matches the provided type string.
+     * @param type The compression type.
+     * @return The matching {@link CuratorCompression} enumerated value
+     * 	for the given type or {@code null} if no match is found.
+     */
+    public static CuratorCompression findByType(final String type) {
+        CuratorCompression compression = null;
+
+        for(final CuratorCompression currentCompression : values()) {
+            if(currentCompression.type.equals(type)) {
+                compression = currentCompression;
+                break;
+            }
+        }
+
+        return compression;
+    }
+}
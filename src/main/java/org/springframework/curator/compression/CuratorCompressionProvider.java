@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.compression;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import org.apache.curator.framework.api.CompressionProvider;
+import org.apache.curator.framework.imps.GzipCompressionProvider;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link CompressionProvider} that compresses node data with the selected
+ * {@link CuratorCompression} codec.
+ *
+ * <p>Compressed data is self-describing: the first byte identifies the codec and, for
+ * compressed data, the next four bytes hold the uncompressed length.  Data is always
+ * decompressed with the codec named by its header, regardless of the codec selected
+ * for writing, so the codec may be changed without rewriting existing data.  Data
+ * written by Curator's default {@link GzipCompressionProvider} is recognized by its
+ * GZIP magic number and can still be read.
+ *
+ * <p>Data shorter than the threshold, and data that does not shrink when compressed,
+ * is stored uncompressed (behind the one byte header).  Scratch buffers and codec
+ * state are pooled, so that compression does not allocate beyond its result.
+ *
+ * <p>The {@code lz4} and {@code zstd} codecs require {@code net.jpountz.lz4:lz4} and
+ * {@code com.github.luben:zstd-jni} respectively on the classpath.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorCompressionProvider implements CompressionProvider {
+
+    /**
+     * The default size, in bytes, below which data is stored uncompressed.
+     */
+    public static final int DEFAULT_THRESHOLD = 256;
+
+    static final int MAGIC = 0xC0;
+    static final int MAGIC_MASK = 0xF0;
+    static final int CODEC_MASK = 0x0F;
+    static final int NONE_ID = 0;
+    static final int GZIP_ID = 1;
+    static final int LZ4_ID = 2;
+    static final int ZSTD_ID = 3;
+    static final int COMPRESSED_HEADER_LENGTH = 5;
+
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int ZSTD_LEVEL = 3;
+    private static final BufferPool buffers = new BufferPool(POOL_SIZE, 64 * 1024, 1024 * 1024);
+    private static final GzipCompressionProvider legacyProvider = new GzipCompressionProvider();
+
+    private static volatile CompressionCodec deflateCodec;
+    private static volatile CompressionCodec lz4Codec;
+    private static volatile CompressionCodec zstdCodec;
+
+    private final CuratorCompression compression;
+    private final int codecId;
+    private final int threshold;
+
+    /**
+     * Constructs a new provider with the default threshold.
+     * @param compression The codec used to compress data.
+     */
+    public CuratorCompressionProvider(final CuratorCompression compression) {
+        this(compression, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a new provider.
+     * @param compression The codec used to compress data.
+     * @param threshold The size, in bytes, below which data is stored uncompressed.
+     * @throws IllegalArgumentException if the codec is not available on the classpath.
+     */
+    public CuratorCompressionProvider(final CuratorCompression compression, final int threshold) {
+        this.compression = compression;
+        this.codecId = getCodecId(compression);
+        this.threshold = threshold;
+
+        if(codecId != NONE_ID) {
+            getCodec(codecId);
+        }
+    }
+
+    @Override
+    public byte[] compress(final String path, final byte[] data) throws Exception {
+        if(codecId == NONE_ID || data.length < threshold || data.length <= COMPRESSED_HEADER_LENGTH) {
+            return store(data);
+        }
+
+        final byte[] buffer = buffers.acquire(COMPRESSED_HEADER_LENGTH + data.length);
+        try {
+            final int length = getCodec(codecId).compress(data, buffer, COMPRESSED_HEADER_LENGTH, data.length - COMPRESSED_HEADER_LENGTH);
+            if(length < 0) {
+                return store(data);
+            }
+
+            buffer[0] = (byte)(MAGIC | codecId);
+            buffer[1] = (byte)(data.length >>> 24);
+            buffer[2] = (byte)(data.length >>> 16);
+            buffer[3] = (byte)(data.length >>> 8);
+            buffer[4] = (byte)data.length;
+            return Arrays.copyOf(buffer, COMPRESSED_HEADER_LENGTH + length);
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    @Override
+    public byte[] decompress(final String path, final byte[] compressedData) throws Exception {
+        if(compressedData.length >= 2 && compressedData[0] == (byte)0x1f && compressedData[1] == (byte)0x8b) {
+            return legacyProvider.decompress(path, compressedData);
+        }
+
+        if(compressedData.length == 0 || (compressedData[0] & MAGIC_MASK) != MAGIC) {
+            throw new IOException("Data at '" + path + "' does not have a recognized compression header.");
+        }
+
+        final int id = compressedData[0] & CODEC_MASK;
+        if(id == NONE_ID) {
+            return Arrays.copyOfRange(compressedData, 1, compressedData.length);
+        }
+
+        if(compressedData.length < COMPRESSED_HEADER_LENGTH) {
+            throw new IOException("Compressed data at '" + path + "' is truncated.");
+        }
+
+        final int length = ((compressedData[1] & 0xFF) << 24) | ((compressedData[2] & 0xFF) << 16)
+                | ((compressedData[3] & 0xFF) << 8) | (compressedData[4] & 0xFF);
+        final byte[] data = new byte[length];
+        getCodec(id).decompress(compressedData, COMPRESSED_HEADER_LENGTH, compressedData.length - COMPRESSED_HEADER_LENGTH, data);
+        return data;
+    }
+
+    public CuratorCompression getCompression() {
+        return compression;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    private static byte[] store(final byte[] data) {
+        final byte[] stored = new byte[data.length + 1];
+        stored[0] = (byte)(MAGIC | NONE_ID);
+        System.arraycopy(data, 0, stored, 1, data.length);
+        return stored;
+    }
+
+    private static int getCodecId(final CuratorCompression compression) {
+        switch(compression) {
+            case GZIP:
+                return GZIP_ID;
+            case LZ4:
+                return LZ4_ID;
+            case ZSTD:
+                return ZSTD_ID;
+            default:
+                return NONE_ID;
+        }
+    }
+
+    /*
+     * The codecs are created on first use so that the optional LZ4 and Zstandard
+     * libraries are only loaded if data compressed with them is encountered.
+     */
+    private static CompressionCodec getCodec(final int id) {
+        switch(id) {
+            case GZIP_ID:
+                if(deflateCodec == null) {
+                    deflateCodec = new DeflateCodec(Deflater.DEFAULT_COMPRESSION, POOL_SIZE);
+                }
+                return deflateCodec;
+            case LZ4_ID:
+                if(lz4Codec == null) {
+                    assertPresent("net.jpountz.lz4.LZ4Factory", CuratorCompression.LZ4, "net.jpountz.lz4:lz4");
+                    lz4Codec = new Lz4Codec();
+                }
+                return lz4Codec;
+            case ZSTD_ID:
+                if(zstdCodec == null) {
+                    assertPresent("com.github.luben.zstd.ZstdCompressCtx", CuratorCompression.ZSTD, "com.github.luben:zstd-jni");
+                    zstdCodec = new ZstdCodec(ZSTD_LEVEL, POOL_SIZE);
+                }
+                return zstdCodec;
+            default:
+                throw new IllegalArgumentException("[Assertion failed] unknown compression codec id " + id + ".");
+        }
+    }
+
+    private static void assertPresent(final String className, final CuratorCompression compression, final String artifact) {
+        if(!ClassUtils.isPresent(className, CuratorCompressionProvider.class.getClassLoader())) {
+            throw new IllegalArgumentException("[Assertion failed] compression '" + compression + "' requires '" + artifact + "' on the classpath.");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * {@link CompressionCodec} that produces a raw DEFLATE stream (the algorithm used by GZIP,
+ * without the GZIP framing).  {@link Deflater} and {@link Inflater} instances hold native
+ * memory and are expensive to create, so they are pooled and reset between uses.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class DeflateCodec implements CompressionCodec {
+
+    private final BlockingQueue<Deflater> deflaters;
+    private final BlockingQueue<Inflater> inflaters;
+    private final int level;
+
+    /**
+     * Constructs a new codec.
+     * @param level The compression level, as defined by {@link Deflater}.
+     * @param poolSize The maximum number of pooled {@link Deflater} and {@link Inflater} instances.
+     */
+    DeflateCodec(final int level, final int poolSize) {
+        this.level = level;
+        this.deflaters = new ArrayBlockingQueue<Deflater>(poolSize);
+        this.inflaters = new ArrayBlockingQueue<Inflater>(poolSize);
+    }
+
+    @Override
+    public int compress(final byte[] data, final byte[] dest, final int destOffset, final int maxLength) {
+        Deflater deflater = deflaters.poll();
+        if(deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            final int length = deflater.deflate(dest, destOffset, maxLength);
+            return deflater.finished() ? length : -1;
+        } finally {
+            deflater.reset();
+            if(!deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    @Override
+    public void decompress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest) throws DataFormatException {
+        Inflater inflater = inflaters.poll();
+        if(inflater == null) {
+            inflater = new Inflater(true);
+        }
+
+        try {
+            inflater.setInput(src, srcOffset, srcLength);
+            int length = 0;
+            while(length < dest.length) {
+                final int inflated = inflater.inflate(dest, length, dest.length - length);
+                if(inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated DEFLATE stream: expected " + dest.length + " bytes, inflated " + length + ".");
+                }
+                length += inflated;
+            }
+        } finally {
+            inflater.reset();
+            if(!inflaters.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.compression;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * {@link CompressionCodec} backed by the LZ4 block format, which trades compression
+ * ratio for very fast compression and decompression.  The LZ4 compressors are stateless
+ * and thread-safe, so a single instance of each is shared.  Requires
+ * {@code net.jpountz.lz4:lz4} on the classpath.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class Lz4Codec implements CompressionCodec {
+
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    Lz4Codec() {
+        final LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public int compress(final byte[] data, final byte[] dest, final int destOffset, final int maxLength) {
+        try {
+            return compressor.compress(data, 0, data.length, dest, destOffset, maxLength);
+        } catch (final LZ4Exception e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void decompress(final byte[] src, final int srcOffset, final int srcLength, final byte[] dest) {
+        final int read = decompressor.decompress(src, srcOffset, dest, 0, dest.length);
+        if(read != srcLength) {
+            throw new LZ4Exception("Malformed LZ4 block: read " + read + " of " + srcLength + " bytes.");
+        }
+    }
+}
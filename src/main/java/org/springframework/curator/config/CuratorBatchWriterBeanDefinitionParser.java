@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config;
+
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.xml.AbstractBeanDefinitionParser;
+import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.curator.batch.CuratorBatchWriter;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Handles the parsing of the batch writer configuration element from
+ * the Spring application context.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorBatchWriterBeanDefinitionParser extends AbstractBeanDefinitionParser {
+
+    @Override
+    protected AbstractBeanDefinition parseInternal(final Element element, final ParserContext parserContext) {
+        final BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(CuratorBatchWriter.class);
+        builder.addPropertyReference("client", element.getAttribute("client-ref"));
+
+        if(StringUtils.hasText(element.getAttribute("max-batch-ops"))) {
+            builder.addPropertyValue("maxBatchOps", Integer.valueOf(element.getAttribute("max-batch-ops")));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("max-linger-ms"))) {
+            builder.addPropertyValue("maxLingerMs", Integer.valueOf(element.getAttribute("max-linger-ms")));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("max-pending-ops"))) {
+            builder.addPropertyValue("maxPendingOps", Integer.valueOf(element.getAttribute("max-pending-ops")));
+        }
+
+        final AbstractBeanDefinition definition = builder.getBeanDefinition();
+        definition.setSource(parserContext.extractSource(element));
+        return definition;
+    }
+}
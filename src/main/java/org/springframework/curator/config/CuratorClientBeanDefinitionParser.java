@@ -17,16 +17,24 @@ package org.springframework.curator.config;
 
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.ManagedList;
 import org.springframework.beans.factory.xml.AbstractBeanDefinitionParser;
 import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.curator.executor.CuratorExecutorFactoryBean;
+import org.springframework.curator.factory.CuratorClientSpec;
 import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.curator.throttle.OperationClass;
+import org.springframework.curator.throttle.OperationScheduler;
 import org.springframework.util.StringUtils;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
 /**
  * Handles the parsing of the Apache Curator client configuration element from
- * the Spring application context.
+ * the Spring application context.  The retry policy, timeouts, read-only mode and
+ * compression of the client are compiled into a validated {@link CuratorClientSpec}
+ * while the element is parsed, so that an invalid configuration is reported when
+ * the context is loaded.
  *
  * @author Jonathan Pearlin
  * @since 1.0.0
@@ -35,11 +43,33 @@ public class CuratorClientBeanDefinitionParser extends AbstractBeanDefinitionPar
 
     @Override
     protected AbstractBeanDefinition parseInternal(final Element element, final ParserContext parserContext) {
-        final BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(CuratorFrameworkFactoryBean.class);
+        final BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(getFactoryBeanClass());
         setConfiguration(builder, element);
         return getBeanDefinition(builder, element, parserContext);
     }
 
+    /**
+     * Returns the {@link org.springframework.beans.factory.FactoryBean} class used to
+     * create the client described by the element.
+     * @return The factory bean class.
+     */
+    protected Class<? extends CuratorFrameworkFactoryBean> getFactoryBeanClass() {
+        return CuratorFrameworkFactoryBean.class;
+    }
+
+    /**
+     * Returns the value of the attribute as an {@link Integer}.
+     * @param value The attribute value.
+     * @return The {@link Integer} value or {@code null} if the attribute is not set.
+     */
+    protected Integer getSafeInteger(final String value) {
+        if(StringUtils.hasText(value)) {
+            return Integer.valueOf(value);
+        }
+
+        return null;
+    }
+
     private void setConfiguration(final BeanDefinitionBuilder builder, final Element element) {
         if(StringUtils.hasText(element.getAttribute("acl-provider-ref"))) {
             builder.addPropertyReference("aclProvider", element.getAttribute("acl-provider-ref"));
@@ -57,18 +87,42 @@ public class CuratorClientBeanDefinitionParser extends AbstractBeanDefinitionPar
             builder.addPropertyReference("threadFactory", element.getAttribute("thread-factory-ref"));
         }
 
+        if(StringUtils.hasText(element.getAttribute("registry-ref"))) {
+            builder.addPropertyReference("registry", element.getAttribute("registry-ref"));
+        }
+
         if(StringUtils.hasText(element.getAttribute("zookeeper-factory-ref"))) {
             builder.addPropertyReference("zookeeperFactory", element.getAttribute("zookeeper-factory-ref"));
         }
 
-        builder.addPropertyValue("canBeReadOnly", Boolean.valueOf(element.getAttribute("read-only")));
+        if(StringUtils.hasText(element.getAttribute("startup-mode"))) {
+            builder.addPropertyValue("startupMode", element.getAttribute("startup-mode"));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("cache-client"))) {
+            builder.addPropertyValue("cacheClient", Boolean.valueOf(element.getAttribute("cache-client")));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("coalesce-reads"))) {
+            builder.addPropertyValue("coalesceReads", Boolean.valueOf(element.getAttribute("coalesce-reads")));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("connect-wait-ms"))) {
+            builder.addPropertyValue("connectWaitMs", getSafeInteger(element.getAttribute("connect-wait-ms")));
+        }
+
         builder.addPropertyValue("connectionString", element.getAttribute("connection-string"));
-        builder.addPropertyValue("connectionTimeout", getSafeInteger(element.getAttribute("connection-timeout")));
         builder.addPropertyValue("defaultData", element.getAttribute("default-data"));
         builder.addPropertyValue("namespace", element.getAttribute("namespace"));
-        builder.addPropertyValue("sessionTimeout", getSafeInteger(element.getAttribute("session-timeout")));
-        addAuthorization(builder, element);
-        addRetryPolicy(builder, element);
+
+        final CuratorClientSpec.Builder specBuilder = CuratorClientSpec.builder()
+            .canBeReadOnly(Boolean.valueOf(element.getAttribute("read-only")))
+            .connectionTimeout(getSafeInteger(element.getAttribute("connection-timeout")))
+            .sessionTimeout(getSafeInteger(element.getAttribute("session-timeout")))
+            .compression(element.getAttribute("compression"))
+            .compressionThreshold(getSafeInteger(element.getAttribute("compression-threshold")));
+        addChildElements(builder, specBuilder, element);
+        builder.addPropertyValue("spec", specBuilder.build());
     }
 
     private AbstractBeanDefinition getBeanDefinition(final BeanDefinitionBuilder builder, final Element source, final ParserContext context) {
@@ -77,63 +131,170 @@ public class CuratorClientBeanDefinitionParser extends AbstractBeanDefinitionPar
         return definition;
     }
 
-    private void addAuthorization(final BeanDefinitionBuilder builder, final Element element) {
-	    for (int i = 0; i < element.getChildNodes().getLength(); i++) {
-            if (element.getChildNodes().item(i) instanceof Element) {
-                final Element potentialAuthorizationElement = (Element) element.getChildNodes().item(i);
+    private void addChildElements(final BeanDefinitionBuilder builder, final CuratorClientSpec.Builder specBuilder, final Element element) {
+        // The child elements are visited in a single pass over the DOM.
+        final NodeList childNodes = element.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            if (childNodes.item(i) instanceof Element) {
+                final Element childElement = (Element) childNodes.item(i);
+                final String childName = normalizeName(childElement.getNodeName());
 
-                if (potentialAuthorizationElement.getNodeName().endsWith("authorization")) {
-                    builder.addPropertyValue("auth", potentialAuthorizationElement.getAttribute("credentials"));
-                    builder.addPropertyValue("scheme", potentialAuthorizationElement.getAttribute("scheme"));
-                 }
-             }
+                if ("authorization".equals(childName)) {
+                    addAuthorization(builder, childElement);
+                } else if ("executors".equals(childName)) {
+                    addExecutors(builder, childElement, element.getAttribute("id"));
+                } else if ("health".equals(childName)) {
+                    addHealth(builder, childElement);
+                } else if ("metrics".equals(childName)) {
+                    addMetrics(builder, childElement);
+                } else if ("retry-policy".equals(childName)) {
+                    addRetryPolicy(builder, specBuilder, childElement);
+                } else if ("throttle".equals(childName)) {
+                    addThrottle(builder, childElement);
+                }
+            }
         }
     }
 
-    private void addRetryPolicy(final BeanDefinitionBuilder builder, final Element element) {
-        for (int i = 0; i < element.getChildNodes().getLength(); i++) {
-            if (element.getChildNodes().item(i) instanceof Element) {
-                final Element potentialRetryPolicyElement = (Element) element.getChildNodes().item(i);
+    private void addAuthorization(final BeanDefinitionBuilder builder, final Element authorizationElement) {
+        builder.addPropertyValue("auth", authorizationElement.getAttribute("credentials"));
+        builder.addPropertyValue("scheme", authorizationElement.getAttribute("scheme"));
+    }
 
-                if (potentialRetryPolicyElement.getNodeName().endsWith("retry-policy")) {
-                    for(int j=0; j<potentialRetryPolicyElement.getChildNodes().getLength(); j++) {
-                        if (potentialRetryPolicyElement.getChildNodes().item(j) instanceof Element) {
-                            final Element retryPolicyChildElement = (Element) potentialRetryPolicyElement.getChildNodes().item(j);
+    private void addExecutors(final BeanDefinitionBuilder builder, final Element executorsElement, final String clientId) {
+        final NodeList childNodes = executorsElement.getChildNodes();
+        for(int i = 0; i < childNodes.getLength(); i++) {
+            if (childNodes.item(i) instanceof Element) {
+                final Element executorElement = (Element) childNodes.item(i);
+                final String executorName = normalizeName(executorElement.getNodeName());
 
-                            builder.addPropertyValue("retryPolicyType", normalizeName(retryPolicyChildElement.getNodeName()));
+                if("background".equals(executorName)) {
+                    addExecutor(builder, "backgroundExecutor", executorElement, clientId);
+                } else if("connection-state".equals(executorName)) {
+                    addExecutor(builder, "connectionStateExecutor", executorElement, clientId);
+                } else if("events".equals(executorName)) {
+                    addExecutor(builder, "eventExecutor", executorElement, clientId);
+                }
+            }
+        }
+    }
 
-                            if(StringUtils.hasText(retryPolicyChildElement.getAttribute("max-retries"))) {
-                                builder.addPropertyValue("retryPolicyMaxRetries", Integer.parseInt(retryPolicyChildElement.getAttribute("max-retries")));
-                            }
+    private void addExecutor(final BeanDefinitionBuilder builder, final String propertyName, final Element executorElement, final String clientId) {
+        if(StringUtils.hasText(executorElement.getAttribute("executor-ref"))) {
+            builder.addPropertyReference(propertyName, executorElement.getAttribute("executor-ref"));
+            return;
+        }
+
+        final BeanDefinitionBuilder executorBuilder = BeanDefinitionBuilder.rootBeanDefinition(CuratorExecutorFactoryBean.class);
+        executorBuilder.addPropertyValue("threadNamePrefix", (StringUtils.hasText(clientId) ? clientId : "curator") + "-" + normalizeName(executorElement.getNodeName()));
+
+        if(StringUtils.hasText(executorElement.getAttribute("type"))) {
+            executorBuilder.addPropertyValue("type", executorElement.getAttribute("type"));
+        }
 
-                            if(StringUtils.hasText(retryPolicyChildElement.getAttribute("base-sleep-time"))) {
-                                builder.addPropertyValue("retryPolicyBaseSleepTime", Integer.parseInt(retryPolicyChildElement.getAttribute("base-sleep-time")));
-                            }
+        if(StringUtils.hasText(executorElement.getAttribute("threads"))) {
+            executorBuilder.addPropertyValue("threads", getSafeInteger(executorElement.getAttribute("threads")));
+        }
 
-                            if(StringUtils.hasText(retryPolicyChildElement.getAttribute("max-sleep-time"))) {
-                                builder.addPropertyValue("retryPolicyMaxSleepTime", Integer.parseInt(retryPolicyChildElement.getAttribute("max-sleep-time")));
-                            }
+        if(StringUtils.hasText(executorElement.getAttribute("queue-capacity"))) {
+            executorBuilder.addPropertyValue("queueCapacity", getSafeInteger(executorElement.getAttribute("queue-capacity")));
+        }
 
-                            if(StringUtils.hasText(retryPolicyChildElement.getAttribute("sleep-between-retries"))) {
-                                builder.addPropertyValue("retryPolicySleepBetweenRetries", Integer.parseInt(retryPolicyChildElement.getAttribute("sleep-between-retries")));
-                            }
+        if(StringUtils.hasText(executorElement.getAttribute("rejection-policy"))) {
+            executorBuilder.addPropertyValue("rejectionPolicy", executorElement.getAttribute("rejection-policy"));
+        }
 
-                            if(StringUtils.hasText(retryPolicyChildElement.getAttribute("max-elapsed-time"))) {
-                                builder.addPropertyValue("retryPolicyMaxElapsedTime", Integer.parseInt(retryPolicyChildElement.getAttribute("max-elapsed-time")));
-                            }
-                        }
-                    }
+        builder.addPropertyValue(propertyName, executorBuilder.getBeanDefinition());
+    }
+
+    private void addHealth(final BeanDefinitionBuilder builder, final Element healthElement) {
+        if(StringUtils.hasText(healthElement.getAttribute("probe-interval-ms"))) {
+            builder.addPropertyValue("healthProbeIntervalMs", getSafeInteger(healthElement.getAttribute("probe-interval-ms")));
+        }
+
+        if(StringUtils.hasText(healthElement.getAttribute("probe-failure-threshold"))) {
+            builder.addPropertyValue("healthProbeFailureThreshold", getSafeInteger(healthElement.getAttribute("probe-failure-threshold")));
+        }
+
+        if(StringUtils.hasText(healthElement.getAttribute("fail-fast"))) {
+            builder.addPropertyValue("failFast", Boolean.valueOf(healthElement.getAttribute("fail-fast")));
+        }
+    }
+
+    private void addMetrics(final BeanDefinitionBuilder builder, final Element metricsElement) {
+        builder.addPropertyReference("metricsRegistry", metricsElement.getAttribute("registry-ref"));
+
+        if(StringUtils.hasText(metricsElement.getAttribute("path-depth"))) {
+            builder.addPropertyValue("metricsPathDepth", getSafeInteger(metricsElement.getAttribute("path-depth")));
+        }
+    }
+
+    private void addThrottle(final BeanDefinitionBuilder builder, final Element throttleElement) {
+        if(StringUtils.hasText(throttleElement.getAttribute("scheduler-ref"))) {
+            builder.addPropertyReference("operationScheduler", throttleElement.getAttribute("scheduler-ref"));
+            return;
+        }
+
+        final BeanDefinitionBuilder schedulerBuilder = BeanDefinitionBuilder.rootBeanDefinition(OperationScheduler.class);
+        schedulerBuilder.addPropertyValue("maxOpsPerSecond", getSafeInteger(throttleElement.getAttribute("max-ops-per-second")));
+
+        if(StringUtils.hasText(throttleElement.getAttribute("burst"))) {
+            schedulerBuilder.addPropertyValue("burst", getSafeInteger(throttleElement.getAttribute("burst")));
+        }
+
+        final ManagedList<Object> operationClasses = new ManagedList<Object>();
+        final NodeList childNodes = throttleElement.getChildNodes();
+        for(int i = 0; i < childNodes.getLength(); i++) {
+            if (childNodes.item(i) instanceof Element) {
+                final Element classElement = (Element) childNodes.item(i);
+                final BeanDefinitionBuilder classBuilder = BeanDefinitionBuilder.rootBeanDefinition(OperationClass.class);
+                classBuilder.addPropertyValue("name", classElement.getAttribute("name"));
+
+                if(StringUtils.hasText(classElement.getAttribute("weight"))) {
+                    classBuilder.addPropertyValue("weight", getSafeInteger(classElement.getAttribute("weight")));
+                }
+
+                if(StringUtils.hasText(classElement.getAttribute("bypass"))) {
+                    classBuilder.addPropertyValue("bypass", Boolean.valueOf(classElement.getAttribute("bypass")));
+                }
+
+                if(StringUtils.hasText(classElement.getAttribute("path-prefixes"))) {
+                    classBuilder.addPropertyValue("pathPrefixList", classElement.getAttribute("path-prefixes"));
                 }
+
+                if(StringUtils.hasText(classElement.getAttribute("operations"))) {
+                    classBuilder.addPropertyValue("operationList", classElement.getAttribute("operations"));
+                }
+
+                operationClasses.add(classBuilder.getBeanDefinition());
             }
         }
+
+        schedulerBuilder.addPropertyValue("operationClasses", operationClasses);
+        builder.addPropertyValue("operationScheduler", schedulerBuilder.getBeanDefinition());
     }
 
-    private Integer getSafeInteger(final String value) {
-        if(StringUtils.hasText(value)) {
-            return Integer.valueOf(value);
-        }
+    private void addRetryPolicy(final BeanDefinitionBuilder builder, final CuratorClientSpec.Builder specBuilder, final Element retryPolicyElement) {
+        final NodeList childNodes = retryPolicyElement.getChildNodes();
+        for(int i = 0; i < childNodes.getLength(); i++) {
+            if (childNodes.item(i) instanceof Element) {
+                final Element retryPolicyChildElement = (Element) childNodes.item(i);
 
-        return null;
+                specBuilder.retryPolicy(normalizeName(retryPolicyChildElement.getNodeName()))
+                    .maxRetries(getSafeInteger(retryPolicyChildElement.getAttribute("max-retries")))
+                    .baseSleepTime(getSafeInteger(retryPolicyChildElement.getAttribute("base-sleep-time")))
+                    .maxSleepTime(getSafeInteger(retryPolicyChildElement.getAttribute("max-sleep-time")))
+                    .sleepBetweenRetries(getSafeInteger(retryPolicyChildElement.getAttribute("sleep-between-retries")))
+                    .maxElapsedTime(getSafeInteger(retryPolicyChildElement.getAttribute("max-elapsed-time")))
+                    .maxTokens(getSafeInteger(retryPolicyChildElement.getAttribute("max-tokens")))
+                    .tokensPerSecond(getSafeInteger(retryPolicyChildElement.getAttribute("tokens-per-second")))
+                    .openTime(getSafeInteger(retryPolicyChildElement.getAttribute("open-time")));
+
+                if(StringUtils.hasText(retryPolicyChildElement.getAttribute("retry-policy-ref"))) {
+                    builder.addPropertyReference("retryPolicy", retryPolicyChildElement.getAttribute("retry-policy-ref"));
+                }
+            }
+        }
     }
 
     private String normalizeName(final String nodeName) {
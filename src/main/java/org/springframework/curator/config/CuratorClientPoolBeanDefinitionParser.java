@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config;
+
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.curator.factory.CuratorFrameworkPoolFactoryBean;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Handles the parsing of the Apache Curator client pool configuration element from
+ * the Spring application context.  The pool element supports all of the configuration
+ * of the client element, in addition to the size of the pool and the routing strategy.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorClientPoolBeanDefinitionParser extends CuratorClientBeanDefinitionParser {
+
+    @Override
+    protected AbstractBeanDefinition parseInternal(final Element element, final ParserContext parserContext) {
+        final AbstractBeanDefinition definition = super.parseInternal(element, parserContext);
+        definition.getPropertyValues().add("size", getSafeInteger(element.getAttribute("size")));
+
+        if(StringUtils.hasText(element.getAttribute("routing"))) {
+            definition.getPropertyValues().add("routing", element.getAttribute("routing"));
+        }
+
+        return definition;
+    }
+
+    @Override
+    protected Class<? extends CuratorFrameworkFactoryBean> getFactoryBeanClass() {
+        return CuratorFrameworkPoolFactoryBean.class;
+    }
+}
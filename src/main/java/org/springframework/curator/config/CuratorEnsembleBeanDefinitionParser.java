@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config;
+
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.xml.AbstractBeanDefinitionParser;
+import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.curator.ensemble.DynamicEnsembleProvider;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Handles the parsing of the dynamic ensemble configuration element from
+ * the Spring application context.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorEnsembleBeanDefinitionParser extends AbstractBeanDefinitionParser {
+
+    @Override
+    protected AbstractBeanDefinition parseInternal(final Element element, final ParserContext parserContext) {
+        final BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(DynamicEnsembleProvider.class);
+        builder.addPropertyValue("source", element.getAttribute("source"));
+
+        if(StringUtils.hasText(element.getAttribute("property"))) {
+            builder.addPropertyValue("property", element.getAttribute("property"));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("refresh-ms"))) {
+            builder.addPropertyValue("refreshMs", Integer.valueOf(element.getAttribute("refresh-ms")));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("probe-timeout-ms"))) {
+            builder.addPropertyValue("probeTimeoutMs", Integer.valueOf(element.getAttribute("probe-timeout-ms")));
+        }
+
+        final AbstractBeanDefinition definition = builder.getBeanDefinition();
+        definition.setSource(parserContext.extractSource(element));
+        return definition;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.xml.AbstractBeanDefinitionParser;
+import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.curator.leader.CuratorLeaderLatch;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Handles the parsing of the leader latch configuration element from
+ * the Spring application context.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorLeaderLatchBeanDefinitionParser extends AbstractBeanDefinitionParser {
+
+    @Override
+    protected AbstractBeanDefinition parseInternal(final Element element, final ParserContext parserContext) {
+        final BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(CuratorLeaderLatch.class);
+        builder.addPropertyReference("client", element.getAttribute("client-ref"));
+        builder.addPropertyValue("path", element.getAttribute("path"));
+
+        if(StringUtils.hasText(element.getAttribute("participant-id"))) {
+            builder.addPropertyValue("participantId", element.getAttribute("participant-id"));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("metrics-registry-ref"))) {
+            builder.addPropertyReference("metricsRegistry", element.getAttribute("metrics-registry-ref"));
+        }
+
+        addListeners(builder, element);
+
+        final AbstractBeanDefinition definition = builder.getBeanDefinition();
+        definition.setSource(parserContext.extractSource(element));
+        return definition;
+    }
+
+    private void addListeners(final BeanDefinitionBuilder builder, final Element element) {
+        final ManagedList<RuntimeBeanReference> listeners = new ManagedList<RuntimeBeanReference>();
+
+        for (int i = 0; i < element.getChildNodes().getLength(); i++) {
+            if (element.getChildNodes().item(i) instanceof Element) {
+                final Element potentialListenerElement = (Element) element.getChildNodes().item(i);
+
+                if (potentialListenerElement.getNodeName().endsWith("listener")) {
+                    listeners.add(new RuntimeBeanReference(potentialListenerElement.getAttribute("ref")));
+                }
+            }
+        }
+
+        if(!listeners.isEmpty()) {
+            builder.addPropertyValue("listeners", listeners);
+        }
+    }
+}
@@ -29,5 +29,24 @@ public class CuratorNamespaceHandler extends NamespaceHandlerSupport {
     @Override
     public void init() {
         registerBeanDefinitionParser("client", new CuratorClientBeanDefinitionParser());
+        registerBeanDefinitionParser("client-pool", new CuratorClientPoolBeanDefinitionParser());
+        registerBeanDefinitionParser("client-registry", new CuratorClientRegistryBeanDefinitionParser());
+        registerBeanDefinitionParser("cache", new CuratorCacheBeanDefinitionParser());
+        registerBeanDefinitionParser("batch-writer", new CuratorBatchWriterBeanDefinitionParser());
+        registerBeanDefinitionParser("ensemble", new CuratorEnsembleBeanDefinitionParser());
+        registerBeanDefinitionParser("async-client", new CuratorAsyncClientBeanDefinitionParser());
+        registerBeanDefinitionParser("lock", new CuratorLockBeanDefinitionParser());
+        registerBeanDefinitionParser("semaphore", new CuratorSemaphoreBeanDefinitionParser());
+        registerBeanDefinitionParser("leader-latch", new CuratorLeaderLatchBeanDefinitionParser());
+        registerBeanDefinitionParser("annotation-driven", new CuratorAnnotationDrivenBeanDefinitionParser());
+        registerBeanDefinitionParser("counter", new CuratorCounterBeanDefinitionParser());
+        registerBeanDefinitionParser("rate-limiter", new CuratorRateLimiterBeanDefinitionParser());
+        registerBeanDefinitionParser("property-source", new CuratorPropertySourceBeanDefinitionParser());
+        registerBeanDefinitionParser("template", new CuratorTemplateBeanDefinitionParser());
+        registerBeanDefinitionParser("tree-transfer", new CuratorTreeTransferBeanDefinitionParser());
+        registerBeanDefinitionParser("service-registration", new CuratorServiceRegistrationBeanDefinitionParser());
+        registerBeanDefinitionParser("service-discovery", new CuratorServiceDiscoveryBeanDefinitionParser());
+        registerBeanDefinitionParser("health-indicator", new CuratorHealthIndicatorBeanDefinitionParser());
+        registerBeanDefinitionParser("watch-multiplexer", new CuratorWatchMultiplexerBeanDefinitionParser());
     }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config;
+
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.xml.AbstractBeanDefinitionParser;
+import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.curator.discovery.CuratorServiceRegistration;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Handles the parsing of the service registration configuration element
+ * from the Spring application context.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorServiceRegistrationBeanDefinitionParser extends AbstractBeanDefinitionParser {
+
+    @Override
+    protected AbstractBeanDefinition parseInternal(final Element element, final ParserContext parserContext) {
+        final BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(CuratorServiceRegistration.class);
+        builder.addPropertyReference("client", element.getAttribute("client-ref"));
+        builder.addPropertyValue("name", element.getAttribute("name"));
+
+        if(StringUtils.hasText(element.getAttribute("base-path"))) {
+            builder.addPropertyValue("basePath", element.getAttribute("base-path"));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("instance-id"))) {
+            builder.addPropertyValue("instanceId", element.getAttribute("instance-id"));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("address"))) {
+            builder.addPropertyValue("address", element.getAttribute("address"));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("port"))) {
+            builder.addPropertyValue("port", Integer.valueOf(element.getAttribute("port")));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("zone"))) {
+            builder.addPropertyValue("zone", element.getAttribute("zone"));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("load-provider-ref"))) {
+            builder.addPropertyReference("loadProvider", element.getAttribute("load-provider-ref"));
+        }
+
+        if(StringUtils.hasText(element.getAttribute("heartbeat-ms"))) {
+            builder.addPropertyValue("heartbeatMs", Integer.valueOf(element.getAttribute("heartbeat-ms")));
+        }
+
+        final AbstractBeanDefinition definition = builder.getBeanDefinition();
+        definition.setSource(parserContext.extractSource(element));
+        return definition;
+    }
+}
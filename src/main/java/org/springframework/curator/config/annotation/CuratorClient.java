@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an Apache Curator client within {@link EnableCurator}.  The attributes mirror
+ * those of {@code <curator:client>}.  Numeric attributes are left unset by a negative
+ * value and the other attributes by an empty string, in which case the defaults of
+ * {@link org.springframework.curator.factory.CuratorFrameworkFactoryBean} apply.  String
+ * attributes may contain <code>${...}</code> placeholders, which are resolved against the
+ * environment.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CuratorClient {
+
+    /**
+     * The name of the client bean.
+     */
+    String name();
+
+    String connectionString() default "";
+
+    int connectionTimeout() default -1;
+
+    int sessionTimeout() default -1;
+
+    String namespace() default "";
+
+    boolean readOnly() default false;
+
+    String defaultData() default "";
+
+    /**
+     * One of {@code eager}, {@code lazy} or {@code async}.
+     */
+    String startupMode() default "";
+
+    int connectWaitMs() default -1;
+
+    /**
+     * One of {@code none}, {@code gzip}, {@code lz4} or {@code zstd}.
+     */
+    String compression() default "";
+
+    int compressionThreshold() default -1;
+
+    String authorizationScheme() default "";
+
+    String authorizationCredentials() default "";
+
+    /**
+     * The type of the retry policy, named as the child elements of
+     * {@code <curator:retry-policy>} (for example {@code exponential-backoff}).
+     */
+    String retryPolicy() default "";
+
+    int retryMaxRetries() default -1;
+
+    int retryBaseSleepTime() default -1;
+
+    int retryMaxSleepTime() default -1;
+
+    int retrySleepBetweenRetries() default -1;
+
+    int retryMaxElapsedTime() default -1;
+
+    int retryMaxTokens() default -1;
+
+    int retryTokensPerSecond() default -1;
+
+    int retryOpenTime() default -1;
+
+    String retryPolicyRef() default "";
+
+    String aclProviderRef() default "";
+
+    String compressionProviderRef() default "";
+
+    String ensembleProviderRef() default "";
+
+    String threadFactoryRef() default "";
+
+    String zookeeperFactoryRef() default "";
+
+    String backgroundExecutorRef() default "";
+
+    String connectionStateExecutorRef() default "";
+
+    String eventExecutorRef() default "";
+
+    String metricsRegistryRef() default "";
+
+    int metricsPathDepth() default -1;
+
+    /**
+     * Name of the {@link org.springframework.curator.factory.CuratorClientRegistry} bean
+     * through which the session is shared with other clients.
+     */
+    String registryRef() default "";
+
+    int healthProbeIntervalMs() default -1;
+
+    int healthProbeFailureThreshold() default -1;
+
+    /**
+     * Whether operations are rejected at once while the connection is suspended or the
+     * session is lost (see {@link org.springframework.curator.health.CuratorHealthMonitor}).
+     */
+    boolean failFast() default false;
+
+    /**
+     * Whether concurrent, identical reads share a single request to ZooKeeper.
+     */
+    boolean coalesceReads() default false;
+
+    /**
+     * Whether the started client is shared with other clients configured with the same settings.
+     */
+    boolean cacheClient() default false;
+
+    /**
+     * Name of the {@link org.springframework.curator.throttle.OperationScheduler} bean that
+     * admits the operations of the client.
+     */
+    String throttleRef() default "";
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config.annotation;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.curator.lock.CuratorLockedAnnotationBeanPostProcessor;
+import org.springframework.util.StringUtils;
+
+/**
+ * Registers the clients declared by {@link EnableCurator} as bean definitions.  The
+ * definitions are built directly from the annotation attributes and the
+ * {@link CuratorProperties} bound from the environment, so no XML is read or parsed.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorClientRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+
+    /**
+     * The name of the bean that processes {@link org.springframework.curator.lock.CuratorLocked}.
+     */
+    public static final String LOCKED_ANNOTATION_PROCESSOR_BEAN_NAME = "org.springframework.curator.config.annotation.internalCuratorLockedAnnotationProcessor";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(final Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void registerBeanDefinitions(final AnnotationMetadata importingClassMetadata, final BeanDefinitionRegistry registry) {
+        final AnnotationAttributes attributes = AnnotationAttributes.fromMap(importingClassMetadata.getAnnotationAttributes(EnableCurator.class.getName()));
+        final List<CuratorProperties> clients = new ArrayList<CuratorProperties>();
+        for(final Object client : (Object[])attributes.get("value")) {
+            clients.add(fromAnnotation(client instanceof Annotation ?
+                    AnnotationUtils.getAnnotationAttributes((Annotation)client, false, true) : (AnnotationAttributes)client));
+        }
+        clients.addAll(CuratorProperties.bind(environment, attributes.getString("prefix")));
+
+        final Set<String> names = new HashSet<String>();
+        for(final CuratorProperties client : clients) {
+            if(!StringUtils.hasText(client.getName()) || !names.add(client.getName())) {
+                throw new IllegalArgumentException("[Assertion failed] each client must have a unique name, but found '" + client.getName() + "'.");
+            }
+
+            final AbstractBeanDefinition definition = client.toBeanDefinition();
+            definition.setSource(importingClassMetadata.getClassName());
+            registry.registerBeanDefinition(client.getName(), definition);
+        }
+
+        if(!registry.containsBeanDefinition(LOCKED_ANNOTATION_PROCESSOR_BEAN_NAME)) {
+            final BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(CuratorLockedAnnotationBeanPostProcessor.class);
+            builder.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+            builder.addPropertyValue("proxyTargetClass", attributes.getBoolean("proxyTargetClass"));
+            registry.registerBeanDefinition(LOCKED_ANNOTATION_PROCESSOR_BEAN_NAME, builder.getBeanDefinition());
+        }
+    }
+
+    /**
+     * Converts the attributes of a {@link CuratorClient} annotation to settings, resolving
+     * placeholders in string attributes and skipping unset attributes.
+     * @param client The annotation attributes.
+     * @return The client settings.
+     */
+    protected CuratorProperties fromAnnotation(final AnnotationAttributes client) {
+        final CuratorProperties properties = new CuratorProperties();
+        properties.setName(resolve(client, "name"));
+        properties.setConnectionString(resolve(client, "connectionString"));
+        properties.setNamespace(resolve(client, "namespace"));
+        properties.setDefaultData(resolve(client, "defaultData"));
+        properties.setStartupMode(resolve(client, "startupMode"));
+        properties.setCompression(resolve(client, "compression"));
+        properties.setAuthorizationScheme(resolve(client, "authorizationScheme"));
+        properties.setAuthorizationCredentials(resolve(client, "authorizationCredentials"));
+        properties.setRetryPolicy(resolve(client, "retryPolicy"));
+        properties.setRetryPolicyRef(resolve(client, "retryPolicyRef"));
+        properties.setAclProviderRef(resolve(client, "aclProviderRef"));
+        properties.setCompressionProviderRef(resolve(client, "compressionProviderRef"));
+        properties.setEnsembleProviderRef(resolve(client, "ensembleProviderRef"));
+        properties.setThreadFactoryRef(resolve(client, "threadFactoryRef"));
+        properties.setZookeeperFactoryRef(resolve(client, "zookeeperFactoryRef"));
+        properties.setBackgroundExecutorRef(resolve(client, "backgroundExecutorRef"));
+        properties.setConnectionStateExecutorRef(resolve(client, "connectionStateExecutorRef"));
+        properties.setEventExecutorRef(resolve(client, "eventExecutorRef"));
+        properties.setMetricsRegistryRef(resolve(client, "metricsRegistryRef"));
+        properties.setRegistryRef(resolve(client, "registryRef"));
+        properties.setThrottleRef(resolve(client, "throttleRef"));
+        properties.setReadOnly(client.getBoolean("readOnly"));
+        properties.setFailFast(client.getBoolean("failFast"));
+        properties.setCoalesceReads(client.getBoolean("coalesceReads"));
+        properties.setCacheClient(client.getBoolean("cacheClient"));
+        properties.setConnectionTimeout(getSafeInteger(client, "connectionTimeout"));
+        properties.setSessionTimeout(getSafeInteger(client, "sessionTimeout"));
+        properties.setConnectWaitMs(getSafeInteger(client, "connectWaitMs"));
+        properties.setCompressionThreshold(getSafeInteger(client, "compressionThreshold"));
+        properties.setRetryMaxRetries(getSafeInteger(client, "retryMaxRetries"));
+        properties.setRetryBaseSleepTime(getSafeInteger(client, "retryBaseSleepTime"));
+        properties.setRetryMaxSleepTime(getSafeInteger(client, "retryMaxSleepTime"));
+        properties.setRetrySleepBetweenRetries(getSafeInteger(client, "retrySleepBetweenRetries"));
+        properties.setRetryMaxElapsedTime(getSafeInteger(client, "retryMaxElapsedTime"));
+        properties.setRetryMaxTokens(getSafeInteger(client, "retryMaxTokens"));
+        properties.setRetryTokensPerSecond(getSafeInteger(client, "retryTokensPerSecond"));
+        properties.setRetryOpenTime(getSafeInteger(client, "retryOpenTime"));
+        properties.setMetricsPathDepth(getSafeInteger(client, "metricsPathDepth"));
+        properties.setHealthProbeIntervalMs(getSafeInteger(client, "healthProbeIntervalMs"));
+        properties.setHealthProbeFailureThreshold(getSafeInteger(client, "healthProbeFailureThreshold"));
+        return properties;
+    }
+
+    private String resolve(final AnnotationAttributes client, final String attributeName) {
+        final String value = client.getString(attributeName);
+        if(StringUtils.hasText(value)) {
+            return environment.resolveRequiredPlaceholders(value);
+        }
+
+        return null;
+    }
+
+    private Integer getSafeInteger(final AnnotationAttributes client, final String attributeName) {
+        final int value = client.getNumber(attributeName).intValue();
+        return value < 0 ? null : value;
+    }
+}
@@ -0,0 +1,680 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config.annotation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.curator.factory.CuratorRetryPolicy;
+import org.springframework.util.StringUtils;
+
+/**
+ * Settings of an Apache Curator client, with the same meaning as the attributes of
+ * {@code <curator:client>}, that are turned into a
+ * {@link CuratorFrameworkFactoryBean} definition without parsing any XML.  Unset
+ * ({@code null}) settings are not applied, so the defaults of the factory bean remain in
+ * effect.
+ *
+ * <p>Instances are created from {@link CuratorClient} annotations or bound from the
+ * environment by {@link #bind(Environment, String)}.  The latter reads the names of the
+ * clients from the comma-separated {@code <prefix>.clients} property and the settings of
+ * each client from {@code <prefix>.<name>.<key>}, where the keys are:
+ * <ul>
+ *   <li>{@code acl-provider-ref}</li>
+ *   <li>{@code authorization.credentials}</li>
+ *   <li>{@code authorization.scheme}</li>
+ *   <li>{@code cache-client}</li>
+ *   <li>{@code coalesce-reads}</li>
+ *   <li>{@code compression}</li>
+ *   <li>{@code compression-provider-ref}</li>
+ *   <li>{@code compression-threshold}</li>
+ *   <li>{@code connect-wait-ms}</li>
+ *   <li>{@code connection-string}</li>
+ *   <li>{@code connection-timeout}</li>
+ *   <li>{@code default-data}</li>
+ *   <li>{@code ensemble-provider-ref}</li>
+ *   <li>{@code executors.background-ref}</li>
+ *   <li>{@code executors.connection-state-ref}</li>
+ *   <li>{@code executors.events-ref}</li>
+ *   <li>{@code health.fail-fast}</li>
+ *   <li>{@code health.probe-failure-threshold}</li>
+ *   <li>{@code health.probe-interval-ms}</li>
+ *   <li>{@code metrics.path-depth}</li>
+ *   <li>{@code metrics.registry-ref}</li>
+ *   <li>{@code namespace}</li>
+ *   <li>{@code read-only}</li>
+ *   <li>{@code retry-policy.base-sleep-time}</li>
+ *   <li>{@code retry-policy.max-elapsed-time}</li>
+ *   <li>{@code retry-policy.max-retries}</li>
+ *   <li>{@code retry-policy.max-sleep-time}</li>
+ *   <li>{@code retry-policy.max-tokens}</li>
+ *   <li>{@code retry-policy.open-time}</li>
+ *   <li>{@code retry-policy.ref}</li>
+ *   <li>{@code retry-policy.sleep-between-retries}</li>
+ *   <li>{@code retry-policy.tokens-per-second}</li>
+ *   <li>{@code retry-policy.type}</li>
+ *   <li>{@code session-timeout}</li>
+ *   <li>{@code startup-mode}</li>
+ *   <li>{@code thread-factory-ref}</li>
+ *   <li>{@code throttle-ref}</li>
+ *   <li>{@code zookeeper-factory-ref}</li>
+ * </ul>
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorProperties {
+
+    public static final String DEFAULT_PREFIX = "curator";
+
+    private Boolean cacheClient;
+    private Boolean coalesceReads;
+    private Boolean failFast;
+    private Boolean readOnly;
+    private Integer compressionThreshold;
+    private Integer connectWaitMs;
+    private Integer connectionTimeout;
+    private Integer healthProbeFailureThreshold;
+    private Integer healthProbeIntervalMs;
+    private Integer metricsPathDepth;
+    private Integer retryBaseSleepTime;
+    private Integer retryMaxElapsedTime;
+    private Integer retryMaxRetries;
+    private Integer retryMaxSleepTime;
+    private Integer retryMaxTokens;
+    private Integer retryOpenTime;
+    private Integer retrySleepBetweenRetries;
+    private Integer retryTokensPerSecond;
+    private Integer sessionTimeout;
+    private String aclProviderRef;
+    private String authorizationCredentials;
+    private String authorizationScheme;
+    private String backgroundExecutorRef;
+    private String compression;
+    private String compressionProviderRef;
+    private String connectionStateExecutorRef;
+    private String connectionString;
+    private String defaultData;
+    private String ensembleProviderRef;
+    private String eventExecutorRef;
+    private String metricsRegistryRef;
+    private String name;
+    private String namespace;
+    private String registryRef;
+    private String retryPolicy;
+    private String retryPolicyRef;
+    private String startupMode;
+    private String threadFactoryRef;
+    private String throttleRef;
+    private String zookeeperFactoryRef;
+
+    /**
+     * Binds the settings of the clients listed by the {@code <prefix>.clients} property.
+     * Values are converted by the conversion service of the environment, so placeholders
+     * are resolved and malformed numbers are reported with the offending key.
+     * @param environment The environment from which the settings are read.
+     * @param prefix The prefix of the property keys.
+     * @return The settings of each listed client, in the order in which they are listed.
+     */
+    public static List<CuratorProperties> bind(final Environment environment, final String prefix) {
+        final List<CuratorProperties> clients = new ArrayList<CuratorProperties>();
+        for(final String name : StringUtils.commaDelimitedListToStringArray(environment.getProperty(prefix + ".clients", ""))) {
+            if(StringUtils.hasText(name)) {
+                clients.add(bind(environment, prefix, name.trim()));
+            }
+        }
+        return clients;
+    }
+
+    private static CuratorProperties bind(final Environment environment, final String prefix, final String name) {
+        final String keyPrefix = prefix + "." + name + ".";
+        final CuratorProperties properties = new CuratorProperties();
+        properties.setName(name);
+        properties.setConnectionTimeout(environment.getProperty(keyPrefix + "connection-timeout", Integer.class));
+        properties.setSessionTimeout(environment.getProperty(keyPrefix + "session-timeout", Integer.class));
+        properties.setConnectWaitMs(environment.getProperty(keyPrefix + "connect-wait-ms", Integer.class));
+        properties.setCompressionThreshold(environment.getProperty(keyPrefix + "compression-threshold", Integer.class));
+        properties.setRetryMaxRetries(environment.getProperty(keyPrefix + "retry-policy.max-retries", Integer.class));
+        properties.setRetryBaseSleepTime(environment.getProperty(keyPrefix + "retry-policy.base-sleep-time", Integer.class));
+        properties.setRetryMaxSleepTime(environment.getProperty(keyPrefix + "retry-policy.max-sleep-time", Integer.class));
+        properties.setRetrySleepBetweenRetries(environment.getProperty(keyPrefix + "retry-policy.sleep-between-retries", Integer.class));
+        properties.setRetryMaxElapsedTime(environment.getProperty(keyPrefix + "retry-policy.max-elapsed-time", Integer.class));
+        properties.setRetryMaxTokens(environment.getProperty(keyPrefix + "retry-policy.max-tokens", Integer.class));
+        properties.setRetryTokensPerSecond(environment.getProperty(keyPrefix + "retry-policy.tokens-per-second", Integer.class));
+        properties.setRetryOpenTime(environment.getProperty(keyPrefix + "retry-policy.open-time", Integer.class));
+        properties.setMetricsPathDepth(environment.getProperty(keyPrefix + "metrics.path-depth", Integer.class));
+        properties.setHealthProbeIntervalMs(environment.getProperty(keyPrefix + "health.probe-interval-ms", Integer.class));
+        properties.setHealthProbeFailureThreshold(environment.getProperty(keyPrefix + "health.probe-failure-threshold", Integer.class));
+        properties.setFailFast(environment.getProperty(keyPrefix + "health.fail-fast", Boolean.class));
+        properties.setReadOnly(environment.getProperty(keyPrefix + "read-only", Boolean.class));
+        properties.setCoalesceReads(environment.getProperty(keyPrefix + "coalesce-reads", Boolean.class));
+        properties.setCacheClient(environment.getProperty(keyPrefix + "cache-client", Boolean.class));
+        properties.setConnectionString(environment.getProperty(keyPrefix + "connection-string"));
+        properties.setNamespace(environment.getProperty(keyPrefix + "namespace"));
+        properties.setDefaultData(environment.getProperty(keyPrefix + "default-data"));
+        properties.setStartupMode(environment.getProperty(keyPrefix + "startup-mode"));
+        properties.setCompression(environment.getProperty(keyPrefix + "compression"));
+        properties.setAuthorizationScheme(environment.getProperty(keyPrefix + "authorization.scheme"));
+        properties.setAuthorizationCredentials(environment.getProperty(keyPrefix + "authorization.credentials"));
+        properties.setRetryPolicy(environment.getProperty(keyPrefix + "retry-policy.type"));
+        properties.setRetryPolicyRef(environment.getProperty(keyPrefix + "retry-policy.ref"));
+        properties.setAclProviderRef(environment.getProperty(keyPrefix + "acl-provider-ref"));
+        properties.setCompressionProviderRef(environment.getProperty(keyPrefix + "compression-provider-ref"));
+        properties.setEnsembleProviderRef(environment.getProperty(keyPrefix + "ensemble-provider-ref"));
+        properties.setThreadFactoryRef(environment.getProperty(keyPrefix + "thread-factory-ref"));
+        properties.setZookeeperFactoryRef(environment.getProperty(keyPrefix + "zookeeper-factory-ref"));
+        properties.setBackgroundExecutorRef(environment.getProperty(keyPrefix + "executors.background-ref"));
+        properties.setConnectionStateExecutorRef(environment.getProperty(keyPrefix + "executors.connection-state-ref"));
+        properties.setEventExecutorRef(environment.getProperty(keyPrefix + "executors.events-ref"));
+        properties.setMetricsRegistryRef(environment.getProperty(keyPrefix + "metrics.registry-ref"));
+        properties.setRegistryRef(environment.getProperty(keyPrefix + "registry-ref"));
+        properties.setThrottleRef(environment.getProperty(keyPrefix + "throttle-ref"));
+        return properties;
+    }
+
+    /**
+     * Creates the definition of the {@link CuratorFrameworkFactoryBean} described by these
+     * settings.
+     * @return The bean definition.
+     */
+    public AbstractBeanDefinition toBeanDefinition() {
+        final BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(CuratorFrameworkFactoryBean.class);
+
+        if(StringUtils.hasText(connectionString)) {
+            builder.addPropertyValue("connectionString", connectionString);
+        }
+
+        if(StringUtils.hasText(namespace)) {
+            builder.addPropertyValue("namespace", namespace);
+        }
+
+        if(StringUtils.hasText(defaultData)) {
+            builder.addPropertyValue("defaultData", defaultData);
+        }
+
+        if(StringUtils.hasText(startupMode)) {
+            builder.addPropertyValue("startupMode", startupMode);
+        }
+
+        if(StringUtils.hasText(compression)) {
+            builder.addPropertyValue("compression", compression);
+        }
+
+        if(StringUtils.hasText(authorizationScheme)) {
+            builder.addPropertyValue("scheme", authorizationScheme);
+        }
+
+        if(StringUtils.hasText(authorizationCredentials)) {
+            builder.addPropertyValue("auth", authorizationCredentials);
+        }
+
+        if(StringUtils.hasText(retryPolicy)) {
+            builder.addPropertyValue("retryPolicyType", retryPolicy);
+        } else if(StringUtils.hasText(retryPolicyRef)) {
+            builder.addPropertyValue("retryPolicyType", CuratorRetryPolicy.CUSTOM.toString());
+        }
+
+        if(readOnly != null) {
+            builder.addPropertyValue("canBeReadOnly", readOnly);
+        }
+
+        if(connectionTimeout != null) {
+            builder.addPropertyValue("connectionTimeout", connectionTimeout);
+        }
+
+        if(sessionTimeout != null) {
+            builder.addPropertyValue("sessionTimeout", sessionTimeout);
+        }
+
+        if(connectWaitMs != null) {
+            builder.addPropertyValue("connectWaitMs", connectWaitMs);
+        }
+
+        if(compressionThreshold != null) {
+            builder.addPropertyValue("compressionThreshold", compressionThreshold);
+        }
+
+        if(retryMaxRetries != null) {
+            builder.addPropertyValue("retryPolicyMaxRetries", retryMaxRetries);
+        }
+
+        if(retryBaseSleepTime != null) {
+            builder.addPropertyValue("retryPolicyBaseSleepTime", retryBaseSleepTime);
+        }
+
+        if(retryMaxSleepTime != null) {
+            builder.addPropertyValue("retryPolicyMaxSleepTime", retryMaxSleepTime);
+        }
+
+        if(retrySleepBetweenRetries != null) {
+            builder.addPropertyValue("retryPolicySleepBetweenRetries", retrySleepBetweenRetries);
+        }
+
+        if(retryMaxElapsedTime != null) {
+            builder.addPropertyValue("retryPolicyMaxElapsedTime", retryMaxElapsedTime);
+        }
+
+        if(retryMaxTokens != null) {
+            builder.addPropertyValue("retryPolicyMaxTokens", retryMaxTokens);
+        }
+
+        if(retryTokensPerSecond != null) {
+            builder.addPropertyValue("retryPolicyTokensPerSecond", retryTokensPerSecond);
+        }
+
+        if(retryOpenTime != null) {
+            builder.addPropertyValue("retryPolicyOpenTime", retryOpenTime);
+        }
+
+        if(metricsPathDepth != null) {
+            builder.addPropertyValue("metricsPathDepth", metricsPathDepth);
+        }
+
+        if(healthProbeIntervalMs != null) {
+            builder.addPropertyValue("healthProbeIntervalMs", healthProbeIntervalMs);
+        }
+
+        if(healthProbeFailureThreshold != null) {
+            builder.addPropertyValue("healthProbeFailureThreshold", healthProbeFailureThreshold);
+        }
+
+        if(failFast != null) {
+            builder.addPropertyValue("failFast", failFast);
+        }
+
+        if(coalesceReads != null) {
+            builder.addPropertyValue("coalesceReads", coalesceReads);
+        }
+
+        if(cacheClient != null) {
+            builder.addPropertyValue("cacheClient", cacheClient);
+        }
+
+        if(StringUtils.hasText(retryPolicyRef)) {
+            builder.addPropertyReference("retryPolicy", retryPolicyRef);
+        }
+
+        if(StringUtils.hasText(aclProviderRef)) {
+            builder.addPropertyReference("aclProvider", aclProviderRef);
+        }
+
+        if(StringUtils.hasText(compressionProviderRef)) {
+            builder.addPropertyReference("compressionProvider", compressionProviderRef);
+        }
+
+        if(StringUtils.hasText(ensembleProviderRef)) {
+            builder.addPropertyReference("ensembleProvider", ensembleProviderRef);
+        }
+
+        if(StringUtils.hasText(threadFactoryRef)) {
+            builder.addPropertyReference("threadFactory", threadFactoryRef);
+        }
+
+        if(StringUtils.hasText(zookeeperFactoryRef)) {
+            builder.addPropertyReference("zookeeperFactory", zookeeperFactoryRef);
+        }
+
+        if(StringUtils.hasText(backgroundExecutorRef)) {
+            builder.addPropertyReference("backgroundExecutor", backgroundExecutorRef);
+        }
+
+        if(StringUtils.hasText(connectionStateExecutorRef)) {
+            builder.addPropertyReference("connectionStateExecutor", connectionStateExecutorRef);
+        }
+
+        if(StringUtils.hasText(eventExecutorRef)) {
+            builder.addPropertyReference("eventExecutor", eventExecutorRef);
+        }
+
+        if(StringUtils.hasText(metricsRegistryRef)) {
+            builder.addPropertyReference("metricsRegistry", metricsRegistryRef);
+        }
+
+        if(StringUtils.hasText(registryRef)) {
+            builder.addPropertyReference("registry", registryRef);
+        }
+
+        if(StringUtils.hasText(throttleRef)) {
+            builder.addPropertyReference("operationScheduler", throttleRef);
+        }
+
+        return builder.getBeanDefinition();
+    }
+
+    public String getAclProviderRef() {
+        return aclProviderRef;
+    }
+
+    public void setAclProviderRef(final String aclProviderRef) {
+        this.aclProviderRef = aclProviderRef;
+    }
+
+    public String getAuthorizationCredentials() {
+        return authorizationCredentials;
+    }
+
+    public void setAuthorizationCredentials(final String authorizationCredentials) {
+        this.authorizationCredentials = authorizationCredentials;
+    }
+
+    public String getAuthorizationScheme() {
+        return authorizationScheme;
+    }
+
+    public void setAuthorizationScheme(final String authorizationScheme) {
+        this.authorizationScheme = authorizationScheme;
+    }
+
+    public String getBackgroundExecutorRef() {
+        return backgroundExecutorRef;
+    }
+
+    public void setBackgroundExecutorRef(final String backgroundExecutorRef) {
+        this.backgroundExecutorRef = backgroundExecutorRef;
+    }
+
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(final String compression) {
+        this.compression = compression;
+    }
+
+    public String getCompressionProviderRef() {
+        return compressionProviderRef;
+    }
+
+    public void setCompressionProviderRef(final String compressionProviderRef) {
+        this.compressionProviderRef = compressionProviderRef;
+    }
+
+    public Integer getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(final Integer compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public Integer getConnectWaitMs() {
+        return connectWaitMs;
+    }
+
+    public void setConnectWaitMs(final Integer connectWaitMs) {
+        this.connectWaitMs = connectWaitMs;
+    }
+
+    public String getConnectionStateExecutorRef() {
+        return connectionStateExecutorRef;
+    }
+
+    public void setConnectionStateExecutorRef(final String connectionStateExecutorRef) {
+        this.connectionStateExecutorRef = connectionStateExecutorRef;
+    }
+
+    public String getConnectionString() {
+        return connectionString;
+    }
+
+    public void setConnectionString(final String connectionString) {
+        this.connectionString = connectionString;
+    }
+
+    public Integer getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(final Integer connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public String getDefaultData() {
+        return defaultData;
+    }
+
+    public void setDefaultData(final String defaultData) {
+        this.defaultData = defaultData;
+    }
+
+    public String getEnsembleProviderRef() {
+        return ensembleProviderRef;
+    }
+
+    public void setEnsembleProviderRef(final String ensembleProviderRef) {
+        this.ensembleProviderRef = ensembleProviderRef;
+    }
+
+    public String getEventExecutorRef() {
+        return eventExecutorRef;
+    }
+
+    public void setEventExecutorRef(final String eventExecutorRef) {
+        this.eventExecutorRef = eventExecutorRef;
+    }
+
+    public Integer getMetricsPathDepth() {
+        return metricsPathDepth;
+    }
+
+    public void setMetricsPathDepth(final Integer metricsPathDepth) {
+        this.metricsPathDepth = metricsPathDepth;
+    }
+
+    public Integer getHealthProbeIntervalMs() {
+        return healthProbeIntervalMs;
+    }
+
+    public void setHealthProbeIntervalMs(final Integer healthProbeIntervalMs) {
+        this.healthProbeIntervalMs = healthProbeIntervalMs;
+    }
+
+    public Integer getHealthProbeFailureThreshold() {
+        return healthProbeFailureThreshold;
+    }
+
+    public void setHealthProbeFailureThreshold(final Integer healthProbeFailureThreshold) {
+        this.healthProbeFailureThreshold = healthProbeFailureThreshold;
+    }
+
+    public Boolean getCacheClient() {
+        return cacheClient;
+    }
+
+    public void setCacheClient(final Boolean cacheClient) {
+        this.cacheClient = cacheClient;
+    }
+
+    public Boolean getCoalesceReads() {
+        return coalesceReads;
+    }
+
+    public void setCoalesceReads(final Boolean coalesceReads) {
+        this.coalesceReads = coalesceReads;
+    }
+
+    public Boolean getFailFast() {
+        return failFast;
+    }
+
+    public void setFailFast(final Boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    public String getMetricsRegistryRef() {
+        return metricsRegistryRef;
+    }
+
+    public void setMetricsRegistryRef(final String metricsRegistryRef) {
+        this.metricsRegistryRef = metricsRegistryRef;
+    }
+
+    public String getRegistryRef() {
+        return registryRef;
+    }
+
+    public void setRegistryRef(final String registryRef) {
+        this.registryRef = registryRef;
+    }
+
+    public String getThrottleRef() {
+        return throttleRef;
+    }
+
+    public void setThrottleRef(final String throttleRef) {
+        this.throttleRef = throttleRef;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(final String namespace) {
+        this.namespace = namespace;
+    }
+
+    public Boolean getReadOnly() {
+        return readOnly;
+    }
+
+    public void setReadOnly(final Boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    public Integer getRetryBaseSleepTime() {
+        return retryBaseSleepTime;
+    }
+
+    public void setRetryBaseSleepTime(final Integer retryBaseSleepTime) {
+        this.retryBaseSleepTime = retryBaseSleepTime;
+    }
+
+    public Integer getRetryMaxElapsedTime() {
+        return retryMaxElapsedTime;
+    }
+
+    public void setRetryMaxElapsedTime(final Integer retryMaxElapsedTime) {
+        this.retryMaxElapsedTime = retryMaxElapsedTime;
+    }
+
+    public Integer getRetryMaxRetries() {
+        return retryMaxRetries;
+    }
+
+    public void setRetryMaxRetries(final Integer retryMaxRetries) {
+        this.retryMaxRetries = retryMaxRetries;
+    }
+
+    public Integer getRetryMaxSleepTime() {
+        return retryMaxSleepTime;
+    }
+
+    public void setRetryMaxSleepTime(final Integer retryMaxSleepTime) {
+        this.retryMaxSleepTime = retryMaxSleepTime;
+    }
+
+    public Integer getRetryMaxTokens() {
+        return retryMaxTokens;
+    }
+
+    public void setRetryMaxTokens(final Integer retryMaxTokens) {
+        this.retryMaxTokens = retryMaxTokens;
+    }
+
+    public Integer getRetryOpenTime() {
+        return retryOpenTime;
+    }
+
+    public void setRetryOpenTime(final Integer retryOpenTime) {
+        this.retryOpenTime = retryOpenTime;
+    }
+
+    public String getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(final String retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public String getRetryPolicyRef() {
+        return retryPolicyRef;
+    }
+
+    public void setRetryPolicyRef(final String retryPolicyRef) {
+        this.retryPolicyRef = retryPolicyRef;
+    }
+
+    public Integer getRetrySleepBetweenRetries() {
+        return retrySleepBetweenRetries;
+    }
+
+    public void setRetrySleepBetweenRetries(final Integer retrySleepBetweenRetries) {
+        this.retrySleepBetweenRetries = retrySleepBetweenRetries;
+    }
+
+    public Integer getRetryTokensPerSecond() {
+        return retryTokensPerSecond;
+    }
+
+    public void setRetryTokensPerSecond(final Integer retryTokensPerSecond) {
+        this.retryTokensPerSecond = retryTokensPerSecond;
+    }
+
+    public Integer getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    public void setSessionTimeout(final Integer sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    public String getStartupMode() {
+        return startupMode;
+    }
+
+    public void setStartupMode(final String startupMode) {
+        this.startupMode = startupMode;
+    }
+
+    public String getThreadFactoryRef() {
+        return threadFactoryRef;
+    }
+
+    public void setThreadFactoryRef(final String threadFactoryRef) {
+        this.threadFactoryRef = threadFactoryRef;
+    }
+
+    public String getZookeeperFactoryRef() {
+        return zookeeperFactoryRef;
+    }
+
+    public void setZookeeperFactoryRef(final String zookeeperFactoryRef) {
+        this.zookeeperFactoryRef = zookeeperFactoryRef;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.context.annotation.Import;
+
+/**
+ * Enables Spring Curator from Java configuration, without the XML namespace.  Add it to a
+ * {@link org.springframework.context.annotation.Configuration} class:
+ *
+ * <pre class="code">
+ * &#064;Configuration
+ * &#064;EnableCurator(&#064;CuratorClient(name = "curatorClient", connectionString = "${zookeeper.hosts}",
+ *     retryPolicy = "exponential-backoff", retryBaseSleepTime = 100, retryMaxRetries = 3))
+ * public class AppConfig {
+ * }
+ * </pre>
+ *
+ * <p>Clients are registered from the {@link CuratorClient} annotations and from the
+ * {@link CuratorProperties} bound from the environment under {@link #prefix()}, so a
+ * configuration class that declares no client can be driven entirely by properties.
+ * Each client is a {@link org.springframework.curator.factory.CuratorFrameworkFactoryBean}
+ * with the same settings as {@code <curator:client>}.  The processing of
+ * {@link org.springframework.curator.lock.CuratorLocked} is enabled as well.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Import(CuratorClientRegistrar.class)
+public @interface EnableCurator {
+
+    /**
+     * The clients to register.
+     */
+    CuratorClient[] value() default {};
+
+    /**
+     * The prefix of the environment properties from which additional clients are bound.
+     * See {@link CuratorProperties#bind(org.springframework.core.env.Environment, String)}.
+     */
+    String prefix() default CuratorProperties.DEFAULT_PREFIX;
+
+    /**
+     * Whether beans with {@link org.springframework.curator.lock.CuratorLocked} methods are
+     * proxied by subclassing their class rather than by implementing their interfaces.
+     */
+    boolean proxyTargetClass() default false;
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.counter;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.atomic.AtomicValue;
+import org.apache.curator.framework.recipes.atomic.DistributedAtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.util.StringUtils;
+
+/**
+ * Distributed counter, backed by Curator's {@link DistributedAtomicLong}, that buffers
+ * updates locally and applies them to ZooKeeper in batches.
+ *
+ * <p>Each update of a {@link DistributedAtomicLong} is an optimistic compare-and-set
+ * round trip, which fails and is retried more often the more processes update the
+ * counter.  This counter instead adds updates to a striped, in-memory sum and applies
+ * that sum to ZooKeeper as a single update every {@code flushIntervalMs}, or as soon as
+ * the unflushed amount reaches {@code maxUnflushed}.  The value stored in ZooKeeper
+ * therefore lags behind by at most one flush interval (and by at most
+ * {@code maxUnflushed} per process), which is the trade-off between accuracy and load
+ * that these two settings control.  If a flush fails, its amount is kept and retried
+ * by the next flush.  Pending updates are flushed when the bean is stopped.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorCounter implements SmartLifecycle, DisposableBean, BeanNameAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorCounter.class);
+
+    public static final int DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final StripedLongAccumulator pending = new StripedLongAccumulator();
+
+    private CuratorFramework client;
+    private DistributedAtomicLong counter;
+    private Integer flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+    private Long maxUnflushed;
+    private ScheduledExecutorService flushExecutor;
+    private String beanName = "curator-counter";
+    private String path;
+    private volatile boolean running;
+
+    @Override
+    public synchronized void start() {
+        if(running) {
+            return;
+        }
+
+        if(client == null || !StringUtils.hasText(path)) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' and 'path' must be configured.");
+        }
+
+        if(flushIntervalMs < 1 || (maxUnflushed != null && maxUnflushed < 1)) {
+            throw new IllegalArgumentException("[Assertion failed] 'flush-interval-ms' and 'max-unflushed' must be greater than zero.");
+        }
+
+        counter = new DistributedAtomicLong(client, path, client.getZookeeperClient().getRetryPolicy());
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, beanName);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        flushExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flushQuietly();
+            }
+        }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if(!running) {
+            return;
+        }
+
+        running = false;
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return CuratorFrameworkFactoryBean.STARTUP_PHASE + 1;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        stop();
+    }
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Adds the provided amount to the counter.  The amount is applied to ZooKeeper by
+     * the next flush.
+     * @param delta The amount, which may be negative.
+     */
+    public void add(final long delta) {
+        if(!running) {
+            throw new IllegalStateException("Attempt to update a counter that is not running.");
+        }
+
+        pending.add(delta);
+        if(maxUnflushed != null && Math.abs(pending.sum()) >= maxUnflushed && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    flushRequested.set(false);
+                    flushQuietly();
+                }
+            });
+        }
+    }
+
+    /**
+     * Applies the updates buffered by this process to ZooKeeper.
+     * @return The value of the counter in ZooKeeper after the flush.
+     * @throws Exception if the updates could not be applied, in which case they are kept
+     * 	for the next flush.
+     */
+    public synchronized long flush() throws Exception {
+        final long delta = pending.sumThenReset();
+        if(delta == 0) {
+            return getRemoteValue();
+        }
+
+        try {
+            final AtomicValue<Long> result = counter.add(delta);
+            if(!result.succeeded()) {
+                throw new IllegalStateException("Unable to apply " + delta + " to counter " + path + " due to contention.");
+            }
+            flushCount.incrementAndGet();
+            return result.postValue();
+        } catch (final Exception e) {
+            pending.add(delta);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the value of the counter in ZooKeeper, which excludes the updates that have
+     * not been flushed yet.
+     * @return The value stored in ZooKeeper.
+     * @throws Exception if the value could not be read.
+     */
+    public long getRemoteValue() throws Exception {
+        return counter.get().postValue();
+    }
+
+    /**
+     * Returns the value of the counter as seen by this process: the value stored in
+     * ZooKeeper plus the updates of this process that have not been flushed yet.
+     * @return The value.
+     * @throws Exception if the value could not be read.
+     */
+    public long get() throws Exception {
+        return getRemoteValue() + pending.sum();
+    }
+
+    /**
+     * Returns the amount buffered by this process that has not been flushed yet.
+     * @return The unflushed amount.
+     */
+    public long getUnflushed() {
+        return pending.sum();
+    }
+
+    /**
+     * Returns the number of flushes that applied updates to ZooKeeper.
+     * @return The number of flushes.
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (final Exception e) {
+            logger.warn("Unable to flush counter '{}' at {}: {}", beanName, path, e.getMessage());
+        }
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public Integer getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(final Integer flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public Long getMaxUnflushed() {
+        return maxUnflushed;
+    }
+
+    public void setMaxUnflushed(final Long maxUnflushed) {
+        this.maxUnflushed = maxUnflushed;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(final String path) {
+        this.path = path;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.counter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.StringUtils;
+
+/**
+ * Distributed, fixed window rate limiter that leases permits from ZooKeeper in blocks.
+ *
+ * <p>All processes sharing the same {@code path} share a budget of {@code permits} per
+ * window of {@code windowMs} milliseconds, aligned on the wall clock.  The node at
+ * {@code path} records the current window and how many permits of it have been handed
+ * out.  Rather than updating that node for every call to {@link #tryAcquire()}, a
+ * process leases up to {@code leaseSize} permits at once with a versioned
+ * compare-and-set and then serves calls from its local lease without contacting
+ * ZooKeeper.  Once the budget of a window is exhausted, the process stops asking for
+ * more until the next window starts.
+ *
+ * <p>Permits leased but not used by a process are lost when the window ends, so the
+ * cluster as a whole may admit fewer than {@code permits} calls per window, but never
+ * more.  A smaller {@code leaseSize} wastes fewer permits at the cost of more round
+ * trips to ZooKeeper.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorRateLimiter implements InitializingBean, BeanNameAware {
+
+    public static final int DEFAULT_LEASE_SIZE = 10;
+
+    public static final int DEFAULT_WINDOW_MS = 1000;
+
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong remaining = new AtomicLong();
+    private final Object leaseMonitor = new Object();
+
+    private String beanName = "curator-rate-limiter";
+    private CuratorFramework client;
+    private volatile boolean exhausted;
+    private Integer leaseSize = DEFAULT_LEASE_SIZE;
+    private String path;
+    private Long permits;
+    private volatile long window = -1;
+    private Integer windowMs = DEFAULT_WINDOW_MS;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if(client == null || !StringUtils.hasText(path) || permits == null) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref', 'path' and 'permits' must be configured for rate limiter '" + beanName + "'.");
+        }
+
+        if(permits < 1 || windowMs < 1 || leaseSize < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'permits', 'window-ms' and 'lease-size' must be greater than zero.");
+        }
+    }
+
+    /**
+     * Attempts to acquire a single permit for the current window.  Most calls are served
+     * from the local lease; ZooKeeper is only contacted when the lease is used up.
+     * @return {@code true} if the permit was acquired or {@code false} if the budget of the
+     * 	current window is exhausted.
+     * @throws Exception if a new lease could not be obtained from ZooKeeper.
+     */
+    public boolean tryAcquire() throws Exception {
+        final long currentWindow = currentWindow();
+        if(currentWindow != window) {
+            rollOver(currentWindow);
+        }
+
+        if(takeLocal()) {
+            localHits.incrementAndGet();
+            return true;
+        }
+
+        if(exhausted) {
+            return false;
+        }
+
+        synchronized (leaseMonitor) {
+            // Another thread may have obtained a lease while this one was waiting.
+            if(takeLocal()) {
+                localHits.incrementAndGet();
+                return true;
+            }
+
+            if(exhausted || currentWindow != window) {
+                return false;
+            }
+
+            final long granted = lease(currentWindow);
+            if(granted == 0) {
+                exhausted = true;
+                return false;
+            }
+
+            remaining.addAndGet(granted - 1);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of leases obtained from ZooKeeper.
+     * @return The number of leases.
+     */
+    public long getLeaseCount() {
+        return leaseCount.get();
+    }
+
+    /**
+     * Returns the number of permits acquired from the local lease without contacting
+     * ZooKeeper.
+     * @return The number of local acquisitions.
+     */
+    public long getLocalHits() {
+        return localHits.get();
+    }
+
+    /**
+     * Returns the number of permits left in the local lease.
+     * @return The number of locally available permits.
+     */
+    public long getLocallyAvailable() {
+        return remaining.get();
+    }
+
+    protected long currentWindow() {
+        return System.currentTimeMillis() / windowMs;
+    }
+
+    private boolean takeLocal() {
+        while(true) {
+            final long current = remaining.get();
+            if(current <= 0) {
+                return false;
+            }
+
+            if(remaining.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void rollOver(final long currentWindow) {
+        synchronized (leaseMonitor) {
+            if(currentWindow > window) {
+                window = currentWindow;
+                remaining.set(0);
+                exhausted = false;
+            }
+        }
+    }
+
+    private long lease(final long currentWindow) throws Exception {
+        while(true) {
+            final Stat stat = new Stat();
+            final ByteBuffer state;
+            try {
+                state = ByteBuffer.wrap(client.getData().storingStatIn(stat).forPath(path));
+            } catch (final KeeperException.NoNodeException e) {
+                try {
+                    client.create().creatingParentsIfNeeded().forPath(path, encode(currentWindow, 0));
+                } catch (final KeeperException.NodeExistsException ignore) {
+                    // Created concurrently by another process.
+                }
+                continue;
+            }
+
+            final long storedWindow = state.remaining() >= 16 ? state.getLong(0) : Long.MIN_VALUE;
+            if(storedWindow > currentWindow) {
+                // Another process, whose clock is ahead, has moved on to a later window; treat
+                // the budget as exhausted rather than resetting the count it has recorded.
+                return 0;
+            }
+
+            final long used = storedWindow == currentWindow ? state.getLong(8) : 0;
+            final long granted = Math.min(leaseSize, permits - used);
+            if(granted <= 0) {
+                return 0;
+            }
+
+            try {
+                client.setData().withVersion(stat.getVersion()).forPath(path, encode(currentWindow, used + granted));
+                leaseCount.incrementAndGet();
+                return granted;
+            } catch (final KeeperException.BadVersionException e) {
+                // Another process leased permits concurrently, so re-read the state and retry.
+            }
+        }
+    }
+
+    private static byte[] encode(final long window, final long used) {
+        return ByteBuffer.allocate(16).putLong(window).putLong(used).array();
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public Integer getLeaseSize() {
+        return leaseSize;
+    }
+
+    public void setLeaseSize(final Integer leaseSize) {
+        this.leaseSize = leaseSize;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(final String path) {
+        this.path = path;
+    }
+
+    public Long getPermits() {
+        return permits;
+    }
+
+    public void setPermits(final Long permits) {
+        this.permits = permits;
+    }
+
+    public Integer getWindowMs() {
+        return windowMs;
+    }
+
+    public void setWindowMs(final Integer windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.counter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sum of longs that spreads concurrent updates over several padded cells, so that
+ * threads adding at the same time rarely contend on the same cache line.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class StripedLongAccumulator {
+
+    /**
+     * The distance, in longs, between two cells (a 64 byte cache line).
+     */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    /**
+     * Constructs a new accumulator with one stripe per available processor.
+     */
+    StripedLongAccumulator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new accumulator.
+     * @param stripes The number of stripes.
+     */
+    StripedLongAccumulator(final int stripes) {
+        this.stripes = Math.max(stripes, 1);
+        this.cells = new AtomicLongArray(this.stripes * PADDING);
+    }
+
+    /**
+     * Adds the provided value to the sum.
+     * @param value The value.
+     */
+    void add(final long value) {
+        cells.addAndGet(cellIndex(), value);
+    }
+
+    /**
+     * Returns the current sum.  Updates made concurrently may or may not be included.
+     * @return The sum.
+     */
+    long sum() {
+        long sum = 0;
+        for(int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the current sum and resets it to zero.  Each update made concurrently is
+     * either included in the returned sum or remains in the accumulator.
+     * @return The sum.
+     */
+    long sumThenReset() {
+        long sum = 0;
+        for(int i = 0; i < stripes; i++) {
+            sum += cells.getAndSet(i * PADDING, 0);
+        }
+        return sum;
+    }
+
+    private int cellIndex() {
+        return (int)(Thread.currentThread().getId() % stripes) * PADDING;
+    }
+}
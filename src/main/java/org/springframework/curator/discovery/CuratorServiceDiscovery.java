@@ -0,0 +1,256 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheListener;
+import org.apache.curator.utils.ZKPaths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.util.StringUtils;
+
+/**
+ * Finds the instances of a service registered by {@link CuratorServiceRegistration}.
+ *
+ * <p>The instances are mirrored in memory by a watch-backed {@link PathChildrenCache}, so
+ * that looking up an instance never reaches ZooKeeper.  Whenever an instance is added,
+ * updated or removed, an immutable {@link ServiceInstances} snapshot is rebuilt and
+ * published through a volatile field; {@link #getInstance()} then selects from the
+ * current snapshot without locking or allocating, using the configured
+ * {@link ServiceSelectionStrategy}.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorServiceDiscovery implements SmartLifecycle, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorServiceDiscovery.class);
+
+    private static final ServiceInstances EMPTY = new ServiceInstances(Collections.<ServiceInstance>emptyList(), null);
+
+    private final AtomicLong refreshCount = new AtomicLong();
+
+    private final PathChildrenCacheListener cacheListener = new PathChildrenCacheListener() {
+        @Override
+        public void childEvent(final CuratorFramework curatorFramework, final PathChildrenCacheEvent event) throws Exception {
+            switch(event.getType()) {
+                case CHILD_ADDED:
+                case CHILD_UPDATED:
+                case CHILD_REMOVED:
+                case INITIALIZED:
+                    refresh();
+                    break;
+                default:
+                    break;
+            }
+        }
+    };
+
+    private CuratorFramework client;
+    private String basePath = CuratorServiceRegistration.DEFAULT_BASE_PATH;
+    private String name;
+    private String zone;
+    private ServiceSelectionStrategy strategy = ServiceSelectionStrategy.POWER_OF_TWO_CHOICES;
+    private PathChildrenCache cache;
+    private volatile ServiceInstances instances = EMPTY;
+    private volatile boolean running;
+
+    @Override
+    public synchronized void start() {
+        if(running) {
+            return;
+        }
+
+        if(client == null || !StringUtils.hasText(name)) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' and 'name' must be configured.");
+        }
+
+        cache = new PathChildrenCache(client, ZKPaths.makePath(basePath, name), true);
+        cache.getListenable().addListener(cacheListener);
+        try {
+            cache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to start the discovery of service '" + name + "'.", e);
+        }
+        refresh();
+        running = true;
+        logger.info("Started discovery of service '{}' with {} instances", name, instances.size());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if(!running) {
+            return;
+        }
+
+        running = false;
+        try {
+            cache.close();
+        } catch (final Exception e) {
+            logger.warn("Unable to close the discovery of service '" + name + "': ", e);
+        }
+        instances = EMPTY;
+    }
+
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return CuratorFrameworkFactoryBean.STARTUP_PHASE + 1;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        logger.info("Closing discovery of service '{}'", name);
+        stop();
+    }
+
+    /**
+     * Selects an instance of the service using the configured strategy.
+     * @return The selected instance or {@code null} if no instance is registered.
+     */
+    public ServiceInstance getInstance() {
+        return instances.select(strategy);
+    }
+
+    /**
+     * Returns the known instances of the service.
+     * @return The instances.
+     */
+    public List<ServiceInstance> getInstances() {
+        return instances.asList();
+    }
+
+    /**
+     * Returns the current snapshot of the instances of the service, from which instances
+     * may be selected with any strategy.
+     * @return The snapshot.
+     */
+    public ServiceInstances getSnapshot() {
+        return instances;
+    }
+
+    /**
+     * Returns the number of times the snapshot of the instances was rebuilt.
+     * @return The number of refreshes.
+     */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /**
+     * Rebuilds the snapshot from the cached nodes.  Nodes that cannot be decoded are skipped.
+     */
+    private synchronized void refresh() {
+        final List<ChildData> children = cache.getCurrentData();
+        final List<ServiceInstance> current = new ArrayList<ServiceInstance>(children.size());
+        for(final ChildData child : children) {
+            if(child.getData() == null) {
+                continue;
+            }
+
+            try {
+                current.add(ServiceInstance.fromBytes(child.getData()));
+            } catch (final Exception e) {
+                logger.warn("Ignoring instance {} of service '{}' that cannot be decoded: {}", child.getPath(), name, e.getMessage());
+            }
+        }
+        instances = new ServiceInstances(current, zone);
+        refreshCount.incrementAndGet();
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public String getBasePath() {
+        return basePath;
+    }
+
+    public void setBasePath(final String basePath) {
+        this.basePath = basePath;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the local zone, whose instances are preferred by the
+     * {@link ServiceSelectionStrategy#LOCALITY_AWARE locality-aware} strategy.
+     * @return The local zone.
+     */
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(final String zone) {
+        this.zone = zone;
+    }
+
+    public ServiceSelectionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(final ServiceSelectionStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Sets the selection strategy from its type, as defined in the XML schema.
+     * @param strategyType The strategy type.
+     */
+    public void setStrategyType(final String strategyType) {
+        final ServiceSelectionStrategy selectionStrategy = ServiceSelectionStrategy.findByType(strategyType);
+        if(selectionStrategy == null) {
+            throw new IllegalArgumentException("[Assertion failed] unknown selection strategy '" + strategyType + "'.");
+        }
+        this.strategy = selectionStrategy;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetAddress;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.util.StringUtils;
+
+/**
+ * Registers the local instance of a service so that it can be found by
+ * {@link CuratorServiceDiscovery}.
+ *
+ * <p>The instance is stored in an ephemeral node at {@code <base-path>/<name>/<id>},
+ * which is created when the bean is started and deleted when it is stopped.  The layout
+ * and the format of the node (see {@link ServiceInstance}) are those of curator-x-discovery.
+ * A heartbeat refreshes the load reported by the instance, writing it only when it has
+ * changed, and recreates the node should it be missing, for instance after the session
+ * has expired.  The node is also recreated as soon as the client reconnects.
+ *
+ * <p>Unless a {@link ServiceLoadProvider} is configured, the reported load is the system
+ * load average divided by the number of available processors.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorServiceRegistration implements SmartLifecycle, DisposableBean, BeanNameAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorServiceRegistration.class);
+
+    public static final String DEFAULT_BASE_PATH = "/services";
+
+    public static final int DEFAULT_HEARTBEAT_MS = 5000;
+
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener() {
+        @Override
+        public void stateChanged(final CuratorFramework curatorFramework, final ConnectionState newState) {
+            if(newState == ConnectionState.RECONNECTED && running) {
+                heartbeatExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        register();
+                    }
+                });
+            }
+        }
+    };
+
+    private CuratorFramework client;
+    private String basePath = DEFAULT_BASE_PATH;
+    private String name;
+    private String instanceId;
+    private String address;
+    private Integer port = 0;
+    private String zone;
+    private ServiceLoadProvider loadProvider;
+    private Integer heartbeatMs = DEFAULT_HEARTBEAT_MS;
+    private String beanName = "curator-service-registration";
+    private ScheduledExecutorService heartbeatExecutor;
+    private volatile ServiceInstance instance;
+    private volatile boolean registered;
+    private volatile boolean running;
+
+    @Override
+    public synchronized void start() {
+        if(running) {
+            return;
+        }
+
+        if(client == null || !StringUtils.hasText(name)) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' and 'name' must be configured.");
+        }
+
+        if(heartbeatMs < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'heartbeat-ms' must be greater than zero.");
+        }
+
+        instance = new ServiceInstance(StringUtils.hasText(instanceId) ? instanceId : UUID.randomUUID().toString(), name,
+                StringUtils.hasText(address) ? address : getLocalAddress(), port, zone, getCurrentLoad(), System.currentTimeMillis());
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, beanName + "-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        running = true;
+        register();
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+        heartbeatExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                heartbeat();
+            }
+        }, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        logger.info("Registered instance {} of service '{}'", instance.getId(), name);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if(!running) {
+            return;
+        }
+
+        running = false;
+        client.getConnectionStateListenable().removeListener(connectionStateListener);
+        heartbeatExecutor.shutdownNow();
+        try {
+            client.delete().guaranteed().forPath(getInstancePath());
+        } catch (final KeeperException.NoNodeException e) {
+            logger.debug("Instance {} of service '{}' was already unregistered", instance.getId(), name);
+        } catch (final Exception e) {
+            logger.warn("Unable to unregister instance " + instance.getId() + " of service '" + name + "': ", e);
+        }
+        registered = false;
+    }
+
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return CuratorFrameworkFactoryBean.STARTUP_PHASE + 1;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        logger.info("Closing registration of service '{}'", name);
+        stop();
+    }
+
+    /**
+     * Refreshes the reported load, recreating the node of the instance if it is missing.
+     */
+    void heartbeat() {
+        final ServiceInstance current = instance;
+        final double load = getCurrentLoad();
+        if(registered && load == current.getLoad()) {
+            return;
+        }
+
+        instance = current.withLoad(load, System.currentTimeMillis());
+        if(registered) {
+            try {
+                client.setData().forPath(getInstancePath(), instance.toBytes());
+                return;
+            } catch (final KeeperException.NoNodeException e) {
+                logger.info("Instance {} of service '{}' is no longer registered, registering it again", current.getId(), name);
+            } catch (final Exception e) {
+                logger.warn("Unable to refresh instance " + current.getId() + " of service '" + name + "': ", e);
+                return;
+            }
+        }
+        register();
+    }
+
+    private void register() {
+        if(!running) {
+            return;
+        }
+
+        final byte[] data = instance.toBytes();
+        try {
+            try {
+                client.create().creatingParentsIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(getInstancePath(), data);
+            } catch (final KeeperException.NodeExistsException e) {
+                // Left by the previous session, which may not have expired yet, or by a reconnection.
+                client.setData().forPath(getInstancePath(), data);
+            }
+            registered = true;
+        } catch (final Exception e) {
+            registered = false;
+            logger.warn("Unable to register instance " + instance.getId() + " of service '" + name + "', retrying with the next heartbeat: ", e);
+        }
+    }
+
+    private double getCurrentLoad() {
+        if(loadProvider != null) {
+            return loadProvider.getLoad();
+        }
+
+        final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        final double loadAverage = operatingSystem.getSystemLoadAverage();
+        return loadAverage < 0 ? 0 : loadAverage / operatingSystem.getAvailableProcessors();
+    }
+
+    private static String getLocalAddress() {
+        try {
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to determine the local address, 'address' must be configured.", e);
+        }
+    }
+
+    private String getInstancePath() {
+        return ZKPaths.makePath(ZKPaths.makePath(basePath, name), instance.getId());
+    }
+
+    /**
+     * Returns the instance as it was last registered.
+     * @return The instance or {@code null} if the bean has not been started.
+     */
+    public ServiceInstance getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns whether the instance is currently registered.
+     * @return {@code true} if the node of the instance was created or refreshed by the last heartbeat.
+     */
+    public boolean isRegistered() {
+        return registered;
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public String getBasePath() {
+        return basePath;
+    }
+
+    public void setBasePath(final String basePath) {
+        this.basePath = basePath;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(final String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(final String address) {
+        this.address = address;
+    }
+
+    public Integer getPort() {
+        return port;
+    }
+
+    public void setPort(final Integer port) {
+        this.port = port;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(final String zone) {
+        this.zone = zone;
+    }
+
+    public ServiceLoadProvider getLoadProvider() {
+        return loadProvider;
+    }
+
+    public void setLoadProvider(final ServiceLoadProvider loadProvider) {
+        this.loadProvider = loadProvider;
+    }
+
+    public Integer getHeartbeatMs() {
+        return heartbeatMs;
+    }
+
+    public void setHeartbeatMs(final Integer heartbeatMs) {
+        this.heartbeatMs = heartbeatMs;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+}
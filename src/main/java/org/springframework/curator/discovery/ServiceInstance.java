@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Immutable description of an instance of a service, as registered by
+ * {@link CuratorServiceRegistration} and read by {@link CuratorServiceDiscovery}.
+ *
+ * <p>Instances are stored in the data of an ephemeral node named after their identifier,
+ * below a node named after the service, as the JSON document written by the
+ * {@code JsonInstanceSerializer} of curator-x-discovery.  Instances registered through
+ * curator-x-discovery may therefore share the same base path and are read back alike.
+ * The zone, load and time of the last update are stored in the payload of the document;
+ * an instance without them has no zone, no load and was last updated when it registered.
+ * Encoding requires {@code com.fasterxml.jackson.core:jackson-databind} on the classpath.
+ *
+ * <p>The load is refreshed by the registration's heartbeat and has no unit of its own;
+ * instances with a lower load are preferred by load-aware selection.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public final class ServiceInstance {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String id;
+    private final String name;
+    private final String address;
+    private final int port;
+    private final String zone;
+    private final double load;
+    private final long updatedAt;
+
+    public ServiceInstance(final String id, final String name, final String address, final int port, final String zone, final double load, final long updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+        this.port = port;
+        this.zone = zone;
+        this.load = load;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Decodes an instance from the data of its node.
+     * @param data The data of the node.
+     * @return The instance.
+     * @throws IOException if the data is not an encoded instance.
+     */
+    public static ServiceInstance fromBytes(final byte[] data) throws IOException {
+        final JsonNode node = objectMapper.readTree(data);
+        if(node == null || !node.isObject() || !node.hasNonNull("id") || !node.hasNonNull("name")) {
+            throw new IOException("Data is not a service instance.");
+        }
+
+        final JsonNode payload = node.path("payload");
+        final JsonNode zone = payload.path("zone");
+        return new ServiceInstance(node.get("id").asText(), node.get("name").asText(), node.hasNonNull("address") ? node.get("address").asText() : null,
+            node.path("port").asInt(), zone.isTextual() ? zone.asText() : null, payload.path("load").asDouble(),
+            payload.path("updatedAt").asLong(node.path("registrationTimeUTC").asLong()));
+    }
+
+    /**
+     * Encodes this instance as the data of its node.
+     * @return The encoded instance.
+     */
+    public byte[] toBytes() {
+        final ObjectNode node = objectMapper.createObjectNode();
+        node.put("name", name);
+        node.put("id", id);
+        node.put("address", address);
+        node.put("port", port);
+        node.putNull("sslPort");
+        final ObjectNode payload = node.putObject("payload");
+        // curator-x-discovery records the type of the payload, which is read back as a map.
+        payload.put("@class", "java.util.LinkedHashMap");
+        payload.put("zone", zone);
+        payload.put("load", load);
+        payload.put("updatedAt", updatedAt);
+        node.put("registrationTimeUTC", updatedAt);
+        node.put("serviceType", "DYNAMIC");
+        node.putNull("uriSpec");
+        try {
+            return objectMapper.writeValueAsBytes(node);
+        } catch (final IOException e) {
+            throw new IllegalStateException("Unable to encode service instance " + id + ".", e);
+        }
+    }
+
+    /**
+     * Returns a copy of this instance with the provided load.
+     * @param newLoad The load.
+     * @param newUpdatedAt The time at which the load was measured.
+     * @return The copy.
+     */
+    public ServiceInstance withLoad(final double newLoad, final long newUpdatedAt) {
+        return new ServiceInstance(id, name, address, port, zone, newLoad, newUpdatedAt);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Returns the zone, for instance the rack or availability zone, of the instance.
+     * @return The zone or {@code null} if the instance did not report one.
+     */
+    public String getZone() {
+        return zone;
+    }
+
+    public double getLoad() {
+        return load;
+    }
+
+    /**
+     * Returns the time, in milliseconds since the epoch, at which the load was measured.
+     * @return The time of the last update.
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceInstance [id=" + id + ", name=" + name + ", address=" + address + ", port=" + port + ", zone=" + zone + ", load=" + load + "]";
+    }
+}
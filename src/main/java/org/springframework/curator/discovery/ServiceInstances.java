@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable snapshot of the known instances of a service, from which an instance is
+ * selected without allocating or locking.
+ *
+ * <p>{@link CuratorServiceDiscovery} replaces its snapshot whenever an instance is added,
+ * updated or removed, so that the cost of a change is paid once by the thread that
+ * applies it rather than by every selection.  The instances in the local zone are
+ * extracted when the snapshot is built.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public final class ServiceInstances {
+
+    private static final ServiceInstance[] NONE = new ServiceInstance[0];
+
+    private final ServiceInstance[] instances;
+    private final ServiceInstance[] localInstances;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /**
+     * Constructs a new snapshot.
+     * @param instances The instances.
+     * @param zone The local zone or {@code null} if no zone is local.
+     */
+    public ServiceInstances(final Collection<ServiceInstance> instances, final String zone) {
+        this.instances = instances.toArray(new ServiceInstance[instances.size()]);
+        final List<ServiceInstance> local = new ArrayList<ServiceInstance>();
+        if(zone != null) {
+            for(final ServiceInstance instance : instances) {
+                if(zone.equals(instance.getZone())) {
+                    local.add(instance);
+                }
+            }
+        }
+        this.localInstances = local.isEmpty() ? NONE : local.toArray(new ServiceInstance[local.size()]);
+    }
+
+    /**
+     * Selects an instance.
+     * @param strategy The selection strategy.
+     * @return The selected instance or {@code null} if there are no instances.
+     */
+    public ServiceInstance select(final ServiceSelectionStrategy strategy) {
+        switch(strategy) {
+            case ROUND_ROBIN:
+                return roundRobin(instances);
+            case LOCALITY_AWARE:
+                return powerOfTwoChoices(localInstances.length > 0 ? localInstances : instances);
+            default:
+                return powerOfTwoChoices(instances);
+        }
+    }
+
+    /**
+     * Returns the instances in this snapshot.
+     * @return An unmodifiable view of the instances.
+     */
+    public List<ServiceInstance> asList() {
+        return Collections.unmodifiableList(Arrays.asList(instances));
+    }
+
+    /**
+     * Returns the instances in the local zone.
+     * @return An unmodifiable view of the local instances.
+     */
+    public List<ServiceInstance> getLocalInstances() {
+        return Collections.unmodifiableList(Arrays.asList(localInstances));
+    }
+
+    public int size() {
+        return instances.length;
+    }
+
+    private ServiceInstance roundRobin(final ServiceInstance[] candidates) {
+        if(candidates.length == 0) {
+            return null;
+        }
+        return candidates[(sequence.getAndIncrement() & Integer.MAX_VALUE) % candidates.length];
+    }
+
+    private static ServiceInstance powerOfTwoChoices(final ServiceInstance[] candidates) {
+        final int count = candidates.length;
+        if(count < 2) {
+            return count == 0 ? null : candidates[0];
+        }
+
+        // Two distinct candidates: the second index skips over the first.
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(count);
+        int second = random.nextInt(count - 1);
+        if(second >= first) {
+            second++;
+        }
+        return candidates[first].getLoad() <= candidates[second].getLoad() ? candidates[first] : candidates[second];
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery;
+
+/**
+ * Supplies the load that a {@link CuratorServiceRegistration} reports with each heartbeat.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public interface ServiceLoadProvider {
+
+    /**
+     * Returns the current load of the local instance.  The load has no unit of its own,
+     * but must be comparable between the instances of a service.
+     * @return The current load.
+     */
+    double getLoad();
+}
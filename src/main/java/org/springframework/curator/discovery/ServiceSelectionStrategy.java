@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery;
+
+/**
+ * Enumeration of the ways in which {@link CuratorServiceDiscovery} selects an instance.
+ *
+ * <ul>
+ * <li>{@code power-of-two-choices} - two instances are picked at random and the one
+ * with the lower reported load is selected (the default).</li>
+ * <li>{@code locality-aware} - as {@code power-of-two-choices}, but among the instances
+ * in the local zone, falling back to all instances if none is local.</li>
+ * <li>{@code round-robin} - each instance is selected in turn.</li>
+ * </ul>
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public enum ServiceSelectionStrategy {
+
+    LOCALITY_AWARE("locality-aware"),
+    POWER_OF_TWO_CHOICES("power-of-two-choices"),
+    ROUND_ROBIN("round-robin");
+
+    /**
+     * The type of the strategy, as defined in the XML schema.
+     */
+    private final String type;
+
+    /**
+     * Constructs a new enumerated value for the given type.
+     * @param type The strategy type.
+     */
+    private ServiceSelectionStrategy(final String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    /**
+     * Finds the matching {@link ServiceSelectionStrategy} enumerated value
+     * that matches the provided type string.
+     * @param type The strategy type.
+     * @return The matching {@link ServiceSelectionStrategy} enumerated value
+     * 	for the given type or {@code null} if no match is found.
+     */
+    public static ServiceSelectionStrategy findByType(final String type) {
+        ServiceSelectionStrategy strategy = null;
+
+        for(final ServiceSelectionStrategy currentStrategy : values()) {
+            if(currentStrategy.type.equals(type)) {
+                strategy = currentStrategy;
+                break;
+            }
+        }
+
+        return strategy;
+    }
+}
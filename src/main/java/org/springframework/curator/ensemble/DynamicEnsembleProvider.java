@@ -0,0 +1,302 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.ensemble;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.ensemble.EnsembleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link EnsembleProvider} that reads the ensemble membership from a {@link Resource},
+ * such as a file, and re-reads it periodically so that membership changes are picked up
+ * without rebuilding the clients that use it.
+ *
+ * <p>The resource either contains the connection string itself (hosts may be separated
+ * by commas or new lines and lines starting with {@code #} are ignored) or, if a
+ * {@code property} is configured, is a properties file from which the connection string
+ * is read.  A chroot suffix (e.g. {@code host1:2181,host2:2181/app}) is preserved.
+ *
+ * <p>The connection string only changes when the configured membership or chroot changes:
+ * Curator closes and re-creates the ZooKeeper handle whenever it does, which expires the
+ * session of every client using the provider.  Unless probing is disabled, each host is
+ * probed with a TCP connect when a new connection string is published and the hosts are
+ * ordered by their measured connect latency, with hosts that cannot be reached last.  Probe
+ * results never remove a host, as ZooKeeper itself skips hosts it cannot connect to.  Note
+ * that ZooKeeper 3.4 shuffles the hosts of a connection string, so the ordering is a
+ * preference that later versions may honour.
+ *
+ * <p>Curator checks for a new connection string when the ZooKeeper handle next processes
+ * an event, such as a disconnect.  The provider may be shared by several clients; the
+ * refresh thread runs from the first {@link #start()} until the last {@link #close()}.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class DynamicEnsembleProvider implements EnsembleProvider, BeanNameAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamicEnsembleProvider.class);
+
+    public static final int DEFAULT_PORT = 2181;
+
+    public static final int DEFAULT_PROBE_TIMEOUT_MS = 1000;
+
+    public static final int DEFAULT_REFRESH_MS = 30000;
+
+    private Integer probeTimeoutMs = DEFAULT_PROBE_TIMEOUT_MS;
+    private Integer refreshMs = DEFAULT_REFRESH_MS;
+    private Resource source;
+    private ScheduledExecutorService refreshExecutor;
+    private String beanName = "curator-ensemble";
+    private String property;
+    private int references;
+    private List<String> members = Collections.emptyList();
+    private String chroot = "";
+    private volatile String connectionString;
+
+    @Override
+    public synchronized void start() throws Exception {
+        if(references > 0) {
+            references++;
+            return;
+        }
+
+        if(source == null) {
+            throw new IllegalArgumentException("[Assertion failed] 'source' must be configured.");
+        }
+
+        if(refreshMs < 1 || probeTimeoutMs < 0) {
+            throw new IllegalArgumentException("[Assertion failed] 'refresh-ms' must be greater than zero and 'probe-timeout-ms' must not be negative.");
+        }
+
+        refresh(readConnectionString());
+
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, beanName);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        refreshExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                refresh();
+            }
+        }, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+        references = 1;
+    }
+
+    @Override
+    public String getConnectionString() {
+        return connectionString;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if(references == 0 || --references > 0) {
+            return;
+        }
+
+        refreshExecutor.shutdownNow();
+        refreshExecutor = null;
+    }
+
+    /**
+     * Re-reads the source, publishing a new connection string if the membership or chroot
+     * has changed.  Failures to read the source are logged and the current connection
+     * string is kept.
+     */
+    public void refresh() {
+        try {
+            refresh(readConnectionString());
+        } catch (final Exception e) {
+            logger.warn("Unable to refresh the ensemble of '{}' from {}; keeping {}: {}", beanName, source, connectionString, e.getMessage());
+        }
+    }
+
+    /**
+     * Probes a host by opening, and immediately closing, a TCP connection to it.
+     * @param host The host name.
+     * @param port The port.
+     * @return The time, in nanoseconds, taken to connect or {@code -1} if the host cannot be reached.
+     */
+    protected long probe(final String host, final int port) {
+        final Socket socket = new Socket();
+        final long start = System.nanoTime();
+        try {
+            socket.connect(new InetSocketAddress(host, port), probeTimeoutMs);
+            return System.nanoTime() - start;
+        } catch (final IOException e) {
+            logger.debug("Unable to reach {}:{}: {}", host, port, e.getMessage());
+            return -1;
+        } finally {
+            try {
+                socket.close();
+            } catch (final IOException e) {
+                logger.debug("Unable to close probe socket: {}", e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void refresh(final String rawConnectionString) {
+        final List<String> currentMembers = new ArrayList<String>();
+        String currentChroot = "";
+
+        for(final String token : StringUtils.tokenizeToStringArray(rawConnectionString, ",\n\r")) {
+            String host = token;
+            final int chrootIndex = host.indexOf('/');
+            if(chrootIndex != -1) {
+                currentChroot = host.substring(chrootIndex);
+                host = host.substring(0, chrootIndex);
+            }
+
+            if(StringUtils.hasText(host)) {
+                currentMembers.add(host.indexOf(':') != -1 ? host : host + ":" + DEFAULT_PORT);
+            }
+        }
+
+        if(currentMembers.isEmpty()) {
+            throw new IllegalArgumentException("[Assertion failed] the ensemble read from " + source + " must contain at least one host.");
+        }
+
+        if(connectionString != null && currentMembers.equals(members) && currentChroot.equals(chroot)) {
+            return;
+        }
+
+        final List<String> hosts = probeTimeoutMs > 0 ? orderByLatency(currentMembers) : currentMembers;
+        members = currentMembers;
+        chroot = currentChroot;
+        connectionString = StringUtils.collectionToDelimitedString(hosts, ",") + chroot;
+        logger.info("Ensemble of '{}' is now {}", beanName, connectionString);
+    }
+
+    private List<String> orderByLatency(final List<String> currentMembers) {
+        final Map<String, Long> latencies = new HashMap<String, Long>();
+        final List<String> reachable = new ArrayList<String>();
+        final List<String> unreachable = new ArrayList<String>();
+
+        for(final String member : currentMembers) {
+            final int separator = member.lastIndexOf(':');
+            final long latency = probe(member.substring(0, separator), Integer.parseInt(member.substring(separator + 1)));
+            if(latency >= 0) {
+                latencies.put(member, latency);
+                reachable.add(member);
+            } else {
+                unreachable.add(member);
+            }
+        }
+
+        if(reachable.isEmpty()) {
+            logger.warn("No host of the ensemble of '{}' could be reached; using the hosts as configured.", beanName);
+        }
+
+        Collections.sort(reachable, new Comparator<String>() {
+            @Override
+            public int compare(final String first, final String second) {
+                final long difference = latencies.get(first) - latencies.get(second);
+                return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+            }
+        });
+        reachable.addAll(unreachable);
+        return reachable;
+    }
+
+    private String readConnectionString() throws IOException {
+        final InputStream inputStream = source.getInputStream();
+        try {
+            if(StringUtils.hasText(property)) {
+                final Properties properties = new Properties();
+                properties.load(inputStream);
+                final String value = properties.getProperty(property);
+                if(!StringUtils.hasText(value)) {
+                    throw new IllegalArgumentException("[Assertion failed] property '" + property + "' is not set in " + source + ".");
+                }
+                return value;
+            }
+
+            final StringBuilder hosts = new StringBuilder();
+            final Reader reader = new InputStreamReader(inputStream, "UTF-8");
+            for(final String line : StringUtils.tokenizeToStringArray(FileCopyUtils.copyToString(reader), "\n\r")) {
+                if(!line.startsWith("#")) {
+                    hosts.append(line).append(',');
+                }
+            }
+            return hosts.toString();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+
+    public Integer getProbeTimeoutMs() {
+        return probeTimeoutMs;
+    }
+
+    public void setProbeTimeoutMs(final Integer probeTimeoutMs) {
+        this.probeTimeoutMs = probeTimeoutMs;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public void setProperty(final String property) {
+        this.property = property;
+    }
+
+    public Integer getRefreshMs() {
+        return refreshMs;
+    }
+
+    public void setRefreshMs(final Integer refreshMs) {
+        this.refreshMs = refreshMs;
+    }
+
+    public Resource getSource() {
+        return source;
+    }
+
+    public void setSource(final Resource source) {
+        this.source = source;
+    }
+}
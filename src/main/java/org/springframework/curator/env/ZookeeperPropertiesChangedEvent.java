@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.env;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when the properties of a {@link ZookeeperPropertySource} change.
+ * Listeners that hold values derived from these properties should re-read them from
+ * the environment.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class ZookeeperPropertiesChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> changedKeys;
+
+    /**
+     * Constructs a new event.
+     * @param source The property source whose properties changed.
+     * @param changedKeys The keys that were added, updated or removed.
+     */
+    public ZookeeperPropertiesChangedEvent(final ZookeeperPropertySource source, final Set<String> changedKeys) {
+        super(source);
+        this.changedKeys = Collections.unmodifiableSet(changedKeys);
+    }
+
+    @Override
+    public ZookeeperPropertySource getSource() {
+        return (ZookeeperPropertySource)super.getSource();
+    }
+
+    /**
+     * Returns the keys that were added, updated or removed.
+     * @return The changed keys.
+     */
+    public Set<String> getChangedKeys() {
+        return changedKeys;
+    }
+}
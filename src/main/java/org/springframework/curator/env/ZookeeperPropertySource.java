@@ -0,0 +1,385 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.env;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher.Event.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.EnumerablePropertySource;
+
+/**
+ * {@link org.springframework.core.env.PropertySource} backed by a subtree of ZooKeeper
+ * that is kept up to date by watches rather than by polling.
+ *
+ * <p>Every node below the root path that holds data is exposed as a property.  The key
+ * is the path of the node relative to the root, with {@code '/'} replaced by
+ * {@code '.'}, and the value is the data of the node decoded as UTF-8.  For example,
+ * with the root {@code /config/app}, the node {@code /config/app/db/url} is exposed as
+ * {@code db.url}.
+ *
+ * <p>{@link #load()} reads the whole subtree once, registering a watch on each node as it
+ * is read.  From then on, only the nodes reported as changed by a watch are read again.
+ * Lookups are served from an immutable snapshot of the properties that is replaced
+ * atomically after each change, so readers never see a partially applied update and
+ * never contact ZooKeeper.  When the properties change, a
+ * {@link ZookeeperPropertiesChangedEvent} is published.  Watches are processed one at a
+ * time on a dedicated thread, and the whole subtree is read again after a reconnection.
+ * Watches survive a reconnection within the same session, so they are only set again if
+ * the session expired in the meantime; otherwise only nodes that were not known before
+ * are watched.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class ZookeeperPropertySource extends EnumerablePropertySource<CuratorFramework> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZookeeperPropertySource.class);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener() {
+        @Override
+        public void stateChanged(final CuratorFramework client, final ConnectionState newState) {
+            if(newState == ConnectionState.LOST) {
+                sessionLost = true;
+            } else if(!closed && newState == ConnectionState.RECONNECTED) {
+                submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        reconnect();
+                        return null;
+                    }
+                });
+            }
+        }
+    };
+
+    private final CuratorWatcher watcher = new CuratorWatcher() {
+        @Override
+        public void process(final WatchedEvent event) throws Exception {
+            if(!closed && event.getType() != EventType.None && event.getPath() != null) {
+                submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        handle(event);
+                        return null;
+                    }
+                });
+            }
+        }
+    };
+
+    /*
+     * The working copy of the properties, the paths of the known nodes and the paths
+     * holding a data or child watch are only accessed by the update thread.
+     */
+    private final Map<String, String> properties = new HashMap<String, String>();
+    private final Set<String> nodes = new HashSet<String>();
+    private final Set<String> dataWatches = new HashSet<String>();
+    private final Set<String> childWatches = new HashSet<String>();
+    private final ExecutorService updateExecutor;
+    private final String rootPath;
+
+    private ApplicationEventPublisher eventPublisher;
+    private volatile boolean closed;
+    private volatile boolean sessionLost;
+    private long sessionId;
+    private volatile Map<String, String> snapshot = Collections.emptyMap();
+
+    /**
+     * Constructs a new property source.  Call {@link #load()} to read the properties.
+     * @param name The name of the property source.
+     * @param client The client used to read the properties.
+     * @param rootPath The path of the subtree that holds the properties.
+     */
+    public ZookeeperPropertySource(final String name, final CuratorFramework client, final String rootPath) {
+        super(name, client);
+        this.rootPath = ZKPaths.makePath(rootPath, "");
+        this.updateExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public Object getProperty(final String name) {
+        return snapshot.get(name);
+    }
+
+    @Override
+    public boolean containsProperty(final String name) {
+        return snapshot.containsKey(name);
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        final Set<String> names = snapshot.keySet();
+        return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * Reads the whole subtree and starts watching it for changes.  Returns once the
+     * properties have been read.
+     * @throws Exception if the subtree could not be read.
+     */
+    public void load() throws Exception {
+        getSource().getConnectionStateListenable().addListener(connectionStateListener);
+        try {
+            submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    reload();
+                    return null;
+                }
+            }).get();
+        } catch (final ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception)e.getCause() : e;
+        }
+    }
+
+    /**
+     * Stops watching the subtree.  The last properties read remain available.
+     */
+    public void close() {
+        closed = true;
+        getSource().getConnectionStateListenable().removeListener(connectionStateListener);
+        updateExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the path of the subtree that holds the properties.
+     * @return The root path.
+     */
+    public String getRootPath() {
+        return rootPath;
+    }
+
+    /**
+     * Sets the publisher of the {@link ZookeeperPropertiesChangedEvent}s.
+     * @param eventPublisher The event publisher.
+     */
+    public void setEventPublisher(final ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    private Future<Void> submit(final Callable<Void> task) {
+        return updateExecutor.submit(task);
+    }
+
+    private void reconnect() throws Exception {
+        if(sessionLost || getSource().getZookeeperClient().getZooKeeper().getSessionId() != sessionId) {
+            // The session expired, taking its watches with it.
+            sessionLost = false;
+            dataWatches.clear();
+            childWatches.clear();
+        }
+        reload();
+    }
+
+    private void reload() throws Exception {
+        if(closed) {
+            return;
+        }
+
+        sessionId = getSource().getZookeeperClient().getZooKeeper().getSessionId();
+        properties.clear();
+        nodes.clear();
+        loadTree(rootPath);
+        publish();
+    }
+
+    private void handle(final WatchedEvent event) throws Exception {
+        if(closed) {
+            return;
+        }
+
+        final String path = event.getPath();
+        if(event.getType() == EventType.NodeChildrenChanged) {
+            childWatches.remove(path);
+        } else {
+            dataWatches.remove(path);
+            if(event.getType() == EventType.NodeDeleted) {
+                childWatches.remove(path);
+            }
+        }
+
+        switch(event.getType()) {
+            case NodeCreated:
+                loadTree(path);
+                break;
+            case NodeDataChanged:
+                loadData(path);
+                break;
+            case NodeChildrenChanged:
+                loadChildren(path);
+                break;
+            case NodeDeleted:
+                removeTree(path);
+                if(rootPath.equals(path)) {
+                    watchRoot();
+                }
+                break;
+            default:
+                return;
+        }
+        publish();
+    }
+
+    private void loadTree(final String path) throws Exception {
+        if(!loadData(path)) {
+            if(rootPath.equals(path)) {
+                watchRoot();
+            }
+            return;
+        }
+        loadChildren(path);
+    }
+
+    private boolean loadData(final String path) throws Exception {
+        try {
+            final byte[] data = dataWatches.add(path) ? getSource().getData().usingWatcher(watcher).forPath(path)
+                    : getSource().getData().forPath(path);
+            nodes.add(path);
+            if(rootPath.equals(path)) {
+                return true;
+            }
+
+            if(data != null && data.length > 0) {
+                properties.put(toKey(path), new String(data, UTF_8));
+            } else {
+                properties.remove(toKey(path));
+            }
+            return true;
+        } catch (final KeeperException.NoNodeException e) {
+            // No watch is left on a node that does not exist.
+            dataWatches.remove(path);
+            removeTree(path);
+            return false;
+        }
+    }
+
+    private void loadChildren(final String path) throws Exception {
+        final List<String> children;
+        try {
+            children = childWatches.add(path) ? getSource().getChildren().usingWatcher(watcher).forPath(path)
+                    : getSource().getChildren().forPath(path);
+        } catch (final KeeperException.NoNodeException e) {
+            childWatches.remove(path);
+            removeTree(path);
+            return;
+        }
+
+        final Set<String> childPaths = new HashSet<String>();
+        for(final String child : children) {
+            final String childPath = ZKPaths.makePath(path, child);
+            childPaths.add(childPath);
+            if(!nodes.contains(childPath)) {
+                loadTree(childPath);
+            }
+        }
+
+        // Children that are no longer listed were deleted along with their subtree.
+        for(final String node : new HashSet<String>(nodes)) {
+            if(!childPaths.contains(node) && path.equals(ZKPaths.getPathAndNode(node).getPath()) && !path.equals(node)) {
+                removeTree(node);
+            }
+        }
+    }
+
+    private void watchRoot() throws Exception {
+        // Watches the root so that its creation reloads the subtree.
+        dataWatches.add(rootPath);
+        if(getSource().checkExists().usingWatcher(watcher).forPath(rootPath) != null) {
+            loadTree(rootPath);
+        }
+    }
+
+    private void removeTree(final String path) {
+        final String prefix = path.endsWith("/") ? path : path + "/";
+        for(final Iterator<String> iterator = nodes.iterator(); iterator.hasNext();) {
+            final String node = iterator.next();
+            if(node.equals(path) || node.startsWith(prefix)) {
+                iterator.remove();
+                if(!rootPath.equals(node)) {
+                    properties.remove(toKey(node));
+                }
+            }
+        }
+    }
+
+    private void publish() {
+        final Map<String, String> previous = snapshot;
+        final Set<String> changedKeys = new HashSet<String>();
+        for(final Map.Entry<String, String> entry : properties.entrySet()) {
+            if(!entry.getValue().equals(previous.get(entry.getKey()))) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for(final String key : previous.keySet()) {
+            if(!properties.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+
+        if(changedKeys.isEmpty()) {
+            return;
+        }
+
+        snapshot = Collections.unmodifiableMap(new HashMap<String, String>(properties));
+        logger.debug("Properties {} of property source '{}' changed.", changedKeys, getName());
+
+        if(eventPublisher != null) {
+            try {
+                eventPublisher.publishEvent(new ZookeeperPropertiesChangedEvent(this, changedKeys));
+            } catch (final IllegalStateException e) {
+                // The application context has not been refreshed yet, so nothing can have read the old values.
+                logger.debug("Unable to publish the changes of property source '{}': {}", getName(), e.getMessage());
+            }
+        }
+    }
+
+    private String toKey(final String path) {
+        final String relativePath = "/".equals(rootPath) ? path.substring(1) : path.substring(rootPath.length() + 1);
+        return relativePath.replace('/', '.');
+    }
+}
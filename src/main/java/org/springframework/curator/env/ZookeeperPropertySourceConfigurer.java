@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.env;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+/**
+ * Loads a {@link ZookeeperPropertySource} and adds it to the environment of the
+ * application context, ahead of the other property sources.
+ *
+ * <p>The property source is loaded before any other
+ * {@link BeanFactoryPostProcessor} runs, so its properties can be used by placeholders
+ * in bean definitions and by {@code @Value} annotations.  Changes made to the subtree
+ * afterwards are visible through the environment immediately and are announced by a
+ * {@link ZookeeperPropertiesChangedEvent}.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class ZookeeperPropertySourceConfigurer implements BeanFactoryPostProcessor, PriorityOrdered, EnvironmentAware,
+        ApplicationEventPublisherAware, DisposableBean, BeanNameAware {
+
+    private String beanName = "zookeeper-property-source";
+    private CuratorFramework client;
+    private ConfigurableEnvironment environment;
+    private ApplicationEventPublisher eventPublisher;
+    private String name;
+    private String path;
+    private ZookeeperPropertySource propertySource;
+
+    @Override
+    public void postProcessBeanFactory(final ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        if(client == null || !StringUtils.hasText(path)) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' and 'path' must be configured.");
+        }
+
+        if(environment == null) {
+            throw new IllegalStateException("Property source '" + beanName + "' requires a ConfigurableEnvironment.");
+        }
+
+        propertySource = new ZookeeperPropertySource(StringUtils.hasText(name) ? name : beanName, client, path);
+        propertySource.setEventPublisher(eventPublisher);
+        try {
+            propertySource.load();
+        } catch (final Exception e) {
+            propertySource.close();
+            throw new IllegalStateException("Unable to load the properties at " + path + ".", e);
+        }
+        environment.getPropertySources().addFirst(propertySource);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if(propertySource != null) {
+            propertySource.close();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void setEnvironment(final Environment environment) {
+        if(environment instanceof ConfigurableEnvironment) {
+            this.environment = (ConfigurableEnvironment)environment;
+        }
+    }
+
+    @Override
+    public void setApplicationEventPublisher(final ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+
+    /**
+     * Returns the property source, once it has been loaded.
+     * @return The property source or {@code null} if it has not been loaded yet.
+     */
+    public ZookeeperPropertySource getPropertySource() {
+        return propertySource;
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(final String path) {
+        this.path = path;
+    }
+}
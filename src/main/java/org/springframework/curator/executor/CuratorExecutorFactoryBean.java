@@ -0,0 +1,223 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.executor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link FactoryBean} that creates the {@link ExecutorService} used to run one kind of
+ * client work (background callbacks, connection state listeners or watcher events) off of
+ * the ZooKeeper event thread.
+ *
+ * <p>A {@code bounded} executor is a fixed size pool of daemon threads with an optionally
+ * bounded queue; once the queue is full, the configured {@link CuratorRejectionPolicy} is
+ * applied.  A {@code virtual} executor starts a new virtual thread per task and requires a
+ * JDK that provides {@code Executors.newVirtualThreadPerTaskExecutor()} (JDK 21+).
+ *
+ * <p>The executor is shut down upon bean destroy.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorExecutorFactoryBean implements FactoryBean<ExecutorService>, InitializingBean, DisposableBean, BeanNameAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorExecutorFactoryBean.class);
+
+    /**
+     * The default number of threads of a bounded executor.
+     */
+    public static final int DEFAULT_THREADS = 1;
+
+    private static final long SHUTDOWN_WAIT_MS = 5000;
+
+    private ExecutorService executor;
+    private Integer queueCapacity;
+    private Integer threads;
+    private String beanName;
+    private String rejectionPolicy;
+    private String threadNamePrefix;
+    private String type;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        switch(resolveType()) {
+            case VIRTUAL:
+                executor = createVirtualThreadExecutor();
+                break;
+            default:
+                executor = createBoundedExecutor();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if(executor != null) {
+            executor.shutdown();
+            if(!executor.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                logger.warn("Executor '{}' did not terminate within {} ms", getThreadNamePrefix(), SHUTDOWN_WAIT_MS);
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Override
+    public ExecutorService getObject() throws Exception {
+        return executor;
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return ExecutorService.class;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+
+    private ExecutorService createBoundedExecutor() {
+        final int poolSize = threads != null ? threads : DEFAULT_THREADS;
+        if(poolSize < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'threads' must be greater than zero.");
+        }
+
+        final BlockingQueue<Runnable> queue = queueCapacity != null ? new ArrayBlockingQueue<Runnable>(queueCapacity) : new LinkedBlockingQueue<Runnable>();
+        final ThreadPoolExecutor poolExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS, queue,
+                new NamedThreadFactory(getThreadNamePrefix()), resolveRejectionPolicy().createHandler());
+        poolExecutor.allowCoreThreadTimeOut(true);
+        return poolExecutor;
+    }
+
+    private ExecutorService createVirtualThreadExecutor() {
+        final Method factoryMethod = ReflectionUtils.findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+        if(factoryMethod == null) {
+            throw new IllegalArgumentException("[Assertion failed] executor type '" + CuratorExecutorType.VIRTUAL + "' requires JDK 21 or later.");
+        }
+        return (ExecutorService)ReflectionUtils.invokeMethod(factoryMethod, null);
+    }
+
+    private CuratorExecutorType resolveType() {
+        if(!StringUtils.hasText(type)) {
+            return CuratorExecutorType.BOUNDED;
+        }
+
+        final CuratorExecutorType requestedType = CuratorExecutorType.findByType(type);
+        if(requestedType == null) {
+            throw new IllegalArgumentException("[Assertion failed] executor type '" + type + "' is invalid/unknown.");
+        }
+
+        return requestedType;
+    }
+
+    private CuratorRejectionPolicy resolveRejectionPolicy() {
+        if(!StringUtils.hasText(rejectionPolicy)) {
+            return CuratorRejectionPolicy.ABORT;
+        }
+
+        final CuratorRejectionPolicy requestedRejectionPolicy = CuratorRejectionPolicy.findByType(rejectionPolicy);
+        if(requestedRejectionPolicy == null) {
+            throw new IllegalArgumentException("[Assertion failed] rejection policy '" + rejectionPolicy + "' is invalid/unknown.");
+        }
+
+        return requestedRejectionPolicy;
+    }
+
+    public Integer getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(final Integer queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(final Integer threads) {
+        this.threads = threads;
+    }
+
+    public String getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public void setRejectionPolicy(final String rejectionPolicy) {
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    public String getThreadNamePrefix() {
+        if(StringUtils.hasText(threadNamePrefix)) {
+            return threadNamePrefix;
+        }
+        return StringUtils.hasText(beanName) ? beanName : "curator-executor";
+    }
+
+    public void setThreadNamePrefix(final String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(final String type) {
+        this.type = type;
+    }
+
+    /**
+     * Creates daemon threads named after the executor.
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final String prefix;
+
+        NamedThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
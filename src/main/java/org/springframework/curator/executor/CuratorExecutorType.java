@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.executor;
+
+/**
+ * Enumeration of the kinds of executor that may be created for a client.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public enum CuratorExecutorType {
+
+    BOUNDED("bounded"),
+    VIRTUAL("virtual");
+
+    /**
+     * The type of the executor, as defined in the XML schema.
+     */
+    private final String type;
+
+    /**
+     * Constructs a new enumerated value for the given type.
+     * @param type The executor type.
+     */
+    private CuratorExecutorType(final String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    /**
+     * Finds the matching {@link CuratorExecutorType} enumerated value
+     * that matches the provided type string.
+     * @param type The executor type.
+     * @return The matching {@link CuratorExecutorType} enumerated value
+     * 	for the given type or {@code null} if no match is found.
+     */
+    public static CuratorExecutorType findByType(final String type) {
+        CuratorExecutorType executorType = null;
+
+        for(final CuratorExecutorType currentExecutorType : values()) {
+            if(currentExecutorType.type.equals(type)) {
+                executorType = currentExecutorType;
+                break;
+            }
+        }
+
+        return executorType;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.executor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Enumeration of the policies applied when the queue of a bounded executor is full.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public enum CuratorRejectionPolicy {
+
+    ABORT("abort"),
+    CALLER_RUNS("caller-runs"),
+    DISCARD("discard"),
+    DISCARD_OLDEST("discard-oldest");
+
+    /**
+     * The type of the rejection policy, as defined in the XML schema.
+     */
+    private final String type;
+
+    /**
+     * Constructs a new enumerated value for the given type.
+     * @param type The rejection policy type.
+     */
+    private CuratorRejectionPolicy(final String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    /**
+     * Creates the {@link RejectedExecutionHandler} that implements this policy.
+     * @return The {@link RejectedExecutionHandler}.
+     */
+    public RejectedExecutionHandler createHandler() {
+        switch(this) {
+            case CALLER_RUNS:
+                return new ThreadPoolExecutor.CallerRunsPolicy();
+            case DISCARD:
+                return new ThreadPoolExecutor.DiscardPolicy();
+            case DISCARD_OLDEST:
+                return new ThreadPoolExecutor.DiscardOldestPolicy();
+            default:
+                return new ThreadPoolExecutor.AbortPolicy();
+        }
+    }
+
+    /**
+     * Finds the matching {@link CuratorRejectionPolicy} enumerated value
+     * that matches the provided type string.
+     * @param type The rejection policy type.
+     * @return The matching {@link CuratorRejectionPolicy} enumerated value
+     * 	for the given type or {@code null} if no match is found.
+     */
+    public static CuratorRejectionPolicy findByType(final String type) {
+        CuratorRejectionPolicy rejectionPolicy = null;
+
+        for(final CuratorRejectionPolicy currentRejectionPolicy : values()) {
+            if(currentRejectionPolicy.type.equals(type)) {
+                rejectionPolicy = currentRejectionPolicy;
+                break;
+            }
+        }
+
+        return rejectionPolicy;
+    }
+}
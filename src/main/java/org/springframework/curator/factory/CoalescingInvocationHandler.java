@@ -0,0 +1,333 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.data.Stat;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.curator.metrics.CuratorMetricsRegistry;
+
+/**
+ * {@link InvocationHandler} that coalesces concurrent, identical reads made through a
+ * {@link CuratorFramework} client: while a {@code getData}, {@code getChildren} or
+ * {@code checkExists} request for a path is in flight, the same request made by other
+ * threads waits for it and receives its result instead of being sent to ZooKeeper again.
+ * In-flight requests are tracked in a {@link ConcurrentHashMap}, so no lock is held while
+ * a request is waited upon.
+ *
+ * <p>Only plain foreground reads ({@code getData().forPath(path)} and the like) are
+ * coalesced.  Reads that set a watch, store a {@link Stat}, run in the background or are
+ * otherwise configured are sent as usual, since their side effects cannot be shared.
+ * Each caller receives its own copy of the result.
+ *
+ * <p>A read is only joined if no write made through the client has completed since the
+ * read was sent, so that a thread always observes its own writes.  Writes made in the
+ * background are considered complete when their callback runs.
+ *
+ * <p>If a {@link CuratorMetricsRegistry} is provided, the {@code curator.read.coalesce}
+ * counter is incremented for each read, tagged by operation and by whether the read joined
+ * a request already in flight ({@code hit}) or was sent to ZooKeeper ({@code miss}).
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class CoalescingInvocationHandler implements InvocationHandler {
+
+    private static final Set<String> READ_OPERATIONS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            "checkExists", "getChildren", "getData")));
+
+    private static final Set<String> WRITE_OPERATIONS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            "create", "delete", "inTransaction", "setACL", "setData")));
+
+    private final CuratorFramework client;
+    private final Coalescer coalescer;
+
+    private CoalescingInvocationHandler(final CuratorFramework client, final Coalescer coalescer) {
+        this.client = client;
+        this.coalescer = coalescer;
+    }
+
+    /**
+     * Creates a new {@link CuratorFramework} proxy that coalesces concurrent, identical reads.
+     * @param client The client to wrap.
+     * @param metricsRegistry The registry to which the coalesced reads are published or {@code null}.
+     * @param clientName The name of the client, used to tag the metrics.
+     * @return The {@link CuratorFramework} proxy.
+     */
+    static CuratorFramework createProxy(final CuratorFramework client, final CuratorMetricsRegistry metricsRegistry, final String clientName) {
+        return createProxy(client, new Coalescer(metricsRegistry, clientName));
+    }
+
+    private static CuratorFramework createProxy(final CuratorFramework client, final Coalescer coalescer) {
+        return (CuratorFramework)Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(),
+                new Class<?>[] { CuratorFramework.class }, new CoalescingInvocationHandler(client, coalescer));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if(method.getDeclaringClass() == Object.class) {
+            if("equals".equals(method.getName())) {
+                return proxy == args[0];
+            } else if("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+        }
+
+        final String name = method.getName();
+        final Object result = invokeMethod(method, client, args);
+
+        if(method.getParameterTypes().length == 0 && READ_OPERATIONS.contains(name)) {
+            return Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(), new Class<?>[] { method.getReturnType() },
+                    new CoalescedRead(name, result));
+        } else if(method.getParameterTypes().length == 0 && WRITE_OPERATIONS.contains(name)) {
+            return new TrackedWrite(result, method.getReturnType()).createProxy();
+        } else if("usingNamespace".equals(name) || "nonNamespaceView".equals(name)) {
+            return createProxy((CuratorFramework)result, coalescer);
+        }
+
+        return result;
+    }
+
+    private static Object invokeMethod(final Method method, final Object target, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Returns a copy of a read result, so that callers sharing a read cannot observe each
+     * other's changes to it.
+     */
+    private static Object copy(final Object result) {
+        if(result instanceof byte[]) {
+            return ((byte[])result).clone();
+        } else if(result instanceof List) {
+            return new ArrayList<Object>((List<?>)result);
+        } else if(result instanceof Stat) {
+            final Stat stat = (Stat)result;
+            return new Stat(stat.getCzxid(), stat.getMzxid(), stat.getCtime(), stat.getMtime(), stat.getVersion(), stat.getCversion(),
+                    stat.getAversion(), stat.getEphemeralOwner(), stat.getDataLength(), stat.getNumChildren(), stat.getPzxid());
+        }
+        return result;
+    }
+
+    /**
+     * The in-flight reads and write generation shared by a client and its namespace views.
+     */
+    private static class Coalescer {
+
+        private final ConcurrentMap<String, InFlightRead> inFlight = new ConcurrentHashMap<String, InFlightRead>();
+        private final AtomicLong generation = new AtomicLong();
+        private final CuratorMetricsRegistry.Counter[] hits = new CuratorMetricsRegistry.Counter[READ_OPERATIONS.size()];
+        private final CuratorMetricsRegistry.Counter[] misses = new CuratorMetricsRegistry.Counter[READ_OPERATIONS.size()];
+        private final List<String> operations = new ArrayList<String>(READ_OPERATIONS);
+
+        Coalescer(final CuratorMetricsRegistry metricsRegistry, final String clientName) {
+            if(metricsRegistry != null) {
+                for(int i = 0; i < operations.size(); i++) {
+                    hits[i] = metricsRegistry.counter("curator.read.coalesce", "client", clientName, "operation", operations.get(i), "result", "hit");
+                    misses[i] = metricsRegistry.counter("curator.read.coalesce", "client", clientName, "operation", operations.get(i), "result", "miss");
+                }
+            }
+        }
+
+        Object read(final String operation, final String path, final Callable<Object> call) throws Exception {
+            final String key = operation + ' ' + path;
+            final long currentGeneration = generation.get();
+            final InFlightRead read = new InFlightRead(call, currentGeneration);
+
+            InFlightRead existing = inFlight.putIfAbsent(key, read);
+            while(existing != null) {
+                if(existing.generation >= currentGeneration) {
+                    record(hits, operation);
+                    return copy(existing.await());
+                }
+                // The read in flight was sent before a write completed, so take its place.
+                if(inFlight.replace(key, existing, read)) {
+                    break;
+                }
+                existing = inFlight.putIfAbsent(key, read);
+            }
+
+            record(misses, operation);
+            try {
+                read.run();
+                return read.await();
+            } finally {
+                inFlight.remove(key, read);
+            }
+        }
+
+        void written() {
+            generation.incrementAndGet();
+        }
+
+        private void record(final CuratorMetricsRegistry.Counter[] counters, final String operation) {
+            final int index = operations.indexOf(operation);
+            if(counters[index] != null) {
+                counters[index].increment(1);
+            }
+        }
+    }
+
+    /**
+     * A read in flight, run by the thread that sent it and waited upon by the others.
+     */
+    private static class InFlightRead extends FutureTask<Object> {
+
+        private final long generation;
+
+        InFlightRead(final Callable<Object> call, final long generation) {
+            super(call);
+            this.generation = generation;
+        }
+
+        Object await() throws Exception {
+            try {
+                return get();
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if(cause instanceof Exception) {
+                    throw (Exception)cause;
+                } else if(cause instanceof Error) {
+                    throw (Error)cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Coalesces the read if the builder is used as is; any other use of the builder is
+     * passed through to the client.
+     */
+    private class CoalescedRead implements InvocationHandler {
+
+        private final String operation;
+        private final Object target;
+
+        CoalescedRead(final String operation, final Object target) {
+            this.operation = operation;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if("forPath".equals(method.getName()) && args != null && args.length == 1 && args[0] instanceof String) {
+                final String path = ZKPaths.fixForNamespace(client.getNamespace(), (String)args[0]);
+                return coalescer.read(operation, path, new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        try {
+                            return invokeMethod(method, target, args);
+                        } catch (final Exception e) {
+                            throw e;
+                        } catch (final Error e) {
+                            throw e;
+                        } catch (final Throwable t) {
+                            throw new IllegalStateException(t);
+                        }
+                    }
+                });
+            }
+
+            return invokeMethod(method, target, args);
+        }
+    }
+
+    /**
+     * Follows the builder chain of a write and advances the write generation each time
+     * a call of the chain returns, or when the callback of a background write runs.
+     */
+    private class TrackedWrite implements InvocationHandler {
+
+        private final Object target;
+        private final Class<?> type;
+
+        TrackedWrite(final Object target, final Class<?> type) {
+            this.target = target;
+            this.type = type;
+        }
+
+        Object createProxy() {
+            return Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(), new Class<?>[] { type }, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if("inBackground".equals(method.getName()) && args != null) {
+                for(int i = 0; i < args.length; i++) {
+                    if(args[i] instanceof BackgroundCallback) {
+                        args[i] = new TrackedCallback((BackgroundCallback)args[i]);
+                    }
+                }
+            }
+
+            final Object result;
+            try {
+                result = invokeMethod(method, target, args);
+            } finally {
+                coalescer.written();
+            }
+
+            final Class<?> returnType = GenericTypeResolver.resolveReturnType(method, type);
+            if(result == null || method.getDeclaringClass() == Object.class || !returnType.isInterface()) {
+                return result;
+            }
+            return new TrackedWrite(result, returnType).createProxy();
+        }
+    }
+
+    /**
+     * Advances the write generation before the callback of a background write runs.
+     */
+    private class TrackedCallback implements BackgroundCallback {
+
+        private final BackgroundCallback callback;
+
+        TrackedCallback(final BackgroundCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void processResult(final CuratorFramework curatorFramework, final CuratorEvent event) throws Exception {
+            coalescer.written();
+            callback.processResult(curatorFramework, event);
+        }
+    }
+}
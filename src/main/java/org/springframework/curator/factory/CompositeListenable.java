@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.apache.curator.framework.listen.Listenable;
+
+/**
+ * {@link Listenable} that registers each listener with every one of a set of
+ * underlying {@link Listenable} instances.
+ *
+ * @param <T> The type of the listener.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class CompositeListenable<T> implements Listenable<T> {
+
+    private final List<Listenable<T>> listenables;
+
+    /**
+     * Constructs a new composite over the provided {@link Listenable} instances.
+     * @param listenables The underlying {@link Listenable} instances.
+     */
+    CompositeListenable(final List<Listenable<T>> listenables) {
+        this.listenables = listenables;
+    }
+
+    @Override
+    public void addListener(final T listener) {
+        for(final Listenable<T> listenable : listenables) {
+            listenable.addListener(listener);
+        }
+    }
+
+    @Override
+    public void addListener(final T listener, final Executor executor) {
+        for(final Listenable<T> listenable : listenables) {
+            listenable.addListener(listener, executor);
+        }
+    }
+
+    @Override
+    public void removeListener(final T listener) {
+        for(final Listenable<T> listenable : listenables) {
+            listenable.removeListener(listener);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Registry of clients shared by several {@link CuratorFrameworkFactoryBean}s.
+ *
+ * <p>Each {@link CuratorFramework} owns a ZooKeeper session along with its own threads,
+ * so factories that only differ by namespace would otherwise each open a session to the
+ * same ensemble.  Factories that reference a registry instead obtain their client from
+ * it, keyed by the settings that determine the session (ensemble, credentials, timeouts,
+ * retry policy and so on).  The first factory with a given key builds and starts the
+ * client; the others reuse it and hand out a
+ * {@link CuratorFramework#usingNamespace(String) namespace view} of it.  Clients are
+ * reference counted: the underlying session is closed when the last factory using it is
+ * destroyed or, if an idle timeout is configured, once it has not been used for that long.
+ * The idle timeout lets a context that is refreshed or created again reuse the running
+ * client instead of connecting again.
+ *
+ * <p>A client is created and started outside of the lock of the registry, so that starting
+ * it, which may wait for the connection, only holds up the factories that want the same
+ * client.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorClientRegistry implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorClientRegistry.class);
+
+    private final Map<Object, SharedClient> clients = new HashMap<Object, SharedClient>();
+    private final long idleTimeoutMs;
+    private ScheduledExecutorService idleExecutor;
+
+    /**
+     * Creates a registry that closes each client as soon as it is no longer used.
+     */
+    public CuratorClientRegistry() {
+        this(0L);
+    }
+
+    /**
+     * Creates a registry that keeps each client open for the provided time once it is no
+     * longer used.
+     * @param idleTimeoutMs The time, in milliseconds, an unused client stays open.
+     */
+    public CuratorClientRegistry(final long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /**
+     * Returns the client registered under the provided key, creating it if necessary.
+     * Each call must be matched by a call to {@link #release(Object)}.
+     * @param key The key, which must implement {@code equals} and {@code hashCode}.
+     * @param factory Creates and starts the client if none is registered under the key.
+     * @return The shared client.
+     * @throws Exception if the client could not be created.
+     */
+    public CuratorFramework acquire(final Object key, final Callable<CuratorFramework> factory) throws Exception {
+        final SharedClient sharedClient;
+        final boolean created;
+        synchronized(this) {
+            SharedClient registered = clients.get(key);
+            created = registered == null;
+            if(created) {
+                registered = new SharedClient(new FutureTask<CuratorFramework>(factory));
+                clients.put(key, registered);
+            } else {
+                logger.debug("Reusing shared Curator client for {}", key);
+            }
+            registered.references++;
+            sharedClient = registered;
+        }
+
+        if(created) {
+            sharedClient.creation.run();
+        }
+
+        final CuratorFramework client;
+        try {
+            client = sharedClient.creation.get();
+        } catch (final ExecutionException e) {
+            synchronized(this) {
+                // Let the next factory try again.
+                if(clients.get(key) == sharedClient) {
+                    clients.remove(key);
+                }
+            }
+            throw e.getCause() instanceof Exception ? (Exception)e.getCause() : e;
+        } catch (final InterruptedException e) {
+            release(key);
+            throw e;
+        }
+
+        if(created) {
+            synchronized(this) {
+                sharedClient.client = client;
+                if(clients.get(key) != sharedClient) {
+                    close(client);
+                    throw new IllegalStateException("The registry was destroyed while the shared Curator client for " + key + " was created.");
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Releases a client obtained from {@link #acquire(Object, Callable)}, closing it if it
+     * is no longer used.
+     * @param key The key under which the client was acquired.
+     */
+    public synchronized void release(final Object key) {
+        final SharedClient sharedClient = clients.get(key);
+        if(sharedClient != null && --sharedClient.references == 0) {
+            if(idleTimeoutMs > 0) {
+                sharedClient.releases++;
+                scheduleIdleClose(key, sharedClient, sharedClient.releases);
+            } else {
+                clients.remove(key);
+                close(sharedClient);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct clients, and therefore sessions, that are open.  This
+     * includes unused clients that are kept open until their idle timeout expires.
+     * @return The number of clients.
+     */
+    public synchronized int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Returns the number of users of the client registered under the provided key.
+     * @param key The key.
+     * @return The number of users or zero if no client is registered under the key.
+     */
+    public synchronized int getReferenceCount(final Object key) {
+        final SharedClient sharedClient = clients.get(key);
+        return sharedClient != null ? sharedClient.references : 0;
+    }
+
+    @Override
+    public synchronized void destroy() throws Exception {
+        for(final SharedClient sharedClient : clients.values()) {
+            close(sharedClient);
+        }
+        clients.clear();
+
+        if(idleExecutor != null) {
+            idleExecutor.shutdownNow();
+            idleExecutor = null;
+        }
+    }
+
+    private void scheduleIdleClose(final Object key, final SharedClient sharedClient, final long release) {
+        if(idleExecutor == null) {
+            idleExecutor = createIdleExecutor();
+        }
+
+        idleExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized(CuratorClientRegistry.this) {
+                    // Only close the client if it has not been acquired since this release.
+                    if(clients.get(key) == sharedClient && sharedClient.references == 0 && sharedClient.releases == release) {
+                        clients.remove(key);
+                        close(sharedClient);
+                    }
+                }
+            }
+        }, idleTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static ScheduledExecutorService createIdleExecutor() {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "curator-registry-idle");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private void close(final SharedClient sharedClient) {
+        // A client that is still being created is closed by its creator once it sees it was removed.
+        if(sharedClient.client != null) {
+            close(sharedClient.client);
+        }
+    }
+
+    private void close(final CuratorFramework client) {
+        try {
+            logger.info("Closing shared Curator client");
+            client.close();
+        } catch (final Exception e) {
+            logger.error("Error closing shared Curator client: ", e);
+        }
+    }
+
+    private static class SharedClient {
+
+        private final FutureTask<CuratorFramework> creation;
+        private CuratorFramework client;
+        private int references;
+        private long releases;
+
+        private SharedClient(final FutureTask<CuratorFramework> creation) {
+            this.creation = creation;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+/**
+ * Enumeration that encapsulates the different strategies used to route operations
+ * across the clients in a pool created by the {@link CuratorFrameworkPoolFactoryBean}.
+ *
+ * <ul>
+ * <li>{@code round-robin} - each operation is sent to the next client in the pool.</li>
+ * <li>{@code path-hash} - each operation is sent to the client selected by the hash
+ * of its path, which preserves the ordering of operations against the same path.</li>
+ * </ul>
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public enum CuratorClientRouting {
+
+    PATH_HASH("path-hash"),
+    ROUND_ROBIN("round-robin");
+
+    /**
+     * The type of the routing strategy, as defined in the XML schema.
+     */
+    private final String type;
+
+    /**
+     * Constructs a new enumerated value for the given type.
+     * @param type The routing strategy type.
+     */
+    private CuratorClientRouting(final String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    /**
+     * Finds the matching {@link CuratorClientRouting} enumerated value
+     * that matches the provided type string.
+     * @param type The routing strategy type.
+     * @return The matching {@link CuratorClientRouting} enumerated value
+     * 	for the given type or {@code null} if no match is found.
+     */
+    public static CuratorClientRouting findByType(final String type) {
+        CuratorClientRouting routing = null;
+
+        for(final CuratorClientRouting currentRouting : values()) {
+            if(currentRouting.type.equals(type)) {
+                routing = currentRouting;
+                break;
+            }
+        }
+
+        return routing;
+    }
+}
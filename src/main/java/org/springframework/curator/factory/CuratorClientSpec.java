@@ -0,0 +1,361 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+import java.util.Arrays;
+
+import org.apache.curator.RetryPolicy;
+import org.apache.curator.framework.api.CompressionProvider;
+import org.apache.curator.retry.BoundedExponentialBackoffRetry;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.retry.RetryNTimes;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.retry.RetryUntilElapsed;
+import org.springframework.curator.compression.CuratorCompression;
+import org.springframework.curator.compression.CuratorCompressionProvider;
+import org.springframework.curator.retry.BudgetedRetryPolicy;
+import org.springframework.curator.retry.CircuitBreakerRetryPolicy;
+import org.springframework.curator.retry.DecorrelatedJitterRetry;
+import org.springframework.curator.retry.RetryBudget;
+import org.springframework.util.StringUtils;
+
+/**
+ * Immutable, validated form of the settings that determine how a client connects: its
+ * retry policy, timeouts, read-only mode and compression.
+ *
+ * <p>A spec is compiled once, either by the XML parser or by the {@link CuratorFrameworkFactoryBean}
+ * from its individual properties, and every setting is checked when it is built.  A missing
+ * or invalid setting is therefore reported when the configuration is read rather than when
+ * the client is created, and creating the client does not need to look up or parse anything.
+ * Specs implement {@code equals} and {@code hashCode}, so that clients with identical specs
+ * can share a session (see {@link CuratorClientRegistry}).
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public final class CuratorClientSpec {
+
+    private final CuratorRetryPolicy retryPolicyType;
+    private final Integer baseSleepTime;
+    private final Integer maxElapsedTime;
+    private final Integer maxRetries;
+    private final Integer maxSleepTime;
+    private final Integer maxTokens;
+    private final Integer openTime;
+    private final Integer sleepBetweenRetries;
+    private final Integer tokensPerSecond;
+    private final Integer connectionTimeout;
+    private final Integer sessionTimeout;
+    private final Boolean canBeReadOnly;
+    private final CuratorCompression compression;
+    private final Integer compressionThreshold;
+
+    private CuratorClientSpec(final Builder builder) {
+        this.retryPolicyType = builder.retryPolicyType;
+        this.baseSleepTime = builder.baseSleepTime;
+        this.maxElapsedTime = builder.maxElapsedTime;
+        this.maxRetries = builder.maxRetries;
+        this.maxSleepTime = builder.maxSleepTime;
+        this.maxTokens = builder.maxTokens;
+        this.openTime = builder.openTime;
+        this.sleepBetweenRetries = builder.sleepBetweenRetries;
+        this.tokensPerSecond = builder.tokensPerSecond;
+        this.connectionTimeout = builder.connectionTimeout;
+        this.sessionTimeout = builder.sessionTimeout;
+        this.canBeReadOnly = builder.canBeReadOnly;
+        this.compression = builder.compression;
+        this.compressionThreshold = builder.compressionThreshold;
+    }
+
+    /**
+     * Returns a new builder.
+     * @return The builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a new instance of the retry policy described by this spec.
+     * @param customRetryPolicy The retry policy bean, used if the type is {@link CuratorRetryPolicy#CUSTOM}.
+     * @return The {@link RetryPolicy} instance.
+     * @throws IllegalArgumentException if the type is {@link CuratorRetryPolicy#CUSTOM} and no
+     * 	retry policy bean is provided.
+     */
+    public RetryPolicy createRetryPolicy(final RetryPolicy customRetryPolicy) {
+        switch(retryPolicyType) {
+            case BOUNDED_EXPONENTIAL_BACKOFF:
+                return new BoundedExponentialBackoffRetry(baseSleepTime, maxSleepTime, maxRetries);
+            case CIRCUIT_BREAKER:
+                return new CircuitBreakerRetryPolicy(createJitterRetryPolicy(), openTime);
+            case CUSTOM:
+                if(customRetryPolicy == null) {
+                    throw new IllegalArgumentException("[Assertion failed] 'retry-policy-ref' must be configured for retry policy '" + retryPolicyType + "'.");
+                }
+                return customRetryPolicy;
+            case DECORRELATED_JITTER:
+                return createJitterRetryPolicy();
+            case EXPONENTIAL_BACKOFF:
+                return new ExponentialBackoffRetry(baseSleepTime, maxRetries, maxSleepTime != null ? maxSleepTime : Integer.MAX_VALUE);
+            case RETRY_BUDGET:
+                return new BudgetedRetryPolicy(createJitterRetryPolicy(), RetryBudget.getShared(maxTokens, tokensPerSecond));
+            case RETRY_N_TIMES:
+                return new RetryNTimes(maxRetries, sleepBetweenRetries);
+            case RETRY_ONE_TIME:
+                return new RetryOneTime(sleepBetweenRetries);
+            case RETRY_UNTIL_ELAPSED:
+                return new RetryUntilElapsed(maxElapsedTime, sleepBetweenRetries);
+            default:
+                throw new IllegalArgumentException("[Assertion failed] retry policy '" + retryPolicyType + "' is invalid/unknown.");
+        }
+    }
+
+    /**
+     * Creates the provider of the built-in compression codec described by this spec.
+     * @return The provider or {@code null} if no built-in codec is configured.
+     */
+    public CompressionProvider createCompressionProvider() {
+        if(compression == null) {
+            return null;
+        }
+
+        return new CuratorCompressionProvider(compression, compressionThreshold != null ? compressionThreshold : CuratorCompressionProvider.DEFAULT_THRESHOLD);
+    }
+
+    private RetryPolicy createJitterRetryPolicy() {
+        return new DecorrelatedJitterRetry(baseSleepTime, maxSleepTime != null ? maxSleepTime : Integer.MAX_VALUE, maxRetries);
+    }
+
+    public CuratorRetryPolicy getRetryPolicyType() {
+        return retryPolicyType;
+    }
+
+    public Integer getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public Integer getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    public Boolean getCanBeReadOnly() {
+        return canBeReadOnly;
+    }
+
+    public CuratorCompression getCompression() {
+        return compression;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof CuratorClientSpec)) {
+            return false;
+        }
+        return Arrays.equals(values(), ((CuratorClientSpec)other).values());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values());
+    }
+
+    @Override
+    public String toString() {
+        return "CuratorClientSpec[retryPolicy=" + retryPolicyType + ", connectionTimeout=" + connectionTimeout
+                + ", sessionTimeout=" + sessionTimeout + ", canBeReadOnly=" + canBeReadOnly + ", compression=" + compression + "]";
+    }
+
+    private Object[] values() {
+        return new Object[] { retryPolicyType, baseSleepTime, maxElapsedTime, maxRetries, maxSleepTime, maxTokens, openTime,
+                sleepBetweenRetries, tokensPerSecond, connectionTimeout, sessionTimeout, canBeReadOnly, compression, compressionThreshold };
+    }
+
+    /**
+     * Builds and validates a {@link CuratorClientSpec}.
+     */
+    public static final class Builder {
+
+        private String retryPolicyName;
+        private CuratorRetryPolicy retryPolicyType;
+        private Integer baseSleepTime;
+        private Integer maxElapsedTime;
+        private Integer maxRetries;
+        private Integer maxSleepTime;
+        private Integer maxTokens;
+        private Integer openTime;
+        private Integer sleepBetweenRetries;
+        private Integer tokensPerSecond;
+        private Integer connectionTimeout;
+        private Integer sessionTimeout;
+        private Boolean canBeReadOnly;
+        private String compressionName;
+        private CuratorCompression compression;
+        private Integer compressionThreshold;
+
+        private Builder() {}
+
+        public Builder retryPolicy(final String retryPolicy) {
+            this.retryPolicyName = retryPolicy;
+            return this;
+        }
+
+        public Builder baseSleepTime(final Integer baseSleepTime) {
+            this.baseSleepTime = baseSleepTime;
+            return this;
+        }
+
+        public Builder maxElapsedTime(final Integer maxElapsedTime) {
+            this.maxElapsedTime = maxElapsedTime;
+            return this;
+        }
+
+        public Builder maxRetries(final Integer maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public Builder maxSleepTime(final Integer maxSleepTime) {
+            this.maxSleepTime = maxSleepTime;
+            return this;
+        }
+
+        public Builder maxTokens(final Integer maxTokens) {
+            this.maxTokens = maxTokens;
+            return this;
+        }
+
+        public Builder openTime(final Integer openTime) {
+            this.openTime = openTime;
+            return this;
+        }
+
+        public Builder sleepBetweenRetries(final Integer sleepBetweenRetries) {
+            this.sleepBetweenRetries = sleepBetweenRetries;
+            return this;
+        }
+
+        public Builder tokensPerSecond(final Integer tokensPerSecond) {
+            this.tokensPerSecond = tokensPerSecond;
+            return this;
+        }
+
+        public Builder connectionTimeout(final Integer connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+            return this;
+        }
+
+        public Builder sessionTimeout(final Integer sessionTimeout) {
+            this.sessionTimeout = sessionTimeout;
+            return this;
+        }
+
+        public Builder canBeReadOnly(final Boolean canBeReadOnly) {
+            this.canBeReadOnly = canBeReadOnly;
+            return this;
+        }
+
+        public Builder compression(final String compression) {
+            this.compressionName = compression;
+            return this;
+        }
+
+        public Builder compressionThreshold(final Integer compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+            return this;
+        }
+
+        /**
+         * Validates the settings and builds the spec.
+         * @return The spec.
+         * @throws IllegalArgumentException if a setting is missing, unknown or out of range.
+         */
+        public CuratorClientSpec build() {
+            retryPolicyType = CuratorRetryPolicy.findByType(retryPolicyName);
+            if(retryPolicyType == null) {
+                throw new IllegalArgumentException("[Assertion failed] retry policy '" + retryPolicyName + "' is invalid/unknown.");
+            }
+
+            switch(retryPolicyType) {
+                case BOUNDED_EXPONENTIAL_BACKOFF:
+                    require("base-sleep-time", baseSleepTime);
+                    require("max-sleep-time", maxSleepTime);
+                    require("max-retries", maxRetries);
+                    break;
+                case CIRCUIT_BREAKER:
+                    require("base-sleep-time", baseSleepTime);
+                    require("max-retries", maxRetries);
+                    require("open-time", openTime);
+                    break;
+                case DECORRELATED_JITTER:
+                case EXPONENTIAL_BACKOFF:
+                    require("base-sleep-time", baseSleepTime);
+                    require("max-retries", maxRetries);
+                    break;
+                case RETRY_BUDGET:
+                    require("base-sleep-time", baseSleepTime);
+                    require("max-retries", maxRetries);
+                    require("max-tokens", maxTokens);
+                    require("tokens-per-second", tokensPerSecond);
+                    break;
+                case RETRY_N_TIMES:
+                    require("max-retries", maxRetries);
+                    require("sleep-between-retries", sleepBetweenRetries);
+                    break;
+                case RETRY_ONE_TIME:
+                    require("sleep-between-retries", sleepBetweenRetries);
+                    break;
+                case RETRY_UNTIL_ELAPSED:
+                    require("max-elapsed-time", maxElapsedTime);
+                    require("sleep-between-retries", sleepBetweenRetries);
+                    break;
+                default:
+                    break;
+            }
+
+            if(connectionTimeout != null && connectionTimeout < 1) {
+                throw new IllegalArgumentException("[Assertion failed] 'connection-timeout' must be greater than zero.");
+            }
+
+            if(sessionTimeout != null && sessionTimeout < 1) {
+                throw new IllegalArgumentException("[Assertion failed] 'session-timeout' must be greater than zero.");
+            }
+
+            if(StringUtils.hasText(compressionName)) {
+                compression = CuratorCompression.findByType(compressionName);
+                if(compression == null) {
+                    throw new IllegalArgumentException("[Assertion failed] compression '" + compressionName + "' is invalid/unknown.");
+                }
+            } else {
+                compression = null;
+            }
+
+            if(compressionThreshold != null && compressionThreshold < 0) {
+                throw new IllegalArgumentException("[Assertion failed] 'compression-threshold' must not be negative.");
+            }
+
+            return new CuratorClientSpec(this);
+        }
+
+        private void require(final String name, final Integer value) {
+            if(value == null) {
+                throw new IllegalArgumentException("[Assertion failed] '" + name + "' must be configured for retry policy '" + retryPolicyName + "'.");
+            }
+        }
+    }
+}
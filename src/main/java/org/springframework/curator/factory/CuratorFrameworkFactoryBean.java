@@ -15,7 +15,22 @@
  */
 package org.springframework.curator.factory;
 
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.ensemble.EnsembleProvider;
@@ -24,17 +39,20 @@ import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.CuratorFrameworkFactory.Builder;
 import org.apache.curator.framework.api.ACLProvider;
 import org.apache.curator.framework.api.CompressionProvider;
-import org.apache.curator.retry.BoundedExponentialBackoffRetry;
-import org.apache.curator.retry.ExponentialBackoffRetry;
-import org.apache.curator.retry.RetryNTimes;
-import org.apache.curator.retry.RetryOneTime;
-import org.apache.curator.retry.RetryUntilElapsed;
+import org.apache.curator.framework.state.ConnectionStateListener;
 import org.apache.curator.utils.ZookeeperFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.curator.health.CuratorHealthMonitor;
+import org.springframework.curator.metrics.CuratorFrameworkInstrumentation;
+import org.springframework.curator.metrics.CuratorMetricsRegistry;
+import org.springframework.curator.metrics.InstrumentedRetryPolicy;
+import org.springframework.curator.throttle.OperationScheduler;
 import org.springframework.util.StringUtils;
 
 /**
@@ -50,38 +68,150 @@ import org.springframework.util.StringUtils;
  * <p>Additionally, the factory will handle the closing of the {@link CuratorFramework}
  * client instance upon bean destroy
  *
+ * <p>By default, the client is started and verified while the factory is being
+ * initialized.  The {@link CuratorStartupMode} may be used to instead start the
+ * client in the background (all clients configured this way connect concurrently
+ * and are waited upon once, when the context starts its {@link SmartLifecycle}
+ * beans) or on first use.  The time taken to start each client is logged and is
+ * available via {@link #getStartupTime()}.
+ *
+ * <p>If a {@link CuratorMetricsRegistry} is configured, the client handed out by
+ * this factory and its retry policy are instrumented to publish operation latencies,
+ * connection state transitions and retries to the registry (see
+ * {@link CuratorFrameworkInstrumentation}).  No instrumentation is applied otherwise.
+ *
+ * <p>Background callbacks, connection state listeners and watchers are run by Curator on
+ * the ZooKeeper event thread unless an executor is supplied for them.  Dedicated executors
+ * (for example, those created by {@link org.springframework.curator.executor.CuratorExecutorFactoryBean})
+ * may be configured for each of these concerns so that slow callbacks do not delay the
+ * delivery of other events.
+ *
+ * <p>If an {@link OperationScheduler} is configured, the operations made through the client
+ * handed out by this factory are admitted by it, which limits their rate and lets
+ * latency-critical operations overtake bulk traffic.
+ *
+ * <p>If read coalescing is enabled, concurrent, identical reads made through the client
+ * handed out by this factory share a single request to ZooKeeper (see
+ * {@link CoalescingInvocationHandler}).
+ *
+ * <p>The connection state of every client created by this factory is followed by a
+ * {@link CuratorHealthMonitor}, which may also probe the client periodically.  If fail-fast
+ * is enabled, operations on the client handed out by this factory are rejected with a
+ * {@link org.springframework.curator.health.CuratorUnavailableException} while the
+ * connection is suspended or the session is lost, instead of blocking in the retry policy.
+ *
+ * <p>The retry policy, timeouts, read-only mode and compression of the client are described
+ * by a {@link CuratorClientSpec}.  The spec is either supplied (the XML parser compiles one)
+ * or compiled from the individual properties of this factory, and is validated before
+ * anything is connected.  If client caching is enabled, the client is kept in a cache
+ * shared by every factory in the JVM, keyed by its spec and settings, so that contexts
+ * that are refreshed or created repeatedly (for example, by test suites) with the same
+ * configuration reuse a running client instead of connecting again.
+ *
  * @author Jonathan Pearlin
  * @since 1.0.0
  */
-public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework>, InitializingBean, DisposableBean {
+public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework>, InitializingBean, DisposableBean, SmartLifecycle, BeanNameAware {
 
     private static final Logger logger = LoggerFactory.getLogger(CuratorFrameworkFactoryBean.class);
 
+    /**
+     * The lifecycle phase in which asynchronously started clients are waited upon.  This
+     * is early enough that lifecycle beans in later phases receive a connected client.
+     */
+    public static final int STARTUP_PHASE = Integer.MIN_VALUE + 1000;
+
+    /**
+     * The default number of path segments used to tag operation metrics.
+     */
+    public static final int DEFAULT_METRICS_PATH_DEPTH = 1;
+
+    /**
+     * Bounded executor shared by all factories that start their client asynchronously.
+     */
+    private static final ExecutorService startupExecutor = createStartupExecutor();
+
+    /**
+     * The time a cached client stays open once no factory uses it, so that a context that
+     * is refreshed or created again with the same configuration finds it still running.
+     */
+    public static final long CLIENT_CACHE_IDLE_MS = 30000L;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Cache of started clients shared by the factories with client caching enabled.
+     */
+    private static final CuratorClientRegistry clientCache = new CuratorClientRegistry(CLIENT_CACHE_IDLE_MS);
+
     private ACLProvider aclProvider;
     private Boolean  canBeReadOnly;
+    private Boolean cacheClient;
+    private Boolean coalesceReads;
+    private Boolean failFast;
     private byte[] auth;
     private byte[] defaultData;
     private CompressionProvider compressionProvider;
     private CuratorFramework client;
+    private CuratorFramework exposedClient;
+    private CuratorClientRegistry registry;
+    private CuratorClientSpec spec;
+    private CuratorMetricsRegistry metricsRegistry;
     private EnsembleProvider ensembleProvider;
+    private Executor backgroundExecutor;
+    private Executor connectionStateExecutor;
+    private Executor eventExecutor;
+    private RetryPolicy retryPolicy;
+    private Future<?> startupFuture;
+    private Integer compressionThreshold;
     private Integer connectionTimeout;
+    private Integer connectWaitMs;
+    private Integer healthProbeFailureThreshold;
+    private Integer healthProbeIntervalMs;
+    private Integer metricsPathDepth;
     private Integer retryPolicyBaseSleepTime;
     private Integer retryPolicyMaxElapsedTime;
     private Integer retryPolicyMaxRetries;
     private Integer retryPolicyMaxSleepTime;
+    private Integer retryPolicyMaxTokens;
+    private Integer retryPolicyOpenTime;
     private Integer retryPolicySleepBetweenRetries;
+    private Integer retryPolicyTokensPerSecond;
     private Integer sessionTimeout;
+    private List<CuratorHealthMonitor> healthMonitors = new ArrayList<CuratorHealthMonitor>();
+    private List<CuratorFrameworkInstrumentation.Handle> instrumentations = new ArrayList<CuratorFrameworkInstrumentation.Handle>();
+    private Object registryKey;
+    private String beanName;
+    private String compression;
     private String connectionString;
     private String namespace;
     private String retryPolicyType;
     private String scheme;
+    private String startupMode;
     private ThreadFactory threadFactory;
+    private OperationScheduler operationScheduler;
     private ZookeeperFactory zookeeperFactory;
+    private volatile boolean running;
+    private volatile Long startupTime;
 
     @Override
     public void destroy() throws Exception {
+        closeHealthMonitors();
+        closeInstrumentations();
+
+        if(registry != null) {
+            if(registryKey != null) {
+                registry.release(registryKey);
+            }
+            return;
+        }
+
         try {
             logger.info("Closing Curator client");
+            if(startupFuture != null) {
+                startupFuture.cancel(true);
+            }
+
             if (client != null) {
                 client.close();
             }
@@ -92,13 +222,46 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
 
     @Override
     public void afterPropertiesSet() throws Exception {
+        getSpec();
+
+        if(Boolean.TRUE.equals(cacheClient)) {
+            if(registry != null) {
+                throw new IllegalArgumentException("[Assertion failed] one of 'registry-ref' or 'cache-client' may be configured, but not both.");
+            }
+            registry = clientCache;
+        }
+
+        if(registry != null) {
+            acquireSharedClient();
+            return;
+        }
+
         buildClient();
-        validateClient();
+        final CuratorHealthMonitor healthMonitor = monitor(client);
+
+        switch(resolveStartupMode()) {
+            case ASYNC:
+                startupFuture = startupExecutor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        validateClient();
+                        return null;
+                    }
+                });
+                break;
+            case LAZY:
+                exposedClient = decorate(guard(LazyStartInvocationHandler.createProxy(this), healthMonitor), client);
+                return;
+            default:
+                validateClient();
+        }
+
+        exposedClient = decorate(guard(client, healthMonitor), client);
     }
 
     @Override
     public CuratorFramework getObject() throws Exception {
-        return client;
+        return exposedClient != null ? exposedClient : client;
     }
 
     @Override
@@ -111,6 +274,45 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
         return true;
     }
 
+    @Override
+    public void start() {
+        if(startupFuture != null) {
+            awaitStartup();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return STARTUP_PHASE;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+
     /**
      * Builds an Apache Curator {@link CuratorFramework} client instance
      * from the configuration stored in this factory.
@@ -126,6 +328,7 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
             throw new IllegalArgumentException("[Assertion failed] one of 'connection-string' or 'ensemble-provider' must be configured, but not both.");
         }
 
+        final CuratorClientSpec clientSpec = getSpec();
         final Builder builder = CuratorFrameworkFactory.builder();
 
         if(aclProvider != null) {
@@ -136,20 +339,26 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
             builder.authorization(scheme, auth);
         }
 
-        if(canBeReadOnly != null) {
-            builder.canBeReadOnly(canBeReadOnly);
+        if(clientSpec.getCanBeReadOnly() != null) {
+            builder.canBeReadOnly(clientSpec.getCanBeReadOnly());
+        }
+
+        if(compressionProvider != null && clientSpec.getCompression() != null) {
+            throw new IllegalArgumentException("[Assertion failed] one of 'compression' or 'compression-provider-ref' may be configured, but not both.");
         }
 
         if(compressionProvider != null) {
             builder.compressionProvider(compressionProvider);
+        } else if(clientSpec.getCompression() != null) {
+            builder.compressionProvider(clientSpec.createCompressionProvider());
         }
 
         if(StringUtils.hasText(connectionString)) {
             builder.connectString(connectionString);
         }
 
-        if(connectionTimeout != null) {
-            builder.connectionTimeoutMs(connectionTimeout);
+        if(clientSpec.getConnectionTimeout() != null) {
+            builder.connectionTimeoutMs(clientSpec.getConnectionTimeout());
         }
 
         if(defaultData != null) {
@@ -160,14 +369,20 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
             builder.ensembleProvider(ensembleProvider);
         }
 
-        if(StringUtils.hasText(namespace)) {
+        // A shared client has no namespace; each factory hands out a view in its own namespace.
+        if(StringUtils.hasText(namespace) && registry == null) {
             builder.namespace(namespace);
         }
 
-        builder.retryPolicy(createRetryPolicy());
+        final RetryPolicy clientRetryPolicy = createRetryPolicy();
+        if(metricsRegistry != null) {
+            builder.retryPolicy(new InstrumentedRetryPolicy(clientRetryPolicy, metricsRegistry, getMetricsName()));
+        } else {
+            builder.retryPolicy(clientRetryPolicy);
+        }
 
-        if(sessionTimeout != null) {
-            builder.sessionTimeoutMs(sessionTimeout);
+        if(clientSpec.getSessionTimeout() != null) {
+            builder.sessionTimeoutMs(clientSpec.getSessionTimeout());
         }
 
         if(threadFactory != null) {
@@ -179,6 +394,10 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
         }
 
         client = builder.build();
+
+        if(clientRetryPolicy instanceof ConnectionStateListener) {
+            client.getConnectionStateListenable().addListener((ConnectionStateListener)clientRetryPolicy);
+        }
     }
 
     /**
@@ -189,16 +408,137 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
      */
     protected void validateClient() throws Exception {
         if(client != null) {
+            final long start = System.nanoTime();
             client.start();
+            awaitConnection(start);
+        } else {
+            throw new IllegalStateException("Attempt to validate Curator client before creating the client.");
+        }
+    }
+
+    /**
+     * Waits for the started {@link CuratorFramework} client to connect and verifies
+     * that it can read data from the configured ZooKeeper ensemble/host.
+     * @param start The time, as given by {@link System#nanoTime()}, at which the startup began.
+     * @throws Exception if the client does not connect in time or cannot be verified.
+     */
+    protected void awaitConnection(final long start) throws Exception {
+        if(client != null) {
             logger.trace("Waiting for curator to create a connection");
-            client.blockUntilConnected();
+            if(connectWaitMs != null) {
+                if(!client.blockUntilConnected(connectWaitMs, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Curator client '" + beanName + "' failed to connect within " + connectWaitMs + " ms.");
+                }
+            } else {
+                client.blockUntilConnected();
+            }
             client.checkExists().forPath("/");
+            startupTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logger.info("Curator client '{}' started in {} ms", beanName, startupTime);
             logger.trace("Curator has successfully verified the client");
         } else {
             throw new IllegalStateException("Attempt to validate Curator client before creating the client.");
         }
     }
 
+    /**
+     * Obtains the client from the {@link CuratorClientRegistry}, building and starting it
+     * if no other factory with the same session settings has done so, and exposes a view
+     * of it in the namespace of this factory.
+     * @throws Exception if the client could not be created or started.
+     */
+    protected void acquireSharedClient() throws Exception {
+        if(StringUtils.hasText(startupMode) && resolveStartupMode() != CuratorStartupMode.EAGER) {
+            throw new IllegalArgumentException("[Assertion failed] startup mode '" + startupMode + "' is not supported for clients shared through a registry.");
+        }
+
+        final Object key = createRegistryKey();
+        final CuratorFramework sharedClient = registry.acquire(key, new Callable<CuratorFramework>() {
+            @Override
+            public CuratorFramework call() throws Exception {
+                buildClient();
+                try {
+                    validateClient();
+                } catch (final Exception e) {
+                    client.close();
+                    throw e;
+                }
+                return client;
+            }
+        });
+        registryKey = key;
+        client = sharedClient;
+        final CuratorHealthMonitor healthMonitor = monitor(sharedClient);
+        exposedClient = decorate(guard(sharedClient.usingNamespace(StringUtils.hasText(namespace) ? namespace : null), healthMonitor), sharedClient);
+    }
+
+    /**
+     * Creates the key under which the client is shared in the {@link CuratorClientRegistry}.
+     * The key holds the {@link CuratorClientSpec} and every other setting that determines
+     * the session, but not the namespace or the settings that only decorate the client
+     * handed out by this factory.  Referenced beans are compared by identity, so clients
+     * that depend on beans of a particular context are only shared within that context.
+     * @return The key.
+     */
+    protected Object createRegistryKey() {
+        return Arrays.<Object>asList(getSpec(), connectionString, ensembleProvider, scheme, auth != null ? Arrays.toString(auth) : null,
+                aclProvider, compressionProvider, defaultData != null ? Arrays.toString(defaultData) : null, threadFactory,
+                zookeeperFactory, retryPolicy, metricsRegistry);
+    }
+
+    /**
+     * Returns the {@link CuratorClientSpec} of the client.  If no spec has been supplied, it
+     * is compiled from the individual properties of this factory the first time it is needed.
+     * @return The spec.
+     * @throws IllegalArgumentException if a setting is missing or invalid.
+     */
+    public CuratorClientSpec getSpec() {
+        if(spec == null) {
+            spec = CuratorClientSpec.builder()
+                .retryPolicy(retryPolicyType)
+                .baseSleepTime(retryPolicyBaseSleepTime)
+                .maxElapsedTime(retryPolicyMaxElapsedTime)
+                .maxRetries(retryPolicyMaxRetries)
+                .maxSleepTime(retryPolicyMaxSleepTime)
+                .maxTokens(retryPolicyMaxTokens)
+                .openTime(retryPolicyOpenTime)
+                .sleepBetweenRetries(retryPolicySleepBetweenRetries)
+                .tokensPerSecond(retryPolicyTokensPerSecond)
+                .connectionTimeout(connectionTimeout)
+                .sessionTimeout(sessionTimeout)
+                .canBeReadOnly(canBeReadOnly)
+                .compression(compression)
+                .compressionThreshold(compressionThreshold)
+                .build();
+        }
+        return spec;
+    }
+
+    /**
+     * Waits for a client that is being started in the background to finish
+     * starting.  If a connect wait time has been configured, this method waits
+     * at most that long.
+     * @throws IllegalStateException if the client fails to start or does not
+     * 	start within the configured connect wait time.
+     */
+    protected void awaitStartup() {
+        try {
+            if(connectWaitMs != null) {
+                startupFuture.get(connectWaitMs, TimeUnit.MILLISECONDS);
+            } else {
+                startupFuture.get();
+            }
+        } catch (final TimeoutException e) {
+            startupFuture.cancel(true);
+            throw new IllegalStateException("Curator client '" + beanName + "' failed to start within " + connectWaitMs + " ms.", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Curator client '" + beanName + "' failed to start.", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Curator client '" + beanName + "' to start.", e);
+        }
+    }
+
     /**
      * Creates the {@link RetryPolicy} that is to be used when a failure occurs while attempting
      * to connect to ZooKeeper.
@@ -206,35 +546,130 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
      * @throws IllegalArgumentException if the requested retry policy type is unknown/invalid.
      */
     protected RetryPolicy createRetryPolicy() {
-        RetryPolicy retryPolicy = null;
-
-        final CuratorRetryPolicy requestedRetryPolicy = CuratorRetryPolicy.findByType(retryPolicyType);
-
-        if(requestedRetryPolicy != null) {
-            switch(requestedRetryPolicy) {
-                case BOUNDED_EXPONENTIAL_BACKOFF:
-                    retryPolicy = new BoundedExponentialBackoffRetry(retryPolicyBaseSleepTime, retryPolicyMaxSleepTime, retryPolicyMaxRetries);
-                    break;
-                case EXPONENTIAL_BACKOFF:
-                    retryPolicy = new ExponentialBackoffRetry(retryPolicyBaseSleepTime, retryPolicyMaxRetries, retryPolicyMaxSleepTime);
-                    break;
-                case RETRY_N_TIMES:
-                    retryPolicy = new RetryNTimes(retryPolicyMaxRetries, retryPolicySleepBetweenRetries);
-                    break;
-                case RETRY_ONE_TIME:
-                    retryPolicy = new RetryOneTime(retryPolicySleepBetweenRetries);
-                    break;
-                case RETRY_UNTIL_ELAPSED:
-                    retryPolicy = new RetryUntilElapsed(retryPolicyMaxElapsedTime, retryPolicySleepBetweenRetries);
-                    break;
-                default:
-                    throw new IllegalArgumentException("[Assertion failed] retry policy '" + retryPolicyType + "' is invalid/unknown.");
+        return getSpec().createRetryPolicy(retryPolicy);
+    }
+
+    /**
+     * Decorates the client handed out by this factory.  If an {@link OperationScheduler} has
+     * been configured, operations are admitted by it.  If read coalescing is enabled,
+     * concurrent, identical reads are coalesced.  If any executor has been configured,
+     * callbacks, listeners and watchers are dispatched to it (see {@link DispatchingInvocationHandler}).
+     * If a {@link CuratorMetricsRegistry} has been configured, the client is then instrumented;
+     * the observed client stops being observed upon bean destroy.
+     * @param curatorFramework The client handed out by this factory.
+     * @param observed The client whose connection state is observed.  This differs from the
+     * 	client handed out when the latter starts the client on first use.
+     * @return The decorated client or the provided client if no decoration has been configured.
+     */
+    protected CuratorFramework decorate(final CuratorFramework curatorFramework, final CuratorFramework observed) {
+        CuratorFramework decorated = curatorFramework;
+
+        if(operationScheduler != null) {
+            if(metricsRegistry != null) {
+                operationScheduler.bindMetrics(metricsRegistry, getMetricsName());
             }
-        } else {
-            throw new IllegalArgumentException("[Assertion failed] retry policy '" + retryPolicyType + "' is invalid/unknown.");
+            decorated = operationScheduler.throttle(decorated);
         }
 
-        return retryPolicy;
+        if(Boolean.TRUE.equals(coalesceReads)) {
+            decorated = CoalescingInvocationHandler.createProxy(decorated, metricsRegistry, getMetricsName());
+        }
+
+        if(backgroundExecutor != null || connectionStateExecutor != null || eventExecutor != null) {
+            decorated = DispatchingInvocationHandler.createProxy(decorated, backgroundExecutor, connectionStateExecutor, eventExecutor);
+        }
+
+        if(metricsRegistry != null) {
+            final int pathDepth = metricsPathDepth != null ? metricsPathDepth : DEFAULT_METRICS_PATH_DEPTH;
+            final CuratorFrameworkInstrumentation.Handle instrumentation = CuratorFrameworkInstrumentation.instrument(decorated, observed,
+                    metricsRegistry, getMetricsName(), pathDepth);
+            instrumentations.add(instrumentation);
+            decorated = instrumentation.getClient();
+        }
+
+        return decorated;
+    }
+
+    /**
+     * Creates and starts the {@link CuratorHealthMonitor} that follows the provided client.
+     * The monitor is closed upon bean destroy.
+     * @param curatorFramework The client created by this factory.
+     * @return The monitor.
+     */
+    protected CuratorHealthMonitor monitor(final CuratorFramework curatorFramework) {
+        final String name = healthMonitors.isEmpty() ? getMetricsName() : getMetricsName() + "-" + healthMonitors.size();
+        final int probeIntervalMs = healthProbeIntervalMs != null ? healthProbeIntervalMs : 0;
+        final int probeFailureThreshold = healthProbeFailureThreshold != null ? healthProbeFailureThreshold : CuratorHealthMonitor.DEFAULT_PROBE_FAILURE_THRESHOLD;
+        final CuratorHealthMonitor healthMonitor = new CuratorHealthMonitor(curatorFramework, name, probeIntervalMs, probeFailureThreshold, metricsRegistry);
+        healthMonitor.start();
+        healthMonitors.add(healthMonitor);
+        return healthMonitor;
+    }
+
+    /**
+     * Applies the fail-fast gate of the provided monitor to the client, if fail-fast is enabled.
+     * @param curatorFramework The client handed out by this factory.
+     * @param healthMonitor The monitor of the client.
+     * @return The guarded client or the provided client if fail-fast is not enabled.
+     */
+    protected CuratorFramework guard(final CuratorFramework curatorFramework, final CuratorHealthMonitor healthMonitor) {
+        if(Boolean.TRUE.equals(failFast)) {
+            return healthMonitor.createFailFastProxy(curatorFramework);
+        }
+
+        return curatorFramework;
+    }
+
+    /**
+     * Closes the {@link CuratorHealthMonitor} instances created by this factory.
+     */
+    protected void closeHealthMonitors() {
+        for(final CuratorHealthMonitor healthMonitor : healthMonitors) {
+            healthMonitor.close();
+        }
+    }
+
+    /**
+     * Stops the instrumentation of the clients created by this factory from observing them.
+     */
+    protected void closeInstrumentations() {
+        for(final CuratorFrameworkInstrumentation.Handle instrumentation : instrumentations) {
+            instrumentation.close();
+        }
+    }
+
+    private String getMetricsName() {
+        return StringUtils.hasText(beanName) ? beanName : "curator";
+    }
+
+    private CuratorStartupMode resolveStartupMode() {
+        if(!StringUtils.hasText(startupMode)) {
+            return CuratorStartupMode.EAGER;
+        }
+
+        final CuratorStartupMode requestedStartupMode = CuratorStartupMode.findByType(startupMode);
+        if(requestedStartupMode == null) {
+            throw new IllegalArgumentException("[Assertion failed] startup mode '" + startupMode + "' is invalid/unknown.");
+        }
+
+        return requestedStartupMode;
+    }
+
+    private static ExecutorService createStartupExecutor() {
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "curator-startup-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     public ACLProvider getAclProvider() {
@@ -253,6 +688,30 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
         this.canBeReadOnly = canBeReadOnly;
     }
 
+    public CompressionProvider getCompressionProvider() {
+        return compressionProvider;
+    }
+
+    public void setCompressionProvider(final CompressionProvider compressionProvider) {
+        this.compressionProvider = compressionProvider;
+    }
+
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(final String compression) {
+        this.compression = compression;
+    }
+
+    public Integer getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(final Integer compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
     public CuratorFramework getClient() {
         return client;
     }
@@ -297,7 +756,7 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
         return auth;
     }
     public void setAuth(final String auth) {
-        this.auth = StringUtils.hasText(auth) ? auth.getBytes() : null;
+        this.auth = StringUtils.hasText(auth) ? auth.getBytes(UTF_8) : null;
     }
 
     public String getConnectionString() {
@@ -313,7 +772,7 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
     }
 
     public void setDefaultData(final String defaultData) {
-        this.defaultData = StringUtils.hasText(defaultData) ? defaultData.getBytes() : null;
+        this.defaultData = StringUtils.hasText(defaultData) ? defaultData.getBytes(UTF_8) : null;
     }
 
     public String getNamespace() {
@@ -388,4 +847,184 @@ public class CuratorFrameworkFactoryBean implements FactoryBean<CuratorFramework
             final Integer retryPolicySleepBetweenRetries) {
         this.retryPolicySleepBetweenRetries = retryPolicySleepBetweenRetries;
     }
+
+    public Integer getRetryPolicyMaxTokens() {
+        return retryPolicyMaxTokens;
+    }
+
+    public void setRetryPolicyMaxTokens(final Integer retryPolicyMaxTokens) {
+        this.retryPolicyMaxTokens = retryPolicyMaxTokens;
+    }
+
+    public Integer getRetryPolicyOpenTime() {
+        return retryPolicyOpenTime;
+    }
+
+    public void setRetryPolicyOpenTime(final Integer retryPolicyOpenTime) {
+        this.retryPolicyOpenTime = retryPolicyOpenTime;
+    }
+
+    public Integer getRetryPolicyTokensPerSecond() {
+        return retryPolicyTokensPerSecond;
+    }
+
+    public void setRetryPolicyTokensPerSecond(final Integer retryPolicyTokensPerSecond) {
+        this.retryPolicyTokensPerSecond = retryPolicyTokensPerSecond;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(final RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public Integer getConnectWaitMs() {
+        return connectWaitMs;
+    }
+
+    public void setConnectWaitMs(final Integer connectWaitMs) {
+        this.connectWaitMs = connectWaitMs;
+    }
+
+    public String getStartupMode() {
+        return startupMode;
+    }
+
+    public void setStartupMode(final String startupMode) {
+        this.startupMode = startupMode;
+    }
+
+    public CuratorMetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    public void setMetricsRegistry(final CuratorMetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public Integer getMetricsPathDepth() {
+        return metricsPathDepth;
+    }
+
+    public void setMetricsPathDepth(final Integer metricsPathDepth) {
+        this.metricsPathDepth = metricsPathDepth;
+    }
+
+    public Executor getBackgroundExecutor() {
+        return backgroundExecutor;
+    }
+
+    public void setBackgroundExecutor(final Executor backgroundExecutor) {
+        this.backgroundExecutor = backgroundExecutor;
+    }
+
+    public Executor getConnectionStateExecutor() {
+        return connectionStateExecutor;
+    }
+
+    public void setConnectionStateExecutor(final Executor connectionStateExecutor) {
+        this.connectionStateExecutor = connectionStateExecutor;
+    }
+
+    public Executor getEventExecutor() {
+        return eventExecutor;
+    }
+
+    public void setEventExecutor(final Executor eventExecutor) {
+        this.eventExecutor = eventExecutor;
+    }
+
+    /**
+     * Returns the time, in milliseconds, that it took to start and verify the client.
+     * @return The startup time or {@code null} if the client has not yet been started.
+     */
+    public Long getStartupTime() {
+        return startupTime;
+    }
+
+    /**
+     * Returns the monitor of the client created by this factory.
+     * @return The monitor or {@code null} if the client has not been created.
+     */
+    public CuratorHealthMonitor getHealthMonitor() {
+        return healthMonitors.isEmpty() ? null : healthMonitors.get(0);
+    }
+
+    /**
+     * Returns the monitors of every client created by this factory.
+     * @return The monitors, in the order in which the clients were created.
+     */
+    public List<CuratorHealthMonitor> getHealthMonitors() {
+        return Collections.unmodifiableList(healthMonitors);
+    }
+
+    public Integer getHealthProbeIntervalMs() {
+        return healthProbeIntervalMs;
+    }
+
+    public void setHealthProbeIntervalMs(final Integer healthProbeIntervalMs) {
+        this.healthProbeIntervalMs = healthProbeIntervalMs;
+    }
+
+    public Integer getHealthProbeFailureThreshold() {
+        return healthProbeFailureThreshold;
+    }
+
+    public void setHealthProbeFailureThreshold(final Integer healthProbeFailureThreshold) {
+        this.healthProbeFailureThreshold = healthProbeFailureThreshold;
+    }
+
+    public Boolean isFailFast() {
+        return failFast;
+    }
+
+    public void setFailFast(final Boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    public OperationScheduler getOperationScheduler() {
+        return operationScheduler;
+    }
+
+    public void setOperationScheduler(final OperationScheduler operationScheduler) {
+        this.operationScheduler = operationScheduler;
+    }
+
+    public Boolean isCoalesceReads() {
+        return coalesceReads;
+    }
+
+    public void setCoalesceReads(final Boolean coalesceReads) {
+        this.coalesceReads = coalesceReads;
+    }
+
+    public CuratorClientRegistry getRegistry() {
+        return registry;
+    }
+
+    public void setRegistry(final CuratorClientRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void setSpec(final CuratorClientSpec spec) {
+        this.spec = spec;
+    }
+
+    public Boolean getCacheClient() {
+        return cacheClient;
+    }
+
+    public void setCacheClient(final Boolean cacheClient) {
+        this.cacheClient = cacheClient;
+    }
+
+    /**
+     * Returns the cache of started clients shared by the factories with client caching enabled.
+     * @return The cache.
+     */
+    public static CuratorClientRegistry getClientCache() {
+        return clientCache;
+    }
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.imps.CuratorFrameworkState;
+import org.apache.curator.framework.listen.Listenable;
+import org.apache.zookeeper.CreateMode;
+import org.springframework.core.GenericTypeResolver;
+
+/**
+ * {@link InvocationHandler} that backs the {@link CuratorFramework} facade handed out
+ * by the {@link CuratorFrameworkPoolFactoryBean}.  Path based operations (e.g.
+ * {@code getData().forPath(path)}) are recorded as they are built and replayed against
+ * the client selected by the configured {@link CuratorClientRouting} once the path is
+ * known.
+ *
+ * <p>Operations that leave state behind on a session (watches and ephemeral nodes)
+ * are always routed by the hash of their path, regardless of the routing strategy,
+ * so that they consistently live on the same session.  Operations that are not
+ * associated with a single path (transactions, namespace aware ensure paths and the
+ * underlying ZooKeeper client) are sent to the first client in the pool, while
+ * lifecycle operations and listener registration are applied to every client.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class CuratorFrameworkPool implements InvocationHandler {
+
+    private static final Set<String> PATH_OPERATIONS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            "checkExists", "create", "delete", "getACL", "getChildren", "getData", "setACL", "setData", "sync")));
+
+    private final List<CuratorFramework> clients;
+    private final CuratorClientRouting routing;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Constructs a new pool over the provided clients.
+     * @param clients The clients that make up the pool.
+     * @param routing The strategy used to route operations to a client.
+     */
+    CuratorFrameworkPool(final List<CuratorFramework> clients, final CuratorClientRouting routing) {
+        this.clients = clients;
+        this.routing = routing;
+    }
+
+    /**
+     * Creates a new {@link CuratorFramework} facade over the provided clients.
+     * @param clients The clients that make up the pool.
+     * @param routing The strategy used to route operations to a client.
+     * @return The {@link CuratorFramework} facade.
+     */
+    static CuratorFramework createProxy(final List<CuratorFramework> clients, final CuratorClientRouting routing) {
+        return (CuratorFramework)Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(),
+                new Class<?>[] { CuratorFramework.class }, new CuratorFrameworkPool(clients, routing));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if(method.getDeclaringClass() == Object.class) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+
+        final String name = method.getName();
+
+        if("start".equals(name) || "close".equals(name) || "clearWatcherReferences".equals(name)) {
+            for(final CuratorFramework client : clients) {
+                invokeMethod(method, client, args);
+            }
+            return null;
+        } else if("blockUntilConnected".equals(name)) {
+            return blockUntilConnected(args);
+        } else if("isStarted".equals(name)) {
+            for(final CuratorFramework client : clients) {
+                if(client.getState() != CuratorFrameworkState.STARTED) {
+                    return false;
+                }
+            }
+            return true;
+        } else if("usingNamespace".equals(name) || "nonNamespaceView".equals(name)) {
+            final List<CuratorFramework> views = new ArrayList<CuratorFramework>(clients.size());
+            for(final CuratorFramework client : clients) {
+                views.add((CuratorFramework)invokeMethod(method, client, args));
+            }
+            return createProxy(views, routing);
+        } else if(Listenable.class.equals(method.getReturnType())) {
+            final List<Listenable<Object>> listenables = new ArrayList<Listenable<Object>>(clients.size());
+            for(final CuratorFramework client : clients) {
+                listenables.add(toListenable(invokeMethod(method, client, args)));
+            }
+            return new CompositeListenable<Object>(listenables);
+        } else if(PATH_OPERATIONS.contains(name) && method.getParameterTypes().length == 0) {
+            return createOperationProxy(new PathOperation(method, method.getReturnType(), false));
+        } else if("sync".equals(name)) {
+            return invokeMethod(method, select((String)args[0], false), args);
+        } else {
+            return invokeMethod(method, clients.get(0), args);
+        }
+    }
+
+    /**
+     * Selects the client that should execute an operation against the provided path.
+     * @param path The path of the operation.
+     * @param pinned Whether or not the operation must always be executed by the same
+     * 	client for a given path.
+     * @return The selected client.
+     */
+    CuratorFramework select(final String path, final boolean pinned) {
+        if(path == null) {
+            return clients.get(0);
+        } else if(pinned || routing == CuratorClientRouting.PATH_HASH) {
+            return clients.get((path.hashCode() & Integer.MAX_VALUE) % clients.size());
+        } else {
+            return clients.get((counter.getAndIncrement() & Integer.MAX_VALUE) % clients.size());
+        }
+    }
+
+    private boolean blockUntilConnected(final Object[] args) throws InterruptedException {
+        if(args == null) {
+            for(final CuratorFramework client : clients) {
+                client.blockUntilConnected();
+            }
+            return true;
+        }
+
+        final long deadline = System.nanoTime() + ((TimeUnit)args[1]).toNanos((Integer)args[0]);
+        for(final CuratorFramework client : clients) {
+            final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if(remaining <= 0 || !client.blockUntilConnected((int)remaining, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object createOperationProxy(final PathOperation operation) {
+        return Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(), new Class<?>[] { operation.type }, operation);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Listenable<Object> toListenable(final Object listenable) {
+        return (Listenable<Object>)listenable;
+    }
+
+    private static Object invokeObjectMethod(final Object proxy, final Method method, final Object[] args) {
+        if("equals".equals(method.getName())) {
+            return proxy == args[0];
+        } else if("hashCode".equals(method.getName())) {
+            return System.identityHashCode(proxy);
+        } else {
+            return proxy.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        }
+    }
+
+    private static Object invokeMethod(final Method method, final Object target, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Records the builder calls of a path based operation until the path is
+     * supplied and the operation can be routed to a client.
+     */
+    private class PathOperation implements InvocationHandler {
+
+        private final Method operation;
+        private final Class<?> type;
+        private final boolean pinned;
+        private final List<Method> methods;
+        private final List<Object[]> arguments;
+
+        PathOperation(final Method operation, final Class<?> type, final boolean pinned) {
+            this(operation, type, pinned, Collections.<Method>emptyList(), Collections.<Object[]>emptyList());
+        }
+
+        PathOperation(final Method operation, final Class<?> type, final boolean pinned, final List<Method> methods, final List<Object[]> arguments) {
+            this.operation = operation;
+            this.type = type;
+            this.pinned = pinned;
+            this.methods = methods;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if(method.getDeclaringClass() == Object.class) {
+                return invokeObjectMethod(proxy, method, args);
+            }
+
+            if("forPath".equals(method.getName())) {
+                Object target = invokeMethod(operation, select((String)args[0], pinned), null);
+                for(int i = 0; i < methods.size(); i++) {
+                    target = invokeMethod(methods.get(i), target, arguments.get(i));
+                }
+                return invokeMethod(method, target, args);
+            }
+
+            final Class<?> returnType = GenericTypeResolver.resolveReturnType(method, type);
+            if(!returnType.isInterface()) {
+                throw new UnsupportedOperationException("Operation '" + method.getName() + "' is not supported by a pooled Curator client.");
+            }
+
+            final List<Method> nextMethods = new ArrayList<Method>(methods);
+            nextMethods.add(method);
+            final List<Object[]> nextArguments = new ArrayList<Object[]>(arguments);
+            nextArguments.add(args);
+            return createOperationProxy(new PathOperation(operation, returnType, pinned || isSessionBound(method, args), nextMethods, nextArguments));
+        }
+
+        private boolean isSessionBound(final Method method, final Object[] args) {
+            final String name = method.getName();
+            return "watched".equals(name) || "usingWatcher".equals(name) || "withProtectedEphemeralSequential".equals(name)
+                    || ("withMode".equals(name) && args[0] instanceof CreateMode && ((CreateMode)args[0]).isEphemeral());
+        }
+    }
+}
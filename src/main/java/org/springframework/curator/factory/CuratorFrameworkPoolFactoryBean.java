@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link org.springframework.beans.factory.FactoryBean} that creates a pool of
+ * Apache Curator framework clients, each with its own ZooKeeper session, and exposes
+ * them as a single {@link CuratorFramework} instance.  Each client in the pool is
+ * created from the same configuration, as described by {@link CuratorFrameworkFactoryBean}.
+ *
+ * <p>Operations are spread across the clients in the pool according to the configured
+ * {@link CuratorClientRouting} strategy.  Watches and ephemeral nodes are always created
+ * on the client selected by the hash of their path.  Note that only the {@code path-hash}
+ * strategy preserves the order of operations made against the same path.
+ *
+ * <p>The clients in the pool are always started eagerly and are closed upon bean destroy.
+ * Each client has its own {@link org.springframework.curator.health.CuratorHealthMonitor},
+ * so that, with fail-fast enabled, only the operations routed to a disconnected client are rejected.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorFrameworkPoolFactoryBean extends CuratorFrameworkFactoryBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorFrameworkPoolFactoryBean.class);
+
+    private CuratorFramework pool;
+    private Integer size;
+    private List<CuratorFramework> clients = Collections.emptyList();
+    private String routing;
+
+    @Override
+    public void destroy() throws Exception {
+        logger.info("Closing Curator client pool");
+        closeHealthMonitors();
+        closeInstrumentations();
+        closeClients(clients);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if(size == null || size < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'size' must be configured with a value greater than zero.");
+        }
+
+        if(Boolean.TRUE.equals(getCacheClient())) {
+            throw new IllegalArgumentException("[Assertion failed] 'cache-client' is not supported for client pools.");
+        }
+
+        if(StringUtils.hasText(getStartupMode()) && CuratorStartupMode.findByType(getStartupMode()) != CuratorStartupMode.EAGER) {
+            throw new IllegalArgumentException("[Assertion failed] startup mode '" + getStartupMode() + "' is not supported for client pools.");
+        }
+
+        final CuratorClientRouting requestedRouting = resolveRouting();
+        final List<CuratorFramework> pooledClients = new ArrayList<CuratorFramework>(size);
+        final List<CuratorFramework> routedClients = new ArrayList<CuratorFramework>(size);
+
+        try {
+            for(int i = 0; i < size; i++) {
+                buildClient();
+                pooledClients.add(getClient());
+                routedClients.add(guard(getClient(), monitor(getClient())));
+                validateClient();
+            }
+        } catch (final Exception e) {
+            closeHealthMonitors();
+            closeClients(pooledClients);
+            throw e;
+        }
+
+        clients = Collections.unmodifiableList(pooledClients);
+        final CuratorFramework facade = CuratorFrameworkPool.createProxy(routedClients, requestedRouting);
+        pool = decorate(facade, facade);
+    }
+
+    @Override
+    public CuratorFramework getObject() throws Exception {
+        return pool;
+    }
+
+    private CuratorClientRouting resolveRouting() {
+        if(!StringUtils.hasText(routing)) {
+            return CuratorClientRouting.ROUND_ROBIN;
+        }
+
+        final CuratorClientRouting requestedRouting = CuratorClientRouting.findByType(routing);
+        if(requestedRouting == null) {
+            throw new IllegalArgumentException("[Assertion failed] routing '" + routing + "' is invalid/unknown.");
+        }
+
+        return requestedRouting;
+    }
+
+    private void closeClients(final List<CuratorFramework> clientsToClose) {
+        for(final CuratorFramework client : clientsToClose) {
+            try {
+                client.close();
+            } catch (final Exception e) {
+                logger.error("Error closing Curator client: ", e);
+            }
+        }
+    }
+
+    public List<CuratorFramework> getClients() {
+        return clients;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(final Integer size) {
+        this.size = size;
+    }
+
+    public String getRouting() {
+        return routing;
+    }
+
+    public void setRouting(final String routing) {
+        this.routing = routing;
+    }
+}
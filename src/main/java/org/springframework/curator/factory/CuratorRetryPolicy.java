@@ -17,7 +17,8 @@ package org.springframework.curator.factory;
 
 /**
  * Enumeration that encapsulates the different retry policies currently provided
- * by the core Apache Curator framework.
+ * by the core Apache Curator framework, the jittered, budgeted and circuit breaking
+ * policies provided by this project and custom policies supplied as a Spring bean.
  *
  * @author Jonathan Pearlin
  * @since 1.0.0
@@ -25,7 +26,11 @@ package org.springframework.curator.factory;
 public enum CuratorRetryPolicy {
 
     BOUNDED_EXPONENTIAL_BACKOFF("bounded-exponential-backoff"),
+    CIRCUIT_BREAKER("circuit-breaker"),
+    CUSTOM("custom"),
+    DECORRELATED_JITTER("decorrelated-jitter"),
     EXPONENTIAL_BACKOFF("exponential-backoff"),
+    RETRY_BUDGET("retry-budget"),
     RETRY_N_TIMES("retry-n-times"),
     RETRY_ONE_TIME("retry-one-time"),
     RETRY_UNTIL_ELAPSED("retry-until-elapsed");
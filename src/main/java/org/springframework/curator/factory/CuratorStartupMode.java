@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+/**
+ * Enumeration that encapsulates the different ways in which a Curator client
+ * created by the {@link CuratorFrameworkFactoryBean} may be started.
+ *
+ * <ul>
+ * <li>{@code eager} - the client is started and verified while the bean is
+ * being initialized (the default).</li>
+ * <li>{@code async} - the client is started in the background while the rest
+ * of the context is initialized and is waited upon once, when the context
+ * starts its lifecycle beans.</li>
+ * <li>{@code lazy} - the client is not started until it is first used.</li>
+ * </ul>
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public enum CuratorStartupMode {
+
+    ASYNC("async"),
+    EAGER("eager"),
+    LAZY("lazy");
+
+    /**
+     * The type of the startup mode, as defined in the XML schema.
+     */
+    private final String type;
+
+    /**
+     * Constructs a new enumerated value for the given type.
+     * @param type The startup mode type.
+     */
+    private CuratorStartupMode(final String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    /**
+     * Finds the matching {@link CuratorStartupMode} enumerated value
+     * that matches the provided type string.
+     * @param type The startup mode type.
+     * @return The matching {@link CuratorStartupMode} enumerated value
+     * 	for the given type or {@code null} if no match is found.
+     */
+    public static CuratorStartupMode findByType(final String type) {
+        CuratorStartupMode startupMode = null;
+
+        for(final CuratorStartupMode currentStartupMode : values()) {
+            if(currentStartupMode.type.equals(type)) {
+                startupMode = currentStartupMode;
+                break;
+            }
+        }
+
+        return startupMode;
+    }
+}
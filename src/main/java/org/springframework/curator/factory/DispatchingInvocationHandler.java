@@ -0,0 +1,270 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.Backgroundable;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.listen.Listenable;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.GenericTypeResolver;
+
+/**
+ * {@link InvocationHandler} that moves the work triggered by a {@link CuratorFramework}
+ * client off of the ZooKeeper event thread and onto dedicated executors:
+ *
+ * <ul>
+ * <li>Background callbacks registered without an executor run on the background executor.</li>
+ * <li>Connection state listeners registered without an executor run on the connection state executor.</li>
+ * <li>Curator listeners registered without an executor and watchers supplied with
+ * {@code usingWatcher} run on the event executor.</li>
+ * </ul>
+ *
+ * <p>Each executor is optional; work for which no executor is configured runs where Curator
+ * runs it.  Note that an executor with more than one thread does not preserve the order in
+ * which events are delivered.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class DispatchingInvocationHandler implements InvocationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DispatchingInvocationHandler.class);
+
+    private static final Set<String> PATH_OPERATIONS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            "checkExists", "create", "delete", "getACL", "getChildren", "getData", "setACL", "setData", "sync")));
+
+    private static final Method IN_BACKGROUND_WITH_EXECUTOR = findMethod("inBackground", BackgroundCallback.class, Executor.class);
+    private static final Method IN_BACKGROUND_WITH_CONTEXT_AND_EXECUTOR = findMethod("inBackground", BackgroundCallback.class, Object.class, Executor.class);
+
+    private final CuratorFramework client;
+    private final Executor backgroundExecutor;
+    private final Executor connectionStateExecutor;
+    private final Executor eventExecutor;
+
+    private DispatchingInvocationHandler(final CuratorFramework client, final Executor backgroundExecutor, final Executor connectionStateExecutor, final Executor eventExecutor) {
+        this.client = client;
+        this.backgroundExecutor = backgroundExecutor;
+        this.connectionStateExecutor = connectionStateExecutor;
+        this.eventExecutor = eventExecutor;
+    }
+
+    /**
+     * Creates a new {@link CuratorFramework} proxy that dispatches work to the provided executors.
+     * @param client The client to wrap.
+     * @param backgroundExecutor The executor for background callbacks or {@code null}.
+     * @param connectionStateExecutor The executor for connection state listeners or {@code null}.
+     * @param eventExecutor The executor for Curator listeners and watchers or {@code null}.
+     * @return The {@link CuratorFramework} proxy.
+     */
+    static CuratorFramework createProxy(final CuratorFramework client, final Executor backgroundExecutor, final Executor connectionStateExecutor, final Executor eventExecutor) {
+        return (CuratorFramework)Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(),
+                new Class<?>[] { CuratorFramework.class }, new DispatchingInvocationHandler(client, backgroundExecutor, connectionStateExecutor, eventExecutor));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if(method.getDeclaringClass() == Object.class) {
+            if("equals".equals(method.getName())) {
+                return proxy == args[0];
+            } else if("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+        }
+
+        final String name = method.getName();
+        final Object result = invokeMethod(method, client, args);
+
+        if(PATH_OPERATIONS.contains(name) && method.getParameterTypes().length == 0) {
+            return new DispatchingOperation(result, method.getReturnType()).createProxy();
+        } else if("getConnectionStateListenable".equals(name) && connectionStateExecutor != null) {
+            return new ExecutorListenable<Object>(toListenable(result), connectionStateExecutor);
+        } else if("getCuratorListenable".equals(name) && eventExecutor != null) {
+            return new ExecutorListenable<Object>(toListenable(result), eventExecutor);
+        } else if("usingNamespace".equals(name) || "nonNamespaceView".equals(name)) {
+            return createProxy((CuratorFramework)result, backgroundExecutor, connectionStateExecutor, eventExecutor);
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Listenable<Object> toListenable(final Object listenable) {
+        return (Listenable<Object>)listenable;
+    }
+
+    private static Method findMethod(final String name, final Class<?>... parameterTypes) {
+        try {
+            return Backgroundable.class.getMethod(name, parameterTypes);
+        } catch (final NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object invokeMethod(final Method method, final Object target, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Follows the builder chain of a path based operation, supplying the configured
+     * executors to background callbacks and watchers.
+     */
+    private class DispatchingOperation implements InvocationHandler {
+
+        private final Object target;
+        private final Class<?> type;
+
+        DispatchingOperation(final Object target, final Class<?> type) {
+            this.target = target;
+            this.type = type;
+        }
+
+        Object createProxy() {
+            return Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(), new Class<?>[] { type }, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final Object result = invokeTarget(method, args);
+            if(result == null || method.getDeclaringClass() == Object.class || "forPath".equals(method.getName())) {
+                return result;
+            }
+
+            final Class<?> returnType = GenericTypeResolver.resolveReturnType(method, type);
+            return returnType.isInterface() ? new DispatchingOperation(result, returnType).createProxy() : result;
+        }
+
+        private Object invokeTarget(final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+
+            if("inBackground".equals(name) && backgroundExecutor != null && parameterTypes.length > 0 && parameterTypes[0] == BackgroundCallback.class) {
+                if(parameterTypes.length == 1) {
+                    return invokeMethod(IN_BACKGROUND_WITH_EXECUTOR, target, new Object[] { args[0], backgroundExecutor });
+                } else if(parameterTypes.length == 2 && parameterTypes[1] == Object.class) {
+                    return invokeMethod(IN_BACKGROUND_WITH_CONTEXT_AND_EXECUTOR, target, new Object[] { args[0], args[1], backgroundExecutor });
+                }
+            } else if("usingWatcher".equals(name) && eventExecutor != null) {
+                if(args[0] instanceof CuratorWatcher) {
+                    return invokeMethod(method, target, new Object[] { new DispatchingCuratorWatcher((CuratorWatcher)args[0], eventExecutor) });
+                } else if(args[0] instanceof Watcher) {
+                    return invokeMethod(method, target, new Object[] { new DispatchingWatcher((Watcher)args[0], eventExecutor) });
+                }
+            }
+
+            return invokeMethod(method, target, args);
+        }
+    }
+
+    /**
+     * {@link Watcher} that processes events on an {@link Executor}.  Equality is delegated
+     * to the wrapped watcher: Curator looks up the watcher it registers with ZooKeeper by
+     * the equality of the watcher passed to {@code usingWatcher}, so setting the same
+     * watcher twice through a dispatching client registers it once, as it would without one.
+     */
+    static final class DispatchingWatcher implements Watcher {
+
+        private final Watcher watcher;
+        private final Executor executor;
+
+        DispatchingWatcher(final Watcher watcher, final Executor executor) {
+            this.watcher = watcher;
+            this.executor = executor;
+        }
+
+        @Override
+        public void process(final WatchedEvent event) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        watcher.process(event);
+                    } catch (final RuntimeException e) {
+                        logger.error("Watcher failed to process event " + event + ": ", e);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof DispatchingWatcher && watcher.equals(((DispatchingWatcher)other).watcher);
+        }
+
+        @Override
+        public int hashCode() {
+            return watcher.hashCode();
+        }
+    }
+
+    /**
+     * {@link CuratorWatcher} that processes events on an {@link Executor}.  Equality is
+     * delegated to the wrapped watcher, so that, as with {@link DispatchingWatcher}, setting
+     * the same watcher twice through a dispatching client registers it once.
+     */
+    static final class DispatchingCuratorWatcher implements CuratorWatcher {
+
+        private final CuratorWatcher watcher;
+        private final Executor executor;
+
+        DispatchingCuratorWatcher(final CuratorWatcher watcher, final Executor executor) {
+            this.watcher = watcher;
+            this.executor = executor;
+        }
+
+        @Override
+        public void process(final WatchedEvent event) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        watcher.process(event);
+                    } catch (final Exception e) {
+                        logger.error("Watcher failed to process event " + event + ": ", e);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof DispatchingCuratorWatcher && watcher.equals(((DispatchingCuratorWatcher)other).watcher);
+        }
+
+        @Override
+        public int hashCode() {
+            return watcher.hashCode();
+        }
+    }
+}
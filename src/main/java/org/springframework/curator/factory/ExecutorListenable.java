@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+import java.util.concurrent.Executor;
+
+import org.apache.curator.framework.listen.Listenable;
+
+/**
+ * {@link Listenable} that dispatches each listener registered without an explicit
+ * {@link Executor} to a default {@link Executor}.
+ *
+ * @param <T> The type of the listener.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class ExecutorListenable<T> implements Listenable<T> {
+
+    private final Listenable<T> listenable;
+    private final Executor executor;
+
+    /**
+     * Constructs a new listenable.
+     * @param listenable The underlying {@link Listenable}.
+     * @param executor The {@link Executor} used by listeners registered without one.
+     */
+    ExecutorListenable(final Listenable<T> listenable, final Executor executor) {
+        this.listenable = listenable;
+        this.executor = executor;
+    }
+
+    @Override
+    public void addListener(final T listener) {
+        listenable.addListener(listener, executor);
+    }
+
+    @Override
+    public void addListener(final T listener, final Executor executor) {
+        listenable.addListener(listener, executor);
+    }
+
+    @Override
+    public void removeListener(final T listener) {
+        listenable.removeListener(listener);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.imps.CuratorFrameworkState;
+
+/**
+ * {@link InvocationHandler} used to back the {@link CuratorFramework} proxy handed
+ * out by the {@link CuratorFrameworkFactoryBean} when the client is configured to
+ * start lazily.  The underlying client is started and verified the first time
+ * that a method other than {@code close} or one of the state inspection methods
+ * is invoked on the proxy.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class LazyStartInvocationHandler implements InvocationHandler {
+
+    private final CuratorFrameworkFactoryBean factory;
+
+    private volatile boolean started;
+    private boolean startAttempted;
+    private Exception startFailure;
+
+    /**
+     * Constructs a new handler that starts the client owned by the provided factory.
+     * @param factory The factory that owns the client to be started on first use.
+     */
+    LazyStartInvocationHandler(final CuratorFrameworkFactoryBean factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if(requiresStart(method)) {
+            ensureStarted();
+            if("start".equals(method.getName())) {
+                return null;
+            }
+        }
+
+        try {
+            return method.invoke(factory.getClient(), args);
+        } catch (final InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Creates a new {@link CuratorFramework} proxy backed by a lazy start handler.
+     * @param factory The factory that owns the client to be started on first use.
+     * @return The {@link CuratorFramework} proxy.
+     */
+    static CuratorFramework createProxy(final CuratorFrameworkFactoryBean factory) {
+        return (CuratorFramework)Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(),
+                new Class<?>[] { CuratorFramework.class }, new LazyStartInvocationHandler(factory));
+    }
+
+    /**
+     * Indicates whether or not the client has been started by this handler.
+     * @return {@code true} if the client has been started, {@code false} otherwise.
+     */
+    boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Starts the client on first use.  A client may only be started once, so should the
+     * startup fail, later calls wait for the already started client to connect or, if it
+     * could not be started at all, rethrow the original failure.
+     */
+    private void ensureStarted() throws Exception {
+        if(!started) {
+            synchronized (this) {
+                if(!started) {
+                    if(!startAttempted) {
+                        startAttempted = true;
+                        try {
+                            factory.validateClient();
+                        } catch (final Exception e) {
+                            startFailure = e;
+                            throw e;
+                        }
+                    } else if(factory.getClient().getState() == CuratorFrameworkState.STARTED) {
+                        factory.awaitConnection(System.nanoTime());
+                    } else {
+                        throw startFailure;
+                    }
+                    started = true;
+                }
+            }
+        }
+    }
+
+    private boolean requiresStart(final Method method) {
+        if(method.getDeclaringClass() == Object.class) {
+            return false;
+        }
+
+        final String name = method.getName();
+        return !("close".equals(name) || "getState".equals(name) || "isStarted".equals(name));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.health;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+
+/**
+ * Reports the health of every Curator client defined in the application context.
+ *
+ * <p>The health of each client is read from the {@link CuratorHealthMonitor} instances
+ * of its {@link CuratorFrameworkFactoryBean}.  The overall status is the worst status of
+ * any client, so that a single disconnected client is enough to report the application
+ * as down.  The indicator may be adapted to the health endpoint used by the application.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorHealthIndicator implements BeanFactoryAware {
+
+    private ListableBeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(final BeanFactory beanFactory) throws BeansException {
+        if(!(beanFactory instanceof ListableBeanFactory)) {
+            throw new IllegalArgumentException("[Assertion failed] a ListableBeanFactory is required to locate the Curator clients.");
+        }
+        this.beanFactory = (ListableBeanFactory)beanFactory;
+    }
+
+    /**
+     * Returns the worst status of any client in the application context.
+     * @return The status or {@link CuratorHealthStatus#UNKNOWN} if there are no clients.
+     */
+    public CuratorHealthStatus getStatus() {
+        CuratorHealthStatus status = null;
+        for(final CuratorHealthMonitor monitor : getMonitors().values()) {
+            status = worst(status, monitor.getStatus());
+        }
+        return status != null ? status : CuratorHealthStatus.UNKNOWN;
+    }
+
+    /**
+     * Returns the overall status along with the health of each client, by monitor name.
+     * @return The health.
+     */
+    public Map<String, Object> getHealth() {
+        final Map<String, Object> clients = new LinkedHashMap<String, Object>();
+        CuratorHealthStatus status = null;
+        for(final Map.Entry<String, CuratorHealthMonitor> entry : getMonitors().entrySet()) {
+            status = worst(status, entry.getValue().getStatus());
+            clients.put(entry.getKey(), entry.getValue().getHealth());
+        }
+
+        final Map<String, Object> health = new LinkedHashMap<String, Object>();
+        health.put("status", (status != null ? status : CuratorHealthStatus.UNKNOWN).toString());
+        health.put("clients", clients);
+        return health;
+    }
+
+    /**
+     * Returns the monitors of every client in the application context, by monitor name.
+     * @return The monitors.
+     */
+    public Map<String, CuratorHealthMonitor> getMonitors() {
+        final Map<String, CuratorHealthMonitor> monitors = new LinkedHashMap<String, CuratorHealthMonitor>();
+        final Map<String, CuratorFrameworkFactoryBean> factories = beanFactory.getBeansOfType(CuratorFrameworkFactoryBean.class);
+        for(final Map.Entry<String, CuratorFrameworkFactoryBean> entry : factories.entrySet()) {
+            for(final CuratorHealthMonitor monitor : entry.getValue().getHealthMonitors()) {
+                monitors.put(monitor.getName(), monitor);
+            }
+        }
+        return monitors;
+    }
+
+    private static CuratorHealthStatus worst(final CuratorHealthStatus current, final CuratorHealthStatus status) {
+        return current == null || status.ordinal() > current.ordinal() ? status : current;
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.health;
+
+import java.io.Closeable;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.imps.CuratorFrameworkState;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.curator.metrics.CuratorMetricsRegistry;
+
+/**
+ * Tracks the health of a client for as long as the client is open.
+ *
+ * <p>The monitor follows the {@link ConnectionState} transitions of the client and
+ * records how many times each state was entered and how long was spent in it; if a
+ * {@link CuratorMetricsRegistry} is provided, the time spent in a state is also recorded
+ * by the {@code curator.connection.state.duration} timer when the state is left.  While
+ * the client is connected, it may also be probed periodically with a single
+ * {@code exists("/")} request sent straight to ZooKeeper, outside of the retry policy, to
+ * measure its latency and to detect a connection that no longer responds.
+ *
+ * <p>{@link #checkAvailable()} is the fail-fast gate: it throws a
+ * {@link CuratorUnavailableException} while the connection is suspended or the session
+ * is lost, at the cost of a single volatile read otherwise.  A client that has not
+ * connected yet is considered available, so that clients started on first use can be
+ * started through the gate.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorHealthMonitor implements ConnectionStateListener, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorHealthMonitor.class);
+
+    public static final int DEFAULT_PROBE_FAILURE_THRESHOLD = 3;
+
+    private final CuratorFramework client;
+    private final String name;
+    private final int probeIntervalMs;
+    private final int probeFailureThreshold;
+    private final CuratorMetricsRegistry metricsRegistry;
+    private final Map<ConnectionState, AtomicLong> timeInState = new EnumMap<ConnectionState, AtomicLong>(ConnectionState.class);
+    private final Map<ConnectionState, AtomicLong> transitions = new EnumMap<ConnectionState, AtomicLong>(ConnectionState.class);
+    private final AtomicLong probeCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicInteger consecutiveProbeFailures = new AtomicInteger();
+    private ScheduledExecutorService probeExecutor;
+    private long stateEnteredAt;
+    private volatile ConnectionState connectionState;
+    private volatile long lastProbeLatencyNanos = -1;
+
+    /**
+     * Constructs a new monitor.
+     * @param client The monitored client.
+     * @param name The name of the client, used in messages and metrics.
+     * @param probeIntervalMs The interval between probes in milliseconds or {@code 0} to disable probes.
+     * @param probeFailureThreshold The number of consecutive failed probes after which the client is degraded.
+     * @param metricsRegistry The registry to which the time spent in each state is published or {@code null}.
+     */
+    public CuratorHealthMonitor(final CuratorFramework client, final String name, final int probeIntervalMs, final int probeFailureThreshold, final CuratorMetricsRegistry metricsRegistry) {
+        this.client = client;
+        this.name = name;
+        this.probeIntervalMs = probeIntervalMs;
+        this.probeFailureThreshold = probeFailureThreshold;
+        this.metricsRegistry = metricsRegistry;
+        for(final ConnectionState state : ConnectionState.values()) {
+            timeInState.put(state, new AtomicLong());
+            transitions.put(state, new AtomicLong());
+        }
+    }
+
+    /**
+     * Starts following the client.  Should the client already be connected, as is the
+     * case for a client shared with other factories, it is considered to have just connected.
+     * The listener is registered before the current state is read, so that a connection
+     * made in between is not missed; such a connection may then be seen twice and is only
+     * counted once.
+     */
+    public synchronized void start() {
+        client.getConnectionStateListenable().addListener(this);
+        if(connectionState == null && isClientConnected()) {
+            enter(ConnectionState.CONNECTED);
+        }
+
+        if(probeIntervalMs > 0) {
+            probeExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, name + "-health-probe");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            probeExecutor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    probe();
+                }
+            }, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        client.getConnectionStateListenable().removeListener(this);
+        if(probeExecutor != null) {
+            probeExecutor.shutdownNow();
+            probeExecutor = null;
+        }
+    }
+
+    @Override
+    public void stateChanged(final CuratorFramework curatorFramework, final ConnectionState newState) {
+        logger.debug("Curator client '{}' is {}", name, newState);
+        enter(newState);
+    }
+
+    /**
+     * Rejects the caller if the client is unavailable.
+     * @throws CuratorUnavailableException if the connection is suspended or the session has been lost.
+     */
+    public void checkAvailable() {
+        final ConnectionState state = connectionState;
+        if(state == ConnectionState.SUSPENDED || state == ConnectionState.LOST) {
+            rejectedCount.incrementAndGet();
+            throw new CuratorUnavailableException(name, state);
+        }
+    }
+
+    /**
+     * Returns whether operations are currently let through by {@link #checkAvailable()}.
+     * @return {@code true} unless the connection is suspended or the session has been lost.
+     */
+    public boolean isAvailable() {
+        final ConnectionState state = connectionState;
+        return state != ConnectionState.SUSPENDED && state != ConnectionState.LOST;
+    }
+
+    /**
+     * Wraps the provided client so that its operations are rejected while this monitor
+     * reports the client as unavailable.
+     * @param curatorFramework The client, which should be the monitored client or a view of it.
+     * @return The fail-fast client.
+     */
+    public CuratorFramework createFailFastProxy(final CuratorFramework curatorFramework) {
+        return FailFastInvocationHandler.createProxy(curatorFramework, this);
+    }
+
+    /**
+     * Returns the health of the client.
+     * @return The health status.
+     */
+    public CuratorHealthStatus getStatus() {
+        final ConnectionState state = connectionState;
+        if(state == null) {
+            return CuratorHealthStatus.UNKNOWN;
+        } else if(!isAvailable()) {
+            return CuratorHealthStatus.DOWN;
+        } else if(state == ConnectionState.READ_ONLY || consecutiveProbeFailures.get() >= probeFailureThreshold) {
+            return CuratorHealthStatus.DEGRADED;
+        }
+        return CuratorHealthStatus.UP;
+    }
+
+    /**
+     * Returns the health of the client along with the details that it was derived from.
+     * @return The status, connection state, time spent in each state and probe results, by name.
+     */
+    public Map<String, Object> getHealth() {
+        final Map<String, Object> health = new LinkedHashMap<String, Object>();
+        health.put("status", getStatus().toString());
+        health.put("state", connectionState != null ? connectionState.name() : null);
+
+        final Map<String, Long> time = new LinkedHashMap<String, Long>();
+        for(final ConnectionState state : ConnectionState.values()) {
+            time.put(state.name(), getTimeInState(state));
+        }
+        health.put("timeInStateMs", time);
+        health.put("rejected", rejectedCount.get());
+
+        if(probeIntervalMs > 0) {
+            health.put("probes", probeCount.get());
+            health.put("consecutiveProbeFailures", consecutiveProbeFailures.get());
+            health.put("lastProbeLatencyMs", lastProbeLatencyNanos >= 0 ? TimeUnit.NANOSECONDS.toMillis(lastProbeLatencyNanos) : null);
+        }
+        return health;
+    }
+
+    /**
+     * Sends a single request to ZooKeeper, bypassing the retry policy, and records its outcome.
+     * No probe is sent while the connection is suspended or lost.
+     */
+    void probe() {
+        if(!isAvailable() || connectionState == null) {
+            return;
+        }
+
+        probeCount.incrementAndGet();
+        final long start = System.nanoTime();
+        try {
+            client.getZookeeperClient().getZooKeeper().exists("/", false);
+            lastProbeLatencyNanos = System.nanoTime() - start;
+            consecutiveProbeFailures.set(0);
+        } catch (final Exception e) {
+            final int failures = consecutiveProbeFailures.incrementAndGet();
+            logger.debug("Probe {} of Curator client '{}' failed: {}", failures, name, e.getMessage());
+        }
+    }
+
+    private synchronized void enter(final ConnectionState newState) {
+        final ConnectionState previousState = connectionState;
+        if(newState == ConnectionState.CONNECTED && previousState != null) {
+            // Curator reports CONNECTED once per client, so this is the initial connection,
+            // already seen by start(), delivered to the listener late.
+            return;
+        }
+
+        final long now = System.nanoTime();
+        if(previousState != null) {
+            final long elapsed = now - stateEnteredAt;
+            timeInState.get(previousState).addAndGet(elapsed);
+            if(metricsRegistry != null) {
+                metricsRegistry.timer("curator.connection.state.duration", "client", name, "state", previousState.name()).record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        transitions.get(newState).incrementAndGet();
+        stateEnteredAt = now;
+        connectionState = newState;
+        if(newState.isConnected()) {
+            consecutiveProbeFailures.set(0);
+        }
+    }
+
+    /**
+     * Returns whether the ZooKeeper handle of the client is connected.  The handle is
+     * checked rather than {@link org.apache.curator.CuratorZookeeperClient#isConnected()},
+     * which Curator only updates after notifying the connection state listeners.
+     * @return {@code true} if the client is started and connected.
+     */
+    private boolean isClientConnected() {
+        try {
+            return client.getState() == CuratorFrameworkState.STARTED && client.getZookeeperClient().getZooKeeper().getState().isConnected();
+        } catch (final Exception e) {
+            logger.debug("Unable to read the connection state of Curator client '{}': {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the total time spent in the provided state, including the time spent so far
+     * if the client is currently in that state.
+     * @param state The connection state.
+     * @return The time in milliseconds.
+     */
+    public synchronized long getTimeInState(final ConnectionState state) {
+        long nanos = timeInState.get(state).get();
+        if(state == connectionState) {
+            nanos += System.nanoTime() - stateEnteredAt;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Returns the number of times the client entered the provided state.
+     * @param state The connection state.
+     * @return The number of transitions.
+     */
+    public long getTransitionCount(final ConnectionState state) {
+        return transitions.get(state).get();
+    }
+
+    /**
+     * Returns the current connection state of the client.
+     * @return The connection state or {@code null} if the client has not connected yet.
+     */
+    public ConnectionState getConnectionState() {
+        return connectionState;
+    }
+
+    /**
+     * Returns the latency of the last successful probe.
+     * @return The latency in milliseconds or {@code -1} if no probe has succeeded.
+     */
+    public long getLastProbeLatencyMs() {
+        final long latency = lastProbeLatencyNanos;
+        return latency >= 0 ? TimeUnit.NANOSECONDS.toMillis(latency) : -1;
+    }
+
+    public long getProbeCount() {
+        return probeCount.get();
+    }
+
+    public int getConsecutiveProbeFailures() {
+        return consecutiveProbeFailures.get();
+    }
+
+    /**
+     * Returns the number of operations rejected by {@link #checkAvailable()}.
+     * @return The number of rejected operations.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.health;
+
+/**
+ * Enumeration of the health of a client, as reported by {@link CuratorHealthMonitor}.
+ *
+ * <ul>
+ * <li>{@code up} - the client is connected and its probes succeed.</li>
+ * <li>{@code degraded} - the client is connected in read-only mode or its probes
+ * have failed repeatedly.</li>
+ * <li>{@code down} - the connection is suspended or the session has been lost.</li>
+ * <li>{@code unknown} - the client has not connected yet.</li>
+ * </ul>
+ *
+ * <p>The values are declared from the healthiest to the least healthy, so that the
+ * health of several clients is the value with the highest ordinal.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public enum CuratorHealthStatus {
+
+    UP("up"),
+    UNKNOWN("unknown"),
+    DEGRADED("degraded"),
+    DOWN("down");
+
+    /**
+     * The type of the status, as reported by the health indicator.
+     */
+    private final String type;
+
+    /**
+     * Constructs a new enumerated value for the given type.
+     * @param type The status type.
+     */
+    private CuratorHealthStatus(final String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    /**
+     * Finds the matching {@link CuratorHealthStatus} enumerated value
+     * that matches the provided type string.
+     * @param type The status type.
+     * @return The matching {@link CuratorHealthStatus} enumerated value
+     * 	for the given type or {@code null} if no match is found.
+     */
+    public static CuratorHealthStatus findByType(final String type) {
+        CuratorHealthStatus status = null;
+
+        for(final CuratorHealthStatus currentStatus : values()) {
+            if(currentStatus.type.equals(type)) {
+                status = currentStatus;
+                break;
+            }
+        }
+
+        return status;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.health;
+
+import org.apache.curator.framework.state.ConnectionState;
+
+/**
+ * Thrown by a fail-fast client when an operation is attempted while the connection is
+ * suspended or the session has been lost, instead of waiting for the retry policy to give up.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorUnavailableException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ConnectionState connectionState;
+
+    public CuratorUnavailableException(final String clientName, final ConnectionState connectionState) {
+        super("Curator client '" + clientName + "' is unavailable: connection is " + connectionState + ".");
+        this.connectionState = connectionState;
+    }
+
+    public ConnectionState getConnectionState() {
+        return connectionState;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.health;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.curator.framework.CuratorFramework;
+
+/**
+ * {@link InvocationHandler} that checks the {@link CuratorHealthMonitor} of a client before
+ * each operation is started, so that operations are rejected at once while the client is
+ * unavailable rather than blocking in the retry policy.  Only the methods that start an
+ * operation are checked; a single volatile read is added to each of them.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class FailFastInvocationHandler implements InvocationHandler {
+
+    private static final Set<String> OPERATIONS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            "checkExists", "create", "delete", "getACL", "getChildren", "getData", "inTransaction", "setACL", "setData", "sync")));
+
+    private final CuratorFramework client;
+    private final CuratorHealthMonitor monitor;
+
+    private FailFastInvocationHandler(final CuratorFramework client, final CuratorHealthMonitor monitor) {
+        this.client = client;
+        this.monitor = monitor;
+    }
+
+    /**
+     * Creates a new {@link CuratorFramework} proxy that rejects operations while the
+     * provided monitor reports the client as unavailable.
+     * @param client The client to wrap.
+     * @param monitor The monitor of the client.
+     * @return The {@link CuratorFramework} proxy.
+     */
+    static CuratorFramework createProxy(final CuratorFramework client, final CuratorHealthMonitor monitor) {
+        return (CuratorFramework)Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(),
+                new Class<?>[] { CuratorFramework.class }, new FailFastInvocationHandler(client, monitor));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if(method.getDeclaringClass() == Object.class) {
+            if("equals".equals(method.getName())) {
+                return proxy == args[0];
+            } else if("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+        }
+
+        final String name = method.getName();
+        if(OPERATIONS.contains(name) && method.getParameterTypes().length == 0) {
+            monitor.checkAvailable();
+        }
+
+        final Object result;
+        try {
+            result = method.invoke(client, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+
+        if("usingNamespace".equals(name) || "nonNamespaceView".equals(name)) {
+            return createProxy((CuratorFramework)result, monitor);
+        }
+
+        return result;
+    }
+}
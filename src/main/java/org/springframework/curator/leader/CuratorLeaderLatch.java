@@ -0,0 +1,226 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.leader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.leader.LeaderLatch;
+import org.apache.curator.framework.recipes.leader.LeaderLatchListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.curator.metrics.CuratorMetricsRegistry;
+import org.springframework.util.StringUtils;
+
+/**
+ * Participates in a leader election, using Curator's {@link LeaderLatch}, for as long as
+ * the application context is running.
+ *
+ * <p>The latch is started along with the other lifecycle beans of the context and closed,
+ * relinquishing leadership, when the context is stopped.  The configured
+ * {@link LeaderLatchListener}s are notified as leadership is gained and lost.  If a
+ * {@link CuratorMetricsRegistry} is configured, whether this participant is the leader is
+ * published as the {@code curator.leader} gauge and each change of leadership is counted
+ * as {@code curator.leader.transitions} (tagged with the new {@code state}).  Both are
+ * tagged with the latch name.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorLeaderLatch implements SmartLifecycle, DisposableBean, BeanNameAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorLeaderLatch.class);
+
+    private CuratorFramework client;
+    private CuratorMetricsRegistry metricsRegistry;
+    private LeaderLatch leaderLatch;
+    private List<LeaderLatchListener> listeners = new ArrayList<LeaderLatchListener>();
+    private String beanName = "curator-leader-latch";
+    private String participantId;
+    private String path;
+    private volatile boolean running;
+
+    @Override
+    public synchronized void start() {
+        if(running) {
+            return;
+        }
+
+        if(client == null || !StringUtils.hasText(path)) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' and 'path' must be configured.");
+        }
+
+        leaderLatch = new LeaderLatch(client, path, participantId != null ? participantId : "");
+        for(final LeaderLatchListener listener : listeners) {
+            leaderLatch.addListener(listener);
+        }
+
+        if(metricsRegistry != null) {
+            addMetrics(leaderLatch);
+        }
+
+        try {
+            leaderLatch.start();
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to start leader latch '" + beanName + "' on " + path + ".", e);
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if(!running) {
+            return;
+        }
+
+        running = false;
+        try {
+            leaderLatch.close();
+        } catch (final IOException e) {
+            logger.warn("Unable to close leader latch '{}': {}", beanName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return CuratorFrameworkFactoryBean.STARTUP_PHASE + 1;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        stop();
+    }
+
+    /**
+     * Returns whether this participant is currently the leader.
+     * @return {@code true} if this participant is the leader.
+     */
+    public boolean hasLeadership() {
+        return running && leaderLatch.hasLeadership();
+    }
+
+    /**
+     * Waits until this participant becomes the leader or the provided time elapses.
+     * @param time The maximum time to wait.
+     * @param unit The unit of the time.
+     * @return {@code true} if this participant is the leader.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean await(final long time, final TimeUnit unit) throws InterruptedException {
+        if(!running) {
+            throw new IllegalStateException("Leader latch '" + beanName + "' is not running.");
+        }
+        return leaderLatch.await(time, unit);
+    }
+
+    /**
+     * Returns the underlying {@link LeaderLatch}.
+     * @return The latch or {@code null} if the bean has not been started.
+     */
+    public LeaderLatch getLeaderLatch() {
+        return leaderLatch;
+    }
+
+    private void addMetrics(final LeaderLatch latch) {
+        final CuratorMetricsRegistry.Counter acquired = metricsRegistry.counter("curator.leader.transitions", "latch", beanName, "state", "leader");
+        final CuratorMetricsRegistry.Counter lost = metricsRegistry.counter("curator.leader.transitions", "latch", beanName, "state", "follower");
+        latch.addListener(new LeaderLatchListener() {
+            @Override
+            public void isLeader() {
+                acquired.increment(1);
+            }
+
+            @Override
+            public void notLeader() {
+                lost.increment(1);
+            }
+        });
+        metricsRegistry.gauge("curator.leader", new CuratorMetricsRegistry.Gauge() {
+            @Override
+            public double value() {
+                return hasLeadership() ? 1 : 0;
+            }
+        }, "latch", beanName);
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public List<LeaderLatchListener> getListeners() {
+        return listeners;
+    }
+
+    public void setListeners(final List<LeaderLatchListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    public CuratorMetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    public void setMetricsRegistry(final CuratorMetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public String getParticipantId() {
+        return participantId;
+    }
+
+    public void setParticipantId(final String participantId) {
+        this.participantId = participantId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(final String path) {
+        this.path = path;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.lock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.curator.metrics.CuratorMetricsRegistry;
+import org.springframework.util.StringUtils;
+
+/**
+ * Distributed, re-entrant lock backed by Curator's {@link InterProcessMutex}.
+ *
+ * <p>Threads of the same process first queue, in order, on a local lock and only the
+ * thread at the head of that queue contends for the distributed lock.  Each process
+ * therefore creates at most one lock node at a time, no matter how many of its threads
+ * are waiting, which keeps the number of nodes (and of watches fired on release) in
+ * proportion to the number of contending processes rather than threads.
+ *
+ * <p>If a {@link CuratorMetricsRegistry} is configured, the time taken to acquire the
+ * lock is published as {@code curator.lock.acquire} (tagged with the {@code outcome},
+ * {@code acquired} or {@code timeout}) and the number of local threads waiting for the
+ * lock as the {@code curator.lock.waiting} gauge.  Both are tagged with the lock name.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorLock implements InitializingBean, BeanNameAware {
+
+    private final ReentrantLock localLock = new ReentrantLock(true);
+
+    private CuratorFramework client;
+    private CuratorMetricsRegistry metricsRegistry;
+    private CuratorMetricsRegistry.Timer acquiredTimer;
+    private CuratorMetricsRegistry.Timer timeoutTimer;
+    private InterProcessMutex mutex;
+    private String beanName = "curator-lock";
+    private String path;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if(client == null || !StringUtils.hasText(path)) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' and 'path' must be configured.");
+        }
+
+        mutex = new InterProcessMutex(client, path);
+
+        if(metricsRegistry != null) {
+            acquiredTimer = metricsRegistry.timer("curator.lock.acquire", "lock", beanName, "outcome", "acquired");
+            timeoutTimer = metricsRegistry.timer("curator.lock.acquire", "lock", beanName, "outcome", "timeout");
+            metricsRegistry.gauge("curator.lock.waiting", new CuratorMetricsRegistry.Gauge() {
+                @Override
+                public double value() {
+                    return localLock.getQueueLength();
+                }
+            }, "lock", beanName);
+        }
+    }
+
+    /**
+     * Acquires the lock, waiting for as long as necessary.
+     * @throws Exception if the lock cannot be acquired.
+     */
+    public void acquire() throws Exception {
+        final long start = System.nanoTime();
+        localLock.lockInterruptibly();
+        try {
+            mutex.acquire();
+        } catch (final Exception e) {
+            localLock.unlock();
+            throw e;
+        }
+        record(acquiredTimer, start);
+    }
+
+    /**
+     * Acquires the lock if it becomes available within the provided time.
+     * @param time The maximum time to wait.
+     * @param unit The unit of the time.
+     * @return {@code true} if the lock was acquired, {@code false} otherwise.
+     * @throws Exception if an error occurs while acquiring the lock.
+     */
+    public boolean acquire(final long time, final TimeUnit unit) throws Exception {
+        final long start = System.nanoTime();
+        final long deadline = start + unit.toNanos(time);
+
+        if(!localLock.tryLock(time, unit)) {
+            record(timeoutTimer, start);
+            return false;
+        }
+
+        final boolean acquired;
+        try {
+            acquired = mutex.acquire(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (final Exception e) {
+            localLock.unlock();
+            throw e;
+        }
+
+        if(!acquired) {
+            localLock.unlock();
+            record(timeoutTimer, start);
+            return false;
+        }
+
+        record(acquiredTimer, start);
+        return true;
+    }
+
+    /**
+     * Releases the lock.  The lock must be held by the calling thread.
+     * @throws Exception if an error occurs while releasing the lock.
+     */
+    public void release() throws Exception {
+        if(!localLock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("The lock '" + beanName + "' is not held by the current thread.");
+        }
+
+        try {
+            mutex.release();
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the lock is held by a thread of this process.
+     * @return {@code true} if the lock is held in this process.
+     */
+    public boolean isAcquiredInThisProcess() {
+        return mutex != null && mutex.isAcquiredInThisProcess();
+    }
+
+    /**
+     * Returns the number of threads of this process that are waiting for the lock.
+     * @return The number of waiting threads.
+     */
+    public int getLocalWaiters() {
+        return localLock.getQueueLength();
+    }
+
+    private static void record(final CuratorMetricsRegistry.Timer timer, final long start) {
+        if(timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public CuratorMetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    public void setMetricsRegistry(final CuratorMetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(final String path) {
+        this.path = path;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.lock;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that a method may only be invoked while holding a {@link CuratorLock}.  The
+ * lock is acquired before the method is invoked and released once it returns or throws.
+ *
+ * <p>Processing of this annotation is enabled by {@code <curator:annotation-driven />}
+ * (see {@link CuratorLockedAnnotationBeanPostProcessor}).
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CuratorLocked {
+
+    /**
+     * The name of the {@link CuratorLock} bean to acquire.
+     */
+    String value();
+
+    /**
+     * The maximum time, in milliseconds, to wait for the lock.  If the lock cannot be
+     * acquired in time, an {@link IllegalStateException} is thrown and the method is not
+     * invoked.  A negative value waits for as long as necessary.
+     */
+    long timeoutMs() default -1;
+}
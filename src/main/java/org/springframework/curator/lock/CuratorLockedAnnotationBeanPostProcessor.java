@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.lock;
+
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+
+/**
+ * Bean post-processor that applies {@link CuratorLocked} behavior to beans with annotated
+ * methods by proxying them.  It is registered by {@code <curator:annotation-driven />}.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+@SuppressWarnings("serial")
+public class CuratorLockedAnnotationBeanPostProcessor extends AbstractAdvisingBeanPostProcessor implements BeanFactoryAware {
+
+    public CuratorLockedAnnotationBeanPostProcessor() {
+        setBeforeExistingAdvisors(true);
+    }
+
+    @Override
+    public void setBeanFactory(final BeanFactory beanFactory) {
+        this.advisor = new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(CuratorLocked.class), new CuratorLockedInterceptor(beanFactory));
+    }
+}
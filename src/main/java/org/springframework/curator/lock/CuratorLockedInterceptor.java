@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.lock;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+
+/**
+ * {@link MethodInterceptor} that holds the {@link CuratorLock} named by the
+ * {@link CuratorLocked} annotation of the invoked method for the duration of the invocation.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class CuratorLockedInterceptor implements MethodInterceptor {
+
+    private final ConcurrentMap<String, CuratorLock> locks = new ConcurrentHashMap<String, CuratorLock>();
+    private final BeanFactory beanFactory;
+
+    CuratorLockedInterceptor(final BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        final Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+        final CuratorLocked locked = AnnotationUtils.findAnnotation(method, CuratorLocked.class);
+        if(locked == null) {
+            return invocation.proceed();
+        }
+
+        final CuratorLock lock = getLock(locked.value());
+        if(locked.timeoutMs() < 0) {
+            lock.acquire();
+        } else if(!lock.acquire(locked.timeoutMs(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Unable to acquire lock '" + locked.value() + "' within " + locked.timeoutMs() + " ms to invoke " + method + ".");
+        }
+
+        try {
+            return invocation.proceed();
+        } finally {
+            lock.release();
+        }
+    }
+
+    private CuratorLock getLock(final String name) {
+        CuratorLock lock = locks.get(name);
+        if(lock == null) {
+            lock = beanFactory.getBean(name, CuratorLock.class);
+            locks.putIfAbsent(name, lock);
+        }
+        return lock;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.lock;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.locks.InterProcessSemaphoreV2;
+import org.apache.curator.framework.recipes.locks.Lease;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.curator.metrics.CuratorMetricsRegistry;
+import org.springframework.util.StringUtils;
+
+/**
+ * Distributed counting semaphore backed by Curator's {@link InterProcessSemaphoreV2}.
+ *
+ * <p>A process can never hold more than {@code maxLeases} leases, so threads first take
+ * a permit from a local semaphore with that many permits and wait, in order, in memory
+ * once all local permits are taken.  This bounds the number of lease nodes each process
+ * creates, no matter how many of its threads are waiting.
+ *
+ * <p>The leases returned by this semaphore must be closed, which returns both the
+ * distributed lease and the local permit.  If a {@link CuratorMetricsRegistry} is
+ * configured, the time taken to acquire a lease is published as
+ * {@code curator.semaphore.acquire} (tagged with the {@code outcome}, {@code acquired}
+ * or {@code timeout}) and the number of local threads waiting for a permit as the
+ * {@code curator.semaphore.waiting} gauge.  Both are tagged with the semaphore name.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorSemaphore implements InitializingBean, BeanNameAware {
+
+    private CuratorFramework client;
+    private CuratorMetricsRegistry metricsRegistry;
+    private CuratorMetricsRegistry.Timer acquiredTimer;
+    private CuratorMetricsRegistry.Timer timeoutTimer;
+    private Integer maxLeases;
+    private InterProcessSemaphoreV2 semaphore;
+    private Semaphore localPermits;
+    private String beanName = "curator-semaphore";
+    private String path;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if(client == null || !StringUtils.hasText(path)) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' and 'path' must be configured.");
+        }
+
+        if(maxLeases == null || maxLeases < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'max-leases' must be configured with a value greater than zero.");
+        }
+
+        semaphore = new InterProcessSemaphoreV2(client, path, maxLeases);
+        localPermits = new Semaphore(maxLeases, true);
+
+        if(metricsRegistry != null) {
+            acquiredTimer = metricsRegistry.timer("curator.semaphore.acquire", "semaphore", beanName, "outcome", "acquired");
+            timeoutTimer = metricsRegistry.timer("curator.semaphore.acquire", "semaphore", beanName, "outcome", "timeout");
+            metricsRegistry.gauge("curator.semaphore.waiting", new CuratorMetricsRegistry.Gauge() {
+                @Override
+                public double value() {
+                    return localPermits.getQueueLength();
+                }
+            }, "semaphore", beanName);
+        }
+    }
+
+    /**
+     * Acquires a lease, waiting for as long as necessary.
+     * @return The lease.
+     * @throws Exception if a lease cannot be acquired.
+     */
+    public Lease acquire() throws Exception {
+        final long start = System.nanoTime();
+        localPermits.acquire();
+        try {
+            final Lease lease = new LocalLease(semaphore.acquire());
+            record(acquiredTimer, start);
+            return lease;
+        } catch (final Exception e) {
+            localPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Acquires a lease if one becomes available within the provided time.
+     * @param time The maximum time to wait.
+     * @param unit The unit of the time.
+     * @return The lease or {@code null} if no lease became available in time.
+     * @throws Exception if an error occurs while acquiring the lease.
+     */
+    public Lease acquire(final long time, final TimeUnit unit) throws Exception {
+        final long start = System.nanoTime();
+        final long deadline = start + unit.toNanos(time);
+
+        if(!localPermits.tryAcquire(time, unit)) {
+            record(timeoutTimer, start);
+            return null;
+        }
+
+        final Lease lease;
+        try {
+            lease = semaphore.acquire(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (final Exception e) {
+            localPermits.release();
+            throw e;
+        }
+
+        if(lease == null) {
+            localPermits.release();
+            record(timeoutTimer, start);
+            return null;
+        }
+
+        record(acquiredTimer, start);
+        return new LocalLease(lease);
+    }
+
+    /**
+     * Returns the number of threads of this process that are waiting for a local permit.
+     * @return The number of waiting threads.
+     */
+    public int getLocalWaiters() {
+        return localPermits != null ? localPermits.getQueueLength() : 0;
+    }
+
+    private static void record(final CuratorMetricsRegistry.Timer timer, final long start) {
+        if(timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public Integer getMaxLeases() {
+        return maxLeases;
+    }
+
+    public void setMaxLeases(final Integer maxLeases) {
+        this.maxLeases = maxLeases;
+    }
+
+    public CuratorMetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    public void setMetricsRegistry(final CuratorMetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(final String path) {
+        this.path = path;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+
+    /**
+     * Lease that returns the local permit along with the distributed lease.
+     */
+    private class LocalLease implements Lease {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final Lease lease;
+
+        LocalLease(final Lease lease) {
+            this.lease = lease;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if(closed.compareAndSet(false, true)) {
+                try {
+                    lease.close();
+                } finally {
+                    localPermits.release();
+                }
+            }
+        }
+
+        @Override
+        public byte[] getData() throws Exception {
+            return lease.getData();
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.metrics;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.ZooKeeper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.GenericTypeResolver;
+
+/**
+ * Instruments a {@link CuratorFramework} client, publishing the following metrics to a
+ * {@link CuratorMetricsRegistry}, all tagged with the name of the client:
+ *
+ * <ul>
+ * <li>{@code curator.operation} - timer of each foreground operation, tagged by the
+ * operation ({@code getData}, {@code create}, ...) and by the prefix of its path.</li>
+ * <li>{@code curator.connection.state} - counter of connection state transitions, tagged by state.</li>
+ * <li>{@code curator.session.expired} - counter of lost sessions.</li>
+ * <li>{@code curator.reconnect} - timer of the time from a suspended or lost connection to its
+ * re-establishment.</li>
+ * <li>{@code curator.event.queue} - gauge of the number of events waiting to be dispatched
+ * by the ZooKeeper event thread.</li>
+ * </ul>
+ *
+ * <p>Operation timers are created once per operation and path prefix and are reused.  The
+ * number of distinct path prefixes is capped; operations on further prefixes are recorded
+ * under the {@code other} prefix, whose timer is shared by all of them.  Background
+ * operations are not timed.
+ *
+ * <p>Instrumenting a client registers a connection state listener and a gauge that refer
+ * to the observed client.  Close the returned {@link Handle} once the instrumented client
+ * is no longer used, so that a client that outlives it, such as a shared client, stops
+ * being observed.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorFrameworkInstrumentation implements InvocationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorFrameworkInstrumentation.class);
+
+    /**
+     * The maximum number of distinct path prefixes tracked per operation.
+     */
+    public static final int MAX_PATH_PREFIXES = 100;
+
+    static final String OTHER_PREFIX = "other";
+
+    private static final Set<String> PATH_OPERATIONS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            "checkExists", "create", "delete", "getACL", "getChildren", "getData", "setACL", "setData")));
+
+    private final CuratorFramework client;
+    private final CuratorMetricsRegistry registry;
+    private final String clientName;
+    private final int pathDepth;
+    private final ConcurrentMap<String, ConcurrentMap<String, CuratorMetricsRegistry.Timer>> timers;
+
+    private CuratorFrameworkInstrumentation(final CuratorFramework client, final CuratorMetricsRegistry registry, final String clientName,
+            final int pathDepth, final ConcurrentMap<String, ConcurrentMap<String, CuratorMetricsRegistry.Timer>> timers) {
+        this.client = client;
+        this.registry = registry;
+        this.clientName = clientName;
+        this.pathDepth = pathDepth;
+        this.timers = timers;
+    }
+
+    /**
+     * Instruments the provided client.
+     * @param client The client to instrument.
+     * @param registry The registry to publish the metrics to.
+     * @param clientName The name of the client, used to tag the metrics.
+     * @param pathDepth The number of path segments used as the path prefix tag of operation timers.
+     * @return The handle of the instrumented client.
+     */
+    public static Handle instrument(final CuratorFramework client, final CuratorMetricsRegistry registry, final String clientName, final int pathDepth) {
+        return instrument(client, client, registry, clientName, pathDepth);
+    }
+
+    /**
+     * Instruments the provided client, observing the connection state of another client.
+     * This allows a client that wraps another (for instance, one that starts the underlying
+     * client on first use) to be instrumented without interacting with it.
+     * @param client The client to instrument.
+     * @param observed The client whose connection state and event queue are observed.
+     * @param registry The registry to publish the metrics to.
+     * @param clientName The name of the client, used to tag the metrics.
+     * @param pathDepth The number of path segments used as the path prefix tag of operation timers.
+     * @return The handle of the instrumented client.
+     */
+    public static Handle instrument(final CuratorFramework client, final CuratorFramework observed, final CuratorMetricsRegistry registry,
+            final String clientName, final int pathDepth) {
+        final ConnectionStateMetrics connectionStateMetrics = new ConnectionStateMetrics(registry, clientName);
+        final EventQueueGauge eventQueueGauge = new EventQueueGauge(observed);
+        observed.getConnectionStateListenable().addListener(connectionStateMetrics);
+        registry.gauge("curator.event.queue", eventQueueGauge, "client", clientName);
+        final CuratorFramework instrumented = createProxy(new CuratorFrameworkInstrumentation(client, registry, clientName, pathDepth,
+                new ConcurrentHashMap<String, ConcurrentMap<String, CuratorMetricsRegistry.Timer>>()));
+        return new Handle(instrumented, observed, connectionStateMetrics, eventQueueGauge);
+    }
+
+    private static CuratorFramework createProxy(final CuratorFrameworkInstrumentation instrumentation) {
+        return (CuratorFramework)Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(),
+                new Class<?>[] { CuratorFramework.class }, instrumentation);
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if(method.getDeclaringClass() == Object.class) {
+            if("equals".equals(method.getName())) {
+                return proxy == args[0];
+            } else if("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+        }
+
+        final Object result = invokeMethod(method, client, args);
+
+        if(PATH_OPERATIONS.contains(method.getName()) && method.getParameterTypes().length == 0) {
+            return new TimedOperation(method.getName(), result, method.getReturnType()).createProxy();
+        } else if("usingNamespace".equals(method.getName()) || "nonNamespaceView".equals(method.getName())) {
+            return createProxy(new CuratorFrameworkInstrumentation((CuratorFramework)result, registry, clientName, pathDepth, timers));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the timer of the provided operation and path, creating it if necessary.
+     * @param operation The name of the operation.
+     * @param path The path of the operation.
+     * @return The timer.
+     */
+    CuratorMetricsRegistry.Timer timer(final String operation, final String path) {
+        ConcurrentMap<String, CuratorMetricsRegistry.Timer> operationTimers = timers.get(operation);
+        if(operationTimers == null) {
+            timers.putIfAbsent(operation, new ConcurrentHashMap<String, CuratorMetricsRegistry.Timer>());
+            operationTimers = timers.get(operation);
+        }
+
+        String prefix = pathPrefix(path);
+        CuratorMetricsRegistry.Timer timer = operationTimers.get(prefix);
+        if(timer == null) {
+            if(operationTimers.size() >= MAX_PATH_PREFIXES) {
+                timer = operationTimers.get(OTHER_PREFIX);
+                if(timer != null) {
+                    return timer;
+                }
+                prefix = OTHER_PREFIX;
+            }
+            timer = registry.timer("curator.operation", "client", clientName, "operation", operation, "path", prefix);
+            final CuratorMetricsRegistry.Timer existing = operationTimers.putIfAbsent(prefix, timer);
+            if(existing != null) {
+                timer = existing;
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * Returns the first {@code pathDepth} segments of the provided path.
+     * @param path The path.
+     * @return The prefix of the path.
+     */
+    String pathPrefix(final String path) {
+        if(path == null) {
+            return OTHER_PREFIX;
+        } else if(pathDepth < 1) {
+            return "/";
+        }
+
+        int index = 0;
+        for(int segment = 0; segment < pathDepth; segment++) {
+            index = path.indexOf('/', index + 1);
+            if(index == -1) {
+                return path;
+            }
+        }
+        return path.substring(0, index);
+    }
+
+    private static Object invokeMethod(final Method method, final Object target, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Follows the builder chain of a path based operation and times the call
+     * that executes it.
+     */
+    private class TimedOperation implements InvocationHandler {
+
+        private final String operation;
+        private final Object target;
+        private final Class<?> type;
+
+        TimedOperation(final String operation, final Object target, final Class<?> type) {
+            this.operation = operation;
+            this.target = target;
+            this.type = type;
+        }
+
+        Object createProxy() {
+            return Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(), new Class<?>[] { type }, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if("inBackground".equals(method.getName())) {
+                return invokeMethod(method, target, args);
+            }
+
+            if("forPath".equals(method.getName())) {
+                final long start = System.nanoTime();
+                try {
+                    return invokeMethod(method, target, args);
+                } finally {
+                    timer(operation, (String)args[0]).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            final Object result = invokeMethod(method, target, args);
+            final Class<?> returnType = GenericTypeResolver.resolveReturnType(method, type);
+            if(result == null || method.getDeclaringClass() == Object.class || !returnType.isInterface()) {
+                return result;
+            }
+            return new TimedOperation(operation, result, returnType).createProxy();
+        }
+    }
+
+    /**
+     * An instrumented client, along with the listener and gauge that observe the client
+     * whose connection state is followed.
+     */
+    public static class Handle implements Closeable {
+
+        private final CuratorFramework client;
+        private final CuratorFramework observed;
+        private final ConnectionStateMetrics connectionStateMetrics;
+        private final EventQueueGauge eventQueueGauge;
+
+        Handle(final CuratorFramework client, final CuratorFramework observed, final ConnectionStateMetrics connectionStateMetrics,
+                final EventQueueGauge eventQueueGauge) {
+            this.client = client;
+            this.observed = observed;
+            this.connectionStateMetrics = connectionStateMetrics;
+            this.eventQueueGauge = eventQueueGauge;
+        }
+
+        /**
+         * Returns the instrumented client.
+         * @return The instrumented client.
+         */
+        public CuratorFramework getClient() {
+            return client;
+        }
+
+        /**
+         * Stops observing the client: the connection state listener is removed from it and
+         * the event queue gauge lets go of it.  {@link CuratorMetricsRegistry} cannot
+         * unregister a gauge, so the gauge reports {@link Double#NaN} from then on.
+         */
+        @Override
+        public void close() {
+            observed.getConnectionStateListenable().removeListener(connectionStateMetrics);
+            eventQueueGauge.detach();
+        }
+    }
+
+    /**
+     * Publishes connection state transitions, lost sessions and reconnection times.
+     */
+    static class ConnectionStateMetrics implements ConnectionStateListener {
+
+        private final CuratorMetricsRegistry registry;
+        private final String clientName;
+        private final CuratorMetricsRegistry.Counter expired;
+        private final CuratorMetricsRegistry.Timer reconnect;
+        private final AtomicLong disconnectedAt = new AtomicLong();
+
+        ConnectionStateMetrics(final CuratorMetricsRegistry registry, final String clientName) {
+            this.registry = registry;
+            this.clientName = clientName;
+            this.expired = registry.counter("curator.session.expired", "client", clientName);
+            this.reconnect = registry.timer("curator.reconnect", "client", clientName);
+        }
+
+        @Override
+        public void stateChanged(final CuratorFramework client, final ConnectionState newState) {
+            registry.counter("curator.connection.state", "client", clientName, "state", newState.name()).increment(1);
+
+            if(newState == ConnectionState.LOST) {
+                expired.increment(1);
+            }
+
+            if(newState == ConnectionState.SUSPENDED || newState == ConnectionState.LOST) {
+                disconnectedAt.compareAndSet(0, System.nanoTime());
+            } else if(newState.isConnected()) {
+                final long since = disconnectedAt.getAndSet(0);
+                if(since != 0) {
+                    reconnect.record(System.nanoTime() - since, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Samples the number of events waiting to be dispatched by the ZooKeeper event thread.
+     * ZooKeeper does not expose the queue, so it is read reflectively; the gauge reports
+     * {@link Double#NaN} if the queue cannot be read or the gauge has been detached.
+     */
+    static class EventQueueGauge implements CuratorMetricsRegistry.Gauge {
+
+        private volatile CuratorFramework client;
+
+        EventQueueGauge(final CuratorFramework client) {
+            this.client = client;
+        }
+
+        void detach() {
+            client = null;
+        }
+
+        @Override
+        public double value() {
+            final CuratorFramework observed = client;
+            if(observed == null) {
+                return Double.NaN;
+            }
+
+            try {
+                final ZooKeeper zooKeeper = observed.getZookeeperClient().getZooKeeper();
+                final Object connection = readField(ZooKeeper.class, zooKeeper, "cnxn");
+                final Object eventThread = readField(connection.getClass(), connection, "eventThread");
+                return ((Collection<?>)readField(eventThread.getClass(), eventThread, "waitingEvents")).size();
+            } catch (final Exception e) {
+                logger.trace("Unable to sample the ZooKeeper event queue: {}", e.getMessage());
+                return Double.NaN;
+            }
+        }
+
+        private static Object readField(final Class<?> type, final Object target, final String name) throws Exception {
+            final Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(target);
+        }
+    }
+}
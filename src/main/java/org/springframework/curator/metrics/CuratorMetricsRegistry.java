@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry to which the Spring Curator components publish their metrics.  Meters are
+ * identified by a name and by a set of tags, supplied as alternating key/value pairs
+ * (e.g. {@code timer("curator.operation", "operation", "getData", "path", "/config")}).
+ *
+ * <p>Callers obtain a meter once and then reuse it, so implementations are free to
+ * create meters lazily and should avoid allocating when a meter is updated.  An
+ * implementation may adapt this interface to the metrics library used by the
+ * application; {@link SimpleCuratorMetricsRegistry} keeps the metrics in memory.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public interface CuratorMetricsRegistry {
+
+    /**
+     * Returns the timer with the provided name and tags, creating it if necessary.
+     * @param name The name of the timer.
+     * @param tags The tags of the timer, as alternating key/value pairs.
+     * @return The timer.
+     */
+    Timer timer(String name, String... tags);
+
+    /**
+     * Returns the counter with the provided name and tags, creating it if necessary.
+     * @param name The name of the counter.
+     * @param tags The tags of the counter, as alternating key/value pairs.
+     * @return The counter.
+     */
+    Counter counter(String name, String... tags);
+
+    /**
+     * Registers a gauge whose value is sampled when the metrics are read.
+     * @param name The name of the gauge.
+     * @param gauge The gauge.
+     * @param tags The tags of the gauge, as alternating key/value pairs.
+     */
+    void gauge(String name, Gauge gauge, String... tags);
+
+    /**
+     * Records the duration of events.
+     */
+    interface Timer {
+
+        /**
+         * Records the duration of a single event.
+         * @param duration The duration.
+         * @param unit The unit of the duration.
+         */
+        void record(long duration, TimeUnit unit);
+    }
+
+    /**
+     * Counts the occurrences of events.
+     */
+    interface Counter {
+
+        /**
+         * Increments the counter by the provided amount.
+         * @param amount The amount.
+         */
+        void increment(long amount);
+    }
+
+    /**
+     * Samples a value on demand.
+     */
+    interface Gauge {
+
+        /**
+         * Returns the current value of the gauge.
+         * @return The value or {@link Double#NaN} if the value is not available.
+         */
+        double value();
+    }
+}
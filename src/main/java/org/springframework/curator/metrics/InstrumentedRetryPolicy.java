@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.RetryPolicy;
+import org.apache.curator.RetrySleeper;
+
+/**
+ * {@link RetryPolicy} decorator that counts the retries that are allowed and
+ * refused by the decorated policy and records the time spent backing off
+ * between retries.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class InstrumentedRetryPolicy implements RetryPolicy {
+
+    private final RetryPolicy retryPolicy;
+    private final CuratorMetricsRegistry.Counter allowed;
+    private final CuratorMetricsRegistry.Counter exhausted;
+    private final CuratorMetricsRegistry.Timer backoff;
+
+    /**
+     * Constructs a new instrumented policy.
+     * @param retryPolicy The policy to decorate.
+     * @param registry The registry to publish the metrics to.
+     * @param clientName The name of the client that owns the policy, used to tag the metrics.
+     */
+    public InstrumentedRetryPolicy(final RetryPolicy retryPolicy, final CuratorMetricsRegistry registry, final String clientName) {
+        this.retryPolicy = retryPolicy;
+        this.allowed = registry.counter("curator.retry", "client", clientName, "outcome", "allowed");
+        this.exhausted = registry.counter("curator.retry", "client", clientName, "outcome", "exhausted");
+        this.backoff = registry.timer("curator.retry.backoff", "client", clientName);
+    }
+
+    @Override
+    public boolean allowRetry(final int retryCount, final long elapsedTimeMs, final RetrySleeper sleeper) {
+        final boolean allowRetry = retryPolicy.allowRetry(retryCount, elapsedTimeMs, new RetrySleeper() {
+            @Override
+            public void sleepFor(final long time, final TimeUnit unit) throws InterruptedException {
+                backoff.record(time, unit);
+                sleeper.sleepFor(time, unit);
+            }
+        });
+
+        if(allowRetry) {
+            allowed.increment(1);
+        } else {
+            exhausted.increment(1);
+        }
+
+        return allowRetry;
+    }
+
+    /**
+     * Returns the decorated policy.
+     * @return The decorated policy.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link CuratorMetricsRegistry} that keeps all metrics in memory.  Timers keep a
+ * count, total, maximum and a histogram with power-of-two buckets, from which
+ * approximate percentiles may be read.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class SimpleCuratorMetricsRegistry implements CuratorMetricsRegistry {
+
+    private final ConcurrentMap<String, SimpleTimer> timers = new ConcurrentHashMap<String, SimpleTimer>();
+    private final ConcurrentMap<String, SimpleCounter> counters = new ConcurrentHashMap<String, SimpleCounter>();
+    private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<String, Gauge>();
+
+    @Override
+    public SimpleTimer timer(final String name, final String... tags) {
+        final String key = key(name, tags);
+        SimpleTimer timer = timers.get(key);
+        if(timer == null) {
+            final SimpleTimer created = new SimpleTimer();
+            timer = timers.putIfAbsent(key, created);
+            if(timer == null) {
+                timer = created;
+            }
+        }
+        return timer;
+    }
+
+    @Override
+    public SimpleCounter counter(final String name, final String... tags) {
+        final String key = key(name, tags);
+        SimpleCounter counter = counters.get(key);
+        if(counter == null) {
+            final SimpleCounter created = new SimpleCounter();
+            counter = counters.putIfAbsent(key, created);
+            if(counter == null) {
+                counter = created;
+            }
+        }
+        return counter;
+    }
+
+    @Override
+    public void gauge(final String name, final Gauge gauge, final String... tags) {
+        gauges.put(key(name, tags), gauge);
+    }
+
+    /**
+     * Returns the current value of the gauge with the provided name and tags.
+     * @param name The name of the gauge.
+     * @param tags The tags of the gauge, as alternating key/value pairs.
+     * @return The value or {@link Double#NaN} if no such gauge is registered.
+     */
+    public double gaugeValue(final String name, final String... tags) {
+        final Gauge gauge = gauges.get(key(name, tags));
+        return gauge != null ? gauge.value() : Double.NaN;
+    }
+
+    /**
+     * Returns all of the timers, keyed by their name and tags
+     * (e.g. {@code curator.operation[operation=getData,path=/config]}).
+     * @return The timers.
+     */
+    public Map<String, SimpleTimer> getTimers() {
+        return Collections.<String, SimpleTimer>unmodifiableMap(timers);
+    }
+
+    /**
+     * Returns all of the counters, keyed by their name and tags.
+     * @return The counters.
+     */
+    public Map<String, SimpleCounter> getCounters() {
+        return Collections.<String, SimpleCounter>unmodifiableMap(counters);
+    }
+
+    /**
+     * Returns all of the gauges, keyed by their name and tags.
+     * @return The gauges.
+     */
+    public Map<String, Gauge> getGauges() {
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    private static String key(final String name, final String... tags) {
+        if(tags == null || tags.length == 0) {
+            return name;
+        }
+
+        if(tags.length % 2 != 0) {
+            throw new IllegalArgumentException("[Assertion failed] tags must be supplied as key/value pairs: " + Arrays.toString(tags));
+        }
+
+        final StringBuilder builder = new StringBuilder(name).append('[');
+        for(int i = 0; i < tags.length; i += 2) {
+            if(i > 0) {
+                builder.append(',');
+            }
+            builder.append(tags[i]).append('=').append(tags[i + 1]);
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * In-memory {@link CuratorMetricsRegistry.Timer}.
+     */
+    public static class SimpleTimer implements Timer {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+        @Override
+        public void record(final long duration, final TimeUnit unit) {
+            final long nanos = Math.max(0, unit.toNanos(duration));
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos));
+
+            long currentMax = max.get();
+            while(nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+                currentMax = max.get();
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotal(final TimeUnit unit) {
+            return unit.convert(total.get(), TimeUnit.NANOSECONDS);
+        }
+
+        public long getMax(final TimeUnit unit) {
+            return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns an approximation of the requested percentile: the upper bound of the
+         * power-of-two bucket that contains it.
+         * @param percentile The percentile, between 0 and 1.
+         * @param unit The unit of the returned value.
+         * @return The approximate percentile.
+         */
+        public long getPercentile(final double percentile, final TimeUnit unit) {
+            final long target = (long)Math.ceil(percentile * count.get());
+            long seen = 0;
+            for(int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if(seen >= target && seen > 0) {
+                    return unit.convert(Math.min(i == 0 ? 0 : (1L << i) - 1, max.get()), TimeUnit.NANOSECONDS);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * In-memory {@link CuratorMetricsRegistry.Counter}.
+     */
+    public static class SimpleCounter implements Counter {
+
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void increment(final long amount) {
+            count.addAndGet(amount);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.retry;
+
+import org.apache.curator.RetryPolicy;
+import org.apache.curator.RetrySleeper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link RetryPolicy} decorator that only allows a retry if a token can be taken
+ * from a {@link RetryBudget}.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class BudgetedRetryPolicy implements RetryPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetedRetryPolicy.class);
+
+    private final RetryPolicy retryPolicy;
+    private final RetryBudget budget;
+
+    /**
+     * Constructs a new budgeted policy.
+     * @param retryPolicy The policy that decides whether and when to retry.
+     * @param budget The budget that limits the rate of retries.
+     */
+    public BudgetedRetryPolicy(final RetryPolicy retryPolicy, final RetryBudget budget) {
+        this.retryPolicy = retryPolicy;
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean allowRetry(final int retryCount, final long elapsedTimeMs, final RetrySleeper sleeper) {
+        if(!budget.tryAcquire()) {
+            logger.debug("Retry budget exhausted, refusing retry {}", retryCount);
+            return false;
+        }
+
+        return retryPolicy.allowRetry(retryCount, elapsedTimeMs, sleeper);
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+}
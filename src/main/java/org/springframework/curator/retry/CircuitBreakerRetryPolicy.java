@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.retry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.RetryPolicy;
+import org.apache.curator.RetrySleeper;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link RetryPolicy} decorator that fails fast while the ensemble is known to be down.
+ *
+ * <p>The circuit opens when the client's session is lost or when an operation exhausts
+ * the retries allowed by the decorated policy.  While open, retries are refused without
+ * sleeping.  Once the open time has elapsed, a single retry is let through to probe the
+ * ensemble; the circuit closes as soon as the client reports that it is connected again.
+ * The factory registers the policy as a {@link ConnectionStateListener} of its client.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CircuitBreakerRetryPolicy implements RetryPolicy, ConnectionStateListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerRetryPolicy.class);
+
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final RetryPolicy retryPolicy;
+    private final long openTimeNanos;
+    private final AtomicLong openedAt = new AtomicLong(CLOSED);
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Constructs a new circuit breaker.
+     * @param retryPolicy The policy that decides whether and when to retry while the circuit is closed.
+     * @param openTimeMs The time in milliseconds that the circuit stays open before a retry is let through.
+     */
+    public CircuitBreakerRetryPolicy(final RetryPolicy retryPolicy, final int openTimeMs) {
+        this.retryPolicy = retryPolicy;
+        this.openTimeNanos = TimeUnit.MILLISECONDS.toNanos(openTimeMs);
+    }
+
+    @Override
+    public boolean allowRetry(final int retryCount, final long elapsedTimeMs, final RetrySleeper sleeper) {
+        final long opened = openedAt.get();
+        if(opened != CLOSED) {
+            final long now = System.nanoTime();
+            if(now - opened < openTimeNanos || !openedAt.compareAndSet(opened, now)) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            logger.debug("Circuit open for {} ms, letting a retry through", TimeUnit.NANOSECONDS.toMillis(now - opened));
+        }
+
+        final boolean allowRetry = retryPolicy.allowRetry(retryCount, elapsedTimeMs, sleeper);
+        if(!allowRetry) {
+            open();
+        }
+        return allowRetry;
+    }
+
+    @Override
+    public void stateChanged(final CuratorFramework client, final ConnectionState newState) {
+        if(newState == ConnectionState.LOST) {
+            open();
+        } else if(newState.isConnected() && openedAt.getAndSet(CLOSED) != CLOSED) {
+            logger.info("Connection {}, closing circuit", newState);
+        }
+    }
+
+    /**
+     * Indicates whether or not the circuit is open.
+     * @return {@code true} if retries are currently being refused, {@code false} otherwise.
+     */
+    public boolean isOpen() {
+        return openedAt.get() != CLOSED;
+    }
+
+    /**
+     * Returns the number of retries refused while the circuit was open.
+     * @return The number of refused retries.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    private void open() {
+        if(openedAt.compareAndSet(CLOSED, System.nanoTime())) {
+            logger.warn("Opening circuit, retries will be refused for {} ms", TimeUnit.NANOSECONDS.toMillis(openTimeNanos));
+        }
+    }
+}
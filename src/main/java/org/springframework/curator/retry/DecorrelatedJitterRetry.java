@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.RetryPolicy;
+import org.apache.curator.RetrySleeper;
+
+/**
+ * Retry policy that retries a set number of times, sleeping for a random amount of time
+ * between retries.  Each sleep is drawn uniformly between the base sleep time and three
+ * times the previous upper bound (capped at the maximum sleep time), which spreads the
+ * retries of many clients that failed at the same moment instead of synchronizing them
+ * as a plain exponential backoff does.
+ *
+ * <p>Curator retry policies are shared by all of the operations of a client and are not
+ * told the previous sleep time, so the "decorrelated" bound is derived from the retry
+ * count rather than from the previous random sleep.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class DecorrelatedJitterRetry implements RetryPolicy {
+
+    private final int baseSleepTimeMs;
+    private final int maxSleepTimeMs;
+    private final int maxRetries;
+
+    /**
+     * Constructs a new jittered retry policy.
+     * @param baseSleepTimeMs The minimum amount of time to wait between retries in milliseconds.
+     * @param maxSleepTimeMs The maximum amount of time to wait between retries in milliseconds.
+     * @param maxRetries The maximum number of retries to attempt.
+     */
+    public DecorrelatedJitterRetry(final int baseSleepTimeMs, final int maxSleepTimeMs, final int maxRetries) {
+        if(baseSleepTimeMs < 0 || maxSleepTimeMs < baseSleepTimeMs) {
+            throw new IllegalArgumentException("[Assertion failed] 'max-sleep-time' must be greater than or equal to 'base-sleep-time'.");
+        }
+
+        this.baseSleepTimeMs = baseSleepTimeMs;
+        this.maxSleepTimeMs = maxSleepTimeMs;
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public boolean allowRetry(final int retryCount, final long elapsedTimeMs, final RetrySleeper sleeper) {
+        if(retryCount >= maxRetries) {
+            return false;
+        }
+
+        try {
+            sleeper.sleepFor(getSleepTimeMs(retryCount), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Returns a random sleep time for the provided retry.
+     * @param retryCount The number of retries already attempted.
+     * @return The sleep time in milliseconds.
+     */
+    long getSleepTimeMs(final int retryCount) {
+        long upperBound = baseSleepTimeMs;
+        for(int i = 0; i <= retryCount && upperBound < maxSleepTimeMs; i++) {
+            upperBound = Math.min(maxSleepTimeMs, Math.max(1, upperBound) * 3);
+        }
+        return baseSleepTimeMs + ThreadLocalRandom.current().nextLong(upperBound - baseSleepTimeMs + 1);
+    }
+
+    public int getBaseSleepTimeMs() {
+        return baseSleepTimeMs;
+    }
+
+    public int getMaxSleepTimeMs() {
+        return maxSleepTimeMs;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+}
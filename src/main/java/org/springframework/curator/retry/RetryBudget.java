@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.retry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that limits the rate at which retries may be attempted.  Each retry takes
+ * one token; tokens are replenished at a fixed rate up to the capacity of the bucket.
+ *
+ * <p>{@link #getShared(int, int)} returns a budget shared by every client in the JVM that
+ * is configured with the same capacity and rate, so that a fleet of clients cannot multiply
+ * the load placed on a recovering ensemble.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class RetryBudget {
+
+    private static final ConcurrentMap<String, RetryBudget> sharedBudgets = new ConcurrentHashMap<String, RetryBudget>();
+
+    private final int maxTokens;
+    private final int tokensPerSecond;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Constructs a new, full budget.
+     * @param maxTokens The capacity of the budget.
+     * @param tokensPerSecond The number of tokens added to the budget each second.
+     */
+    public RetryBudget(final int maxTokens, final int tokensPerSecond) {
+        if(maxTokens < 1 || tokensPerSecond < 0) {
+            throw new IllegalArgumentException("[Assertion failed] 'max-tokens' must be greater than zero and 'tokens-per-second' must not be negative.");
+        }
+
+        this.maxTokens = maxTokens;
+        this.tokensPerSecond = tokensPerSecond;
+        this.tokens = maxTokens;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Returns the budget shared by all clients in the JVM with the provided capacity and rate.
+     * @param maxTokens The capacity of the budget.
+     * @param tokensPerSecond The number of tokens added to the budget each second.
+     * @return The shared budget.
+     */
+    public static RetryBudget getShared(final int maxTokens, final int tokensPerSecond) {
+        final String key = maxTokens + "/" + tokensPerSecond;
+        RetryBudget budget = sharedBudgets.get(key);
+        if(budget == null) {
+            final RetryBudget created = new RetryBudget(maxTokens, tokensPerSecond);
+            budget = sharedBudgets.putIfAbsent(key, created);
+            if(budget == null) {
+                budget = created;
+            }
+        }
+        return budget;
+    }
+
+    /**
+     * Takes a token from the budget, if one is available.
+     * @return {@code true} if a token was taken, {@code false} if the budget is exhausted.
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if(tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of whole tokens currently available.
+     * @return The number of available tokens.
+     */
+    public synchronized int getAvailableTokens() {
+        refill();
+        return (int)tokens;
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        tokens = Math.min(maxTokens, tokens + ((now - refilledAt) * tokensPerSecond / (double)TimeUnit.SECONDS.toNanos(1)));
+        refilledAt = now;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public int getTokensPerSecond() {
+        return tokensPerSecond;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Enumeration of the built-in serializers that may be selected for a template with the
+ * {@code serializer} attribute.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public enum CuratorSerialization {
+
+    JSON("json", "com.fasterxml.jackson.databind.ObjectMapper", "com.fasterxml.jackson.core:jackson-databind"),
+    KRYO("kryo", "com.esotericsoftware.kryo.Kryo", "com.esotericsoftware.kryo:kryo"),
+    PROTOBUF("protobuf", "com.google.protobuf.MessageLite", "com.google.protobuf:protobuf-java"),
+    STRING("string", null, null);
+
+    /**
+     * The type of the serialization, as defined in the XML schema.
+     */
+    private final String type;
+
+    /**
+     * A class of the library required by the serializer.
+     */
+    private final String requiredClassName;
+
+    /**
+     * The artifact that provides the required library.
+     */
+    private final String artifact;
+
+    /**
+     * Constructs a new enumerated value for the given type.
+     * @param type The serialization type.
+     * @param requiredClassName A class of the library required by the serializer.
+     * @param artifact The artifact that provides the required library.
+     */
+    private CuratorSerialization(final String type, final String requiredClassName, final String artifact) {
+        this.type = type;
+        this.requiredClassName = requiredClassName;
+        this.artifact = artifact;
+    }
+
+    /**
+     * Creates the serializer, verifying that the library it requires is available.
+     * @return The serializer.
+     * @throws IllegalArgumentException if the required library is not on the classpath.
+     */
+    public CuratorSerializer createSerializer() {
+        if(requiredClassName != null && !ClassUtils.isPresent(requiredClassName, CuratorSerialization.class.getClassLoader())) {
+            throw new IllegalArgumentException("[Assertion failed] serializer '" + type + "' requires '" + artifact + "' on the classpath.");
+        }
+
+        switch(this) {
+            case JSON:
+                return new JacksonJsonSerializer();
+            case KRYO:
+                return new KryoSerializer();
+            case PROTOBUF:
+                return new ProtobufSerializer();
+            default:
+                return new StringSerializer();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    /**
+     * Finds the matching {@link CuratorSerialization} enumerated value
+     * that matches the provided type string.
+     * @param type The serialization type.
+     * @return The matching {@link CuratorSerialization} enumerated value
+     * 	for the given type or {@code null} if no match is found.
+     */
+    public static CuratorSerialization findByType(final String type) {
+        CuratorSerialization serialization = null;
+
+        for(final CuratorSerialization currentSerialization : values()) {
+            if(currentSerialization.type.equals(type)) {
+                serialization = currentSerialization;
+                break;
+            }
+        }
+
+        return serialization;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Converts objects to and from the data stored in a node.
+ *
+ * <p>Implementations write directly to the provided stream, which is backed by a pooled
+ * buffer, and read directly from the array returned by ZooKeeper, so that a value is
+ * converted without intermediate copies.  Implementations must be thread-safe.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public interface CuratorSerializer {
+
+    /**
+     * Writes the provided value to the stream.  The stream must not be closed.
+     * @param value The value, which is never {@code null}.
+     * @param output The stream to which the value is written.
+     * @throws IOException if the value cannot be written.
+     */
+    void serialize(Object value, OutputStream output) throws IOException;
+
+    /**
+     * Reads a value of the provided type from node data.
+     * @param data The node data, which is never empty.  It must not be modified.
+     * @param type The type of the value.
+     * @return The value.
+     * @throws IOException if the data cannot be read as the provided type.
+     */
+    <T> T deserialize(byte[] data, Class<T> type) throws IOException;
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link CuratorSerializer} that stores values as JSON using Jackson.  Requires
+ * {@code com.fasterxml.jackson.core:jackson-databind} on the classpath.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class JacksonJsonSerializer implements CuratorSerializer {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new serializer with a default {@link ObjectMapper}.
+     */
+    public JacksonJsonSerializer() {
+        this(new ObjectMapper());
+    }
+
+    /**
+     * Constructs a new serializer.
+     * @param objectMapper The configured mapper.
+     */
+    public JacksonJsonSerializer(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void serialize(final Object value, final OutputStream output) throws IOException {
+        objectMapper.writeValue(output, value);
+    }
+
+    @Override
+    public <T> T deserialize(final byte[] data, final Class<T> type) throws IOException {
+        return objectMapper.readValue(data, type);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * {@link CuratorSerializer} that stores values with Kryo.  {@link Kryo} instances are not
+ * thread-safe, so each thread uses its own instance along with its own reusable input
+ * and output buffers.  Override {@link #createKryo()} to register classes or
+ * serializers.  Requires {@code com.esotericsoftware.kryo:kryo} on the classpath.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class KryoSerializer implements CuratorSerializer {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final int OUTPUT_BUFFER_SIZE = 4 * 1024;
+
+    private final ThreadLocal<Kryo> kryos = new ThreadLocal<Kryo>() {
+        @Override
+        protected Kryo initialValue() {
+            return createKryo();
+        }
+    };
+
+    private final ThreadLocal<Input> inputs = new ThreadLocal<Input>() {
+        @Override
+        protected Input initialValue() {
+            return new Input();
+        }
+    };
+
+    private final ThreadLocal<Output> outputs = new ThreadLocal<Output>() {
+        @Override
+        protected Output initialValue() {
+            return new Output(OUTPUT_BUFFER_SIZE);
+        }
+    };
+
+    @Override
+    public void serialize(final Object value, final OutputStream output) throws IOException {
+        final Output kryoOutput = outputs.get();
+        kryoOutput.setOutputStream(output);
+        try {
+            kryos.get().writeObject(kryoOutput, value);
+            kryoOutput.flush();
+        } catch (final KryoException e) {
+            throw new IOException("Unable to write " + value.getClass().getName() + ".", e);
+        } finally {
+            kryoOutput.setOutputStream(null);
+        }
+    }
+
+    @Override
+    public <T> T deserialize(final byte[] data, final Class<T> type) throws IOException {
+        final Input input = inputs.get();
+        input.setBuffer(data);
+        try {
+            return kryos.get().readObject(input, type);
+        } catch (final KryoException e) {
+            throw new IOException("Unable to read " + type.getName() + ".", e);
+        } finally {
+            // Drops the reference to the node data.
+            input.setBuffer(EMPTY);
+        }
+    }
+
+    /**
+     * Creates the {@link Kryo} instance of a thread.
+     * @return The instance.
+     */
+    protected Kryo createKryo() {
+        return new Kryo();
+    }
+}
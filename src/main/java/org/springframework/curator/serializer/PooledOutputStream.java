@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.springframework.curator.compression.BufferPool;
+
+/**
+ * {@link OutputStream} that writes to a buffer taken from a shared pool.  Unlike a
+ * {@link java.io.ByteArrayOutputStream}, it does not allocate a new buffer for each use;
+ * {@link #toByteArray()} makes the only copy, sized exactly to the written data as
+ * required by ZooKeeper.  Closing the stream has no effect, so that serializers may close
+ * it; call {@link #release()} once the data has been copied.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class PooledOutputStream extends OutputStream {
+
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final BufferPool buffers = new BufferPool(POOL_SIZE, 4 * 1024, 1024 * 1024);
+
+    private byte[] buffer;
+    private int count;
+
+    /**
+     * Constructs a new stream backed by a pooled buffer.
+     */
+    public PooledOutputStream() {
+        this.buffer = buffers.acquire(0);
+    }
+
+    @Override
+    public void write(final int value) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte)value;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) {
+        ensureCapacity(count + length);
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    @Override
+    public void close() {
+        // The buffer is only returned to the pool by release().
+    }
+
+    /**
+     * Returns the number of bytes written.
+     * @return The number of bytes written.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns a copy of the bytes written.
+     * @return The bytes written.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Returns the buffer to the pool.  The stream must not be used afterwards.
+     */
+    public void release() {
+        if(buffer != null) {
+            buffers.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if(capacity > buffer.length) {
+            final byte[] grown = buffers.acquire(Math.max(capacity, buffer.length * 2));
+            System.arraycopy(buffer, 0, grown, 0, count);
+            buffers.release(buffer);
+            buffer = grown;
+        }
+    }
+}
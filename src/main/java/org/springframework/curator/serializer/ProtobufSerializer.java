@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+
+/**
+ * {@link CuratorSerializer} that stores Protocol Buffers messages in their binary
+ * encoding.  Values must implement {@link MessageLite} and are read with the parser of
+ * the generated message class, which is looked up once per class.  Requires
+ * {@code com.google.protobuf:protobuf-java} on the classpath.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class ProtobufSerializer implements CuratorSerializer {
+
+    private final ConcurrentMap<Class<?>, Parser<?>> parsers = new ConcurrentHashMap<Class<?>, Parser<?>>();
+
+    @Override
+    public void serialize(final Object value, final OutputStream output) throws IOException {
+        if(!(value instanceof MessageLite)) {
+            throw new IOException("Unable to write " + value.getClass().getName() + ", which is not a Protocol Buffers message.");
+        }
+
+        ((MessageLite)value).writeTo(output);
+    }
+
+    @Override
+    public <T> T deserialize(final byte[] data, final Class<T> type) throws IOException {
+        return type.cast(getParser(type).parseFrom(data));
+    }
+
+    private Parser<?> getParser(final Class<?> type) throws IOException {
+        Parser<?> parser = parsers.get(type);
+        if(parser == null) {
+            if(!MessageLite.class.isAssignableFrom(type)) {
+                throw new IOException("Unable to read " + type.getName() + ", which is not a Protocol Buffers message.");
+            }
+
+            try {
+                final Method defaultInstance = type.getMethod("getDefaultInstance");
+                parser = ((MessageLite)defaultInstance.invoke(null)).getParserForType();
+            } catch (final Exception e) {
+                throw new IOException("Unable to find the parser of " + type.getName() + ".", e);
+            }
+            parsers.putIfAbsent(type, parser);
+        }
+        return parser;
+    }
+}
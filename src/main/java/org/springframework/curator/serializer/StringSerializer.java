@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * {@link CuratorSerializer} that stores the string form of a value in a fixed charset,
+ * UTF-8 by default, rather than in the platform charset.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class StringSerializer implements CuratorSerializer {
+
+    private final Charset charset;
+
+    /**
+     * Constructs a new serializer that uses UTF-8.
+     */
+    public StringSerializer() {
+        this(Charset.forName("UTF-8"));
+    }
+
+    /**
+     * Constructs a new serializer.
+     * @param charset The charset of the stored data.
+     */
+    public StringSerializer(final Charset charset) {
+        this.charset = charset;
+    }
+
+    @Override
+    public void serialize(final Object value, final OutputStream output) throws IOException {
+        output.write(value.toString().getBytes(charset));
+    }
+
+    @Override
+    public <T> T deserialize(final byte[] data, final Class<T> type) throws IOException {
+        if(!type.isAssignableFrom(String.class)) {
+            throw new IOException("Unable to convert node data to " + type.getName() + ".");
+        }
+
+        return type.cast(new String(data, charset));
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.template;
+
+import org.apache.curator.framework.CuratorFramework;
+
+/**
+ * Callback that works with the client of a {@link CuratorTemplate} directly.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public interface CuratorCallback<T> {
+
+    /**
+     * Performs an operation with the client.
+     * @param client The client.
+     * @return The result of the operation.
+     * @throws Exception if the operation fails.
+     */
+    T doInCurator(CuratorFramework client) throws Exception;
+}
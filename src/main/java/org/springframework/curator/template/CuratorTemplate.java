@@ -0,0 +1,301 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.template;
+
+import java.io.IOException;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.curator.serializer.CuratorSerialization;
+import org.springframework.curator.serializer.CuratorSerializer;
+import org.springframework.curator.serializer.PooledOutputStream;
+import org.springframework.util.StringUtils;
+
+/**
+ * Helper that reads and writes typed values in nodes, converting them with a
+ * {@link CuratorSerializer}.
+ *
+ * <p>Values are written through a pooled buffer and copied once into an array of the
+ * exact size required by ZooKeeper; they are read directly from the array returned by
+ * ZooKeeper.  {@code byte[]} values are passed through unchanged, and a {@code null}
+ * value is stored as a node without data.  Reading a node that does not exist returns
+ * {@code null}.
+ *
+ * <p>Optimistic concurrency is supported through {@link #getVersioned(String, Class)}
+ * and {@link #compareAndSet(String, int, Object)}, which only writes if the node still
+ * has the version that was read.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorTemplate implements InitializingBean {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private CuratorFramework client;
+    private CuratorSerializer serializer;
+    private String serialization = CuratorSerialization.STRING.toString();
+
+    /**
+     * Constructs a new template.  Set the client and call {@link #afterPropertiesSet()}
+     * before use.
+     */
+    public CuratorTemplate() {
+    }
+
+    /**
+     * Constructs a new, ready to use template.
+     * @param client The client used to access ZooKeeper.
+     * @param serializer The serializer used to convert values.
+     */
+    public CuratorTemplate(final CuratorFramework client, final CuratorSerializer serializer) {
+        this.client = client;
+        this.serializer = serializer;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if(client == null) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' must be configured.");
+        }
+
+        if(serializer == null) {
+            final CuratorSerialization requestedSerialization = CuratorSerialization.findByType(serialization);
+            if(requestedSerialization == null) {
+                throw new IllegalArgumentException("[Assertion failed] unsupported serializer '" + serialization + "'.");
+            }
+            serializer = requestedSerialization.createSerializer();
+        }
+    }
+
+    /**
+     * Performs an operation with the client of this template.
+     * @param callback The operation.
+     * @return The result of the operation.
+     * @throws Exception if the operation fails.
+     */
+    public <T> T execute(final CuratorCallback<T> callback) throws Exception {
+        return callback.doInCurator(client);
+    }
+
+    /**
+     * Reads the value of a node.
+     * @param path The path of the node.
+     * @param type The type of the value.
+     * @return The value or {@code null} if the node does not exist or holds no data.
+     * @throws Exception if the node could not be read or its data could not be converted.
+     */
+    public <T> T get(final String path, final Class<T> type) throws Exception {
+        try {
+            return deserialize(client.getData().forPath(path), type);
+        } catch (final KeeperException.NoNodeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the value of a node along with its version.
+     * @param path The path of the node.
+     * @param type The type of the value.
+     * @return The versioned value or {@code null} if the node does not exist.
+     * @throws Exception if the node could not be read or its data could not be converted.
+     */
+    public <T> Versioned<T> getVersioned(final String path, final Class<T> type) throws Exception {
+        final Stat stat = new Stat();
+        try {
+            return new Versioned<T>(deserialize(client.getData().storingStatIn(stat).forPath(path), type), stat);
+        } catch (final KeeperException.NoNodeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the value of a node, creating the node and its parents if necessary.
+     * @param path The path of the node.
+     * @param value The value.
+     * @return The stat of the node after the write.
+     * @throws Exception if the node could not be written.
+     */
+    public Stat set(final String path, final Object value) throws Exception {
+        final byte[] data = serialize(value);
+        try {
+            return client.setData().forPath(path, data);
+        } catch (final KeeperException.NoNodeException e) {
+            try {
+                client.create().creatingParentsIfNeeded().forPath(path, data);
+                return client.checkExists().forPath(path);
+            } catch (final KeeperException.NodeExistsException raced) {
+                // Created concurrently, so overwrite it like any existing node.
+                return client.setData().forPath(path, data);
+            }
+        }
+    }
+
+    /**
+     * Writes the value of a node only if the node still has the expected version.
+     * @param path The path of the node.
+     * @param expectedVersion The version of the node when it was read, as returned by
+     * 	{@link Versioned#getVersion()}.
+     * @param value The value.
+     * @return {@code true} if the value was written or {@code false} if the node was
+     * 	modified or deleted since it was read.
+     * @throws Exception if the node could not be written.
+     */
+    public boolean compareAndSet(final String path, final int expectedVersion, final Object value) throws Exception {
+        try {
+            client.setData().withVersion(expectedVersion).forPath(path, serialize(value));
+            return true;
+        } catch (final KeeperException.BadVersionException e) {
+            return false;
+        } catch (final KeeperException.NoNodeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a node with the provided value, unless it already exists.
+     * @param path The path of the node.
+     * @param value The value.
+     * @return {@code true} if the node was created or {@code false} if it already existed.
+     * @throws Exception if the node could not be created.
+     */
+    public boolean setIfAbsent(final String path, final Object value) throws Exception {
+        return create(path, value, CreateMode.PERSISTENT) != null;
+    }
+
+    /**
+     * Creates a node with the provided value and its parents if necessary.
+     * @param path The path of the node.
+     * @param value The value.
+     * @param createMode The mode of the node.
+     * @return The path of the created node, which differs from the provided path for
+     * 	sequential nodes, or {@code null} if the node already existed.
+     * @throws Exception if the node could not be created.
+     */
+    public String create(final String path, final Object value, final CreateMode createMode) throws Exception {
+        try {
+            return client.create().creatingParentsIfNeeded().withMode(createMode).forPath(path, serialize(value));
+        } catch (final KeeperException.NodeExistsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deletes a node.
+     * @param path The path of the node.
+     * @return {@code true} if the node was deleted or {@code false} if it did not exist.
+     * @throws Exception if the node could not be deleted.
+     */
+    public boolean delete(final String path) throws Exception {
+        try {
+            client.delete().forPath(path);
+            return true;
+        } catch (final KeeperException.NoNodeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes a node only if it still has the expected version.
+     * @param path The path of the node.
+     * @param expectedVersion The version of the node when it was read.
+     * @return {@code true} if the node was deleted or {@code false} if it was modified or
+     * 	deleted since it was read.
+     * @throws Exception if the node could not be deleted.
+     */
+    public boolean delete(final String path, final int expectedVersion) throws Exception {
+        try {
+            client.delete().withVersion(expectedVersion).forPath(path);
+            return true;
+        } catch (final KeeperException.BadVersionException e) {
+            return false;
+        } catch (final KeeperException.NoNodeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Converts a value to node data.
+     * @param value The value.
+     * @return The node data.
+     * @throws IOException if the value cannot be converted.
+     */
+    protected byte[] serialize(final Object value) throws IOException {
+        if(value == null) {
+            return EMPTY;
+        }
+
+        if(value instanceof byte[]) {
+            return (byte[])value;
+        }
+
+        final PooledOutputStream output = new PooledOutputStream();
+        try {
+            serializer.serialize(value, output);
+            return output.toByteArray();
+        } finally {
+            output.release();
+        }
+    }
+
+    /**
+     * Converts node data to a value.
+     * @param data The node data.
+     * @param type The type of the value.
+     * @return The value or {@code null} if the node holds no data.
+     * @throws IOException if the data cannot be converted.
+     */
+    protected <T> T deserialize(final byte[] data, final Class<T> type) throws IOException {
+        if(data == null || data.length == 0) {
+            return null;
+        }
+
+        if(type == byte[].class) {
+            return type.cast(data);
+        }
+
+        return serializer.deserialize(data, type);
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public CuratorSerializer getSerializer() {
+        return serializer;
+    }
+
+    public void setSerializer(final CuratorSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    public String getSerialization() {
+        return serialization;
+    }
+
+    public void setSerialization(final String serialization) {
+        if(StringUtils.hasText(serialization)) {
+            this.serialization = serialization;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.template;
+
+import org.apache.zookeeper.data.Stat;
+
+/**
+ * A value read from a node along with the {@link Stat} of the node, whose version
+ * may be passed to {@link CuratorTemplate#compareAndSet(String, int, Object)}.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class Versioned<T> {
+
+    private final T value;
+    private final Stat stat;
+
+    /**
+     * Constructs a new versioned value.
+     * @param value The value, which may be {@code null} if the node holds no data.
+     * @param stat The stat of the node at the time it was read.
+     */
+    public Versioned(final T value, final Stat stat) {
+        this.value = value;
+        this.stat = stat;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public Stat getStat() {
+        return stat;
+    }
+
+    /**
+     * Returns the data version of the node at the time it was read.
+     * @return The version.
+     */
+    public int getVersion() {
+        return stat.getVersion();
+    }
+}
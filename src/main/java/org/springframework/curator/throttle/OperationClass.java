@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.throttle;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * A priority class of the operations scheduled by an {@link OperationScheduler}.
+ *
+ * <p>An operation belongs to the class if its path starts with one of the configured
+ * path prefixes or if its type (e.g. {@code getData}, {@code create}) is one of the
+ * configured operations; a class with neither matches no operation.  Paths include the
+ * namespace of the client.  When operations of
+ * several classes are waiting, each class is served in proportion to its {@code weight}.
+ * Operations of a class that bypasses the scheduler are never queued nor counted against
+ * the rate limit.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class OperationClass {
+
+    public static final int DEFAULT_WEIGHT = 1;
+
+    final ArrayDeque<OperationScheduler.Waiter> queue = new ArrayDeque<OperationScheduler.Waiter>();
+    final AtomicLong admitted = new AtomicLong();
+    int currentWeight;
+    volatile int depth;
+
+    private boolean bypass;
+    private List<String> operations = Collections.emptyList();
+    private List<String> pathPrefixes = Collections.emptyList();
+    private String name;
+    private int weight = DEFAULT_WEIGHT;
+
+    public OperationClass() {
+    }
+
+    public OperationClass(final String name, final int weight) {
+        this.name = name;
+        this.weight = weight;
+    }
+
+    /**
+     * Returns whether the provided operation belongs to this class.
+     * @param operation The type of the operation.
+     * @param path The path of the operation or {@code null} if it has none.
+     * @return {@code true} if the operation belongs to this class.
+     */
+    public boolean matches(final String operation, final String path) {
+        if(operations.contains(operation)) {
+            return true;
+        }
+
+        if(path != null) {
+            for(final String pathPrefix : pathPrefixes) {
+                if(path.startsWith(pathPrefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of operations of this class that are waiting to be admitted.
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of operations of this class that have been admitted.
+     * @return The number of admitted operations.
+     */
+    public long getAdmittedCount() {
+        return admitted.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(final int weight) {
+        this.weight = weight;
+    }
+
+    public boolean isBypass() {
+        return bypass;
+    }
+
+    public void setBypass(final boolean bypass) {
+        this.bypass = bypass;
+    }
+
+    public List<String> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(final List<String> operations) {
+        this.operations = operations != null ? operations : Collections.<String>emptyList();
+    }
+
+    /**
+     * Sets the operations of this class from a comma-separated list.
+     * @param operations The comma-separated operations.
+     */
+    public void setOperationList(final String operations) {
+        setOperations(Arrays.asList(StringUtils.commaDelimitedListToStringArray(StringUtils.trimAllWhitespace(operations))));
+    }
+
+    public List<String> getPathPrefixes() {
+        return pathPrefixes;
+    }
+
+    public void setPathPrefixes(final List<String> pathPrefixes) {
+        this.pathPrefixes = pathPrefixes != null ? pathPrefixes : Collections.<String>emptyList();
+    }
+
+    /**
+     * Sets the path prefixes of this class from a comma-separated list.
+     * @param pathPrefixes The comma-separated path prefixes.
+     */
+    public void setPathPrefixList(final String pathPrefixes) {
+        setPathPrefixes(Arrays.asList(StringUtils.commaDelimitedListToStringArray(StringUtils.trimAllWhitespace(pathPrefixes))));
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.throttle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.curator.metrics.CuratorMetricsRegistry;
+
+/**
+ * Limits the rate at which operations are sent to ZooKeeper by the clients it throttles
+ * (see {@link #throttle(CuratorFramework)}) and decides the order in which waiting
+ * operations are admitted.
+ *
+ * <p>Operations are admitted at up to {@code maxOpsPerSecond}, with bursts of up to
+ * {@code burst} operations.  Each operation belongs to the first {@link OperationClass}
+ * that matches it, or to the {@code default} class otherwise.  Once the rate is exceeded,
+ * operations wait in the queue of their class, and the queues are served by smooth
+ * weighted round robin: a class of weight 10 is admitted ten operations for every one
+ * admitted to a class of weight 1 while both have operations waiting, and no waiting
+ * class is starved.  Operations of classes that bypass the scheduler are admitted at once.
+ *
+ * <p>The wait happens in the thread that sends the operation, including operations sent
+ * in the background, so that a thread flooding the ensemble is slowed down itself.
+ * Operations sent from the ZooKeeper event thread, such as those sent by a watcher or a
+ * background callback, never wait, as that would hold up every event of the client: they
+ * are admitted at once and the operations that follow wait for their tokens.  If a
+ * {@link CuratorMetricsRegistry} is bound, the {@code curator.throttle.wait} timer and the
+ * {@code curator.throttle.queue} gauge are published for each class.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class OperationScheduler implements InitializingBean, BeanNameAware {
+
+    public static final String DEFAULT_CLASS = "default";
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<OperationClass> classes = new ArrayList<OperationClass>();
+    private String beanName = "curator-operation-scheduler";
+    private Integer burst;
+    private Integer maxOpsPerSecond;
+    private List<OperationClass> operationClasses = Collections.emptyList();
+    private volatile CuratorMetricsRegistry.Timer[] waitTimers;
+    private double tokens;
+    private double capacity;
+    private double nanosPerToken;
+    private long refilledAt;
+    private int waiting;
+    private boolean timerActive;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if(maxOpsPerSecond == null || maxOpsPerSecond < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'max-ops-per-second' must be configured with a value greater than zero for scheduler '" + beanName + "'.");
+        }
+
+        if(burst != null && burst < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'burst' must be greater than zero.");
+        }
+
+        classes.clear();
+        for(final OperationClass operationClass : operationClasses) {
+            if(operationClass.getWeight() < 1) {
+                throw new IllegalArgumentException("[Assertion failed] the weight of operation class '" + operationClass.getName() + "' must be greater than zero.");
+            }
+            classes.add(operationClass);
+        }
+        classes.add(new OperationClass(DEFAULT_CLASS, OperationClass.DEFAULT_WEIGHT));
+
+        capacity = burst != null ? burst : Math.max(1, maxOpsPerSecond / 10);
+        nanosPerToken = (double)TimeUnit.SECONDS.toNanos(1) / maxOpsPerSecond;
+        tokens = capacity;
+        refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Wraps the provided client so that its operations are admitted by this scheduler.
+     * @param client The client to throttle.
+     * @return The throttled client.
+     */
+    public CuratorFramework throttle(final CuratorFramework client) {
+        return ThrottlingInvocationHandler.createProxy(client, this);
+    }
+
+    /**
+     * Publishes the wait time and queue depth of each class to the provided registry.  If
+     * the scheduler is shared by several clients, the metrics are tagged with the name of
+     * the first client bound.
+     * @param metricsRegistry The registry.
+     * @param clientName The name of the client, used to tag the metrics.
+     */
+    public synchronized void bindMetrics(final CuratorMetricsRegistry metricsRegistry, final String clientName) {
+        if(waitTimers != null) {
+            return;
+        }
+
+        final CuratorMetricsRegistry.Timer[] timers = new CuratorMetricsRegistry.Timer[classes.size()];
+        for(int i = 0; i < timers.length; i++) {
+            final OperationClass operationClass = classes.get(i);
+            timers[i] = metricsRegistry.timer("curator.throttle.wait", "client", clientName, "class", operationClass.getName());
+            metricsRegistry.gauge("curator.throttle.queue", new CuratorMetricsRegistry.Gauge() {
+                @Override
+                public double value() {
+                    return operationClass.getQueueDepth();
+                }
+            }, "client", clientName, "class", operationClass.getName());
+        }
+        waitTimers = timers;
+    }
+
+    /**
+     * Waits until the provided operation may be sent.
+     * @param operation The type of the operation.
+     * @param path The path of the operation or {@code null} if it has none.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void acquire(final String operation, final String path) throws InterruptedException {
+        final int index = classify(operation, path);
+        final OperationClass operationClass = classes.get(index);
+        if(operationClass.isBypass()) {
+            operationClass.admitted.incrementAndGet();
+            return;
+        }
+
+        final long start = System.nanoTime();
+        lock.lock();
+        try {
+            refill(start);
+            if(waiting == 0 && tokens >= 1) {
+                tokens -= 1;
+                operationClass.admitted.incrementAndGet();
+            } else {
+                await(operationClass);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        final CuratorMetricsRegistry.Timer[] timers = waitTimers;
+        if(timers != null) {
+            timers[index].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Admits the provided operation at once, without waiting.  The operation still takes a
+     * token, which may leave the scheduler in debt, so that the rate is kept by delaying
+     * the operations that follow.
+     * @param operation The type of the operation.
+     * @param path The path of the operation or {@code null} if it has none.
+     */
+    public void admit(final String operation, final String path) {
+        final OperationClass operationClass = classes.get(classify(operation, path));
+        if(!operationClass.isBypass()) {
+            lock.lock();
+            try {
+                refill(System.nanoTime());
+                tokens -= 1;
+            } finally {
+                lock.unlock();
+            }
+        }
+        operationClass.admitted.incrementAndGet();
+    }
+
+    /**
+     * Returns the class of the provided operation.
+     * @param operation The type of the operation.
+     * @param path The path of the operation or {@code null} if it has none.
+     * @return The class.
+     */
+    public OperationClass getOperationClass(final String operation, final String path) {
+        return classes.get(classify(operation, path));
+    }
+
+    /**
+     * Returns the classes of this scheduler, including the {@code default} class.
+     * @return The classes.
+     */
+    public List<OperationClass> getClasses() {
+        return Collections.unmodifiableList(classes);
+    }
+
+    private int classify(final String operation, final String path) {
+        final int last = classes.size() - 1;
+        for(int i = 0; i < last; i++) {
+            if(classes.get(i).matches(operation, path)) {
+                return i;
+            }
+        }
+        return last;
+    }
+
+    private void await(final OperationClass operationClass) throws InterruptedException {
+        final Waiter waiter = new Waiter(lock.newCondition());
+        operationClass.queue.addLast(waiter);
+        operationClass.depth++;
+        waiting++;
+
+        try {
+            dispatch();
+
+            while(!waiter.admitted) {
+                if(!timerActive) {
+                    // A single waiter sleeps until the next token is due; the others wait to be admitted.
+                    timerActive = true;
+                    try {
+                        waiter.condition.awaitNanos(nanosUntilNextToken());
+                    } finally {
+                        timerActive = false;
+                    }
+                    refill(System.nanoTime());
+                    dispatch();
+                } else {
+                    waiter.condition.await();
+                }
+            }
+            operationClass.admitted.incrementAndGet();
+        } catch (final InterruptedException e) {
+            if(waiter.admitted) {
+                tokens += 1;
+            } else {
+                operationClass.queue.remove(waiter);
+                operationClass.depth--;
+                waiting--;
+            }
+            throw e;
+        } finally {
+            if(waiting > 0 && !timerActive) {
+                wakeNextTimer();
+            }
+        }
+    }
+
+    /**
+     * Admits waiting operations while tokens are available, choosing the class of each by
+     * smooth weighted round robin among the classes that have operations waiting.
+     */
+    private void dispatch() {
+        while(waiting > 0 && tokens >= 1) {
+            OperationClass selected = null;
+            int totalWeight = 0;
+            for(final OperationClass operationClass : classes) {
+                if(!operationClass.queue.isEmpty()) {
+                    operationClass.currentWeight += operationClass.getWeight();
+                    totalWeight += operationClass.getWeight();
+                    if(selected == null || operationClass.currentWeight > selected.currentWeight) {
+                        selected = operationClass;
+                    }
+                }
+            }
+
+            selected.currentWeight -= totalWeight;
+            final Waiter waiter = selected.queue.pollFirst();
+            selected.depth--;
+            waiting--;
+            tokens -= 1;
+            waiter.admitted = true;
+            waiter.condition.signal();
+        }
+    }
+
+    private void wakeNextTimer() {
+        for(final OperationClass operationClass : classes) {
+            final Waiter waiter = operationClass.queue.peekFirst();
+            if(waiter != null) {
+                waiter.condition.signal();
+                return;
+            }
+        }
+    }
+
+    private void refill(final long now) {
+        final long elapsed = now - refilledAt;
+        if(elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed / nanosPerToken);
+            refilledAt = now;
+        }
+    }
+
+    private long nanosUntilNextToken() {
+        return Math.max(1L, (long)Math.ceil((1 - tokens) * nanosPerToken));
+    }
+
+    /**
+     * An operation waiting to be admitted.
+     */
+    static final class Waiter {
+
+        final Condition condition;
+        boolean admitted;
+
+        Waiter(final Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+
+    public Integer getMaxOpsPerSecond() {
+        return maxOpsPerSecond;
+    }
+
+    public void setMaxOpsPerSecond(final Integer maxOpsPerSecond) {
+        this.maxOpsPerSecond = maxOpsPerSecond;
+    }
+
+    public Integer getBurst() {
+        return burst;
+    }
+
+    public void setBurst(final Integer burst) {
+        this.burst = burst;
+    }
+
+    public List<OperationClass> getOperationClasses() {
+        return operationClasses;
+    }
+
+    public void setOperationClasses(final List<OperationClass> operationClasses) {
+        this.operationClasses = operationClasses != null ? operationClasses : Collections.<OperationClass>emptyList();
+    }
+}
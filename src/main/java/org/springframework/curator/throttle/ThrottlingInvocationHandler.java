@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.throttle;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.utils.ZKPaths;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link InvocationHandler} that follows the builder chain of each operation made through
+ * a {@link CuratorFramework} client and waits for the {@link OperationScheduler} to admit
+ * the operation before the call that sends it.  A transaction is admitted as a single
+ * operation of type {@code transaction} when it is committed.  Operations sent from the
+ * ZooKeeper event thread are admitted without waiting (see
+ * {@link OperationScheduler#admit(String, String)}).
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class ThrottlingInvocationHandler implements InvocationHandler {
+
+    private static final String EVENT_THREAD_CLASS = "org.apache.zookeeper.ClientCnxn$EventThread";
+
+    private static final Set<String> PATH_OPERATIONS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            "checkExists", "create", "delete", "getACL", "getChildren", "getData", "setACL", "setData", "sync")));
+
+    private final CuratorFramework client;
+    private final OperationScheduler scheduler;
+
+    private ThrottlingInvocationHandler(final CuratorFramework client, final OperationScheduler scheduler) {
+        this.client = client;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Creates a new {@link CuratorFramework} proxy whose operations are admitted by the provided scheduler.
+     * @param client The client to wrap.
+     * @param scheduler The scheduler.
+     * @return The {@link CuratorFramework} proxy.
+     */
+    static CuratorFramework createProxy(final CuratorFramework client, final OperationScheduler scheduler) {
+        return (CuratorFramework)Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(),
+                new Class<?>[] { CuratorFramework.class }, new ThrottlingInvocationHandler(client, scheduler));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if(method.getDeclaringClass() == Object.class) {
+            if("equals".equals(method.getName())) {
+                return proxy == args[0];
+            } else if("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+        }
+
+        final String name = method.getName();
+        final Object result = invokeMethod(method, client, args);
+
+        if(method.getParameterTypes().length == 0 && PATH_OPERATIONS.contains(name)) {
+            return new ThrottledOperation(name, result, method.getReturnType()).createProxy();
+        } else if(method.getParameterTypes().length == 0 && "inTransaction".equals(name)) {
+            return new ThrottledOperation("transaction", result, method.getReturnType()).createProxy();
+        } else if("usingNamespace".equals(name) || "nonNamespaceView".equals(name)) {
+            return createProxy((CuratorFramework)result, scheduler);
+        }
+
+        return result;
+    }
+
+    private void acquire(final String operation, final String path) throws InterruptedException {
+        if(EVENT_THREAD_CLASS.equals(Thread.currentThread().getClass().getName())) {
+            // Waiting here would stall the delivery of every watch event and callback of the client.
+            scheduler.admit(operation, path);
+        } else {
+            scheduler.acquire(operation, path);
+        }
+    }
+
+    private static Object invokeMethod(final Method method, final Object target, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Follows the builder chain of an operation and waits for the operation to be admitted
+     * before the call that sends it.
+     */
+    private class ThrottledOperation implements InvocationHandler {
+
+        private final String operation;
+        private final Object target;
+        private final Class<?> type;
+
+        ThrottledOperation(final String operation, final Object target, final Class<?> type) {
+            this.operation = operation;
+            this.target = target;
+            this.type = type;
+        }
+
+        Object createProxy() {
+            return Proxy.newProxyInstance(CuratorFramework.class.getClassLoader(), new Class<?>[] { type }, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if("transaction".equals(operation)) {
+                if("commit".equals(name)) {
+                    acquire(operation, null);
+                }
+            } else if("forPath".equals(name)) {
+                final String path = (String)args[0];
+                acquire(operation, StringUtils.hasText(client.getNamespace()) ? ZKPaths.fixForNamespace(client.getNamespace(), path) : path);
+            }
+
+            final Object result = invokeMethod(method, target, args);
+            final Class<?> returnType = GenericTypeResolver.resolveReturnType(method, type);
+            if(result == null || method.getDeclaringClass() == Object.class || !returnType.isInterface()) {
+                return result;
+            }
+            return new ThrottledOperation(operation, result, returnType).createProxy();
+        }
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.transfer;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.transaction.CuratorTransaction;
+import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Copies whole subtrees between ZooKeeper and compact snapshot files.
+ *
+ * <p>An export walks the tree with pipelined background reads: up to {@code parallelism}
+ * nodes are read at any time, so the walk is bounded by the throughput of the ensemble
+ * rather than by the round trip of each node.  Nodes are streamed to the snapshot as
+ * their reads complete, through a single direct buffer and a {@link FileChannel}, so
+ * memory use does not grow with the size of the tree.  A parent is always written before
+ * its children.  Ephemeral nodes are skipped, as they belong to the session that created
+ * them, as is the {@code /zookeeper} system tree.  The snapshot is written to a
+ * temporary file that is only moved into place once the export has completed.
+ *
+ * <p>An export may be incremental: given the {@link TransferResult#getHighestZxid() highest
+ * zxid} of a previous export, only the nodes created or modified since are written.  The
+ * whole tree is still walked, as ZooKeeper offers no index by zxid, and deleted nodes are
+ * not recorded.
+ *
+ * <p>An import writes the records of a snapshot below a target path as multi-operation
+ * transactions of up to {@code batchSize} records and {@code maxBatchBytes} bytes.  The
+ * existence of the nodes of a batch is checked with pipelined background reads, so that
+ * each record is either created or has its data replaced.  Should a transaction fail,
+ * for instance because the tree was modified concurrently, its records are written one
+ * at a time.  Imports are therefore idempotent, and an import that fails part way
+ * through can be resumed from the {@link CuratorTreeTransferException#getCompletedRecords()
+ * number of records} already written.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorTreeTransfer implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorTreeTransfer.class);
+
+    public static final int DEFAULT_PARALLELISM = 16;
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /**
+     * Half of ZooKeeper's default {@code jute.maxbuffer}, which limits the size of a
+     * transaction.
+     */
+    public static final int DEFAULT_MAX_BATCH_BYTES = 512 * 1024;
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    public static final int DEFAULT_TIMEOUT_MS = 30000;
+
+    private static final String ROOT_PATH = "/";
+
+    private static final String SYSTEM_PATH = "/zookeeper";
+
+    private CuratorFramework client;
+    private Integer parallelism = DEFAULT_PARALLELISM;
+    private Integer batchSize = DEFAULT_BATCH_SIZE;
+    private Integer maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+    private Integer bufferSize = DEFAULT_BUFFER_SIZE;
+    private Integer timeoutMs = DEFAULT_TIMEOUT_MS;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if(client == null) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' must be configured.");
+        }
+
+        if(parallelism < 1 || batchSize < 1 || maxBatchBytes < 1 || bufferSize < 64 || timeoutMs < 1) {
+            throw new IllegalArgumentException("[Assertion failed] 'parallelism', 'batch-size', 'max-batch-bytes' and 'timeout-ms' must be greater than zero and 'buffer-size' must be at least 64.");
+        }
+    }
+
+    /**
+     * Exports the tree below the provided path to a snapshot file.
+     * @param rootPath The path of the root of the tree.
+     * @param file The snapshot file, which is replaced if it exists.
+     * @return The result of the export.
+     * @throws Exception if the tree cannot be read or the snapshot cannot be written.
+     */
+    public TransferResult exportTree(final String rootPath, final File file) throws Exception {
+        return exportTree(rootPath, file, 0L);
+    }
+
+    /**
+     * Exports the nodes below the provided path that were created or modified after the
+     * provided zxid to a snapshot file.
+     * @param rootPath The path of the root of the tree.
+     * @param file The snapshot file, which is replaced if it exists.
+     * @param sinceZxid The highest zxid of a previous export or {@code 0} to export every node.
+     * @return The result of the export.
+     * @throws Exception if the tree cannot be read or the snapshot cannot be written.
+     */
+    public TransferResult exportTree(final String rootPath, final File file, final long sinceZxid) throws Exception {
+        final Path target = file.toPath();
+        final Path temporary = target.resolveSibling(target.getFileName() + ".part");
+        final TreeSnapshotWriter writer = new TreeSnapshotWriter(FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), bufferSize);
+
+        boolean completed = false;
+        try {
+            writer.writeHeader(rootPath, sinceZxid);
+            final long[] counts = walk(rootPath, sinceZxid, writer);
+            writer.writeEnd(counts[1]);
+            writer.close();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            completed = true;
+            logger.debug("Exported {} of {} nodes below {} to {}", writer.getRecordCount(), counts[0], rootPath, file);
+            return new TransferResult(counts[0], writer.getRecordCount(), writer.getByteCount(), counts[1]);
+        } finally {
+            if(!completed) {
+                writer.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    /**
+     * Imports a snapshot file below the provided path.
+     * @param file The snapshot file.
+     * @param targetPath The path that the root of the exported tree is written to.
+     * @return The result of the import.
+     * @throws CuratorTreeTransferException if a batch of records cannot be written.
+     * @throws Exception if the snapshot cannot be read.
+     */
+    public TransferResult importTree(final File file, final String targetPath) throws Exception {
+        return importTree(file, targetPath, 0L);
+    }
+
+    /**
+     * Imports a snapshot file below the provided path, skipping the records that were
+     * written by a previous, failed, import.
+     * @param file The snapshot file.
+     * @param targetPath The path that the root of the exported tree is written to.
+     * @param skipRecords The number of records to skip, as reported by
+     *      {@link CuratorTreeTransferException#getCompletedRecords()}.
+     * @return The result of the import.
+     * @throws CuratorTreeTransferException if a batch of records cannot be written.
+     * @throws Exception if the snapshot cannot be read.
+     */
+    public TransferResult importTree(final File file, final String targetPath, final long skipRecords) throws Exception {
+        final TreeSnapshotReader reader = new TreeSnapshotReader(FileChannel.open(file.toPath(), StandardOpenOption.READ), bufferSize);
+        try {
+            reader.readHeader();
+            ensureParent(targetPath);
+
+            final List<TreeSnapshotRecord> batch = new ArrayList<TreeSnapshotRecord>(batchSize);
+            long completedRecords = skipRecords;
+            long recordIndex = 0;
+            int batchBytes = 0;
+            TreeSnapshotRecord record;
+            while((record = reader.read()) != null) {
+                if(++recordIndex <= skipRecords) {
+                    continue;
+                }
+
+                final int recordBytes = record.relativePath.length() + (record.data != null ? record.data.length : 0);
+                if(!batch.isEmpty() && (batch.size() >= batchSize || batchBytes + recordBytes > maxBatchBytes)) {
+                    completedRecords = write(batch, targetPath, completedRecords);
+                    batch.clear();
+                    batchBytes = 0;
+                }
+                batch.add(record);
+                batchBytes += recordBytes;
+            }
+
+            if(!batch.isEmpty()) {
+                completedRecords = write(batch, targetPath, completedRecords);
+            }
+
+            logger.debug("Imported {} records from {} below {}", completedRecords - skipRecords, file, targetPath);
+            return new TransferResult(recordIndex, completedRecords - skipRecords, file.length(), reader.getHighestZxid());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Walks the tree, writing the nodes modified after the provided zxid.
+     * @return The number of visited nodes and the highest mzxid seen.
+     */
+    private long[] walk(final String rootPath, final long sinceZxid, final TreeSnapshotWriter writer) throws Exception {
+        final Deque<String> pending = new ArrayDeque<String>();
+        final BlockingQueue<NodeRead> reads = new LinkedBlockingQueue<NodeRead>();
+        long nodeCount = 0;
+        long highestZxid = sinceZxid;
+        int inFlight = 0;
+
+        pending.add(rootPath);
+        while(inFlight > 0 || !pending.isEmpty()) {
+            // Taking the most recently discovered node first keeps the walk depth first,
+            // which bounds the number of pending paths for wide trees.
+            while(inFlight < parallelism && !pending.isEmpty()) {
+                read(pending.pollLast(), reads);
+                inFlight++;
+            }
+
+            final NodeRead read = reads.poll(timeoutMs, TimeUnit.MILLISECONDS);
+            if(read == null) {
+                throw new TimeoutException("Timed out after " + timeoutMs + " ms waiting for the nodes below " + rootPath + ".");
+            }
+            inFlight--;
+
+            if(read.exception != null) {
+                throw read.exception;
+            }
+
+            if(read.stat == null) {
+                if(read.path.equals(rootPath)) {
+                    throw new KeeperException.NoNodeException(rootPath);
+                }
+                // The node was deleted while the tree was being walked.
+                continue;
+            }
+
+            nodeCount++;
+            if(read.stat.getEphemeralOwner() != 0) {
+                continue;
+            }
+
+            highestZxid = Math.max(highestZxid, read.stat.getMzxid());
+            if(read.stat.getMzxid() > sinceZxid) {
+                writer.write(new TreeSnapshotRecord(relativize(rootPath, read.path), read.data, read.stat.getCzxid(), read.stat.getMzxid()));
+            }
+
+            for(final String child : read.children) {
+                final String childPath = ZKPaths.makePath(read.path, child);
+                if(!SYSTEM_PATH.equals(ZKPaths.fixForNamespace(client.getNamespace(), childPath))) {
+                    pending.add(childPath);
+                }
+            }
+        }
+
+        return new long[] { nodeCount, highestZxid };
+    }
+
+    /**
+     * Reads the data and then the children of a node in the background, adding the
+     * outcome to the provided queue.
+     */
+    private void read(final String path, final BlockingQueue<NodeRead> reads) throws Exception {
+        client.getData().inBackground(new BackgroundCallback() {
+            @Override
+            public void processResult(final CuratorFramework curatorFramework, final CuratorEvent event) throws Exception {
+                final KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+                if(code == KeeperException.Code.NONODE) {
+                    reads.add(new NodeRead(path, null, null, Collections.<String>emptyList(), null));
+                } else if(code != KeeperException.Code.OK) {
+                    reads.add(new NodeRead(path, null, null, null, KeeperException.create(code, path)));
+                } else if(event.getStat().getEphemeralOwner() != 0) {
+                    reads.add(new NodeRead(path, event.getData(), event.getStat(), Collections.<String>emptyList(), null));
+                } else {
+                    readChildren(path, event.getData(), event.getStat(), reads);
+                }
+            }
+        }).forPath(path);
+    }
+
+    private void readChildren(final String path, final byte[] data, final Stat stat, final BlockingQueue<NodeRead> reads) {
+        try {
+            client.getChildren().inBackground(new BackgroundCallback() {
+                @Override
+                public void processResult(final CuratorFramework curatorFramework, final CuratorEvent event) throws Exception {
+                    final KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+                    if(code == KeeperException.Code.NONODE) {
+                        reads.add(new NodeRead(path, null, null, Collections.<String>emptyList(), null));
+                    } else if(code != KeeperException.Code.OK) {
+                        reads.add(new NodeRead(path, null, null, null, KeeperException.create(code, path)));
+                    } else {
+                        reads.add(new NodeRead(path, data, stat, event.getChildren(), null));
+                    }
+                }
+            }).forPath(path);
+        } catch (final Exception e) {
+            reads.add(new NodeRead(path, null, null, null, e));
+        }
+    }
+
+    /**
+     * Writes a batch of records as a single transaction, falling back to writing each
+     * record on its own if the transaction fails.
+     * @return The number of completed records, including the batch.
+     */
+    private long write(final List<TreeSnapshotRecord> batch, final String targetPath, final long completedRecords) throws CuratorTreeTransferException {
+        final List<String> paths = new ArrayList<String>(batch.size());
+        for(final TreeSnapshotRecord record : batch) {
+            paths.add(resolve(targetPath, record.relativePath));
+        }
+
+        try {
+            final Stat[] stats = exists(paths);
+            CuratorTransaction transaction = client.inTransaction();
+            CuratorTransactionFinal transactionFinal = null;
+            for(int i = 0; i < batch.size(); i++) {
+                if(stats[i] == null) {
+                    transactionFinal = transaction.create().forPath(paths.get(i), batch.get(i).data).and();
+                } else {
+                    transactionFinal = transaction.setData().forPath(paths.get(i), batch.get(i).data).and();
+                }
+                transaction = transactionFinal;
+            }
+            transactionFinal.commit();
+            return completedRecords + batch.size();
+        } catch (final KeeperException e) {
+            logger.debug("Batch of {} records failed, writing each record individually: {}", batch.size(), e.getMessage());
+        } catch (final Exception e) {
+            throw new CuratorTreeTransferException("Failed to import the records below " + targetPath + ".", e, completedRecords);
+        }
+
+        long completed = completedRecords;
+        for(int i = 0; i < batch.size(); i++) {
+            try {
+                upsert(paths.get(i), batch.get(i).data);
+                completed++;
+            } catch (final Exception e) {
+                throw new CuratorTreeTransferException("Failed to import " + paths.get(i) + ".", e, completed);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Checks the existence of the provided nodes with pipelined background reads.
+     * @return The {@link Stat} of each node, which is {@code null} if the node does not exist.
+     */
+    private Stat[] exists(final List<String> paths) throws Exception {
+        final Stat[] stats = new Stat[paths.size()];
+        final CountDownLatch latch = new CountDownLatch(paths.size());
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        for(int i = 0; i < paths.size(); i++) {
+            final int index = i;
+            client.checkExists().inBackground(new BackgroundCallback() {
+                @Override
+                public void processResult(final CuratorFramework curatorFramework, final CuratorEvent event) throws Exception {
+                    final KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+                    if(code == KeeperException.Code.OK) {
+                        stats[index] = event.getStat();
+                    } else if(code != KeeperException.Code.NONODE) {
+                        failure.compareAndSet(null, KeeperException.create(code, paths.get(index)));
+                    }
+                    latch.countDown();
+                }
+            }).forPath(paths.get(i));
+        }
+
+        if(!latch.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("Timed out after " + timeoutMs + " ms checking the existence of " + paths.size() + " nodes.");
+        }
+
+        if(failure.get() != null) {
+            throw failure.get();
+        }
+        return stats;
+    }
+
+    private void upsert(final String path, final byte[] data) throws Exception {
+        try {
+            client.create().forPath(path, data);
+        } catch (final KeeperException.NodeExistsException e) {
+            client.setData().forPath(path, data);
+        }
+    }
+
+    private void ensureParent(final String targetPath) throws Exception {
+        final String parent = ZKPaths.getPathAndNode(targetPath).getPath();
+        if(!ROOT_PATH.equals(parent) && client.checkExists().forPath(parent) == null) {
+            try {
+                client.create().creatingParentsIfNeeded().forPath(parent, new byte[0]);
+            } catch (final KeeperException.NodeExistsException e) {
+                logger.debug("Parent {} of {} was created concurrently", parent, targetPath);
+            }
+        }
+    }
+
+    private static String relativize(final String rootPath, final String path) {
+        if(path.equals(rootPath)) {
+            return "";
+        }
+        return ROOT_PATH.equals(rootPath) ? path : path.substring(rootPath.length());
+    }
+
+    private static String resolve(final String targetPath, final String relativePath) {
+        if(relativePath.isEmpty()) {
+            return targetPath;
+        }
+        return ROOT_PATH.equals(targetPath) ? relativePath : targetPath + relativePath;
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(final Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Integer getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public void setMaxBatchBytes(final Integer maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    public Integer getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(final Integer bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public Integer getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(final Integer timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * The outcome of reading a node, which has a {@code null} {@link Stat} if the node
+     * does not exist.
+     */
+    private static class NodeRead {
+
+        private final String path;
+        private final byte[] data;
+        private final Stat stat;
+        private final List<String> children;
+        private final Exception exception;
+
+        private NodeRead(final String path, final byte[] data, final Stat stat, final List<String> children, final Exception exception) {
+            this.path = path;
+            this.data = data;
+            this.stat = stat;
+            this.children = children;
+            this.exception = exception;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.transfer;
+
+/**
+ * Thrown when an import performed by {@link CuratorTreeTransfer} fails part way through.
+ * The number of records of the snapshot that were written before the failure can be
+ * passed to {@link CuratorTreeTransfer#importTree(java.io.File, String, long)} in order
+ * to resume the import.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorTreeTransferException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long completedRecords;
+
+    public CuratorTreeTransferException(final String message, final Throwable cause, final long completedRecords) {
+        super(message, cause);
+        this.completedRecords = completedRecords;
+    }
+
+    /**
+     * Returns the number of records, counted from the start of the snapshot, that were
+     * written to ZooKeeper before the failure.
+     * @return The number of completed records.
+     */
+    public long getCompletedRecords() {
+        return completedRecords;
+    }
+}
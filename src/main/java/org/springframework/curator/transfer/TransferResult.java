@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.transfer;
+
+/**
+ * Outcome of an export or import performed by {@link CuratorTreeTransfer}.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class TransferResult {
+
+    private final long nodeCount;
+    private final long recordCount;
+    private final long byteCount;
+    private final long highestZxid;
+
+    public TransferResult(final long nodeCount, final long recordCount, final long byteCount, final long highestZxid) {
+        this.nodeCount = nodeCount;
+        this.recordCount = recordCount;
+        this.byteCount = byteCount;
+        this.highestZxid = highestZxid;
+    }
+
+    /**
+     * Returns the number of nodes visited by an export or the number of records read by
+     * an import, including any records that were skipped when resuming.
+     * @return The number of nodes.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of records written to the snapshot by an export or written to
+     * ZooKeeper by an import.
+     * @return The number of records.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the size of the snapshot, in bytes.
+     * @return The size of the snapshot.
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Returns the highest mzxid of the exported nodes.  Passing it to a later export
+     * produces a snapshot that only holds the nodes created or modified since.
+     * @return The highest mzxid.
+     */
+    public long getHighestZxid() {
+        return highestZxid;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferResult [nodeCount=" + nodeCount + ", recordCount=" + recordCount + ", byteCount=" + byteCount + ", highestZxid=" + highestZxid + "]";
+    }
+}
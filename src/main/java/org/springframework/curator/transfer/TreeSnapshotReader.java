@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.transfer;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a tree snapshot written by {@link TreeSnapshotWriter} from a {@link FileChannel}
+ * through a single reusable direct buffer.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class TreeSnapshotReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private String rootPath;
+    private long sinceZxid;
+    private long highestZxid;
+    private long recordCount;
+    private boolean ended;
+
+    TreeSnapshotReader(final FileChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.flip();
+    }
+
+    void readHeader() throws IOException {
+        require(4 + 2 + 8 + 4);
+        if(buffer.getInt() != TreeSnapshotWriter.MAGIC) {
+            throw new IOException("Not a tree snapshot.");
+        }
+
+        final short version = buffer.getShort();
+        if(version != TreeSnapshotWriter.VERSION) {
+            throw new IOException("Unsupported tree snapshot version " + version + ".");
+        }
+
+        sinceZxid = buffer.getLong();
+        rootPath = new String(get(buffer.getInt()), TreeSnapshotWriter.UTF_8);
+    }
+
+    /**
+     * Reads the next record.
+     * @return The record or {@code null} once the end of the snapshot has been reached.
+     * @throws IOException if the snapshot cannot be read or is truncated.
+     */
+    TreeSnapshotRecord read() throws IOException {
+        if(ended) {
+            return null;
+        }
+
+        require(1);
+        final byte type = buffer.get();
+        if(type == TreeSnapshotWriter.END) {
+            require(16);
+            final long expectedCount = buffer.getLong();
+            highestZxid = buffer.getLong();
+            ended = true;
+            if(expectedCount != recordCount) {
+                throw new IOException("Tree snapshot holds " + recordCount + " records but " + expectedCount + " were written.");
+            }
+            return null;
+        } else if(type != TreeSnapshotWriter.NODE) {
+            throw new IOException("Unknown tree snapshot record type " + type + ".");
+        }
+
+        require(4);
+        final String path = new String(get(buffer.getInt()), TreeSnapshotWriter.UTF_8);
+        require(4);
+        final int length = buffer.getInt();
+        final byte[] data = length >= 0 ? get(length) : null;
+        require(16);
+        recordCount++;
+        return new TreeSnapshotRecord(path, data, buffer.getLong(), buffer.getLong());
+    }
+
+    String getRootPath() {
+        return rootPath;
+    }
+
+    long getSinceZxid() {
+        return sinceZxid;
+    }
+
+    /**
+     * Returns the highest mzxid recorded in the snapshot, which is only known once the
+     * end of the snapshot has been read.
+     * @return The highest mzxid.
+     */
+    long getHighestZxid() {
+        return highestZxid;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte[] get(final int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        if(length <= buffer.capacity()) {
+            require(length);
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        final int buffered = buffer.remaining();
+        buffer.get(bytes, 0, buffered);
+        final ByteBuffer wrapped = ByteBuffer.wrap(bytes, buffered, length - buffered);
+        while(wrapped.hasRemaining()) {
+            if(channel.read(wrapped) < 0) {
+                throw new EOFException("Tree snapshot is truncated.");
+            }
+        }
+        return bytes;
+    }
+
+    private void require(final int size) throws IOException {
+        if(buffer.remaining() >= size) {
+            return;
+        }
+
+        buffer.compact();
+        while(buffer.position() < size) {
+            if(channel.read(buffer) < 0) {
+                throw new EOFException("Tree snapshot is truncated.");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Writes a tree snapshot to a {@link FileChannel} through a single reusable direct buffer.
+ *
+ * <p>A snapshot starts with a header holding {@link #MAGIC}, the format {@link #VERSION},
+ * the zxid the snapshot is relative to and the exported root path.  Each node is then
+ * written as a {@link #NODE} record holding its relative path, its data (with a length
+ * of {@code -1} for {@code null} data), its czxid and its mzxid.  The snapshot ends with
+ * an {@link #END} record holding the number of node records and the highest mzxid seen,
+ * which allows a truncated snapshot to be detected.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+class TreeSnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x5A4B5452;
+
+    static final short VERSION = 1;
+
+    static final byte END = 0;
+
+    static final byte NODE = 1;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long recordCount;
+    private long byteCount;
+
+    TreeSnapshotWriter(final FileChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void writeHeader(final String rootPath, final long sinceZxid) throws IOException {
+        final byte[] root = rootPath.getBytes(UTF_8);
+        ensure(4 + 2 + 8 + 4 + root.length);
+        buffer.putInt(MAGIC).putShort(VERSION).putLong(sinceZxid).putInt(root.length).put(root);
+    }
+
+    void write(final TreeSnapshotRecord record) throws IOException {
+        final byte[] path = record.relativePath.getBytes(UTF_8);
+        ensure(1 + 4 + path.length + 4);
+        buffer.put(NODE).putInt(path.length).put(path);
+        if(record.data == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(record.data.length);
+            put(record.data);
+        }
+        ensure(16);
+        buffer.putLong(record.czxid).putLong(record.mzxid);
+        recordCount++;
+    }
+
+    void writeEnd(final long highestZxid) throws IOException {
+        ensure(1 + 8 + 8);
+        buffer.put(END).putLong(recordCount).putLong(highestZxid);
+        flush();
+        channel.force(false);
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    long getByteCount() {
+        return byteCount + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void put(final byte[] data) throws IOException {
+        if(data.length <= buffer.remaining()) {
+            buffer.put(data);
+            return;
+        }
+
+        // Data that does not fit is written straight from the heap rather than in chunks.
+        flush();
+        if(data.length <= buffer.remaining()) {
+            buffer.put(data);
+        } else {
+            final ByteBuffer wrapped = ByteBuffer.wrap(data);
+            while(wrapped.hasRemaining()) {
+                byteCount += channel.write(wrapped);
+            }
+        }
+    }
+
+    private void ensure(final int size) throws IOException {
+        if(buffer.remaining() < size) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            byteCount += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.watch;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorEventType;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.Watcher.Event.EventType;
+import org.apache.zookeeper.Watcher.Event.KeeperState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean;
+import org.springframework.curator.metrics.CuratorMetricsRegistry;
+import org.springframework.util.StringUtils;
+
+/**
+ * Shares a single ZooKeeper watch per path and {@link CuratorWatchType type} between
+ * any number of local subscribers.
+ *
+ * <p>Curator only reuses a watch registration for watchers that are equal, and every bean
+ * that watches a node brings its own watcher.  Each bean watching a popular node through
+ * the same client therefore adds its own registration, re-arms it with its own request
+ * and receives its own callback when the node changes.  Subscribers of this multiplexer
+ * instead share one watch, which the multiplexer sets, re-arms after each notification
+ * and fans out in memory.  Subscribers are indexed by path and type in copy-on-write
+ * lists, so an event is delivered without locking.
+ *
+ * <p>Unlike a ZooKeeper watch, a subscription is persistent: the subscriber is notified of
+ * every event until it is unsubscribed.  As with any watch, changes made between a
+ * notification and the re-arming of the watch are folded into that notification, so a
+ * subscriber should read the current state of the node when notified.
+ *
+ * <p>When the connection is re-established within the same session, ZooKeeper restores the
+ * watches itself and notifies them of any change made while the client was disconnected, so
+ * only a watch that could not be set again while disconnected is set again.  Once the
+ * session has expired, every watch is set again.  The subscribers of each watch that is
+ * set again receive an event of type {@link EventType#None} so that they may read any
+ * change that it missed.
+ *
+ * <p>If a {@link CuratorMetricsRegistry} is configured, the number of watches held is
+ * published as the {@code curator.watch.count} gauge, the number of subscriptions as the
+ * {@code curator.watch.subscribers} gauge and the time taken to deliver an event to every
+ * subscriber of a watch as {@code curator.watch.dispatch}, tagged with the watch type.
+ * All are tagged with the multiplexer name.
+ *
+ * <p>The multiplexer is started after the client that it watches through has been
+ * started; subscriptions made beforehand are armed when it starts.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public class CuratorWatchMultiplexer implements SmartLifecycle, DisposableBean, BeanNameAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(CuratorWatchMultiplexer.class);
+
+    private final ConcurrentMap<WatchKey, WatchEntry> entries = new ConcurrentHashMap<WatchKey, WatchEntry>();
+    private final AtomicLong dispatchCount = new AtomicLong();
+
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener() {
+        @Override
+        public void stateChanged(final CuratorFramework client, final ConnectionState newState) {
+            if(newState == ConnectionState.LOST) {
+                sessionLost = true;
+            } else if(newState == ConnectionState.RECONNECTED) {
+                reconnect();
+            }
+        }
+    };
+
+    private final BackgroundCallback armCallback = new BackgroundCallback() {
+        @Override
+        public void processResult(final CuratorFramework callbackClient, final CuratorEvent event) throws Exception {
+            final KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+            final EntryWatcher watcher = (EntryWatcher)event.getContext();
+            if(event.getType() == CuratorEventType.CHILDREN && code == KeeperException.Code.NONODE) {
+                // The node does not exist yet, so watch for its creation instead.
+                client.checkExists().usingWatcher(watcher).inBackground(this, watcher).forPath(watcher.entry.key.path);
+            } else if(code != KeeperException.Code.OK && code != KeeperException.Code.NONODE) {
+                logger.debug("Unable to set the {}: {}", watcher.entry.key, code);
+                // Set it again once the connection is re-established.
+                synchronized(watcher.entry) {
+                    if(watcher.entry.generation == watcher.generation) {
+                        watcher.entry.armed = false;
+                    }
+                }
+            }
+        }
+    };
+
+    private CuratorFramework client;
+    private CuratorMetricsRegistry metricsRegistry;
+    private volatile CuratorMetricsRegistry.Timer[] dispatchTimers;
+    private String beanName = "curator-watch-multiplexer";
+    private volatile boolean running;
+    private volatile boolean sessionLost;
+    private volatile long sessionId;
+
+    @Override
+    public synchronized void start() {
+        if(client == null) {
+            throw new IllegalArgumentException("[Assertion failed] 'client-ref' must be configured.");
+        }
+
+        bindMetrics();
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+        sessionId = getSessionId();
+        running = true;
+
+        for(final WatchEntry entry : entries.values()) {
+            try {
+                armOnce(entry);
+            } catch (final Exception e) {
+                logger.warn("Unable to set the " + entry.key + ": ", e);
+            }
+        }
+        logger.info("Started watch multiplexer '{}' with {} watches", beanName, entries.size());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if(running) {
+            running = false;
+            client.getConnectionStateListenable().removeListener(connectionStateListener);
+            for(final WatchEntry entry : entries.values()) {
+                entry.disarm();
+            }
+        }
+    }
+
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return CuratorFrameworkFactoryBean.STARTUP_PHASE + 1;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        logger.info("Closing watch multiplexer '{}'", beanName);
+        stop();
+        entries.clear();
+    }
+
+    /**
+     * Subscribes the provided watcher to the events of the provided type on the node at
+     * the provided path.  Only the first subscriber of a path and type sets a watch in
+     * ZooKeeper; the others share it.
+     * @param path The path of the node, which need not exist.
+     * @param type The type of watch.
+     * @param watcher The watcher, notified of every event until it is unsubscribed.
+     * @return {@code true} if the watcher was subscribed or {@code false} if it already was.
+     * @throws Exception if the multiplexer is running and the watch cannot be set.
+     */
+    public boolean subscribe(final String path, final CuratorWatchType type, final CuratorWatcher watcher) throws Exception {
+        if(!StringUtils.hasText(path) || type == null || watcher == null) {
+            throw new IllegalArgumentException("[Assertion failed] 'path', 'type' and 'watcher' must be provided.");
+        }
+
+        final WatchKey key = new WatchKey(path, type);
+        final WatchEntry entry;
+        synchronized(entries) {
+            WatchEntry existing = entries.get(key);
+            if(existing == null) {
+                existing = new WatchEntry(key);
+                entries.put(key, existing);
+            }
+
+            if(!existing.subscribers.addIfAbsent(watcher)) {
+                return false;
+            }
+            entry = existing;
+        }
+
+        if(running) {
+            try {
+                armOnce(entry);
+            } catch (final Exception e) {
+                unsubscribe(path, type, watcher);
+                throw e;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Unsubscribes the provided watcher.  Once the last subscriber of a path and type has
+     * been unsubscribed, the watch is abandoned: ZooKeeper cannot remove a watch, so it is
+     * ignored when it next fires.
+     * @param path The path of the node.
+     * @param type The type of watch.
+     * @param watcher The watcher.
+     * @return {@code true} if the watcher was unsubscribed or {@code false} if it was not subscribed.
+     */
+    public boolean unsubscribe(final String path, final CuratorWatchType type, final CuratorWatcher watcher) {
+        if(path == null || type == null) {
+            return false;
+        }
+
+        final WatchKey key = new WatchKey(path, type);
+        synchronized(entries) {
+            final WatchEntry entry = entries.get(key);
+            if(entry == null || !entry.subscribers.remove(watcher)) {
+                return false;
+            }
+
+            if(entry.subscribers.isEmpty()) {
+                entries.remove(key);
+                entry.disarm();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of watches held in ZooKeeper, one per path and type subscribed to.
+     * @return The number of watches.
+     */
+    public int getWatchCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of subscriptions across every watch.
+     * @return The number of subscriptions.
+     */
+    public int getSubscriberCount() {
+        int count = 0;
+        for(final WatchEntry entry : entries.values()) {
+            count += entry.subscribers.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of events delivered to the subscribers of a watch, including the
+     * events sent after the connection is re-established.
+     * @return The number of events dispatched.
+     */
+    public long getDispatchCount() {
+        return dispatchCount.get();
+    }
+
+    private void armOnce(final WatchEntry entry) throws Exception {
+        synchronized(entry) {
+            if(!entry.armed) {
+                arm(entry, false);
+            }
+        }
+    }
+
+    private void arm(final WatchEntry entry, final boolean background) throws Exception {
+        final EntryWatcher watcher;
+        synchronized(entry) {
+            watcher = new EntryWatcher(entry, ++entry.generation);
+        }
+
+        final String path = entry.key.path;
+        if(background) {
+            if(entry.key.type == CuratorWatchType.CHILDREN) {
+                client.getChildren().usingWatcher(watcher).inBackground(armCallback, watcher).forPath(path);
+            } else {
+                client.checkExists().usingWatcher(watcher).inBackground(armCallback, watcher).forPath(path);
+            }
+        } else if(entry.key.type == CuratorWatchType.CHILDREN) {
+            try {
+                client.getChildren().usingWatcher(watcher).forPath(path);
+            } catch (final KeeperException.NoNodeException e) {
+                client.checkExists().usingWatcher(watcher).forPath(path);
+            }
+        } else {
+            client.checkExists().usingWatcher(watcher).forPath(path);
+        }
+
+        synchronized(entry) {
+            entry.armed = entry.generation == watcher.generation;
+        }
+    }
+
+    private void reconnect() {
+        if(!running) {
+            return;
+        }
+
+        final long currentSessionId = getSessionId();
+        final boolean expired = sessionLost || currentSessionId != sessionId;
+        sessionLost = false;
+        sessionId = currentSessionId;
+
+        if(expired) {
+            logger.debug("Setting the {} watches of '{}' again after the session expired", entries.size(), beanName);
+        }
+        for(final WatchEntry entry : entries.values()) {
+            synchronized(entry) {
+                // Within the same session, ZooKeeper has restored the watches that were set.
+                if(!expired && entry.armed) {
+                    continue;
+                }
+            }
+
+            try {
+                arm(entry, true);
+            } catch (final Exception e) {
+                logger.warn("Unable to set the " + entry.key + " after reconnecting: ", e);
+                continue;
+            }
+            dispatch(entry, new WatchedEvent(EventType.None, KeeperState.SyncConnected, entry.key.path));
+        }
+    }
+
+    private long getSessionId() {
+        try {
+            return client.getZookeeperClient().getZooKeeper().getSessionId();
+        } catch (final Exception e) {
+            // An unknown session is taken to have expired upon the next reconnection.
+            logger.debug("Unable to read the session id of '{}': {}", beanName, e.getMessage());
+            return 0;
+        }
+    }
+
+    private void dispatch(final WatchEntry entry, final WatchedEvent event) {
+        final long start = System.nanoTime();
+        for(final CuratorWatcher subscriber : entry.subscribers) {
+            try {
+                subscriber.process(event);
+            } catch (final Exception e) {
+                logger.warn("Subscriber of the " + entry.key + " failed to process a " + event.getType() + " event: ", e);
+            }
+        }
+        dispatchCount.incrementAndGet();
+
+        final CuratorMetricsRegistry.Timer[] timers = dispatchTimers;
+        if(timers != null) {
+            timers[entry.key.type.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void bindMetrics() {
+        if(metricsRegistry == null || dispatchTimers != null) {
+            return;
+        }
+
+        final CuratorWatchType[] types = CuratorWatchType.values();
+        final CuratorMetricsRegistry.Timer[] timers = new CuratorMetricsRegistry.Timer[types.length];
+        for(int i = 0; i < types.length; i++) {
+            timers[i] = metricsRegistry.timer("curator.watch.dispatch", "multiplexer", beanName, "type", types[i].toString());
+        }
+
+        metricsRegistry.gauge("curator.watch.count", new CuratorMetricsRegistry.Gauge() {
+            @Override
+            public double value() {
+                return getWatchCount();
+            }
+        }, "multiplexer", beanName);
+        metricsRegistry.gauge("curator.watch.subscribers", new CuratorMetricsRegistry.Gauge() {
+            @Override
+            public double value() {
+                return getSubscriberCount();
+            }
+        }, "multiplexer", beanName);
+        dispatchTimers = timers;
+    }
+
+    public CuratorFramework getClient() {
+        return client;
+    }
+
+    public void setClient(final CuratorFramework client) {
+        this.client = client;
+    }
+
+    public CuratorMetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    public void setMetricsRegistry(final CuratorMetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public void setBeanName(final String beanName) {
+        this.beanName = beanName;
+    }
+
+    /**
+     * The ZooKeeper watch set for the subscribers of a path and type.
+     */
+    private final class EntryWatcher implements Watcher {
+
+        private final WatchEntry entry;
+        private final long generation;
+
+        EntryWatcher(final WatchEntry entry, final long generation) {
+            this.entry = entry;
+            this.generation = generation;
+        }
+
+        @Override
+        public void process(final WatchedEvent event) {
+            /*
+             * Connection state changes are delivered to every watch without consuming it, and
+             * a watch that has since been set again or abandoned is superseded.
+             */
+            if(event.getType() == EventType.None || !running || entry.generation != generation) {
+                return;
+            }
+
+            try {
+                arm(entry, true);
+            } catch (final Exception e) {
+                logger.warn("Unable to set the " + entry.key + " again: ", e);
+            }
+            dispatch(entry, event);
+        }
+    }
+
+    /**
+     * The subscribers of a path and type.
+     */
+    private static final class WatchEntry {
+
+        private final WatchKey key;
+        private final CopyOnWriteArrayList<CuratorWatcher> subscribers = new CopyOnWriteArrayList<CuratorWatcher>();
+        private volatile long generation;
+        private boolean armed;
+
+        WatchEntry(final WatchKey key) {
+            this.key = key;
+        }
+
+        synchronized void disarm() {
+            armed = false;
+            generation++;
+        }
+    }
+
+    /**
+     * Identifies a watch by the path of the node and the type of watch.
+     */
+    private static final class WatchKey {
+
+        private final String path;
+        private final CuratorWatchType type;
+
+        WatchKey(final String path, final CuratorWatchType type) {
+            this.path = path;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if(this == other) {
+                return true;
+            }
+
+            if(!(other instanceof WatchKey)) {
+                return false;
+            }
+
+            final WatchKey that = (WatchKey)other;
+            return path.equals(that.path) && type == that.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * path.hashCode() + type.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return type + " watch of '" + path + "'";
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.watch;
+
+/**
+ * Enumeration of the kinds of ZooKeeper watch that may be multiplexed by a
+ * {@link CuratorWatchMultiplexer}.
+ *
+ * @author Jonathan Pearlin
+ * @since 1.0.0
+ */
+public enum CuratorWatchType {
+
+    /**
+     * Notified when the node is created, deleted or its data changes.
+     */
+    DATA("data"),
+
+    /**
+     * Notified when a child of the node is created or deleted.
+     */
+    CHILDREN("children");
+
+    /**
+     * The type of the watch, as defined in the XML schema.
+     */
+    private final String type;
+
+    /**
+     * Constructs a new enumerated value for the given type.
+     * @param type The watch type.
+     */
+    private CuratorWatchType(final String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+
+    /**
+     * Finds the matching {@link CuratorWatchType} enumerated value
+     * that matches the provided type string.
+     * @param type The watch type.
+     * @return The matching {@link CuratorWatchType} enumerated value
+     * 	for the given type or {@code null} if no match is found.
+     */
+    public static CuratorWatchType findByType(final String type) {
+        CuratorWatchType watchType = null;
+
+        for(final CuratorWatchType currentWatchType : values()) {
+            if(currentWatchType.type.equals(type)) {
+                watchType = currentWatchType;
+                break;
+            }
+        }
+
+        return watchType;
+    }
+}
@@ -1,8 +1,19 @@
 package org.springframework.curator
 
+import java.util.concurrent.TimeUnit
+
 import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.imps.CuratorFrameworkState
+import org.apache.curator.framework.recipes.locks.Lease
 import org.apache.curator.test.TestingServer
+import org.springframework.curator.batch.CuratorBatchWriter
+import org.springframework.curator.cache.CuratorReadCache
+import org.springframework.curator.leader.CuratorLeaderLatch
+import org.springframework.curator.lock.CuratorLock
+import org.springframework.curator.lock.CuratorSemaphore
+import org.springframework.curator.lock.LockedCounter
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.core.env.Environment
 import org.springframework.test.context.ContextConfiguration
 
 import spock.lang.Shared
@@ -17,6 +28,33 @@ class ApplicationContextSpec extends Specification {
     @Autowired
     CuratorFramework curatorClient
 
+    @Autowired
+    CuratorFramework asyncCuratorClient
+
+    @Autowired
+    CuratorFramework pooledCuratorClient
+
+    @Autowired
+    CuratorReadCache curatorCache
+
+    @Autowired
+    CuratorBatchWriter curatorBatchWriter
+
+    @Autowired
+    CuratorLock curatorLock
+
+    @Autowired
+    CuratorSemaphore curatorSemaphore
+
+    @Autowired
+    CuratorLeaderLatch curatorLeaderLatch
+
+    @Autowired
+    LockedCounter lockedCounter
+
+    @Autowired
+    Environment environment
+
     def setupSpec() {
         server = new TestingServer(1234)
     }
@@ -30,4 +68,75 @@ class ApplicationContextSpec extends Specification {
             curatorClient != null
             curatorClient.getZookeeperClient().getCurrentConnectionString() == server.getConnectString()
     }
+
+    def "test the asynchronous startup of a CuratorFramework client via the Spring application context"() {
+        expect:
+            asyncCuratorClient != null
+            asyncCuratorClient.getState() == CuratorFrameworkState.STARTED
+            asyncCuratorClient.getZookeeperClient().isConnected()
+    }
+
+    def "test the creation of a pooled CuratorFramework client via the Spring application context"() {
+        expect:
+            pooledCuratorClient != null
+            pooledCuratorClient.isStarted()
+            pooledCuratorClient.checkExists().forPath('/') != null
+    }
+
+    def "test the creation of a read cache via the Spring application context"() {
+        expect:
+            curatorCache != null
+            curatorCache.isRunning()
+            curatorCache.getData('/') != null
+    }
+
+    def "test the creation of a batch writer via the Spring application context"() {
+        expect:
+            curatorBatchWriter != null
+            curatorBatchWriter.isRunning()
+            curatorBatchWriter.create('/batch-writer', null).get().forPath == '/batch-writer'
+    }
+
+    def "test the creation of a lock via the Spring application context"() {
+        when:
+            boolean acquired = curatorLock.acquire(5, TimeUnit.SECONDS)
+        then:
+            acquired
+            curatorLock.isAcquiredInThisProcess()
+        cleanup:
+            curatorLock.release()
+    }
+
+    def "test the creation of a semaphore via the Spring application context"() {
+        when:
+            Lease lease = curatorSemaphore.acquire(5, TimeUnit.SECONDS)
+        then:
+            lease != null
+        cleanup:
+            lease?.close()
+    }
+
+    def "test the creation of a leader latch via the Spring application context"() {
+        expect:
+            curatorLeaderLatch.isRunning()
+            curatorLeaderLatch.await(5, TimeUnit.SECONDS)
+    }
+
+    def "test guarding a method with a lock via the Spring application context"() {
+        expect:
+            lockedCounter.increment() == 1
+            lockedCounter.heldDuringInvocation
+            !curatorLock.isAcquiredInThisProcess()
+    }
+
+    def "test the creation of a ZooKeeper property source via the Spring application context"() {
+        when:
+            curatorClient.create().creatingParentsIfNeeded().forPath('/properties/greeting', 'hello'.bytes)
+            long deadline = System.currentTimeMillis() + 5000
+            while(environment.getProperty('greeting') == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10)
+            }
+        then:
+            environment.getProperty('greeting') == 'hello'
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.async
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.CreateMode
+import org.apache.zookeeper.KeeperException
+
+import com.google.common.util.concurrent.ListenableFuture
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorAsyncClientSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    CuratorAsyncClient asyncClient
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def setup() {
+        client.create().forPath('/async')
+        asyncClient = new CuratorAsyncClient(client: client, maxInFlight: 10, timeoutMs: 5000)
+        asyncClient.afterPropertiesSet()
+    }
+
+    def cleanup() {
+        asyncClient.destroy()
+        client.delete().deletingChildrenIfNeeded().forPath('/async')
+    }
+
+    def "test creating, reading, updating and deleting a node"() {
+        when:
+            String created = asyncClient.create('/async/node', 'first'.bytes).get(5, TimeUnit.SECONDS)
+        then:
+            created == '/async/node'
+            new String(asyncClient.getData('/async/node').get(5, TimeUnit.SECONDS)) == 'first'
+        when:
+            int version = asyncClient.setData('/async/node', 'second'.bytes).get(5, TimeUnit.SECONDS).version
+        then:
+            version == 1
+            new String(client.getData().forPath('/async/node')) == 'second'
+            asyncClient.checkExists('/async/node').get(5, TimeUnit.SECONDS) != null
+            asyncClient.getChildren('/async').get(5, TimeUnit.SECONDS) == ['node']
+        when:
+            asyncClient.delete('/async/node', version).get(5, TimeUnit.SECONDS)
+        then:
+            asyncClient.checkExists('/async/node').get(5, TimeUnit.SECONDS) == null
+            asyncClient.getInFlightCount() == 0
+    }
+
+    def "test creating a sequential node"() {
+        when:
+            String created = asyncClient.create('/async/seq-', new byte[0], CreateMode.PERSISTENT_SEQUENTIAL).get(5, TimeUnit.SECONDS)
+        then:
+            created.startsWith('/async/seq-')
+            created != '/async/seq-'
+    }
+
+    def "test an operation that fails in ZooKeeper"() {
+        when:
+            asyncClient.getData('/async/missing').get(5, TimeUnit.SECONDS)
+        then:
+            ExecutionException e = thrown()
+            e.cause instanceof KeeperException.NoNodeException
+            asyncClient.getInFlightCount() == 0
+    }
+
+    def "test a version conflict is reported"() {
+        setup:
+            client.create().forPath('/async/versioned', 'data'.bytes)
+        when:
+            asyncClient.setData('/async/versioned', 'new'.bytes, 5).get(5, TimeUnit.SECONDS)
+        then:
+            ExecutionException e = thrown()
+            e.cause instanceof KeeperException.BadVersionException
+    }
+
+    def "test operations time out and are rejected once the in-flight limit is reached"() {
+        setup:
+            CuratorFramework disconnected = CuratorFrameworkFactory.builder().connectString('localhost:1').retryPolicy(new RetryOneTime(0))
+                .connectionTimeoutMs(2000).sessionTimeoutMs(2000).build()
+            disconnected.start()
+            CuratorAsyncClient limited = new CuratorAsyncClient(client: disconnected, maxInFlight: 1, timeoutMs: 5000)
+            limited.afterPropertiesSet()
+        when:
+            ListenableFuture<byte[]> pending = limited.withTimeout(100, TimeUnit.MILLISECONDS).getData('/async')
+            ListenableFuture<byte[]> rejected = limited.getData('/async')
+        then:
+            limited.getInFlightCount() == 1
+        when:
+            rejected.get()
+        then:
+            ExecutionException rejection = thrown()
+            rejection.cause instanceof RejectedExecutionException
+        when:
+            pending.get(1, TimeUnit.SECONDS)
+        then:
+            ExecutionException timeout = thrown()
+            timeout.cause instanceof TimeoutException
+        cleanup:
+            limited.destroy()
+            disconnected.close()
+    }
+
+    def "test using a client that has not been initialized"() {
+        when:
+            new CuratorAsyncClient(client: client).getData('/async').get()
+        then:
+            ExecutionException e = thrown()
+            e.cause instanceof IllegalStateException
+    }
+
+    def "test initializing the client with an invalid configuration"() {
+        when:
+            new CuratorAsyncClient(client: client, maxInFlight: maxInFlight, timeoutMs: timeoutMs).afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+        where:
+            maxInFlight		| timeoutMs
+            0				| 1000
+            10				| 0
+    }
+
+    def "test initializing the client without a client"() {
+        when:
+            new CuratorAsyncClient().afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test requesting a view with an invalid timeout"() {
+        when:
+            asyncClient.withTimeout(0, TimeUnit.MILLISECONDS)
+        then:
+            thrown IllegalArgumentException
+    }
+}
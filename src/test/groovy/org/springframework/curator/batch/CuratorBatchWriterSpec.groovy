@@ -0,0 +1,204 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.batch
+
+import java.lang.reflect.Field
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.api.transaction.CuratorTransaction
+import org.apache.curator.framework.api.transaction.CuratorTransactionFinal
+import org.apache.curator.framework.api.transaction.CuratorTransactionResult
+import org.apache.curator.framework.api.transaction.OperationType
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.KeeperException
+
+import com.google.common.util.concurrent.ListenableFuture
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorBatchWriterSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    CuratorBatchWriter writer
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def setup() {
+        client.create().forPath('/batch')
+        writer = new CuratorBatchWriter(client: client, maxBatchOps: 10, maxLingerMs: 20)
+    }
+
+    def cleanup() {
+        writer.destroy()
+        client.delete().deletingChildrenIfNeeded().forPath('/batch')
+    }
+
+    def "test writing operations in batches"() {
+        setup:
+            writer.start()
+        when:
+            List<ListenableFuture<CuratorTransactionResult>> futures = (1..25).collect { writer.create("/batch/${it}", "${it}".getBytes()) }
+            List<CuratorTransactionResult> results = futures.collect { it.get(5, TimeUnit.SECONDS) }
+        then:
+            results*.type.unique() == [OperationType.CREATE]
+            results*.forPath == (1..25).collect { "/batch/${it}" }
+            client.getChildren().forPath('/batch').size() == 25
+            writer.operationCount == 25
+            writer.batchCount < 25
+            writer.batchCount >= 3
+    }
+
+    def "test updating and deleting nodes"() {
+        setup:
+            writer.start()
+            client.create().forPath('/batch/node', 'value'.getBytes())
+        when:
+            CuratorTransactionResult result = writer.setData('/batch/node', 'updated'.getBytes()).get(5, TimeUnit.SECONDS)
+        then:
+            result.type == OperationType.SET_DATA
+            result.resultStat.version == 1
+            new String(client.getData().forPath('/batch/node')) == 'updated'
+        when:
+            writer.delete('/batch/node', 1).get(5, TimeUnit.SECONDS)
+        then:
+            client.checkExists().forPath('/batch/node') == null
+    }
+
+    def "test that only the failed operations of a failed batch are reported as failures"() {
+        setup:
+            writer.maxLingerMs = 200
+            writer.start()
+            client.create().forPath('/batch/existing')
+        when:
+            ListenableFuture<CuratorTransactionResult> first = writer.create('/batch/first', null)
+            ListenableFuture<CuratorTransactionResult> duplicate = writer.create('/batch/existing', null)
+            ListenableFuture<CuratorTransactionResult> last = writer.create('/batch/last', null)
+        then:
+            first.get(5, TimeUnit.SECONDS).forPath == '/batch/first'
+            last.get(5, TimeUnit.SECONDS).forPath == '/batch/last'
+        when:
+            duplicate.get(5, TimeUnit.SECONDS)
+        then:
+            ExecutionException e = thrown()
+            e.cause instanceof KeeperException.NodeExistsException
+            writer.retriedBatchCount == 1
+    }
+
+    def "test that a batch that fails without an operation failure is not retried"() {
+        setup:
+            CuratorTransactionFinal transaction = Mock(CuratorTransactionFinal)
+            writer.client = Mock(CuratorFramework) {
+                inTransaction() >> transaction
+            }
+            List<CuratorBatchWriter.PendingOperation> batch = ['/batch/first', '/batch/second'].collect { new FixedOperation(it, transaction) }
+        when:
+            writer.write(batch)
+        then:
+            1 * transaction.commit() >> { throw new KeeperException.ConnectionLossException() }
+            writer.retriedBatchCount == 0
+        when:
+            future(batch[1]).get(5, TimeUnit.SECONDS)
+        then:
+            ExecutionException e = thrown()
+            e.cause instanceof KeeperException.ConnectionLossException
+            future(batch[0]).isDone()
+    }
+
+    def "test submitting an operation when the writer is not running"() {
+        when:
+            writer.create('/batch/node', null)
+        then:
+            thrown IllegalStateException
+    }
+
+    def "test that submitting threads are blocked once the maximum number of pending operations is reached"() {
+        setup:
+            writer.maxPendingOps = 1
+            writer.start()
+            writer.stop()
+            writer.running = true
+            writer.create('/batch/pending', null)
+            Thread submitter = Thread.start { writer.create('/batch/blocked', null) }
+        when:
+            submitter.join(200)
+        then:
+            submitter.isAlive()
+            writer.pendingCount == 1
+        cleanup:
+            submitter.interrupt()
+            writer.running = false
+    }
+
+    def "test starting the writer without a client"() {
+        setup:
+            writer.client = null
+        when:
+            writer.start()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test stopping the writer invokes the provided callback"() {
+        setup:
+            Runnable callback = Mock(Runnable)
+            writer.start()
+        when:
+            writer.stop(callback)
+        then:
+            1 * callback.run()
+            !writer.isRunning()
+    }
+
+    private ListenableFuture<CuratorTransactionResult> future(CuratorBatchWriter.PendingOperation operation) {
+        Field field = CuratorBatchWriter.PendingOperation.getDeclaredField('future')
+        field.setAccessible(true)
+        field.get(operation)
+    }
+
+    static class FixedOperation extends CuratorBatchWriter.PendingOperation {
+
+        final CuratorTransactionFinal transaction
+
+        FixedOperation(String path, CuratorTransactionFinal transaction) {
+            super(path)
+            this.transaction = transaction
+        }
+
+        CuratorTransactionFinal addTo(CuratorTransaction ignored) {
+            transaction
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.cache
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.state.ConnectionState
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.WatchedEvent
+import org.apache.zookeeper.Watcher.Event.EventType
+import org.apache.zookeeper.Watcher.Event.KeeperState
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorReadCacheSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    CuratorReadCache cache
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def setup() {
+        client.create().creatingParentsIfNeeded().forPath('/cache/a', 'a'.getBytes())
+        client.create().forPath('/cache/b', 'b'.getBytes())
+        client.create().forPath('/cache/b/c', 'c'.getBytes())
+        cache = new CuratorReadCache(client: client, path: '/cache')
+    }
+
+    def cleanup() {
+        cache.destroy()
+        client.delete().deletingChildrenIfNeeded().forPath('/cache')
+    }
+
+    def "test that the subtree is loaded when the cache is started"() {
+        when:
+            cache.start()
+        then:
+            cache.isRunning()
+            cache.size == 4
+            new String(cache.getData('/cache/b/c')) == 'c'
+            cache.hitCount == 1
+            cache.missCount == 0
+    }
+
+    def "test that nodes not yet cached are loaded on first read"() {
+        setup:
+            cache.start()
+            cache.clear()
+        when:
+            byte[] data = cache.getData('/cache/a')
+        then:
+            new String(data) == 'a'
+            cache.missCount == 1
+        when:
+            cache.getData('/cache/a')
+        then:
+            cache.hitCount == 1
+    }
+
+    def "test that nodes created after the cache was started are loaded"() {
+        setup:
+            cache.start()
+        when:
+            client.create().forPath('/cache/d', 'd'.getBytes())
+            client.create().forPath('/cache/b/e', 'e'.getBytes())
+            waitFor { cache.getCachedStat('/cache/d') != null && cache.getCachedStat('/cache/b/e') != null }
+        then:
+            cache.size == 6
+            new String(cache.getData('/cache/b/e')) == 'e'
+            cache.missCount == 0
+        when:
+            client.create().forPath('/cache/f', 'f'.getBytes())
+            waitFor { cache.getCachedStat('/cache/f') != null }
+        then:
+            cache.size == 7
+    }
+
+    def "test that a load does not replace a more recent entry"() {
+        setup:
+            cache.start()
+            def stale = new CuratorReadCache.CacheEntry('stale'.getBytes(), cache.getCachedStat('/cache/a'))
+            client.setData().forPath('/cache/a', 'updated'.getBytes())
+            waitFor { cache.getCachedStat('/cache/a').version == 1 }
+            long bytes = cache.bytes
+        when:
+            cache.store('/cache/a', stale)
+        then:
+            new String(cache.getData('/cache/a')) == 'updated'
+            cache.bytes == bytes
+    }
+
+    def "test that a change to a node that is being loaded loads it again"() {
+        setup:
+            cache.start()
+            cache.clear()
+            cache.loading.put('/cache/a', 1)
+        when:
+            cache.handleEvent(new WatchedEvent(EventType.NodeDataChanged, KeeperState.SyncConnected, '/cache/a'))
+        then:
+            new String(cache.entries['/cache/a'].data) == 'a'
+            dataWatchers('/cache/a') == 1
+    }
+
+    def "test reading a node that does not exist"() {
+        setup:
+            cache.start()
+        expect:
+            cache.getData('/cache/missing') == null
+    }
+
+    def "test reading a node outside of the cached path"() {
+        setup:
+            cache.start()
+        when:
+            cache.getData(path)
+        then:
+            thrown IllegalArgumentException
+        where:
+            path << ['/other', '/cachex', null]
+    }
+
+    def "test that the cache is updated when a node changes"() {
+        setup:
+            cache.start()
+        when:
+            client.setData().forPath('/cache/a', 'updated'.getBytes())
+            waitFor { new String(cache.getData('/cache/a')) == 'updated' }
+        then:
+            cache.getCachedStat('/cache/a').version == 1
+        when:
+            client.delete().forPath('/cache/a')
+            waitFor { cache.getCachedStat('/cache/a') == null }
+        then:
+            cache.getData('/cache/a') == null
+    }
+
+    def "test that entries are evicted once the maximum number of entries is exceeded"() {
+        setup:
+            cache.maxEntries = 2
+            cache.start()
+        when:
+            cache.getData('/cache/b/c')
+        then:
+            cache.size == 2
+            cache.evictionCount >= 1
+    }
+
+    def "test that entries are evicted once the maximum number of bytes is exceeded"() {
+        setup:
+            cache.maxBytes = 2
+            cache.start()
+        when:
+            cache.getData('/cache/b/c')
+        then:
+            cache.bytes <= 2
+    }
+
+    def "test that expired entries are reloaded"() {
+        setup:
+            cache.ttl = 1
+            cache.start()
+            Thread.sleep(5)
+        when:
+            cache.getData('/cache/a')
+        then:
+            cache.staleCount == 1
+    }
+
+    def "test that reloading expired entries does not set another watch"() {
+        setup:
+            cache.ttl = 1
+            cache.start()
+        when:
+            5.times {
+                Thread.sleep(5)
+                cache.getData('/cache/a')
+            }
+        then:
+            cache.staleCount == 5
+            dataWatchers('/cache/a') == 1
+        when:
+            client.setData().forPath('/cache/a', 'updated'.getBytes())
+            waitFor { cache.getCachedStat('/cache/a')?.version == 1 }
+        then:
+            new String(cache.getData('/cache/a')) == 'updated'
+            dataWatchers('/cache/a') == 1
+    }
+
+    def "test that the cache is cleared when the session is lost"() {
+        setup:
+            cache.start()
+        when:
+            cache.connectionStateListener.stateChanged(client, ConnectionState.LOST)
+        then:
+            cache.size == 0
+            cache.bytes == 0
+    }
+
+    def "test starting the cache without a client"() {
+        setup:
+            cache.client = null
+        when:
+            cache.start()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test stopping the cache invokes the provided callback"() {
+        setup:
+            Runnable callback = Mock(Runnable)
+            cache.start()
+        when:
+            cache.stop(callback)
+        then:
+            1 * callback.run()
+            !cache.isRunning()
+            cache.size == 0
+    }
+
+    private int dataWatchers(String nodePath) {
+        client.getZookeeperClient().getZooKeeper().watchManager.dataWatches[nodePath]?.size() ?: 0
+    }
+
+    private void waitFor(Closure condition) {
+        long deadline = System.currentTimeMillis() + 5000
+        while(!condition() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+    }
+}
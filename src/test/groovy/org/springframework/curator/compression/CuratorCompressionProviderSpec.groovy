@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.compression
+
+import java.io.IOException
+
+import org.apache.curator.framework.imps.GzipCompressionProvider
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CuratorCompressionProviderSpec extends Specification {
+
+    static final byte[] COMPRESSIBLE = ('spring-curator ' * 1000).bytes
+
+    @Unroll
+    def "test compressing and decompressing data with #compression"() {
+        setup:
+            CuratorCompressionProvider provider = new CuratorCompressionProvider(compression)
+        when:
+            byte[] compressed = provider.compress('/path', COMPRESSIBLE)
+        then:
+            (compressed[0] & 0xFF) == (CuratorCompressionProvider.MAGIC | id)
+            compressed.length < COMPRESSIBLE.length
+            provider.decompress('/path', compressed) == COMPRESSIBLE
+        where:
+            compression					| id
+            CuratorCompression.GZIP		| CuratorCompressionProvider.GZIP_ID
+            CuratorCompression.LZ4		| CuratorCompressionProvider.LZ4_ID
+            CuratorCompression.ZSTD		| CuratorCompressionProvider.ZSTD_ID
+    }
+
+    @Unroll
+    def "test data is stored uncompressed with #compression when #description"() {
+        setup:
+            CuratorCompressionProvider provider = new CuratorCompressionProvider(compression, 256)
+        when:
+            byte[] stored = provider.compress('/path', data)
+        then:
+            stored.length == data.length + 1
+            (stored[0] & 0xFF) == CuratorCompressionProvider.MAGIC
+            provider.decompress('/path', stored) == data
+        where:
+            compression					| data									| description
+            CuratorCompression.NONE		| COMPRESSIBLE							| 'compression is disabled'
+            CuratorCompression.GZIP		| 'small'.bytes							| 'the data is below the threshold'
+            CuratorCompression.ZSTD		| new byte[0]							| 'the data is empty'
+            CuratorCompression.LZ4		| randomBytes(4096)						| 'the data does not shrink'
+            CuratorCompression.GZIP		| randomBytes(4096)						| 'the data does not shrink'
+    }
+
+    def "test data is decompressed with the codec named by its header"() {
+        setup:
+            byte[] compressed = new CuratorCompressionProvider(CuratorCompression.LZ4).compress('/path', COMPRESSIBLE)
+        expect:
+            new CuratorCompressionProvider(CuratorCompression.ZSTD).decompress('/path', compressed) == COMPRESSIBLE
+    }
+
+    def "test decompressing data written by the default Curator compression provider"() {
+        setup:
+            byte[] compressed = new GzipCompressionProvider().compress('/path', COMPRESSIBLE)
+        expect:
+            new CuratorCompressionProvider(CuratorCompression.ZSTD).decompress('/path', compressed) == COMPRESSIBLE
+    }
+
+    def "test decompressing data without a recognized header"() {
+        when:
+            new CuratorCompressionProvider(CuratorCompression.GZIP).decompress('/path', 'plain'.bytes)
+        then:
+            thrown IOException
+    }
+
+    def "test compressing data concurrently reuses codec state safely"() {
+        setup:
+            CuratorCompressionProvider provider = new CuratorCompressionProvider(CuratorCompression.GZIP)
+            List<Throwable> failures = Collections.synchronizedList([])
+        when:
+            List<Thread> threads = (1..8).collect { int n ->
+                Thread.start {
+                    try {
+                        (1..200).each {
+                            byte[] data = ("${n}-${it} " * 200).bytes
+                            assert provider.decompress('/path', provider.compress('/path', data)) == data
+                        }
+                    } catch (Throwable t) {
+                        failures << t
+                    }
+                }
+            }
+            threads*.join()
+        then:
+            failures.isEmpty()
+    }
+
+    static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size]
+        new Random(42).nextBytes(bytes)
+        bytes
+    }
+}
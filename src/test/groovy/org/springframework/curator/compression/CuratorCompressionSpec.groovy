@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.compression
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CuratorCompressionSpec extends Specification {
+
+    def "test getting the string representation of each enumerated value"() {
+        expect:
+            CuratorCompression.values().each { CuratorCompression compression ->
+                compression.toString() == compression.type
+            }
+    }
+
+    @Unroll
+    def "test finding the matching enumerated value for the compression type #type"() {
+        expect:
+            CuratorCompression.findByType(type) == expectedValue
+        where:
+            type								| expectedValue
+            CuratorCompression.GZIP.type		| CuratorCompression.GZIP
+            CuratorCompression.LZ4.type			| CuratorCompression.LZ4
+            CuratorCompression.NONE.type		| CuratorCompression.NONE
+            CuratorCompression.ZSTD.type		| CuratorCompression.ZSTD
+            'unknown'							| null
+            ''									| null
+            null								| null
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import javax.xml.parsers.DocumentBuilder
+import javax.xml.parsers.DocumentBuilderFactory
+
+import org.springframework.beans.factory.parsing.ProblemReporter
+import org.springframework.beans.factory.parsing.ReaderEventListener
+import org.springframework.beans.factory.parsing.SourceExtractor
+import org.springframework.beans.factory.xml.BeanDefinitionParserDelegate
+import org.springframework.beans.factory.xml.NamespaceHandlerResolver
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader
+import org.springframework.beans.factory.xml.XmlReaderContext
+import org.springframework.core.io.Resource
+import org.w3c.dom.Document
+import org.w3c.dom.Element
+
+import spock.lang.Specification
+
+/**
+ * Base specification of the bean definition parsers, which parses XML snippets and
+ * provides the parser context that they are parsed in.
+ */
+abstract class AbstractBeanDefinitionParserSpec extends Specification {
+
+    protected ParserContext createParserContext() {
+        Resource resource = Mock(Resource)
+        ProblemReporter problemReporter = Mock(ProblemReporter)
+        ReaderEventListener eventListener = Mock(ReaderEventListener)
+        SourceExtractor sourceExtractor = Mock(SourceExtractor)
+        XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+        NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+        XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+        BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+        new ParserContext(context, delegate)
+    }
+
+    protected Element parseXml(xml) {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance()
+        DocumentBuilder builder = factory.newDocumentBuilder()
+        Document document = builder.parse(new ByteArrayInputStream(xml.getBytes()))
+        document.getDocumentElement()
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.BeanDefinition
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.lock.CuratorLockedAnnotationBeanPostProcessor
+import org.w3c.dom.Element
+
+class CuratorAnnotationDrivenBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorAnnotationDrivenBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorAnnotationDrivenBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of the annotation support"() {
+        setup:
+            Element element = parseXml('''<annotation-driven proxy-target-class="true" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorLockedAnnotationBeanPostProcessor
+            definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE
+            definition.getPropertyValues().getPropertyValue('proxyTargetClass').value == true
+    }
+}
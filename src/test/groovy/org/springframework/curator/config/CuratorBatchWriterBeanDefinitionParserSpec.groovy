@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.batch.CuratorBatchWriter
+import org.w3c.dom.Element
+
+class CuratorBatchWriterBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorBatchWriterBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorBatchWriterBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a batch writer"() {
+        setup:
+            Element element = parseXml('''<batch-writer id="test-writer" client-ref="client" max-batch-ops="10" max-linger-ms="2" max-pending-ops="100" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorBatchWriter
+            definition.getPropertyValues().size() == 4
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            definition.getPropertyValues().getPropertyValue('maxBatchOps').value == 10
+            definition.getPropertyValues().getPropertyValue('maxLingerMs').value == 2
+            definition.getPropertyValues().getPropertyValue('maxPendingOps').value == 100
+    }
+
+    def "test parsing a well-formed XML configuration of a batch writer with the default limits"() {
+        setup:
+            Element element = parseXml('''<batch-writer id="test-writer" client-ref="client" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 1
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.cache.CuratorReadCache
+import org.w3c.dom.Element
+
+class CuratorCacheBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorCacheBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorCacheBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a cache"() {
+        setup:
+            Element element = parseXml('''<cache id="test-cache" client-ref="client" path="/config" max-entries="100" max-bytes="1024" ttl="5000" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorReadCache
+            definition.getPropertyValues().size() == 5
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            definition.getPropertyValues().getPropertyValue('maxEntries').value == 100
+            definition.getPropertyValues().getPropertyValue('maxBytes').value == 1024L
+            definition.getPropertyValues().getPropertyValue('ttl').value == 5000L
+    }
+
+    def "test parsing a well-formed XML configuration of an unbounded cache"() {
+        setup:
+            Element element = parseXml('''<cache id="test-cache" client-ref="client" path="/config" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 2
+    }
+}
@@ -18,6 +18,8 @@ package org.springframework.curator.config
 import javax.xml.parsers.DocumentBuilder
 import javax.xml.parsers.DocumentBuilderFactory
 
+import org.springframework.beans.factory.config.BeanDefinition
+import org.springframework.beans.factory.config.RuntimeBeanReference
 import org.springframework.beans.factory.parsing.ProblemReporter
 import org.springframework.beans.factory.parsing.ReaderEventListener
 import org.springframework.beans.factory.parsing.SourceExtractor
@@ -28,6 +30,10 @@ import org.springframework.beans.factory.xml.ParserContext
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader
 import org.springframework.beans.factory.xml.XmlReaderContext
 import org.springframework.core.io.Resource
+import org.springframework.curator.compression.CuratorCompression
+import org.springframework.curator.factory.CuratorClientSpec
+import org.springframework.curator.factory.CuratorRetryPolicy
+import org.springframework.curator.throttle.OperationScheduler
 import org.w3c.dom.Document
 import org.w3c.dom.Element
 
@@ -63,7 +69,11 @@ class CuratorClientBeanDefinitionParserSpec extends Specification {
             AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
         then:
             definition != null
-            definition.getPropertyValues().size() == 12
+            definition.getPropertyValues().size() == 6
+            definition.getPropertyValues().getPropertyValue('spec').value.retryPolicyType == CuratorRetryPolicy.BOUNDED_EXPONENTIAL_BACKOFF
+            definition.getPropertyValues().getPropertyValue('spec').value.canBeReadOnly == true
+            definition.getPropertyValues().getPropertyValue('spec').value.connectionTimeout == 50
+            definition.getPropertyValues().getPropertyValue('spec').value.sessionTimeout == 50
     }
 
     def "test parsing a well-formed XML configuration of a Curator client with a exponential backoff retry policy"() {
@@ -87,7 +97,7 @@ class CuratorClientBeanDefinitionParserSpec extends Specification {
             AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
         then:
             definition != null
-            definition.getPropertyValues().size() == 12
+            definition.getPropertyValues().size() == 6
     }
 
     def "test parsing a well-formed XML configuration of a Curator client with a retry n times retry policy"() {
@@ -111,7 +121,7 @@ class CuratorClientBeanDefinitionParserSpec extends Specification {
             AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
         then:
             definition != null
-            definition.getPropertyValues().size() == 11
+            definition.getPropertyValues().size() == 6
     }
 
     def "test parsing a well-formed XML configuration of a Curator client with a retry one time retry policy"() {
@@ -135,7 +145,7 @@ class CuratorClientBeanDefinitionParserSpec extends Specification {
             AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
         then:
             definition != null
-            definition.getPropertyValues().size() == 10
+            definition.getPropertyValues().size() == 6
     }
 
     def "test parsing a well-formed XML configuration of a Curator client with a retry until elapsed retry policy"() {
@@ -159,7 +169,7 @@ class CuratorClientBeanDefinitionParserSpec extends Specification {
             AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
         then:
             definition != null
-            definition.getPropertyValues().size() == 11
+            definition.getPropertyValues().size() == 6
     }
 
     def "test parsing a well-formed XML configuration of a Curator client without authorization details"() {
@@ -182,10 +192,10 @@ class CuratorClientBeanDefinitionParserSpec extends Specification {
             AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
         then:
             definition != null
-            definition.getPropertyValues().size() == 8
+            definition.getPropertyValues().size() == 4
     }
 
-    def "test parsing a well-formed XML configuration of a Curator client without a retry policy"() {
+    def "test parsing an XML configuration of a Curator client without a retry policy"() {
         setup:
             Element element = parseXml('''<client id="test-client" connection-string="localhost" read-only="true" connection-timeout="50" session-timeout="50" namespace="test">
                 <authorization scheme="test" credentials="user:pass" />
@@ -199,11 +209,370 @@ class CuratorClientBeanDefinitionParserSpec extends Specification {
             XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
             BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
             ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            parser.parseInternal(element, parserContext)
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with a registry"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost" namespace="test" registry-ref="registry">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 5
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('registry').value).beanName == 'registry'
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with a startup mode"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost" startup-mode="async" connect-wait-ms="5000">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 6
+            definition.getPropertyValues().getPropertyValue('startupMode').value == 'async'
+            definition.getPropertyValues().getPropertyValue('connectWaitMs').value == 5000
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with a compression codec"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost" compression="lz4" compression-threshold="1024">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 4
+            definition.getPropertyValues().getPropertyValue('spec').value.compression == CuratorCompression.LZ4
+            definition.getPropertyValues().getPropertyValue('spec').value == CuratorClientSpec.builder()
+                .retryPolicy('retry-one-time')
+                .sleepBetweenRetries(1000)
+                .canBeReadOnly(false)
+                .compression('lz4')
+                .compressionThreshold(1024)
+                .build()
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with metrics"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+                <metrics registry-ref="registry" path-depth="2" />
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
         when:
             AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
         then:
             definition != null
-            definition.getPropertyValues().size() == 8
+            definition.getPropertyValues().size() == 6
+            definition.getPropertyValues().getPropertyValue('metricsRegistry').value.beanName == 'registry'
+            definition.getPropertyValues().getPropertyValue('metricsPathDepth').value == 2
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with health settings"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+                <health probe-interval-ms="5000" probe-failure-threshold="2" fail-fast="true" />
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 7
+            definition.getPropertyValues().getPropertyValue('healthProbeIntervalMs').value == 5000
+            definition.getPropertyValues().getPropertyValue('healthProbeFailureThreshold').value == 2
+            definition.getPropertyValues().getPropertyValue('failFast').value == true
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client that coalesces reads"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost" coalesce-reads="true">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 5
+            definition.getPropertyValues().getPropertyValue('coalesceReads').value == true
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with a throttle"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+                <throttle max-ops-per-second="100" burst="5">
+                    <operation-class name="critical" weight="10" bypass="true" path-prefixes="/locks,/leader" />
+                    <operation-class name="bulk" operations="create,delete" />
+                </throttle>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+            BeanDefinition scheduler = definition.getPropertyValues().getPropertyValue('operationScheduler').value
+            List<BeanDefinition> classes = scheduler.getPropertyValues().getPropertyValue('operationClasses').value
+        then:
+            definition.getPropertyValues().size() == 5
+            scheduler.beanClassName == OperationScheduler.class.name
+            scheduler.getPropertyValues().getPropertyValue('maxOpsPerSecond').value == 100
+            scheduler.getPropertyValues().getPropertyValue('burst').value == 5
+            classes.size() == 2
+            classes[0].getPropertyValues().getPropertyValue('name').value == 'critical'
+            classes[0].getPropertyValues().getPropertyValue('weight').value == 10
+            classes[0].getPropertyValues().getPropertyValue('bypass').value == true
+            classes[0].getPropertyValues().getPropertyValue('pathPrefixList').value == '/locks,/leader'
+            classes[1].getPropertyValues().getPropertyValue('operationList').value == 'create,delete'
+            classes[1].getPropertyValues().getPropertyValue('weight') == null
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with a shared throttle"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+                <throttle scheduler-ref="sharedScheduler" />
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition.getPropertyValues().size() == 5
+            definition.getPropertyValues().getPropertyValue('operationScheduler').value.beanName == 'sharedScheduler'
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with executors"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+                <executors>
+                    <background executor-ref="backgroundExecutor" />
+                    <connection-state />
+                    <events type="bounded" threads="4" queue-capacity="100" rejection-policy="caller-runs" />
+                </executors>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 7
+            definition.getPropertyValues().getPropertyValue('backgroundExecutor').value.beanName == 'backgroundExecutor'
+            definition.getPropertyValues().getPropertyValue('connectionStateExecutor').value.beanClassName == 'org.springframework.curator.executor.CuratorExecutorFactoryBean'
+            definition.getPropertyValues().getPropertyValue('connectionStateExecutor').value.propertyValues.size() == 1
+            definition.getPropertyValues().getPropertyValue('connectionStateExecutor').value.propertyValues.getPropertyValue('threadNamePrefix').value == 'test-client-connection-state'
+            definition.getPropertyValues().getPropertyValue('eventExecutor').value.propertyValues.getPropertyValue('type').value == 'bounded'
+            definition.getPropertyValues().getPropertyValue('eventExecutor').value.propertyValues.getPropertyValue('threads').value == 4
+            definition.getPropertyValues().getPropertyValue('eventExecutor').value.propertyValues.getPropertyValue('queueCapacity').value == 100
+            definition.getPropertyValues().getPropertyValue('eventExecutor').value.propertyValues.getPropertyValue('rejectionPolicy').value == 'caller-runs'
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with a retry budget retry policy"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost">
+                <retry-policy>
+                    <retry-budget max-retries="3" base-sleep-time="100" max-sleep-time="1000" max-tokens="10" tokens-per-second="2" />
+                </retry-policy>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 4
+            definition.getPropertyValues().getPropertyValue('spec').value.retryPolicyType == CuratorRetryPolicy.RETRY_BUDGET
+            definition.getPropertyValues().getPropertyValue('spec').value == CuratorClientSpec.builder()
+                .retryPolicy('retry-budget')
+                .maxRetries(3)
+                .baseSleepTime(100)
+                .maxSleepTime(1000)
+                .maxTokens(10)
+                .tokensPerSecond(2)
+                .canBeReadOnly(false)
+                .build()
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client with a custom retry policy"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost">
+                <retry-policy>
+                    <custom retry-policy-ref="myRetryPolicy" />
+                </retry-policy>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 5
+            definition.getPropertyValues().getPropertyValue('spec').value.retryPolicyType == CuratorRetryPolicy.CUSTOM
+            definition.getPropertyValues().getPropertyValue('retryPolicy').value.beanName == 'myRetryPolicy'
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client that is cached"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost" cache-client="true">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 5
+            definition.getPropertyValues().getPropertyValue('cacheClient').value == true
+    }
+
+    def "test parsing an XML configuration of a Curator client with an incomplete retry policy"() {
+        setup:
+            Element element = parseXml('''<client id="test-client" connection-string="localhost">
+                <retry-policy>
+                    <bounded-exponential-backoff max-retries="1" base-sleep-time="1000" />
+                </retry-policy>
+            </client>''')
+            Resource resource = Mock(Resource)
+            ProblemReporter problemReporter = Mock(ProblemReporter)
+            ReaderEventListener eventListener = Mock(ReaderEventListener)
+            SourceExtractor sourceExtractor = Mock(SourceExtractor)
+            XmlBeanDefinitionReader reader = Mock(XmlBeanDefinitionReader)
+            NamespaceHandlerResolver namespaceHandlerResolver = Mock(NamespaceHandlerResolver)
+            XmlReaderContext context = new XmlReaderContext(resource, problemReporter, eventListener, sourceExtractor, reader, namespaceHandlerResolver)
+            BeanDefinitionParserDelegate delegate = Mock(BeanDefinitionParserDelegate)
+            ParserContext parserContext = new ParserContext(context, delegate)
+        when:
+            parser.parseInternal(element, parserContext)
+        then:
+            IllegalArgumentException e = thrown()
+            e.message == "[Assertion failed] 'max-sleep-time' must be configured for retry policy 'bounded-exponential-backoff'."
     }
 
     @Unroll
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.factory.CuratorFrameworkPoolFactoryBean
+import org.w3c.dom.Element
+
+class CuratorClientPoolBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorClientPoolBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorClientPoolBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client pool"() {
+        setup:
+            Element element = parseXml('''<client-pool id="test-pool" connection-string="localhost" read-only="true" connection-timeout="50" session-timeout="50" namespace="test" size="4" routing="path-hash">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+            </client-pool>''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorFrameworkPoolFactoryBean
+            definition.getPropertyValues().size() == 6
+            definition.getPropertyValues().getPropertyValue('size').value == 4
+            definition.getPropertyValues().getPropertyValue('routing').value == 'path-hash'
+    }
+
+    def "test parsing a well-formed XML configuration of a Curator client pool without a routing strategy"() {
+        setup:
+            Element element = parseXml('''<client-pool id="test-pool" connection-string="localhost" size="2">
+                <retry-policy>
+                    <retry-one-time sleep-between-retries="1000" />
+                </retry-policy>
+            </client-pool>''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 5
+            definition.getPropertyValues().getPropertyValue('routing') == null
+    }
+}
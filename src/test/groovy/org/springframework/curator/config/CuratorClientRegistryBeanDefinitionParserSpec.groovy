@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.factory.CuratorClientRegistry
+import org.w3c.dom.Element
+
+class CuratorClientRegistryBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorClientRegistryBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorClientRegistryBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a client registry"() {
+        setup:
+            Element element = parseXml('''<client-registry id="registry" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorClientRegistry
+            definition.getPropertyValues().size() == 0
+    }
+}
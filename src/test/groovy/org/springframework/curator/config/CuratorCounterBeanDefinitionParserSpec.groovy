@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.counter.CuratorCounter
+import org.w3c.dom.Element
+
+class CuratorCounterBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorCounterBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorCounterBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a counter"() {
+        setup:
+            Element element = parseXml('''<counter id="test-counter" client-ref="client" path="/counters/test" flush-interval-ms="500" max-unflushed="100" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorCounter
+            definition.getPropertyValues().size() == 4
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            definition.getPropertyValues().getPropertyValue('path').value == '/counters/test'
+            definition.getPropertyValues().getPropertyValue('flushIntervalMs').value == 500
+            definition.getPropertyValues().getPropertyValue('maxUnflushed').value == 100L
+    }
+
+    def "test parsing an XML configuration of a counter without the optional attributes"() {
+        setup:
+            Element element = parseXml('''<counter id="test-counter" client-ref="client" path="/counters/test" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition.getPropertyValues().size() == 2
+            definition.getPropertyValues().getPropertyValue('flushIntervalMs') == null
+            definition.getPropertyValues().getPropertyValue('maxUnflushed') == null
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.ensemble.DynamicEnsembleProvider
+import org.w3c.dom.Element
+
+class CuratorEnsembleBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorEnsembleBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorEnsembleBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of an ensemble"() {
+        setup:
+            Element element = parseXml('''<ensemble id="test-ensemble" source="file:/etc/zk/zk.properties" property="zookeeper.hosts" refresh-ms="5000" probe-timeout-ms="250" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == DynamicEnsembleProvider
+            definition.getPropertyValues().size() == 4
+            definition.getPropertyValues().getPropertyValue('source').value == 'file:/etc/zk/zk.properties'
+            definition.getPropertyValues().getPropertyValue('property').value == 'zookeeper.hosts'
+            definition.getPropertyValues().getPropertyValue('refreshMs').value == 5000
+            definition.getPropertyValues().getPropertyValue('probeTimeoutMs').value == 250
+    }
+
+    def "test parsing a well-formed XML configuration of an ensemble with the default settings"() {
+        setup:
+            Element element = parseXml('''<ensemble id="test-ensemble" source="file:/etc/zk/hosts" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 1
+    }
+}
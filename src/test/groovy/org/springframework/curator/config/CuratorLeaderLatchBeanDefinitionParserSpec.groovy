@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.leader.CuratorLeaderLatch
+import org.w3c.dom.Element
+
+class CuratorLeaderLatchBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorLeaderLatchBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorLeaderLatchBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a leader latch"() {
+        setup:
+            Element element = parseXml('''<leader-latch id="test-latch" client-ref="client" path="/leaders/test" participant-id="node-1" metrics-registry-ref="registry">
+                <listener ref="firstListener" />
+                <listener ref="secondListener" />
+            </leader-latch>''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorLeaderLatch
+            definition.getPropertyValues().size() == 5
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            definition.getPropertyValues().getPropertyValue('path').value == '/leaders/test'
+            definition.getPropertyValues().getPropertyValue('participantId').value == 'node-1'
+            definition.getPropertyValues().getPropertyValue('listeners').value*.beanName == ['firstListener', 'secondListener']
+    }
+
+    def "test parsing a well-formed XML configuration of a leader latch without listeners"() {
+        setup:
+            Element element = parseXml('''<leader-latch id="test-latch" client-ref="client" path="/leaders/test" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 2
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.lock.CuratorLock
+import org.w3c.dom.Element
+
+class CuratorLockBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorLockBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorLockBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a lock"() {
+        setup:
+            Element element = parseXml('''<lock id="test-lock" client-ref="client" path="/locks/test" metrics-registry-ref="registry" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorLock
+            definition.getPropertyValues().size() == 3
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            definition.getPropertyValues().getPropertyValue('path').value == '/locks/test'
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('metricsRegistry').value).beanName == 'registry'
+    }
+
+    def "test parsing a well-formed XML configuration of a lock without metrics"() {
+        setup:
+            Element element = parseXml('''<lock id="test-lock" client-ref="client" path="/locks/test" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 2
+    }
+}
@@ -34,7 +34,17 @@ class CuratorNamespaceHandlerSpec extends Specification {
         when:
             handler.init()
         then:
-            field.get(handler).size() == 1
+            field.get(handler).size() == 20
             field.get(handler).client.getClass() == CuratorClientBeanDefinitionParser
+            field.get(handler).'client-pool'.getClass() == CuratorClientPoolBeanDefinitionParser
+            field.get(handler).cache.getClass() == CuratorCacheBeanDefinitionParser
+            field.get(handler).'batch-writer'.getClass() == CuratorBatchWriterBeanDefinitionParser
+            field.get(handler).ensemble.getClass() == CuratorEnsembleBeanDefinitionParser
+            field.get(handler).'async-client'.getClass() == CuratorAsyncClientBeanDefinitionParser
+            field.get(handler).lock.getClass() == CuratorLockBeanDefinitionParser
+            field.get(handler).semaphore.getClass() == CuratorSemaphoreBeanDefinitionParser
+            field.get(handler).'leader-latch'.getClass() == CuratorLeaderLatchBeanDefinitionParser
+            field.get(handler).'annotation-driven'.getClass() == CuratorAnnotationDrivenBeanDefinitionParser
+            field.get(handler).'watch-multiplexer'.getClass() == CuratorWatchMultiplexerBeanDefinitionParser
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.counter.CuratorRateLimiter
+import org.w3c.dom.Element
+
+class CuratorRateLimiterBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorRateLimiterBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorRateLimiterBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a rate limiter"() {
+        setup:
+            Element element = parseXml('''<rate-limiter id="test-limiter" client-ref="client" path="/limits/test" permits="1000" window-ms="60000" lease-size="25" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorRateLimiter
+            definition.getPropertyValues().size() == 5
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            definition.getPropertyValues().getPropertyValue('path').value == '/limits/test'
+            definition.getPropertyValues().getPropertyValue('permits').value == 1000L
+            definition.getPropertyValues().getPropertyValue('windowMs').value == 60000
+            definition.getPropertyValues().getPropertyValue('leaseSize').value == 25
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.discovery.CuratorServiceDiscovery
+import org.w3c.dom.Element
+
+class CuratorServiceDiscoveryBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorServiceDiscoveryBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorServiceDiscoveryBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a service discovery"() {
+        setup:
+            Element element = parseXml('''<service-discovery id="test-discovery" client-ref="client" name="orders" base-path="/discovery" zone="eu-1a" strategy="locality-aware" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorServiceDiscovery
+            definition.getPropertyValues().size() == 5
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            definition.getPropertyValues().getPropertyValue('name').value == 'orders'
+            definition.getPropertyValues().getPropertyValue('basePath').value == '/discovery'
+            definition.getPropertyValues().getPropertyValue('zone').value == 'eu-1a'
+            definition.getPropertyValues().getPropertyValue('strategyType').value == 'locality-aware'
+    }
+
+    def "test parsing a well-formed XML configuration of a service discovery with the defaults"() {
+        setup:
+            Element element = parseXml('''<service-discovery id="test-discovery" client-ref="client" name="orders" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 2
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.discovery.CuratorServiceRegistration
+import org.w3c.dom.Element
+
+class CuratorServiceRegistrationBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorServiceRegistrationBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorServiceRegistrationBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a service registration"() {
+        setup:
+            Element element = parseXml('''<service-registration id="test-registration" client-ref="client" name="orders" base-path="/discovery" instance-id="orders-1" address="10.0.0.1" port="8080" zone="eu-1a" load-provider-ref="loadProvider" heartbeat-ms="1000" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorServiceRegistration
+            definition.getPropertyValues().size() == 9
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            definition.getPropertyValues().getPropertyValue('name').value == 'orders'
+            definition.getPropertyValues().getPropertyValue('basePath').value == '/discovery'
+            definition.getPropertyValues().getPropertyValue('instanceId').value == 'orders-1'
+            definition.getPropertyValues().getPropertyValue('address').value == '10.0.0.1'
+            definition.getPropertyValues().getPropertyValue('port').value == 8080
+            definition.getPropertyValues().getPropertyValue('zone').value == 'eu-1a'
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('loadProvider').value).beanName == 'loadProvider'
+            definition.getPropertyValues().getPropertyValue('heartbeatMs').value == 1000
+    }
+
+    def "test parsing a well-formed XML configuration of a service registration with the defaults"() {
+        setup:
+            Element element = parseXml('''<service-registration id="test-registration" client-ref="client" name="orders" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 2
+    }
+}
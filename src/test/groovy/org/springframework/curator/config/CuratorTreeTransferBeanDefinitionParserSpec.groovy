@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.transfer.CuratorTreeTransfer
+import org.w3c.dom.Element
+
+class CuratorTreeTransferBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorTreeTransferBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorTreeTransferBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a tree transfer"() {
+        setup:
+            Element element = parseXml('''<tree-transfer id="test-transfer" client-ref="client" parallelism="8" batch-size="50" max-batch-bytes="1024" buffer-size="4096" timeout-ms="1000" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorTreeTransfer
+            definition.getPropertyValues().size() == 6
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            definition.getPropertyValues().getPropertyValue('parallelism').value == 8
+            definition.getPropertyValues().getPropertyValue('batchSize').value == 50
+            definition.getPropertyValues().getPropertyValue('maxBatchBytes').value == 1024
+            definition.getPropertyValues().getPropertyValue('bufferSize').value == 4096
+            definition.getPropertyValues().getPropertyValue('timeoutMs').value == 1000
+    }
+
+    def "test parsing a well-formed XML configuration of a tree transfer with the default limits"() {
+        setup:
+            Element element = parseXml('''<tree-transfer id="test-transfer" client-ref="client" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 1
+    }
+}
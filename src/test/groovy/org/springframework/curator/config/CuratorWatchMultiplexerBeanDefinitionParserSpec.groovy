@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.xml.ParserContext
+import org.springframework.curator.watch.CuratorWatchMultiplexer
+import org.w3c.dom.Element
+
+class CuratorWatchMultiplexerBeanDefinitionParserSpec extends AbstractBeanDefinitionParserSpec {
+
+    CuratorWatchMultiplexerBeanDefinitionParser parser
+
+    def setup() {
+        parser = new CuratorWatchMultiplexerBeanDefinitionParser()
+    }
+
+    def "test parsing a well-formed XML configuration of a watch multiplexer"() {
+        setup:
+            Element element = parseXml('''<watch-multiplexer id="test-multiplexer" client-ref="client" metrics-registry-ref="registry" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getBeanClass() == CuratorWatchMultiplexer
+            definition.getPropertyValues().size() == 2
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('client').value).beanName == 'client'
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('metricsRegistry').value).beanName == 'registry'
+    }
+
+    def "test parsing a well-formed XML configuration of a watch multiplexer without metrics"() {
+        setup:
+            Element element = parseXml('''<watch-multiplexer id="test-multiplexer" client-ref="client" />''')
+            ParserContext parserContext = createParserContext()
+        when:
+            AbstractBeanDefinition definition = parser.parseInternal(element, parserContext)
+        then:
+            definition != null
+            definition.getPropertyValues().size() == 1
+    }
+}
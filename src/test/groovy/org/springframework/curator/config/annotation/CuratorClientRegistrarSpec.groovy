@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config.annotation
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.test.TestingServer
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.beans.factory.support.BeanDefinitionRegistry
+import org.springframework.context.annotation.AnnotationConfigApplicationContext
+import org.springframework.context.annotation.Configuration
+import org.springframework.core.type.StandardAnnotationMetadata
+import org.springframework.curator.lock.CuratorLockedAnnotationBeanPostProcessor
+import org.springframework.mock.env.MockEnvironment
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorClientRegistrarSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    def setupSpec() {
+        server = new TestingServer()
+    }
+
+    def cleanupSpec() {
+        server.stop()
+    }
+
+    def "test registering clients from the annotation and from the environment"() {
+        setup:
+            CuratorClientRegistrar registrar = new CuratorClientRegistrar()
+            registrar.setEnvironment(new MockEnvironment()
+                .withProperty('zookeeper.hosts', 'localhost:2181')
+                .withProperty('curator.clients', 'bound')
+                .withProperty('curator.bound.connection-string', 'bound:2181'))
+            BeanDefinitionRegistry registry = Mock(BeanDefinitionRegistry)
+            Map<String, AbstractBeanDefinition> definitions = [:]
+        when:
+            registrar.registerBeanDefinitions(new StandardAnnotationMetadata(AnnotatedConfiguration, true), registry)
+        then:
+            2 * registry.registerBeanDefinition({ it != CuratorClientRegistrar.LOCKED_ANNOTATION_PROCESSOR_BEAN_NAME }, _) >> { name, definition -> definitions[name] = definition }
+            1 * registry.registerBeanDefinition(CuratorClientRegistrar.LOCKED_ANNOTATION_PROCESSOR_BEAN_NAME, { it.beanClass == CuratorLockedAnnotationBeanPostProcessor })
+            definitions.keySet() == ['annotated', 'bound'] as Set
+            definitions['annotated'].getPropertyValues().getPropertyValue('connectionString').value == 'localhost:2181'
+            definitions['annotated'].getPropertyValues().getPropertyValue('connectionTimeout').value == 1000
+            definitions['annotated'].getPropertyValues().getPropertyValue('retryPolicyType').value == 'retry-one-time'
+            definitions['annotated'].getPropertyValues().getPropertyValue('sessionTimeout') == null
+            definitions['bound'].getPropertyValues().getPropertyValue('connectionString').value == 'bound:2181'
+    }
+
+    def "test registering clients with duplicate names"() {
+        setup:
+            CuratorClientRegistrar registrar = new CuratorClientRegistrar()
+            registrar.setEnvironment(new MockEnvironment()
+                .withProperty('zookeeper.hosts', 'localhost:2181')
+                .withProperty('curator.clients', 'annotated'))
+        when:
+            registrar.registerBeanDefinitions(new StandardAnnotationMetadata(AnnotatedConfiguration, true), Mock(BeanDefinitionRegistry))
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test creating clients in an annotation based application context"() {
+        setup:
+            System.setProperty('curator.test.hosts', server.getConnectString())
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TestingServerConfiguration)
+        when:
+            CuratorFramework client = context.getBean('testClient', CuratorFramework)
+        then:
+            client.isStarted()
+            client.checkExists().forPath('/') != null
+        cleanup:
+            context?.close()
+            System.clearProperty('curator.test.hosts')
+    }
+
+    @Configuration
+    @EnableCurator([@CuratorClient(name = 'annotated', connectionString = '${zookeeper.hosts}', connectionTimeout = 1000, retryPolicy = 'retry-one-time', retrySleepBetweenRetries = 10)])
+    static class AnnotatedConfiguration {
+    }
+
+    @Configuration
+    @EnableCurator([@CuratorClient(name = 'testClient', connectionString = '${curator.test.hosts}', connectionTimeout = 1000, retryPolicy = 'retry-one-time', retrySleepBetweenRetries = 10)])
+    static class TestingServerConfiguration {
+    }
+}
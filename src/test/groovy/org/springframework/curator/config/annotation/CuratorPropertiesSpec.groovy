@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.config.annotation
+
+import org.springframework.beans.factory.config.RuntimeBeanReference
+import org.springframework.beans.factory.support.AbstractBeanDefinition
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean
+import org.springframework.mock.env.MockEnvironment
+
+import spock.lang.Specification
+
+class CuratorPropertiesSpec extends Specification {
+
+    def "test binding clients from the environment"() {
+        setup:
+            MockEnvironment environment = new MockEnvironment()
+            environment.setProperty('zk.clients', 'main, audit')
+            environment.setProperty('zk.main.connection-string', 'localhost:2181')
+            environment.setProperty('zk.main.connection-timeout', '1000')
+            environment.setProperty('zk.main.read-only', 'true')
+            environment.setProperty('zk.main.retry-policy.type', 'retry-n-times')
+            environment.setProperty('zk.main.retry-policy.max-retries', '3')
+            environment.setProperty('zk.main.retry-policy.sleep-between-retries', '10')
+            environment.setProperty('zk.main.metrics.registry-ref', 'registry')
+            environment.setProperty('zk.main.health.probe-interval-ms', '5000')
+            environment.setProperty('zk.main.health.fail-fast', 'true')
+            environment.setProperty('zk.main.coalesce-reads', 'true')
+            environment.setProperty('zk.main.throttle-ref', 'scheduler')
+            environment.setProperty('zk.audit.registry-ref', 'clientRegistry')
+            environment.setProperty('zk.audit.connection-string', 'audit:2181')
+        when:
+            List<CuratorProperties> clients = CuratorProperties.bind(environment, 'zk')
+        then:
+            clients*.name == ['main', 'audit']
+            clients[0].connectionString == 'localhost:2181'
+            clients[0].connectionTimeout == 1000
+            clients[0].readOnly
+            clients[0].retryPolicy == 'retry-n-times'
+            clients[0].retryMaxRetries == 3
+            clients[0].retrySleepBetweenRetries == 10
+            clients[0].metricsRegistryRef == 'registry'
+            clients[0].healthProbeIntervalMs == 5000
+            clients[0].healthProbeFailureThreshold == null
+            clients[0].failFast
+            clients[0].coalesceReads
+            clients[0].throttleRef == 'scheduler'
+            clients[1].connectionString == 'audit:2181'
+            clients[1].registryRef == 'clientRegistry'
+            clients[1].connectionTimeout == null
+            clients[1].readOnly == null
+            clients[1].failFast == null
+    }
+
+    def "test binding without any listed clients"() {
+        expect:
+            CuratorProperties.bind(new MockEnvironment(), CuratorProperties.DEFAULT_PREFIX).isEmpty()
+    }
+
+    def "test creating a bean definition only applies the settings that are set"() {
+        setup:
+            CuratorProperties properties = new CuratorProperties(name: 'main', connectionString: 'localhost:2181', sessionTimeout: 5000,
+                retryPolicyRef: 'customRetryPolicy', ensembleProviderRef: 'ensemble', throttleRef: 'scheduler')
+        when:
+            AbstractBeanDefinition definition = properties.toBeanDefinition()
+        then:
+            definition.getBeanClass() == CuratorFrameworkFactoryBean
+            definition.getPropertyValues().size() == 6
+            definition.getPropertyValues().getPropertyValue('connectionString').value == 'localhost:2181'
+            definition.getPropertyValues().getPropertyValue('sessionTimeout').value == 5000
+            definition.getPropertyValues().getPropertyValue('retryPolicyType').value == 'custom'
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('retryPolicy').value).beanName == 'customRetryPolicy'
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('ensembleProvider').value).beanName == 'ensemble'
+            ((RuntimeBeanReference)definition.getPropertyValues().getPropertyValue('operationScheduler').value).beanName == 'scheduler'
+    }
+}
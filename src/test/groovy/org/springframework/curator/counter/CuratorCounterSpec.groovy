@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.counter
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorCounterSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def "test updates are buffered until flushed"() {
+        setup:
+            CuratorCounter counter = new CuratorCounter(client: client, path: '/counters/buffered', flushIntervalMs: 60000)
+            counter.start()
+        when:
+            10.times { counter.increment() }
+            counter.add(5)
+        then:
+            counter.getUnflushed() == 15
+            counter.getRemoteValue() == 0
+            counter.get() == 15
+        when:
+            long value = counter.flush()
+        then:
+            value == 15
+            counter.getUnflushed() == 0
+            counter.getRemoteValue() == 15
+            counter.getFlushCount() == 1
+        when:
+            counter.flush()
+        then:
+            counter.getFlushCount() == 1
+        cleanup:
+            counter.stop()
+    }
+
+    def "test counters in different processes share the same value"() {
+        setup:
+            CuratorFramework other = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+            other.start()
+            CuratorCounter counter = new CuratorCounter(client: client, path: '/counters/shared', flushIntervalMs: 60000)
+            CuratorCounter otherCounter = new CuratorCounter(client: other, path: '/counters/shared', flushIntervalMs: 60000)
+            counter.start()
+            otherCounter.start()
+        when:
+            counter.add(3)
+            otherCounter.add(4)
+            counter.stop()
+            otherCounter.stop()
+        then:
+            counter.getRemoteValue() == 7
+        cleanup:
+            other.close()
+    }
+
+    def "test reaching the maximum unflushed amount triggers a flush"() {
+        setup:
+            CuratorCounter counter = new CuratorCounter(client: client, path: '/counters/threshold', flushIntervalMs: 60000, maxUnflushed: 10)
+            counter.start()
+        when:
+            10.times { counter.increment() }
+            long deadline = System.currentTimeMillis() + 5000
+            while(counter.getRemoteValue() < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10)
+            }
+        then:
+            counter.getRemoteValue() == 10
+            counter.getUnflushed() == 0
+        cleanup:
+            counter.stop()
+    }
+
+    def "test updating a counter that is not running"() {
+        when:
+            new CuratorCounter(client: client, path: '/counters/stopped').increment()
+        then:
+            thrown IllegalStateException
+    }
+
+    def "test starting a counter with an invalid configuration"() {
+        when:
+            new CuratorCounter(client: client, path: path, flushIntervalMs: flushIntervalMs, maxUnflushed: maxUnflushed).start()
+        then:
+            thrown IllegalArgumentException
+        where:
+            path              | flushIntervalMs | maxUnflushed
+            null              | 1000            | null
+            '/counters/other' | 0               | null
+            '/counters/other' | 1000            | 0
+    }
+}
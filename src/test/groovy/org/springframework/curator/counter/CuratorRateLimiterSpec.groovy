@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.counter
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorRateLimiterSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def "test permits are served from local leases"() {
+        setup:
+            CuratorRateLimiter limiter = new FixedWindowRateLimiter(client: client, path: '/limits/local', permits: 25, leaseSize: 10)
+            limiter.afterPropertiesSet()
+        when:
+            List<Boolean> results = (1..30).collect { limiter.tryAcquire() }
+        then:
+            results.count { it } == 25
+            limiter.getLeaseCount() == 3
+            limiter.getLocalHits() == 22
+            limiter.getLocallyAvailable() == 0
+    }
+
+    def "test the budget is shared by all processes and reset by a new window"() {
+        setup:
+            CuratorFramework other = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+            other.start()
+            FixedWindowRateLimiter limiter = new FixedWindowRateLimiter(client: client, path: '/limits/shared', permits: 10, leaseSize: 4)
+            FixedWindowRateLimiter otherLimiter = new FixedWindowRateLimiter(client: other, path: '/limits/shared', permits: 10, leaseSize: 4)
+            limiter.afterPropertiesSet()
+            otherLimiter.afterPropertiesSet()
+        when:
+            int acquired = (1..10).count { limiter.tryAcquire() } + (1..10).count { otherLimiter.tryAcquire() }
+        then:
+            acquired == 10
+        when:
+            limiter.window = 1
+            otherLimiter.window = 1
+            acquired = (1..10).count { otherLimiter.tryAcquire() }
+        then:
+            acquired == 10
+            !limiter.tryAcquire()
+        cleanup:
+            other.close()
+    }
+
+    def "test a process behind the stored window does not reset the budget"() {
+        setup:
+            FixedWindowRateLimiter ahead = new FixedWindowRateLimiter(client: client, path: '/limits/skew', permits: 10, leaseSize: 4, window: 2)
+            FixedWindowRateLimiter behind = new FixedWindowRateLimiter(client: client, path: '/limits/skew', permits: 10, leaseSize: 4, window: 1)
+            ahead.afterPropertiesSet()
+            behind.afterPropertiesSet()
+        when:
+            int acquired = (1..4).count { ahead.tryAcquire() }
+        then:
+            acquired == 4
+            !behind.tryAcquire()
+        when:
+            acquired = (1..10).count { ahead.tryAcquire() }
+        then:
+            acquired == 6
+    }
+
+    def "test initializing the rate limiter with an invalid configuration"() {
+        when:
+            new CuratorRateLimiter(client: client, path: '/limits/invalid', permits: permits, leaseSize: leaseSize).afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+        where:
+            permits | leaseSize
+            null    | 10
+            0       | 10
+            10      | 0
+    }
+
+    static class FixedWindowRateLimiter extends CuratorRateLimiter {
+
+        long window = 0
+
+        @Override
+        protected long currentWindow() {
+            window
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.counter
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import spock.lang.Specification
+
+class StripedLongAccumulatorSpec extends Specification {
+
+    def "test summing values added by concurrent threads"() {
+        setup:
+            StripedLongAccumulator accumulator = new StripedLongAccumulator(4)
+            ExecutorService executor = Executors.newFixedThreadPool(8)
+            CountDownLatch latch = new CountDownLatch(8)
+        when:
+            8.times {
+                executor.execute({
+                    1000.times { accumulator.add(1) }
+                    latch.countDown()
+                } as Runnable)
+            }
+            latch.await(10, TimeUnit.SECONDS)
+        then:
+            accumulator.sum() == 8000
+        cleanup:
+            executor.shutdownNow()
+    }
+
+    def "test resetting the sum"() {
+        setup:
+            StripedLongAccumulator accumulator = new StripedLongAccumulator(stripes)
+        when:
+            accumulator.add(5)
+            accumulator.add(-2)
+        then:
+            accumulator.sumThenReset() == 3
+            accumulator.sum() == 0
+        where:
+            stripes << [0, 1, 16]
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.CreateMode
+import org.apache.zookeeper.KeeperException
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorServiceDiscoverySpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    CuratorServiceDiscovery discovery
+
+    List<CuratorServiceRegistration> registrations = []
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def setup() {
+        discovery = new CuratorServiceDiscovery(client: client, name: 'orders', zone: 'eu-1a')
+    }
+
+    def cleanup() {
+        discovery.destroy()
+        registrations*.destroy()
+        if(client.checkExists().forPath('/services') != null) {
+            client.delete().deletingChildrenIfNeeded().forPath('/services')
+        }
+    }
+
+    def "test discovering the instances registered before the discovery is started"() {
+        setup:
+            register('orders-1', 'eu-1a', 0.5d)
+            register('orders-2', 'eu-1b', 0.1d)
+        when:
+            discovery.start()
+        then:
+            discovery.isRunning()
+            discovery.instances*.id.sort() == ['orders-1', 'orders-2']
+            discovery.instance != null
+            discovery.snapshot.localInstances*.id == ['orders-1']
+    }
+
+    def "test discovering instances as they are registered, updated and unregistered"() {
+        setup:
+            discovery.start()
+        when:
+            CuratorServiceRegistration registration = register('orders-1', 'eu-1a', 0.5d)
+        then:
+            waitFor { discovery.instances.size() == 1 }
+            discovery.instance.id == 'orders-1'
+        when:
+            registration.loadProvider = { 0.25d } as ServiceLoadProvider
+            registration.heartbeat()
+        then:
+            waitFor { discovery.instance.load == 0.25d }
+        when:
+            registration.stop()
+        then:
+            waitFor { discovery.instances.isEmpty() }
+            discovery.instance == null
+    }
+
+    def "test instances that cannot be decoded are ignored"() {
+        setup:
+            register('orders-1', 'eu-1a', 0.5d)
+            client.create().withMode(CreateMode.EPHEMERAL).forPath('/services/orders/garbage', 'garbage'.getBytes())
+        when:
+            discovery.start()
+        then:
+            discovery.instances*.id == ['orders-1']
+    }
+
+    def "test selecting instances with the configured strategy"() {
+        setup:
+            register('orders-1', 'eu-1a', 0.9d)
+            register('orders-2', 'eu-1b', 0.1d)
+            discovery.strategyType = 'locality-aware'
+        when:
+            discovery.start()
+        then:
+            (1..20).collect { discovery.instance.id }.every { it == 'orders-1' }
+    }
+
+    def "test stopping the discovery clears the instances"() {
+        setup:
+            register('orders-1', 'eu-1a', 0.5d)
+            discovery.start()
+        when:
+            discovery.stop()
+        then:
+            !discovery.isRunning()
+            discovery.instances.isEmpty()
+    }
+
+    def "test setting an unknown strategy"() {
+        when:
+            discovery.strategyType = 'unknown'
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test starting the discovery without a name"() {
+        when:
+            new CuratorServiceDiscovery(client: client).start()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    private CuratorServiceRegistration register(final String id, final String zone, final double load) {
+        CuratorServiceRegistration registration = new CuratorServiceRegistration(client: client, name: 'orders', instanceId: id,
+                address: '127.0.0.1', port: 8080, zone: zone, loadProvider: { load } as ServiceLoadProvider, heartbeatMs: 60000)
+        registration.start()
+        registrations << registration
+        registration
+    }
+
+    private static boolean waitFor(final Closure<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + 5000
+        while(!condition() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+        condition()
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery
+
+import java.util.concurrent.atomic.AtomicReference
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.state.ConnectionState
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorServiceRegistrationSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    AtomicReference<Double> load = new AtomicReference<Double>(0.5d)
+
+    CuratorServiceRegistration registration
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def setup() {
+        registration = new CuratorServiceRegistration(client: client, name: 'orders', instanceId: 'orders-1', port: 8080,
+                zone: 'eu-1a', loadProvider: { load.get() } as ServiceLoadProvider, heartbeatMs: 60000)
+    }
+
+    def cleanup() {
+        registration.destroy()
+        if(client.checkExists().forPath('/services') != null) {
+            client.delete().deletingChildrenIfNeeded().forPath('/services')
+        }
+    }
+
+    def "test registering an instance"() {
+        when:
+            registration.start()
+            ServiceInstance registered = ServiceInstance.fromBytes(client.getData().forPath('/services/orders/orders-1'))
+        then:
+            registration.isRunning()
+            registration.isRegistered()
+            registered.id == 'orders-1'
+            registered.name == 'orders'
+            registered.address == registration.instance.address
+            registered.address != null
+            registered.port == 8080
+            registered.zone == 'eu-1a'
+            registered.load == 0.5d
+            client.checkExists().forPath('/services/orders/orders-1').ephemeralOwner != 0
+    }
+
+    def "test the heartbeat refreshes the load only when it has changed"() {
+        setup:
+            registration.start()
+        when:
+            registration.heartbeat()
+        then:
+            client.checkExists().forPath('/services/orders/orders-1').version == 0
+        when:
+            load.set(0.25d)
+            registration.heartbeat()
+        then:
+            client.checkExists().forPath('/services/orders/orders-1').version == 1
+            ServiceInstance.fromBytes(client.getData().forPath('/services/orders/orders-1')).load == 0.25d
+    }
+
+    def "test the heartbeat registers the instance again if its node is missing"() {
+        setup:
+            registration.start()
+            client.delete().forPath('/services/orders/orders-1')
+            load.set(0.25d)
+        when:
+            registration.heartbeat()
+        then:
+            registration.isRegistered()
+            ServiceInstance.fromBytes(client.getData().forPath('/services/orders/orders-1')).load == 0.25d
+    }
+
+    def "test the heartbeat is scheduled"() {
+        setup:
+            registration.heartbeatMs = 20
+            registration.start()
+        when:
+            load.set(0.25d)
+            Thread.sleep(500)
+        then:
+            ServiceInstance.fromBytes(client.getData().forPath('/services/orders/orders-1')).load == 0.25d
+    }
+
+    def "test the instance is registered again when the client reconnects"() {
+        setup:
+            registration.start()
+            client.delete().forPath('/services/orders/orders-1')
+        when:
+            registration.connectionStateListener.stateChanged(client, ConnectionState.RECONNECTED)
+            Thread.sleep(500)
+        then:
+            client.checkExists().forPath('/services/orders/orders-1') != null
+    }
+
+    def "test stopping the registration removes the instance"() {
+        setup:
+            registration.start()
+        when:
+            registration.stop()
+        then:
+            !registration.isRunning()
+            !registration.isRegistered()
+            client.checkExists().forPath('/services/orders/orders-1') == null
+    }
+
+    def "test generating an instance identifier"() {
+        setup:
+            registration.instanceId = null
+        when:
+            registration.start()
+        then:
+            registration.instance.id != null
+            client.getChildren().forPath('/services/orders') == [registration.instance.id]
+    }
+
+    def "test starting the registration without a name"() {
+        when:
+            new CuratorServiceRegistration(client: client).start()
+        then:
+            thrown IllegalArgumentException
+    }
+}
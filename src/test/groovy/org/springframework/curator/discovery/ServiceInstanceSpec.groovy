@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery
+
+import groovy.json.JsonSlurper
+
+import spock.lang.Specification
+
+class ServiceInstanceSpec extends Specification {
+
+    def "test encoding and decoding an instance"() {
+        setup:
+            ServiceInstance instance = new ServiceInstance('id', 'orders', '10.0.0.1', 8080, zone, 0.75d, 1234L)
+        when:
+            ServiceInstance decoded = ServiceInstance.fromBytes(instance.toBytes())
+        then:
+            decoded.id == 'id'
+            decoded.name == 'orders'
+            decoded.address == '10.0.0.1'
+            decoded.port == 8080
+            decoded.zone == zone
+            decoded.load == 0.75d
+            decoded.updatedAt == 1234L
+        where:
+            zone << ['eu-1a', null]
+    }
+
+    def "test that instances are encoded as curator-x-discovery documents"() {
+        setup:
+            ServiceInstance instance = new ServiceInstance('id', 'orders', '10.0.0.1', 8080, 'eu-1a', 0.75d, 1234L)
+        when:
+            Map document = new JsonSlurper().parseText(new String(instance.toBytes(), 'UTF-8'))
+        then:
+            document.name == 'orders'
+            document.id == 'id'
+            document.address == '10.0.0.1'
+            document.port == 8080
+            document.registrationTimeUTC == 1234L
+            document.serviceType == 'DYNAMIC'
+            document.payload.zone == 'eu-1a'
+            document.payload.load == 0.75d
+            document.payload.updatedAt == 1234L
+    }
+
+    def "test decoding an instance registered through curator-x-discovery"() {
+        setup:
+            String json = '''{"name":"orders","id":"b1f7","address":"10.0.0.2","port":9090,"sslPort":null,
+                "payload":{"@class":"com.example.OrdersDetails","region":"eu"},"registrationTimeUTC":5678,
+                "serviceType":"DYNAMIC","uriSpec":{"parts":[]}}'''
+        when:
+            ServiceInstance decoded = ServiceInstance.fromBytes(json.getBytes('UTF-8'))
+        then:
+            decoded.id == 'b1f7'
+            decoded.name == 'orders'
+            decoded.address == '10.0.0.2'
+            decoded.port == 9090
+            decoded.zone == null
+            decoded.load == 0d
+            decoded.updatedAt == 5678L
+    }
+
+    def "test copying an instance with a new load"() {
+        setup:
+            ServiceInstance instance = new ServiceInstance('id', 'orders', '10.0.0.1', 8080, 'eu-1a', 0.75d, 1234L)
+        when:
+            ServiceInstance updated = instance.withLoad(0.5d, 5678L)
+        then:
+            updated.id == 'id'
+            updated.zone == 'eu-1a'
+            updated.load == 0.5d
+            updated.updatedAt == 5678L
+            instance.load == 0.75d
+    }
+
+    def "test decoding data that is not an instance"() {
+        when:
+            ServiceInstance.fromBytes(data)
+        then:
+            thrown IOException
+        where:
+            data << [[9, 0, 1] as byte[], '[1, 2]'.getBytes('UTF-8'), '{"name":"orders"}'.getBytes('UTF-8')]
+    }
+}
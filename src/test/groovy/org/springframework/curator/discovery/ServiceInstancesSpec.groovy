@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.discovery
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ServiceInstancesSpec extends Specification {
+
+    @Unroll
+    def "test selecting from a snapshot without instances with the #strategy strategy"() {
+        expect:
+            new ServiceInstances([], 'eu-1a').select(strategy) == null
+        where:
+            strategy << ServiceSelectionStrategy.values()
+    }
+
+    def "test the power of two choices strategy never selects the most loaded of two instances"() {
+        setup:
+            ServiceInstance idle = instance('idle', null, 0.1d)
+            ServiceInstance busy = instance('busy', null, 0.9d)
+            ServiceInstances instances = new ServiceInstances([idle, busy], null)
+        expect:
+            (1..100).collect { instances.select(ServiceSelectionStrategy.POWER_OF_TWO_CHOICES) }.every { it.is(idle) }
+    }
+
+    def "test the power of two choices strategy spreads the selections across lightly loaded instances"() {
+        setup:
+            List<ServiceInstance> all = (1..10).collect { instance("${it}", null, it as double) }
+            ServiceInstances instances = new ServiceInstances(all, null)
+        when:
+            Map<String, Integer> counts = (1..10000).collect { instances.select(ServiceSelectionStrategy.POWER_OF_TWO_CHOICES).id }.countBy { it }
+        then:
+            !counts.containsKey('10')
+            counts['1'] > counts['5']
+            counts['5'] > counts['9']
+    }
+
+    def "test the locality aware strategy prefers the instances of the local zone"() {
+        setup:
+            ServiceInstance local = instance('local', 'eu-1a', 0.9d)
+            ServiceInstance remote = instance('remote', 'eu-1b', 0.1d)
+            ServiceInstances instances = new ServiceInstances([local, remote], 'eu-1a')
+        expect:
+            instances.localInstances == [local]
+            (1..100).collect { instances.select(ServiceSelectionStrategy.LOCALITY_AWARE) }.every { it.is(local) }
+    }
+
+    def "test the locality aware strategy falls back to all instances when none is local"() {
+        setup:
+            ServiceInstance remote = instance('remote', 'eu-1b', 0.1d)
+            ServiceInstances instances = new ServiceInstances([remote], 'eu-1a')
+        expect:
+            instances.localInstances.isEmpty()
+            instances.select(ServiceSelectionStrategy.LOCALITY_AWARE).is(remote)
+    }
+
+    def "test the round robin strategy selects each instance in turn"() {
+        setup:
+            List<ServiceInstance> all = (1..3).collect { instance("${it}", null, 0d) }
+            ServiceInstances instances = new ServiceInstances(all, null)
+        expect:
+            (1..6).collect { instances.select(ServiceSelectionStrategy.ROUND_ROBIN).id } == ['1', '2', '3', '1', '2', '3']
+            instances.size() == 3
+            instances.asList() == all
+    }
+
+    private static ServiceInstance instance(final String id, final String zone, final double load) {
+        new ServiceInstance(id, 'orders', '10.0.0.1', 8080, zone, load, 0L)
+    }
+}
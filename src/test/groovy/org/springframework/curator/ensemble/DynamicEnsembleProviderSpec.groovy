@@ -0,0 +1,233 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.ensemble
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.springframework.core.io.FileSystemResource
+
+import spock.lang.Specification
+
+class DynamicEnsembleProviderSpec extends Specification {
+
+    File file
+
+    Map<String, Long> latencies
+
+    List<String> probes
+
+    DynamicEnsembleProvider provider
+
+    def setup() {
+        file = File.createTempFile('ensemble', '.hosts')
+        latencies = [:]
+        probes = []
+        provider = new DynamicEnsembleProvider() {
+            @Override
+            protected long probe(String host, int port) {
+                probes << "${host}:${port}".toString()
+                latencies.containsKey("${host}:${port}".toString()) ? latencies["${host}:${port}".toString()] : -1L
+            }
+        }
+        provider.source = new FileSystemResource(file)
+        provider.refreshMs = 60000
+    }
+
+    def cleanup() {
+        provider.close()
+        file.delete()
+    }
+
+    def "test reading the connection string from a file"() {
+        setup:
+            provider.probeTimeoutMs = 0
+            file.text = '''# ZooKeeper ensemble
+                host1:2181
+                host2
+                host3:2182/app
+            '''
+        when:
+            provider.start()
+        then:
+            provider.connectionString == 'host1:2181,host2:2181,host3:2182/app'
+    }
+
+    def "test reading the connection string from a properties file"() {
+        setup:
+            provider.probeTimeoutMs = 0
+            provider.property = 'zookeeper.hosts'
+            file.text = 'zookeeper.hosts=host1:2181,host2:2181\nother=value\n'
+        when:
+            provider.start()
+        then:
+            provider.connectionString == 'host1:2181,host2:2181'
+    }
+
+    def "test reading the connection string from a properties file without the property"() {
+        setup:
+            provider.property = 'zookeeper.hosts'
+            file.text = 'other=value\n'
+        when:
+            provider.start()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test starting the provider with an empty source"() {
+        setup:
+            file.text = '# no hosts\n'
+        when:
+            provider.start()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test starting the provider without a source"() {
+        setup:
+            provider.source = null
+        when:
+            provider.start()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test ordering the hosts by latency with unreachable hosts last"() {
+        setup:
+            latencies = ['host1:2181' : 300L, 'host2:2181' : 100L, 'host3:2181' : 200L]
+            file.text = 'host4:2181,host1:2181,host2:2181,host3:2181'
+        when:
+            provider.start()
+        then:
+            provider.connectionString == 'host2:2181,host3:2181,host1:2181,host4:2181'
+    }
+
+    def "test using all hosts when no host can be reached"() {
+        setup:
+            file.text = 'host1:2181,host2:2181'
+        when:
+            provider.start()
+        then:
+            provider.connectionString == 'host1:2181,host2:2181'
+    }
+
+    def "test the connection string does not change when only the latencies change"() {
+        setup:
+            latencies = ['host1:2181' : 100L, 'host2:2181' : 200L]
+            file.text = 'host1:2181,host2:2181'
+            provider.start()
+        when:
+            latencies = ['host1:2181' : 300L, 'host2:2181' : 200L]
+            provider.refresh()
+        then:
+            provider.connectionString == 'host1:2181,host2:2181'
+    }
+
+    def "test picking up membership changes"() {
+        setup:
+            latencies = ['host1:2181' : 100L, 'host2:2181' : 200L, 'host3:2181' : 50L]
+            file.text = 'host1:2181,host2:2181'
+            provider.start()
+        when:
+            file.text = 'host1:2181,host3:2181'
+            provider.refresh()
+        then:
+            provider.connectionString == 'host3:2181,host1:2181'
+    }
+
+    def "test keeping the current connection string when the source cannot be read"() {
+        setup:
+            provider.probeTimeoutMs = 0
+            file.text = 'host1:2181'
+            provider.start()
+        when:
+            file.delete()
+            provider.refresh()
+        then:
+            provider.connectionString == 'host1:2181'
+    }
+
+    def "test the connection string does not change when a host becomes unreachable"() {
+        setup:
+            latencies = ['host1:2181' : 100L, 'host2:2181' : 200L]
+            file.text = 'host1:2181,host2:2181'
+            provider.start()
+        when:
+            latencies = ['host2:2181' : 200L]
+            provider.refresh()
+        then:
+            provider.connectionString == 'host1:2181,host2:2181'
+    }
+
+    def "test the hosts are not probed again while the membership is unchanged"() {
+        setup:
+            latencies = ['host1:2181' : 100L]
+            file.text = 'host1:2181,host2:2181'
+            provider.start()
+        when:
+            probes.clear()
+            provider.refresh()
+        then:
+            probes.isEmpty()
+            provider.connectionString == 'host1:2181,host2:2181'
+    }
+
+    def "test a chroot change publishes a new connection string"() {
+        setup:
+            provider.probeTimeoutMs = 0
+            file.text = 'host1:2181,host2:2181/app'
+            provider.start()
+        when:
+            file.text = 'host1:2181,host2:2181/other'
+            provider.refresh()
+        then:
+            provider.connectionString == 'host1:2181,host2:2181/other'
+    }
+
+    def "test the provider is shared until the last client closes it"() {
+        setup:
+            DynamicEnsembleProvider sharedProvider = new DynamicEnsembleProvider(source: new FileSystemResource(file), probeTimeoutMs: 0)
+            file.text = 'host1:2181'
+        when:
+            sharedProvider.start()
+            sharedProvider.start()
+            sharedProvider.close()
+        then:
+            sharedProvider.refreshExecutor != null
+        when:
+            sharedProvider.close()
+        then:
+            sharedProvider.refreshExecutor == null
+    }
+
+    def "test connecting a client using the provider"() {
+        setup:
+            TestingServer server = new TestingServer()
+            DynamicEnsembleProvider realProvider = new DynamicEnsembleProvider(source: new FileSystemResource(file))
+            file.text = "${server.connectString},localhost:1"
+            CuratorFramework client = CuratorFrameworkFactory.builder().ensembleProvider(realProvider).retryPolicy(new RetryOneTime(0)).build()
+        when:
+            client.start()
+            client.blockUntilConnected()
+        then:
+            realProvider.connectionString == "${server.connectString},localhost:1"
+            client.checkExists().forPath('/zookeeper') != null
+        cleanup:
+            client.close()
+            server.stop()
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.env
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory
+import org.springframework.mock.env.MockEnvironment
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class ZookeeperPropertySourceConfigurerSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def "test the property source is added ahead of the other property sources"() {
+        setup:
+            client.create().creatingParentsIfNeeded().forPath('/configurer/app/name', 'zookeeper'.bytes)
+            MockEnvironment environment = new MockEnvironment().withProperty('name', 'mock')
+            ZookeeperPropertySourceConfigurer configurer = new ZookeeperPropertySourceConfigurer(client: client, path: '/configurer/app', beanName: 'appProperties')
+            configurer.setEnvironment(environment)
+        when:
+            configurer.postProcessBeanFactory(Mock(ConfigurableListableBeanFactory))
+        then:
+            environment.getPropertySources().iterator().next().name == 'appProperties'
+            environment.getProperty('name') == 'zookeeper'
+            environment.resolvePlaceholders('${name}') == 'zookeeper'
+        cleanup:
+            configurer.destroy()
+    }
+
+    def "test configuring the property source without a path"() {
+        setup:
+            ZookeeperPropertySourceConfigurer configurer = new ZookeeperPropertySourceConfigurer(client: client)
+            configurer.setEnvironment(new MockEnvironment())
+        when:
+            configurer.postProcessBeanFactory(Mock(ConfigurableListableBeanFactory))
+        then:
+            thrown IllegalArgumentException
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.env
+
+import java.util.concurrent.Executor
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.api.BackgroundCallback
+import org.apache.curator.framework.api.BackgroundPathable
+import org.apache.curator.framework.api.GetDataBuilder
+import org.apache.curator.framework.api.Pathable
+import org.apache.curator.framework.state.ConnectionState
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.springframework.context.ApplicationEvent
+import org.springframework.context.ApplicationEventPublisher
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class ZookeeperPropertySourceSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def "test loading the properties of a subtree"() {
+        setup:
+            client.create().creatingParentsIfNeeded().forPath('/load/app/db/url', 'jdbc:test'.bytes)
+            client.create().forPath('/load/app/db/user', 'admin'.bytes)
+            client.create().forPath('/load/app/name', 'test'.bytes)
+            ZookeeperPropertySource propertySource = new ZookeeperPropertySource('zookeeper', client, '/load/app')
+        when:
+            propertySource.load()
+        then:
+            propertySource.getPropertyNames() as Set == ['db.url', 'db.user', 'name'] as Set
+            propertySource.getProperty('db.url') == 'jdbc:test'
+            propertySource.getProperty('name') == 'test'
+            !propertySource.containsProperty('db')
+        cleanup:
+            propertySource.close()
+    }
+
+    def "test watches keep the properties up to date"() {
+        setup:
+            client.create().creatingParentsIfNeeded().forPath('/watch/app/name', 'before'.bytes)
+            List<ApplicationEvent> events = [].asSynchronized()
+            ZookeeperPropertySource propertySource = new ZookeeperPropertySource('zookeeper', client, '/watch/app')
+            propertySource.setEventPublisher({ ApplicationEvent event -> events << event } as ApplicationEventPublisher)
+            propertySource.load()
+        when:
+            client.setData().forPath('/watch/app/name', 'after'.bytes)
+        then:
+            awaitProperty(propertySource, 'name', 'after')
+        when:
+            client.create().creatingParentsIfNeeded().forPath('/watch/app/nested/key', 'value'.bytes)
+        then:
+            awaitProperty(propertySource, 'nested.key', 'value')
+        when:
+            client.delete().forPath('/watch/app/nested/key')
+        then:
+            awaitProperty(propertySource, 'nested.key', null)
+            propertySource.getProperty('name') == 'after'
+            events.any { ((ZookeeperPropertiesChangedEvent)it).changedKeys == ['name'] as Set }
+            events.every { it.source == propertySource }
+        cleanup:
+            propertySource.close()
+    }
+
+    def "test the properties are loaded once the root is created"() {
+        setup:
+            ZookeeperPropertySource propertySource = new ZookeeperPropertySource('zookeeper', client, '/missing/app')
+            propertySource.load()
+        expect:
+            propertySource.getPropertyNames().length == 0
+        when:
+            client.create().creatingParentsIfNeeded().forPath('/missing/app')
+            client.create().forPath('/missing/app/name', 'created'.bytes)
+        then:
+            awaitProperty(propertySource, 'name', 'created')
+        when:
+            client.delete().forPath('/missing/app/name')
+            client.delete().forPath('/missing/app')
+        then:
+            awaitProperty(propertySource, 'name', null)
+        cleanup:
+            propertySource.close()
+    }
+
+    def "test a reconnection within the same session re-reads the properties without setting the watches again"() {
+        setup:
+            client.create().creatingParentsIfNeeded().forPath('/reconnect/app/name', 'before'.bytes)
+            List<String> watchedReads = [].asSynchronized()
+            ZookeeperPropertySource propertySource = new ZookeeperPropertySource('zookeeper', countingClient(watchedReads), '/reconnect/app')
+            propertySource.load()
+            watchedReads.clear()
+        when:
+            propertySource.connectionStateListener.stateChanged(client, ConnectionState.RECONNECTED)
+            awaitUpdates(propertySource)
+        then:
+            watchedReads.isEmpty()
+            propertySource.getProperty('name') == 'before'
+        when:
+            client.setData().forPath('/reconnect/app/name', 'after'.bytes)
+        then:
+            awaitProperty(propertySource, 'name', 'after')
+        cleanup:
+            propertySource.close()
+    }
+
+    def "test the watches are set again after the session is lost"() {
+        setup:
+            client.create().creatingParentsIfNeeded().forPath('/expired/app/name', 'before'.bytes)
+            List<String> watchedReads = [].asSynchronized()
+            ZookeeperPropertySource propertySource = new ZookeeperPropertySource('zookeeper', countingClient(watchedReads), '/expired/app')
+            propertySource.load()
+            watchedReads.clear()
+        when:
+            propertySource.connectionStateListener.stateChanged(client, ConnectionState.LOST)
+            propertySource.connectionStateListener.stateChanged(client, ConnectionState.RECONNECTED)
+            awaitUpdates(propertySource)
+        then:
+            watchedReads as Set == ['/expired/app', '/expired/app/name'] as Set
+        cleanup:
+            propertySource.close()
+    }
+
+    private boolean awaitProperty(final ZookeeperPropertySource propertySource, final String name, final Object value) {
+        long deadline = System.currentTimeMillis() + 5000
+        while(propertySource.getProperty(name) != value && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+        propertySource.getProperty(name) == value
+    }
+
+    private CuratorFramework countingClient(final List<String> watchedReads) {
+        [
+            getConnectionStateListenable: { client.getConnectionStateListenable() },
+            getZookeeperClient: { client.getZookeeperClient() },
+            getChildren: { client.getChildren() },
+            checkExists: { client.checkExists() },
+            getData: {
+                GetDataBuilder builder = client.getData()
+                [
+                    usingWatcher: { watcher -> new PathRecorder(watchedReads, builder.usingWatcher(watcher)) },
+                    forPath: { String path -> builder.forPath(path) }
+                ] as GetDataBuilder
+            }
+        ] as CuratorFramework
+    }
+
+    private void awaitUpdates(final ZookeeperPropertySource propertySource) {
+        propertySource.updateExecutor.submit({} as Runnable).get()
+    }
+
+    static class PathRecorder implements BackgroundPathable<byte[]> {
+
+        List<String> paths
+
+        BackgroundPathable<byte[]> delegate
+
+        PathRecorder(List<String> paths, BackgroundPathable<byte[]> delegate) {
+            this.paths = paths
+            this.delegate = delegate
+        }
+
+        @Override
+        byte[] forPath(String path) {
+            paths << path
+            delegate.forPath(path)
+        }
+
+        @Override
+        Pathable<byte[]> inBackground() { delegate.inBackground() }
+
+        @Override
+        Pathable<byte[]> inBackground(Object context) { delegate.inBackground(context) }
+
+        @Override
+        Pathable<byte[]> inBackground(BackgroundCallback callback) { delegate.inBackground(callback) }
+
+        @Override
+        Pathable<byte[]> inBackground(BackgroundCallback callback, Object context) { delegate.inBackground(callback, context) }
+
+        @Override
+        Pathable<byte[]> inBackground(BackgroundCallback callback, Executor executor) { delegate.inBackground(callback, executor) }
+
+        @Override
+        Pathable<byte[]> inBackground(BackgroundCallback callback, Object context, Executor executor) { delegate.inBackground(callback, context, executor) }
+    }
+}
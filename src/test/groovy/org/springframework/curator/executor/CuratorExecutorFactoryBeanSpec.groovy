@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.executor
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+
+import spock.lang.Specification
+
+class CuratorExecutorFactoryBeanSpec extends Specification {
+
+    CuratorExecutorFactoryBean factory
+
+    def setup() {
+        factory = new CuratorExecutorFactoryBean()
+    }
+
+    def cleanup() {
+        factory.destroy()
+    }
+
+    def "test the object type returned by the factory"() {
+        expect:
+            factory.getObjectType() == ExecutorService
+            factory.isSingleton()
+    }
+
+    def "test creating a bounded executor with the default configuration"() {
+        setup:
+            factory.beanName = 'events'
+        when:
+            factory.afterPropertiesSet()
+            ThreadPoolExecutor executor = factory.getObject()
+            String threadName = executor.submit({ Thread.currentThread().name } as java.util.concurrent.Callable).get()
+        then:
+            executor.corePoolSize == CuratorExecutorFactoryBean.DEFAULT_THREADS
+            executor.maximumPoolSize == CuratorExecutorFactoryBean.DEFAULT_THREADS
+            executor.rejectedExecutionHandler instanceof ThreadPoolExecutor.AbortPolicy
+            threadName == 'events-1'
+    }
+
+    def "test creating a bounded executor"() {
+        setup:
+            factory.threads = 3
+            factory.queueCapacity = 10
+            factory.rejectionPolicy = CuratorRejectionPolicy.CALLER_RUNS.toString()
+            factory.threadNamePrefix = 'client-background'
+        when:
+            factory.afterPropertiesSet()
+            ThreadPoolExecutor executor = factory.getObject()
+        then:
+            executor.corePoolSize == 3
+            executor.queue.remainingCapacity() == 10
+            executor.rejectedExecutionHandler instanceof ThreadPoolExecutor.CallerRunsPolicy
+            factory.threadNamePrefix == 'client-background'
+    }
+
+    def "test the rejection policy is applied when the queue is full"() {
+        setup:
+            CountDownLatch latch = new CountDownLatch(1)
+            factory.queueCapacity = 1
+            factory.afterPropertiesSet()
+            ExecutorService executor = factory.getObject()
+            executor.execute({ latch.await() } as Runnable)
+            executor.execute({} as Runnable)
+        when:
+            executor.execute({} as Runnable)
+        then:
+            thrown RejectedExecutionException
+        cleanup:
+            latch.countDown()
+    }
+
+    def "test creating a bounded executor with an invalid number of threads"() {
+        setup:
+            factory.threads = 0
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test creating an executor with an unknown type"() {
+        setup:
+            factory.type = 'unknown'
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test creating an executor with an unknown rejection policy"() {
+        setup:
+            factory.rejectionPolicy = 'unknown'
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test creating a virtual thread executor"() {
+        setup:
+            boolean supported = Thread.metaClass.respondsTo(Thread, 'ofVirtual')
+            factory.type = CuratorExecutorType.VIRTUAL.toString()
+        when:
+            Throwable error = null
+            try {
+                factory.afterPropertiesSet()
+            } catch (IllegalArgumentException e) {
+                error = e
+            }
+        then:
+            supported ? factory.getObject() != null : error != null
+    }
+
+    def "test destroying the factory shuts down the executor"() {
+        setup:
+            factory.afterPropertiesSet()
+            ExecutorService executor = factory.getObject()
+        when:
+            factory.destroy()
+        then:
+            executor.awaitTermination(5, TimeUnit.SECONDS)
+    }
+
+    def "test destroying the factory before the executor is created"() {
+        when:
+            factory.destroy()
+        then:
+            notThrown Exception
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.executor
+
+import java.util.concurrent.ThreadPoolExecutor
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CuratorRejectionPolicySpec extends Specification {
+
+    def "test getting the string representation of each enumerated value"() {
+        expect:
+            CuratorRejectionPolicy.values().each { CuratorRejectionPolicy rejectionPolicy ->
+                rejectionPolicy.toString() == rejectionPolicy.type
+            }
+    }
+
+    @Unroll
+    def "test creating the handler for the rejection policy #rejectionPolicy"() {
+        expect:
+            expectedType.isInstance(rejectionPolicy.createHandler())
+        where:
+            rejectionPolicy								| expectedType
+            CuratorRejectionPolicy.ABORT				| ThreadPoolExecutor.AbortPolicy
+            CuratorRejectionPolicy.CALLER_RUNS			| ThreadPoolExecutor.CallerRunsPolicy
+            CuratorRejectionPolicy.DISCARD				| ThreadPoolExecutor.DiscardPolicy
+            CuratorRejectionPolicy.DISCARD_OLDEST		| ThreadPoolExecutor.DiscardOldestPolicy
+    }
+
+    @Unroll
+    def "test finding the matching enumerated value for the rejection policy type #type"() {
+        expect:
+            CuratorRejectionPolicy.findByType(type) == expectedValue
+        where:
+            type										| expectedValue
+            CuratorRejectionPolicy.ABORT.type			| CuratorRejectionPolicy.ABORT
+            CuratorRejectionPolicy.CALLER_RUNS.type		| CuratorRejectionPolicy.CALLER_RUNS
+            CuratorRejectionPolicy.DISCARD.type			| CuratorRejectionPolicy.DISCARD
+            CuratorRejectionPolicy.DISCARD_OLDEST.type	| CuratorRejectionPolicy.DISCARD_OLDEST
+            'unknown'									| null
+            null										| null
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.api.BackgroundCallback
+import org.apache.curator.framework.api.GetDataBuilder
+import org.apache.curator.framework.api.SetDataBuilder
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.springframework.curator.metrics.SimpleCuratorMetricsRegistry
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CoalescingInvocationHandlerSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    ExecutorService executor
+
+    SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+
+    AtomicInteger reads = new AtomicInteger()
+
+    CountDownLatch release = new CountDownLatch(1)
+
+    def setupSpec() {
+        server = new TestingServer()
+        executor = Executors.newCachedThreadPool()
+    }
+
+    def cleanupSpec() {
+        executor.shutdown()
+        server.stop()
+    }
+
+    def "test that concurrent, identical reads share a single request"() {
+        setup:
+            CuratorFramework proxy = CoalescingInvocationHandler.createProxy(createBlockingClient(), registry, 'test')
+            int callers = 8
+        when:
+            List<Future<byte[]>> results = (1..callers).collect { submitRead(proxy, '/config') }
+            waitForHits('getData', callers - 1)
+            release.countDown()
+            List<byte[]> data = results*.get(5, TimeUnit.SECONDS)
+        then:
+            reads.get() == 1
+            data.every { new String(it) == '/config' }
+            data.collect { System.identityHashCode(it) }.unique().size() == callers
+            registry.getCounters()['curator.read.coalesce[client=test,operation=getData,result=miss]'].count == 1
+            registry.getCounters()['curator.read.coalesce[client=test,operation=getData,result=hit]'].count == callers - 1
+    }
+
+    def "test that reads of different paths are not coalesced"() {
+        setup:
+            CuratorFramework proxy = CoalescingInvocationHandler.createProxy(createBlockingClient(), registry, 'test')
+        when:
+            Future<byte[]> first = submitRead(proxy, '/first')
+            Future<byte[]> second = submitRead(proxy, '/second')
+            release.countDown()
+        then:
+            new String(first.get(5, TimeUnit.SECONDS)) == '/first'
+            new String(second.get(5, TimeUnit.SECONDS)) == '/second'
+            reads.get() == 2
+            registry.getCounters()['curator.read.coalesce[client=test,operation=getData,result=hit]'].count == 0
+    }
+
+    def "test that a failed read is reported to every caller that shares it"() {
+        setup:
+            CuratorFramework proxy = CoalescingInvocationHandler.createProxy(createBlockingClient(new IllegalStateException('failed')), registry, 'test')
+        when:
+            List<Future<byte[]>> results = (1..3).collect { submitRead(proxy, '/config') }
+            waitForHits('getData', 2)
+            release.countDown()
+            List<Throwable> failures = results.collect { Future<byte[]> result ->
+                try {
+                    result.get(5, TimeUnit.SECONDS)
+                    null
+                } catch (final Exception e) {
+                    e.cause
+                }
+            }
+        then:
+            reads.get() == 1
+            failures.every { it instanceof IllegalStateException && it.message == 'failed' }
+    }
+
+    def "test that a read is not shared with callers that completed a write after it was sent"() {
+        setup:
+            CuratorFramework proxy = CoalescingInvocationHandler.createProxy(createBlockingClient(), registry, 'test')
+        when:
+            Future<byte[]> first = submitRead(proxy, '/config')
+            waitForReads(1)
+            proxy.setData().forPath('/config', 'updated'.getBytes())
+            Future<byte[]> second = submitRead(proxy, '/config')
+            waitForReads(2)
+            release.countDown()
+        then:
+            first.get(5, TimeUnit.SECONDS) != null
+            second.get(5, TimeUnit.SECONDS) != null
+            reads.get() == 2
+            registry.getCounters()['curator.read.coalesce[client=test,operation=getData,result=miss]'].count == 2
+    }
+
+    def "test reads and writes through a connected client"() {
+        setup:
+            CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+            client.start()
+            CuratorFramework proxy = CoalescingInvocationHandler.createProxy(client, null, 'test')
+            CountDownLatch written = new CountDownLatch(1)
+        when:
+            proxy.create().creatingParentsIfNeeded().forPath('/coalesced/node', 'data'.getBytes())
+            proxy.setData().inBackground({ c, e -> written.countDown() } as BackgroundCallback).forPath('/coalesced/node', 'updated'.getBytes())
+        then:
+            written.await(5, TimeUnit.SECONDS)
+            new String(proxy.getData().forPath('/coalesced/node')) == 'updated'
+            proxy.getChildren().forPath('/coalesced') == ['node']
+            proxy.checkExists().forPath('/coalesced/node').version == 1
+            proxy.checkExists().forPath('/coalesced/missing') == null
+            proxy.usingNamespace('coalesced').checkExists().forPath('/node') != null
+            new String(proxy.getData().watched().forPath('/coalesced/node')) == 'updated'
+        cleanup:
+            client.delete().deletingChildrenIfNeeded().forPath('/coalesced')
+            client.close()
+    }
+
+    def "test the equality of the proxy"() {
+        setup:
+            CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+            CuratorFramework proxy = CoalescingInvocationHandler.createProxy(client, null, 'test')
+        expect:
+            proxy.equals(proxy)
+            !proxy.equals(client)
+            proxy.hashCode() == System.identityHashCode(proxy)
+        cleanup:
+            client.close()
+    }
+
+    private CuratorFramework createBlockingClient(Exception failure = null) {
+        GetDataBuilder getDataBuilder = [forPath: { String path ->
+            reads.incrementAndGet()
+            release.await(5, TimeUnit.SECONDS)
+            if(failure != null) {
+                throw failure
+            }
+            path.getBytes()
+        }] as GetDataBuilder
+        SetDataBuilder setDataBuilder = [forPath: { String path, byte[] data -> null }] as SetDataBuilder
+        [getData: { getDataBuilder }, setData: { setDataBuilder }, getNamespace: { null }] as CuratorFramework
+    }
+
+    private Future<byte[]> submitRead(CuratorFramework proxy, String path) {
+        executor.submit({ proxy.getData().forPath(path) } as Callable<byte[]>)
+    }
+
+    private void waitForHits(String operation, long hits) {
+        String name = "curator.read.coalesce[client=test,operation=${operation},result=hit]"
+        long deadline = System.currentTimeMillis() + 5000
+        while(registry.getCounters()[name].count < hits && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5)
+        }
+    }
+
+    private void waitForReads(int count) {
+        long deadline = System.currentTimeMillis() + 5000
+        while(reads.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5)
+        }
+    }
+}
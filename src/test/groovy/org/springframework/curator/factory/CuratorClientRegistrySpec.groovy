@@ -0,0 +1,235 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.apache.curator.framework.CuratorFramework
+
+import spock.lang.Specification
+
+class CuratorClientRegistrySpec extends Specification {
+
+    CuratorClientRegistry registry
+
+    ExecutorService executor = Executors.newCachedThreadPool()
+
+    def setup() {
+        registry = new CuratorClientRegistry()
+    }
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    def "test acquiring a client creates it once per key"() {
+        setup:
+            CuratorFramework client = Mock(CuratorFramework)
+            Callable<CuratorFramework> factory = Mock(Callable)
+        when:
+            CuratorFramework first = registry.acquire('key', factory)
+            CuratorFramework second = registry.acquire('key', factory)
+        then:
+            1 * factory.call() >> client
+            first.is(client)
+            second.is(client)
+            registry.getClientCount() == 1
+            registry.getReferenceCount('key') == 2
+    }
+
+    def "test acquiring clients with different keys creates a client per key"() {
+        setup:
+            CuratorFramework client = Mock(CuratorFramework)
+            CuratorFramework other = Mock(CuratorFramework)
+        when:
+            registry.acquire('key', { client } as Callable)
+            registry.acquire('other', { other } as Callable)
+        then:
+            registry.getClientCount() == 2
+            registry.getReferenceCount('key') == 1
+            registry.getReferenceCount('other') == 1
+    }
+
+    def "test creating a client does not hold up the clients of other keys"() {
+        setup:
+            CountDownLatch creating = new CountDownLatch(1)
+            CountDownLatch proceed = new CountDownLatch(1)
+            CuratorFramework slow = Mock(CuratorFramework)
+            CuratorFramework other = Mock(CuratorFramework)
+            Future<CuratorFramework> slowAcquire = executor.submit({
+                registry.acquire('slow', {
+                    creating.countDown()
+                    proceed.await()
+                    slow
+                } as Callable)
+            } as Callable)
+            creating.await(5, TimeUnit.SECONDS)
+        when:
+            CuratorFramework acquired = registry.acquire('other', { other } as Callable)
+        then:
+            acquired.is(other)
+            !slowAcquire.isDone()
+        when:
+            proceed.countDown()
+        then:
+            slowAcquire.get(5, TimeUnit.SECONDS).is(slow)
+    }
+
+    def "test concurrent acquisitions of a key share one creation"() {
+        setup:
+            CountDownLatch creating = new CountDownLatch(1)
+            CountDownLatch proceed = new CountDownLatch(1)
+            CuratorFramework client = Mock(CuratorFramework)
+            AtomicInteger creations = new AtomicInteger()
+            Callable<CuratorFramework> factory = {
+                creations.incrementAndGet()
+                creating.countDown()
+                proceed.await()
+                client
+            } as Callable
+            Future<CuratorFramework> first = executor.submit({ registry.acquire('key', factory) } as Callable)
+            creating.await(5, TimeUnit.SECONDS)
+            Future<CuratorFramework> second = executor.submit({ registry.acquire('key', factory) } as Callable)
+        when:
+            proceed.countDown()
+        then:
+            first.get(5, TimeUnit.SECONDS).is(client)
+            second.get(5, TimeUnit.SECONDS).is(client)
+            creations.get() == 1
+            registry.getReferenceCount('key') == 2
+    }
+
+    def "test releasing a client closes it once it is no longer used"() {
+        setup:
+            CuratorFramework client = Mock(CuratorFramework)
+            registry.acquire('key', { client } as Callable)
+            registry.acquire('key', { client } as Callable)
+        when:
+            registry.release('key')
+        then:
+            0 * client.close()
+            registry.getReferenceCount('key') == 1
+        when:
+            registry.release('key')
+        then:
+            1 * client.close()
+            registry.getClientCount() == 0
+            registry.getReferenceCount('key') == 0
+    }
+
+    def "test releasing an unknown key"() {
+        when:
+            registry.release('unknown')
+        then:
+            notThrown Exception
+    }
+
+    def "test a failure to create a client is not registered"() {
+        when:
+            registry.acquire('key', { throw new IllegalStateException('test') } as Callable)
+        then:
+            thrown IllegalStateException
+            registry.getClientCount() == 0
+        when:
+            CuratorFramework client = Mock(CuratorFramework)
+            CuratorFramework acquired = registry.acquire('key', { client } as Callable)
+        then:
+            acquired.is(client)
+            registry.getReferenceCount('key') == 1
+    }
+
+    def "test destroying the registry closes the remaining clients"() {
+        setup:
+            CuratorFramework client = Mock(CuratorFramework) {
+                close() >> { throw new IllegalStateException('test') }
+            }
+            CuratorFramework other = Mock(CuratorFramework)
+            registry.acquire('key', { client } as Callable)
+            registry.acquire('other', { other } as Callable)
+        when:
+            registry.destroy()
+        then:
+            notThrown Exception
+            1 * other.close()
+            registry.getClientCount() == 0
+    }
+
+    def "test releasing a client with an idle timeout keeps it open until the timeout expires"() {
+        setup:
+            registry = new CuratorClientRegistry(100L)
+            CuratorFramework client = Mock(CuratorFramework)
+            registry.acquire('key', { client } as Callable)
+        when:
+            registry.release('key')
+        then:
+            0 * client.close()
+            registry.getClientCount() == 1
+            registry.getReferenceCount('key') == 0
+        when:
+            waitForClientCount(0)
+        then:
+            1 * client.close()
+            registry.getClientCount() == 0
+        cleanup:
+            registry.destroy()
+    }
+
+    def "test acquiring an idle client reuses it"() {
+        setup:
+            registry = new CuratorClientRegistry(100L)
+            CuratorFramework client = Mock(CuratorFramework)
+            Callable<CuratorFramework> factory = Mock(Callable)
+        when:
+            registry.acquire('key', factory)
+            registry.release('key')
+            CuratorFramework reused = registry.acquire('key', factory)
+            Thread.sleep(300L)
+        then:
+            1 * factory.call() >> client
+            0 * client.close()
+            reused.is(client)
+            registry.getClientCount() == 1
+            registry.getReferenceCount('key') == 1
+        cleanup:
+            registry.destroy()
+    }
+
+    def "test destroying a registry with an idle timeout closes the idle clients"() {
+        setup:
+            registry = new CuratorClientRegistry(60000L)
+            CuratorFramework client = Mock(CuratorFramework)
+            registry.acquire('key', { client } as Callable)
+            registry.release('key')
+        when:
+            registry.destroy()
+        then:
+            1 * client.close()
+            registry.getClientCount() == 0
+    }
+
+    private void waitForClientCount(final int count) {
+        long deadline = System.currentTimeMillis() + 5000L
+        while(registry.getClientCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L)
+        }
+    }
+}
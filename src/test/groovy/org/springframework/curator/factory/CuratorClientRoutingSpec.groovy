@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CuratorClientRoutingSpec extends Specification {
+
+    def "test getting the string representation of each enumerated value"() {
+        expect:
+            CuratorClientRouting.values().each { CuratorClientRouting routing ->
+                routing.toString() == routing.type
+            }
+    }
+
+    @Unroll
+    def "test finding the matching enumerated value for the routing type #type"() {
+        expect:
+            CuratorClientRouting.findByType(type) == expectedValue
+        where:
+            type									| expectedValue
+            CuratorClientRouting.PATH_HASH.type 	| CuratorClientRouting.PATH_HASH
+            CuratorClientRouting.ROUND_ROBIN.type 	| CuratorClientRouting.ROUND_ROBIN
+            'unknown'								| null
+            ''										| null
+            null									| null
+    }
+}
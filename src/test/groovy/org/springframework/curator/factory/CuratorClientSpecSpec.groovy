@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory
+
+import org.apache.curator.RetryPolicy
+import org.apache.curator.retry.BoundedExponentialBackoffRetry
+import org.apache.curator.retry.ExponentialBackoffRetry
+import org.apache.curator.retry.RetryOneTime
+import org.springframework.curator.compression.CuratorCompression
+import org.springframework.curator.compression.CuratorCompressionProvider
+import org.springframework.curator.retry.CircuitBreakerRetryPolicy
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CuratorClientSpecSpec extends Specification {
+
+    def "test building a spec"() {
+        when:
+            CuratorClientSpec spec = CuratorClientSpec.builder()
+                .retryPolicy('retry-one-time')
+                .sleepBetweenRetries(100)
+                .connectionTimeout(1000)
+                .sessionTimeout(2000)
+                .canBeReadOnly(true)
+                .compression('lz4')
+                .build()
+        then:
+            spec.retryPolicyType == CuratorRetryPolicy.RETRY_ONE_TIME
+            spec.connectionTimeout == 1000
+            spec.sessionTimeout == 2000
+            spec.canBeReadOnly == true
+            spec.compression == CuratorCompression.LZ4
+            spec.createRetryPolicy(null) instanceof RetryOneTime
+    }
+
+    def "test specs built from the same settings are equal"() {
+        setup:
+            CuratorClientSpec.Builder builder = CuratorClientSpec.builder()
+                .retryPolicy('exponential-backoff')
+                .baseSleepTime(100)
+                .maxRetries(3)
+                .sessionTimeout(2000)
+        expect:
+            builder.build() == builder.build()
+            builder.build().hashCode() == builder.build().hashCode()
+            builder.build() != builder.sessionTimeout(3000).build()
+    }
+
+    @Unroll
+    def "test building a spec for retry policy #type without '#missing'"() {
+        setup:
+            CuratorClientSpec.Builder builder = CuratorClientSpec.builder()
+                .retryPolicy(type)
+                .baseSleepTime(100)
+                .maxElapsedTime(1000)
+                .maxRetries(3)
+                .maxSleepTime(1000)
+                .maxTokens(10)
+                .openTime(1000)
+                .sleepBetweenRetries(100)
+                .tokensPerSecond(1)
+            builder."${property}"(null)
+        when:
+            builder.build()
+        then:
+            IllegalArgumentException e = thrown()
+            e.message == "[Assertion failed] '${missing}' must be configured for retry policy '${type}'."
+        where:
+            type							| property				| missing
+            'bounded-exponential-backoff'	| 'maxSleepTime'		| 'max-sleep-time'
+            'circuit-breaker'				| 'openTime'			| 'open-time'
+            'decorrelated-jitter'			| 'baseSleepTime'		| 'base-sleep-time'
+            'exponential-backoff'			| 'maxRetries'			| 'max-retries'
+            'retry-budget'					| 'tokensPerSecond'		| 'tokens-per-second'
+            'retry-n-times'					| 'sleepBetweenRetries'	| 'sleep-between-retries'
+            'retry-one-time'				| 'sleepBetweenRetries'	| 'sleep-between-retries'
+            'retry-until-elapsed'			| 'maxElapsedTime'		| 'max-elapsed-time'
+    }
+
+    @Unroll
+    def "test building a spec with #description"() {
+        setup:
+            CuratorClientSpec.Builder builder = CuratorClientSpec.builder()
+                .retryPolicy(retryPolicy)
+                .sleepBetweenRetries(100)
+                .connectionTimeout(connectionTimeout)
+                .sessionTimeout(sessionTimeout)
+                .compression(compression)
+                .compressionThreshold(compressionThreshold)
+        when:
+            builder.build()
+        then:
+            thrown IllegalArgumentException
+        where:
+            retryPolicy			| connectionTimeout	| sessionTimeout	| compression	| compressionThreshold	| description
+            null				| null				| null				| null			| null					| 'no retry policy'
+            'unknown'			| null				| null				| null			| null					| 'an unknown retry policy'
+            'retry-one-time'	| 0					| null				| null			| null					| 'a connection timeout of zero'
+            'retry-one-time'	| null				| -1				| null			| null					| 'a negative session timeout'
+            'retry-one-time'	| null				| null				| 'unknown'		| null					| 'an unknown compression codec'
+            'retry-one-time'	| null				| null				| 'gzip'		| -1					| 'a negative compression threshold'
+    }
+
+    @Unroll
+    def "test creating a retry policy object for requested type #type"() {
+        setup:
+            CuratorClientSpec spec = CuratorClientSpec.builder()
+                .retryPolicy(type)
+                .baseSleepTime(100)
+                .maxRetries(3)
+                .maxSleepTime(maxSleepTime)
+                .openTime(1000)
+                .build()
+        expect:
+            spec.createRetryPolicy(null).getClass() == expectedType
+        where:
+            type							| maxSleepTime	| expectedType
+            'bounded-exponential-backoff'	| 1000			| BoundedExponentialBackoffRetry
+            'circuit-breaker'				| null			| CircuitBreakerRetryPolicy
+            'exponential-backoff'			| null			| ExponentialBackoffRetry
+    }
+
+    def "test creating a custom retry policy"() {
+        setup:
+            RetryPolicy custom = Mock(RetryPolicy)
+            CuratorClientSpec spec = CuratorClientSpec.builder().retryPolicy('custom').build()
+        when:
+            RetryPolicy retryPolicy = spec.createRetryPolicy(custom)
+        then:
+            retryPolicy.is(custom)
+        when:
+            spec.createRetryPolicy(null)
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test creating a compression provider"() {
+        expect:
+            CuratorClientSpec.builder().retryPolicy('custom').build().createCompressionProvider() == null
+        when:
+            CuratorCompressionProvider provider = CuratorClientSpec.builder()
+                .retryPolicy('custom')
+                .compression('gzip')
+                .compressionThreshold(64)
+                .build()
+                .createCompressionProvider()
+        then:
+            provider.compression == CuratorCompression.GZIP
+            provider.threshold == 64
+    }
+}
@@ -15,14 +15,20 @@
  */
 package org.springframework.curator.factory
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
 
 import org.apache.curator.RetryPolicy
 import org.apache.curator.ensemble.EnsembleProvider
 import org.apache.curator.framework.CuratorFramework
 import org.apache.curator.framework.api.ACLProvider
+import org.apache.curator.framework.api.BackgroundCallback
 import org.apache.curator.framework.api.CompressionProvider
 import org.apache.curator.framework.imps.CuratorFrameworkState
+import org.apache.curator.framework.state.ConnectionState
 import org.apache.curator.retry.BoundedExponentialBackoffRetry
 import org.apache.curator.retry.ExponentialBackoffRetry
 import org.apache.curator.retry.RetryNTimes
@@ -30,6 +36,16 @@ import org.apache.curator.retry.RetryOneTime
 import org.apache.curator.retry.RetryUntilElapsed
 import org.apache.curator.test.TestingServer
 import org.apache.curator.utils.ZookeeperFactory
+import org.springframework.curator.compression.CuratorCompression
+import org.springframework.curator.compression.CuratorCompressionProvider
+import org.springframework.curator.health.CuratorHealthStatus
+import org.springframework.curator.health.CuratorUnavailableException
+import org.springframework.curator.metrics.InstrumentedRetryPolicy
+import org.springframework.curator.metrics.SimpleCuratorMetricsRegistry
+import org.springframework.curator.retry.BudgetedRetryPolicy
+import org.springframework.curator.retry.CircuitBreakerRetryPolicy
+import org.springframework.curator.retry.DecorrelatedJitterRetry
+import org.springframework.curator.throttle.OperationScheduler
 
 import spock.lang.Shared
 import spock.lang.Specification
@@ -78,6 +94,514 @@ class CuratorFrameworkFactoryBeanSpec extends Specification {
             factory.destroy()
     }
 
+    def "test the building and validation of the client with a connect wait time"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.connectWaitMs = 5000
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+        then:
+            factory.client.getState() == CuratorFrameworkState.STARTED
+            factory.startupTime != null
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the validation of the client when the client cannot connect within the connect wait time"() {
+        setup:
+            factory.connectionString = '127.0.0.1:1'
+            factory.connectWaitMs = 100
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalStateException
+            factory.startupTime == null
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the asynchronous startup of the client"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.startupMode = CuratorStartupMode.ASYNC.toString()
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            factory.start()
+        then:
+            factory.isRunning()
+            factory.getObject().is(factory.client)
+            factory.client.getState() == CuratorFrameworkState.STARTED
+            factory.startupTime != null
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the asynchronous startup of the client when the client cannot connect within the connect wait time"() {
+        setup:
+            factory.connectionString = '127.0.0.1:1'
+            factory.connectWaitMs = 100
+            factory.startupMode = CuratorStartupMode.ASYNC.toString()
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            factory.start()
+        then:
+            thrown IllegalStateException
+            !factory.isRunning()
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the lazy startup of the client"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.startupMode = CuratorStartupMode.LAZY.toString()
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            CuratorFramework client = factory.getObject()
+        then:
+            client.getState() == CuratorFrameworkState.LATENT
+        when:
+            client.checkExists().forPath('/')
+        then:
+            client.getState() == CuratorFrameworkState.STARTED
+            factory.startupTime != null
+        when:
+            client.start()
+        then:
+            notThrown IllegalStateException
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the lazy startup of the client when the client cannot connect within the connect wait time"() {
+        setup:
+            factory.connectionString = '127.0.0.1:1'
+            factory.connectWaitMs = 100
+            factory.startupMode = CuratorStartupMode.LAZY.toString()
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+            factory.afterPropertiesSet()
+            CuratorFramework client = factory.getObject()
+        when:
+            client.checkExists().forPath('/')
+        then:
+            IllegalStateException first = thrown()
+            first.message.contains('failed to connect within 100 ms')
+        when:
+            client.checkExists().forPath('/')
+        then:
+            IllegalStateException second = thrown()
+            second.message.contains('failed to connect within 100 ms')
+            client.getState() == CuratorFrameworkState.STARTED
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the instrumentation of the client when a metrics registry is configured"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            factory.beanName = 'metered'
+            factory.connectionString = connectionString
+            factory.metricsRegistry = registry
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            factory.getObject().checkExists().forPath('/zookeeper/quota')
+        then:
+            !factory.getObject().is(factory.client)
+            factory.client.getZookeeperClient().getRetryPolicy() instanceof InstrumentedRetryPolicy
+            registry.getTimers()['curator.operation[client=metered,operation=checkExists,path=/zookeeper]'].count == 1
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test dispatching background callbacks to an executor when one is configured"() {
+        setup:
+            ExecutorService executor = Executors.newSingleThreadExecutor()
+            CountDownLatch latch = new CountDownLatch(1)
+            Thread callbackThread = null
+            factory.connectionString = connectionString
+            factory.backgroundExecutor = executor
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            factory.getObject().checkExists().inBackground({ client, event ->
+                callbackThread = Thread.currentThread()
+                latch.countDown()
+            } as BackgroundCallback).forPath('/zookeeper')
+        then:
+            !factory.getObject().is(factory.client)
+            latch.await(5, TimeUnit.SECONDS)
+            callbackThread != null
+            !callbackThread.name.contains('EventThread')
+        cleanup:
+            factory.destroy()
+            executor.shutdown()
+    }
+
+    def "test the lazy startup of an instrumented client"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            factory.connectionString = connectionString
+            factory.metricsRegistry = registry
+            factory.metricsPathDepth = 0
+            factory.startupMode = CuratorStartupMode.LAZY.toString()
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            CuratorFramework client = factory.getObject()
+        then:
+            client.getState() == CuratorFrameworkState.LATENT
+        when:
+            client.getData().forPath('/zookeeper')
+        then:
+            client.getState() == CuratorFrameworkState.STARTED
+            registry.getTimers()['curator.operation[client=curator,operation=getData,path=/]'].count == 1
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test sharing a client between factories through a registry"() {
+        setup:
+            CuratorClientRegistry registry = new CuratorClientRegistry()
+            CuratorFrameworkFactoryBean other = new CuratorFrameworkFactoryBean()
+            [factory, other].each {
+                it.connectionString = connectionString
+                it.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+                it.retryPolicySleepBetweenRetries = 0
+                it.registry = registry
+            }
+            factory.namespace = 'first'
+            other.namespace = 'second'
+        when:
+            factory.afterPropertiesSet()
+            other.afterPropertiesSet()
+            factory.getObject().create().forPath('/node', 'first'.getBytes())
+        then:
+            registry.getClientCount() == 1
+            factory.client.is(other.client)
+            factory.getObject().getNamespace() == 'first'
+            other.getObject().getNamespace() == 'second'
+            other.getObject().checkExists().forPath('/node') == null
+            factory.client.checkExists().forPath('/first/node') != null
+        when:
+            factory.destroy()
+        then:
+            other.client.getState() == CuratorFrameworkState.STARTED
+        when:
+            other.destroy()
+        then:
+            other.client.getState() == CuratorFrameworkState.STOPPED
+            registry.getClientCount() == 0
+    }
+
+    def "test destroying an instrumented factory stops observing the shared client"() {
+        setup:
+            SimpleCuratorMetricsRegistry metrics = new SimpleCuratorMetricsRegistry()
+            CuratorClientRegistry registry = new CuratorClientRegistry()
+            CuratorFrameworkFactoryBean other = new CuratorFrameworkFactoryBean()
+            [factory, other].each {
+                it.connectionString = connectionString
+                it.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+                it.retryPolicySleepBetweenRetries = 0
+                it.registry = registry
+                it.metricsRegistry = metrics
+            }
+            factory.beanName = 'first'
+            other.beanName = 'second'
+            factory.afterPropertiesSet()
+            other.afterPropertiesSet()
+            int listeners = other.client.getConnectionStateListenable().size()
+        when:
+            factory.destroy()
+        then:
+            other.client.getState() == CuratorFrameworkState.STARTED
+            other.client.getConnectionStateListenable().size() == listeners - 2
+            Double.isNaN(metrics.gaugeValue('curator.event.queue', 'client', 'first'))
+            metrics.gaugeValue('curator.event.queue', 'client', 'second') == 0.0d
+        cleanup:
+            other.destroy()
+    }
+
+    def "test factories with different session settings do not share a client"() {
+        setup:
+            CuratorClientRegistry registry = new CuratorClientRegistry()
+            CuratorFrameworkFactoryBean other = new CuratorFrameworkFactoryBean()
+            [factory, other].each {
+                it.connectionString = connectionString
+                it.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+                it.retryPolicySleepBetweenRetries = 0
+                it.registry = registry
+            }
+            other.sessionTimeout = 30000
+        when:
+            factory.afterPropertiesSet()
+            other.afterPropertiesSet()
+        then:
+            registry.getClientCount() == 2
+            !factory.client.is(other.client)
+        cleanup:
+            factory.destroy()
+            other.destroy()
+    }
+
+    def "test sharing a client through a registry with a startup mode other than eager"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.startupMode = CuratorStartupMode.LAZY.toString()
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+            factory.registry = new CuratorClientRegistry()
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test reusing a cached client once the factory that started it is destroyed"() {
+        setup:
+            CuratorFrameworkFactoryBean other = new CuratorFrameworkFactoryBean()
+            [factory, other].each {
+                it.connectionString = connectionString
+                it.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+                it.retryPolicySleepBetweenRetries = 0
+                it.cacheClient = true
+            }
+        when:
+            factory.afterPropertiesSet()
+            CuratorFramework cached = factory.client
+            factory.destroy()
+        then:
+            cached.getState() == CuratorFrameworkState.STARTED
+            CuratorFrameworkFactoryBean.getClientCache().getReferenceCount(factory.createRegistryKey()) == 0
+        when:
+            other.afterPropertiesSet()
+        then:
+            other.client.is(cached)
+            CuratorFrameworkFactoryBean.getClientCache().getReferenceCount(other.createRegistryKey()) == 1
+        cleanup:
+            other.destroy()
+            CuratorFrameworkFactoryBean.getClientCache().destroy()
+    }
+
+    def "test caching a client that is also shared through a registry"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+            factory.registry = new CuratorClientRegistry()
+            factory.cacheClient = true
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+            factory.client == null
+    }
+
+    def "test the settings of the client are validated before it connects"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.retryPolicyType = CuratorRetryPolicy.BOUNDED_EXPONENTIAL_BACKOFF.toString()
+            factory.retryPolicyBaseSleepTime = 10
+            factory.retryPolicyMaxRetries = 1
+        when:
+            factory.afterPropertiesSet()
+        then:
+            IllegalArgumentException e = thrown()
+            e.message == "[Assertion failed] 'max-sleep-time' must be configured for retry policy 'bounded-exponential-backoff'."
+            factory.client == null
+    }
+
+    def "test building the client from a compiled spec"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.spec = CuratorClientSpec.builder()
+                .retryPolicy(CuratorRetryPolicy.RETRY_N_TIMES.toString())
+                .maxRetries(1)
+                .sleepBetweenRetries(0)
+                .compression(CuratorCompression.GZIP.toString())
+                .build()
+        when:
+            factory.afterPropertiesSet()
+        then:
+            factory.client.getZookeeperClient().getRetryPolicy() instanceof RetryNTimes
+            factory.client.compressionProvider.compression == CuratorCompression.GZIP
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test coalescing the reads of the client when read coalescing is enabled"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            factory.beanName = 'coalesced'
+            factory.connectionString = connectionString
+            factory.coalesceReads = true
+            factory.metricsRegistry = registry
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            factory.getObject().checkExists().forPath('/zookeeper')
+        then:
+            !factory.getObject().is(factory.client)
+            registry.getCounters()['curator.read.coalesce[client=coalesced,operation=checkExists,result=miss]'].count == 1
+            registry.getTimers()['curator.operation[client=coalesced,operation=checkExists,path=/zookeeper]'].count == 1
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test throttling the operations of the client"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            OperationScheduler scheduler = new OperationScheduler(maxOpsPerSecond: 1000)
+            scheduler.afterPropertiesSet()
+            factory.beanName = 'throttled'
+            factory.connectionString = connectionString
+            factory.operationScheduler = scheduler
+            factory.metricsRegistry = registry
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            factory.getObject().checkExists().forPath('/zookeeper')
+        then:
+            !factory.getObject().is(factory.client)
+            scheduler.getOperationClass('checkExists', '/zookeeper').admittedCount == 1
+            registry.getTimers()['curator.throttle.wait[client=throttled,class=default]'].count == 1
+            registry.getTimers()['curator.operation[client=throttled,operation=checkExists,path=/zookeeper]'].count == 1
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the health monitor of the client"() {
+        setup:
+            factory.beanName = 'monitored'
+            factory.connectionString = connectionString
+            factory.healthProbeIntervalMs = 10
+            factory.healthProbeFailureThreshold = 5
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            Thread.sleep(100)
+        then:
+            factory.healthMonitor.name == 'monitored'
+            factory.healthMonitors == [factory.healthMonitor]
+            factory.healthMonitor.status == CuratorHealthStatus.UP
+            factory.healthMonitor.probeCount > 0
+            factory.getObject().is(factory.client)
+        when:
+            factory.healthMonitor.stateChanged(factory.client, ConnectionState.SUSPENDED)
+            factory.getObject().checkExists().forPath('/')
+        then:
+            notThrown CuratorUnavailableException
+        when:
+            factory.destroy()
+            long probes = factory.healthMonitor.probeCount
+            Thread.sleep(50)
+        then:
+            factory.healthMonitor.probeCount == probes
+    }
+
+    def "test rejecting operations while the client is unavailable when fail-fast is enabled"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.failFast = true
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+            factory.healthMonitor.stateChanged(factory.client, ConnectionState.LOST)
+            factory.getObject().checkExists().forPath('/')
+        then:
+            thrown CuratorUnavailableException
+            factory.healthMonitor.rejectedCount == 1
+        when:
+            factory.healthMonitor.stateChanged(factory.client, ConnectionState.RECONNECTED)
+            factory.getObject().checkExists().forPath('/')
+        then:
+            notThrown CuratorUnavailableException
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the lazy startup of a fail-fast client"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.failFast = true
+            factory.startupMode = CuratorStartupMode.LAZY.toString()
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+        then:
+            factory.healthMonitor.status == CuratorHealthStatus.UNKNOWN
+        when:
+            factory.getObject().checkExists().forPath('/')
+        then:
+            factory.client.getState() == CuratorFrameworkState.STARTED
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the health monitor of a client shared through a registry"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.failFast = true
+            factory.namespace = 'guarded'
+            factory.registry = new CuratorClientRegistry()
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+        then:
+            factory.healthMonitor.status == CuratorHealthStatus.UP
+            factory.getObject().getNamespace() == 'guarded'
+        when:
+            factory.healthMonitor.stateChanged(factory.client, ConnectionState.SUSPENDED)
+            factory.getObject().getData()
+        then:
+            thrown CuratorUnavailableException
+        cleanup:
+            factory.destroy()
+    }
+
+    def "test the startup of the client with an unknown startup mode"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.startupMode = 'unknown'
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test stopping the factory invokes the provided callback"() {
+        setup:
+            Runnable callback = Mock(Runnable)
+            factory.start()
+        when:
+            factory.stop(callback)
+        then:
+            1 * callback.run()
+            !factory.isRunning()
+    }
+
     def "test attempting to destroy the client when the client is null"() {
         when:
             factory.destroy()
@@ -197,6 +721,41 @@ class CuratorFrameworkFactoryBeanSpec extends Specification {
             thrown IllegalArgumentException
     }
 
+    def "test building the Curator client with a built-in compression codec"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.compression = CuratorCompression.ZSTD.toString()
+            factory.compressionThreshold = 64
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.buildClient()
+        then:
+            factory.client.compressionProvider instanceof CuratorCompressionProvider
+            factory.client.compressionProvider.compression == CuratorCompression.ZSTD
+            factory.client.compressionProvider.threshold == 64
+        cleanup:
+            factory.client?.close()
+    }
+
+    @Unroll
+    def "test building the Curator client with #description"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.compression = compression
+            factory.compressionProvider = compressionProvider
+            factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+            factory.retryPolicySleepBetweenRetries = 0
+        when:
+            factory.buildClient()
+        then:
+            thrown IllegalArgumentException
+        where:
+            compression		| compressionProvider			| description
+            'unknown'		| null							| 'an unknown compression codec'
+            'gzip'			| Mock(CompressionProvider)		| 'both a compression codec and a compression provider'
+    }
+
     @Unroll
     def "test creating a retry policy object for requested type #type"() {
         setup:
@@ -205,7 +764,10 @@ class CuratorFrameworkFactoryBeanSpec extends Specification {
             factory.retryPolicyMaxElapsedTime = 1000
             factory.retryPolicyMaxRetries = 5
             factory.retryPolicyMaxSleepTime = 1000
+            factory.retryPolicyMaxTokens = 10
+            factory.retryPolicyOpenTime = 1000
             factory.retryPolicySleepBetweenRetries = 1000
+            factory.retryPolicyTokensPerSecond = 1
         when:
             RetryPolicy retryPolicy = factory.createRetryPolicy()
         then:
@@ -214,12 +776,54 @@ class CuratorFrameworkFactoryBeanSpec extends Specification {
         where:
             type														| expectedType
             CuratorRetryPolicy.BOUNDED_EXPONENTIAL_BACKOFF.toString()	| BoundedExponentialBackoffRetry
+            CuratorRetryPolicy.CIRCUIT_BREAKER.toString()				| CircuitBreakerRetryPolicy
+            CuratorRetryPolicy.DECORRELATED_JITTER.toString()			| DecorrelatedJitterRetry
             CuratorRetryPolicy.EXPONENTIAL_BACKOFF.toString()			| ExponentialBackoffRetry
+            CuratorRetryPolicy.RETRY_BUDGET.toString()					| BudgetedRetryPolicy
             CuratorRetryPolicy.RETRY_N_TIMES.toString()					| RetryNTimes
             CuratorRetryPolicy.RETRY_ONE_TIME.toString()				| RetryOneTime
             CuratorRetryPolicy.RETRY_UNTIL_ELAPSED.toString()			| RetryUntilElapsed
     }
 
+    def "test creating a custom retry policy"() {
+        setup:
+            RetryPolicy custom = Mock(RetryPolicy)
+            factory.retryPolicyType = CuratorRetryPolicy.CUSTOM.toString()
+            factory.retryPolicy = custom
+        expect:
+            factory.createRetryPolicy().is(custom)
+    }
+
+    @Unroll
+    def "test creating a #type retry policy without its required configuration"() {
+        setup:
+            factory.retryPolicyType = type
+            factory.retryPolicyBaseSleepTime = 1000
+            factory.retryPolicyMaxRetries = 5
+        when:
+            factory.createRetryPolicy()
+        then:
+            thrown IllegalArgumentException
+        where:
+            type << [CuratorRetryPolicy.CIRCUIT_BREAKER.toString(), CuratorRetryPolicy.CUSTOM.toString(), CuratorRetryPolicy.RETRY_BUDGET.toString()]
+    }
+
+    def "test the circuit breaker retry policy observes the connection state of the client"() {
+        setup:
+            factory.connectionString = connectionString
+            factory.retryPolicyType = CuratorRetryPolicy.CIRCUIT_BREAKER.toString()
+            factory.retryPolicyBaseSleepTime = 10
+            factory.retryPolicyMaxRetries = 1
+            factory.retryPolicyOpenTime = 1000
+        when:
+            factory.buildClient()
+            CircuitBreakerRetryPolicy retryPolicy = factory.client.getZookeeperClient().getRetryPolicy()
+        then:
+            factory.client.getConnectionStateListenable().listeners.containsKey(retryPolicy)
+        cleanup:
+            factory.client.close()
+    }
+
     def "test the creation of the retry policy from an unknown type"() {
         setup:
             factory.retryPolicyType = 'unknown'
@@ -238,6 +842,7 @@ class CuratorFrameworkFactoryBeanSpec extends Specification {
         where:
             auth				| expectedAuth
             'value'				| 'value'.getBytes()
+            'us\u00e9r:p\u00e4ss'	| 'us\u00e9r:p\u00e4ss'.getBytes('UTF-8')
             ''					| null
             null				| null
     }
@@ -251,6 +856,7 @@ class CuratorFrameworkFactoryBeanSpec extends Specification {
         where:
             defaultData				| expectedDefaultData
             '{}'					| '{}'.getBytes()
+            '{"k":"\u00e9"}'		| '{"k":"\u00e9"}'.getBytes('UTF-8')
             ''						| null
             null					| null
     }
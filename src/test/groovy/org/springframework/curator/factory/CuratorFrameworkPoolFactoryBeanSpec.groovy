@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory
+
+import java.util.concurrent.TimeUnit
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.imps.CuratorFrameworkState
+import org.apache.curator.framework.state.ConnectionState
+import org.apache.curator.framework.state.ConnectionStateListener
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.CreateMode
+import org.springframework.curator.health.CuratorUnavailableException
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorFrameworkPoolFactoryBeanSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    CuratorFrameworkPoolFactoryBean factory
+
+    def setupSpec() {
+        server = new TestingServer()
+    }
+
+    def cleanupSpec() {
+        server.stop()
+    }
+
+    def setup() {
+        factory = new CuratorFrameworkPoolFactoryBean()
+        factory.connectionString = server.getConnectString()
+        factory.retryPolicyType = CuratorRetryPolicy.RETRY_ONE_TIME.toString()
+        factory.retryPolicySleepBetweenRetries = 0
+    }
+
+    def cleanup() {
+        factory.destroy()
+    }
+
+    def "test the building and validation of the pooled clients"() {
+        setup:
+            factory.size = 3
+        when:
+            factory.afterPropertiesSet()
+        then:
+            factory.clients.size() == 3
+            factory.clients.every { it.getState() == CuratorFrameworkState.STARTED }
+            factory.clients.collect { it.getZookeeperClient().getZooKeeper().getSessionId() }.unique().size() == 3
+            factory.getObject().isStarted()
+            factory.getObject().blockUntilConnected(1, TimeUnit.SECONDS)
+    }
+
+    def "test the building of the pool without a valid size"() {
+        setup:
+            factory.size = size
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+        where:
+            size << [null, 0, -1]
+    }
+
+    def "test the building of the pool with an unknown routing strategy"() {
+        setup:
+            factory.size = 2
+            factory.routing = 'unknown'
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    def "test the building of the pool with the #startupMode startup mode"() {
+        setup:
+            factory.size = 2
+            factory.startupMode = startupMode
+        when:
+            factory.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+            factory.clients.isEmpty()
+        where:
+            startupMode << ['async', 'lazy', 'unknown']
+    }
+
+    def "test operations through the pool with the #routing routing strategy"() {
+        setup:
+            factory.size = 2
+            factory.routing = routing
+            factory.afterPropertiesSet()
+            CuratorFramework client = factory.getObject()
+            String path = "/pool-${routing}"
+        when:
+            client.create().creatingParentsIfNeeded().forPath("${path}/node", 'value'.getBytes())
+            client.setData().forPath("${path}/node", 'updated'.getBytes())
+        then:
+            new String(client.getData().forPath("${path}/node")) == 'updated'
+            client.checkExists().forPath("${path}/node") != null
+            client.getChildren().forPath(path) == ['node']
+        when:
+            client.delete().forPath("${path}/node")
+        then:
+            client.checkExists().forPath("${path}/node") == null
+        where:
+            routing << [CuratorClientRouting.ROUND_ROBIN.toString(), CuratorClientRouting.PATH_HASH.toString()]
+    }
+
+    def "test that ephemeral nodes and watches are pinned to the same session"() {
+        setup:
+            factory.size = 4
+            factory.afterPropertiesSet()
+            CuratorFramework client = factory.getObject()
+            CuratorFrameworkPool pool = java.lang.reflect.Proxy.getInvocationHandler(client)
+        when:
+            client.create().withMode(CreateMode.EPHEMERAL).forPath('/ephemeral')
+            long owner = factory.clients[0].checkExists().forPath('/ephemeral').getEphemeralOwner()
+        then:
+            pool.select('/ephemeral', true).getZookeeperClient().getZooKeeper().getSessionId() == owner
+            (1..10).collect { pool.select('/ephemeral', true) }.unique().size() == 1
+            client.getData().watched().forPath('/ephemeral') != null
+    }
+
+    def "test that listeners are registered with every client in the pool"() {
+        setup:
+            factory.size = 2
+            factory.afterPropertiesSet()
+            ConnectionStateListener listener = Mock(ConnectionStateListener)
+        when:
+            factory.getObject().getConnectionStateListenable().addListener(listener)
+        then:
+            factory.clients.every { it.getConnectionStateListenable().listeners.containsKey(listener) }
+        when:
+            factory.getObject().getConnectionStateListenable().removeListener(listener)
+        then:
+            factory.clients.every { !it.getConnectionStateListenable().listeners.containsKey(listener) }
+    }
+
+    def "test the namespace views of the pool"() {
+        setup:
+            factory.size = 2
+            factory.afterPropertiesSet()
+        when:
+            CuratorFramework view = factory.getObject().usingNamespace('pooled')
+            view.create().forPath('/node')
+        then:
+            view.getNamespace() == 'pooled'
+            factory.clients[0].checkExists().forPath('/pooled/node') != null
+    }
+
+    def "test that only the operations routed to an unavailable client are rejected when fail-fast is enabled"() {
+        setup:
+            factory.size = 2
+            factory.failFast = true
+            factory.routing = CuratorClientRouting.PATH_HASH.toString()
+            factory.afterPropertiesSet()
+            String path = '/pinned'
+            int index = (path.hashCode() & Integer.MAX_VALUE) % 2
+        when:
+            factory.healthMonitors[index].stateChanged(factory.clients[index], ConnectionState.SUSPENDED)
+            factory.getObject().checkExists().forPath(path)
+        then:
+            factory.healthMonitors.size() == 2
+            thrown CuratorUnavailableException
+        when:
+            factory.getObject().checkExists().forPath(otherPath(path, index))
+        then:
+            notThrown CuratorUnavailableException
+    }
+
+    def "test closing the pool when a client fails to close"() {
+        setup:
+            CuratorFramework client = Mock(CuratorFramework) {
+                close() >> { throw new NullPointerException('test') }
+            }
+            CuratorFramework other = Mock(CuratorFramework)
+            factory.clients = [client, other]
+        when:
+            factory.destroy()
+        then:
+            notThrown Exception
+            1 * other.close()
+    }
+
+    private String otherPath(String path, int index) {
+        (0..100).collect { path + it }.find { ((it.hashCode() & Integer.MAX_VALUE) % 2) != index }
+    }
+}
@@ -34,7 +34,11 @@ class CuratorRetryPolicySpec extends Specification {
         where:
             type														| expectedValue
             CuratorRetryPolicy.BOUNDED_EXPONENTIAL_BACKOFF.type 		| CuratorRetryPolicy.BOUNDED_EXPONENTIAL_BACKOFF
+            CuratorRetryPolicy.CIRCUIT_BREAKER.type 					| CuratorRetryPolicy.CIRCUIT_BREAKER
+            CuratorRetryPolicy.CUSTOM.type 								| CuratorRetryPolicy.CUSTOM
+            CuratorRetryPolicy.DECORRELATED_JITTER.type 				| CuratorRetryPolicy.DECORRELATED_JITTER
             CuratorRetryPolicy.EXPONENTIAL_BACKOFF.type 				| CuratorRetryPolicy.EXPONENTIAL_BACKOFF
+            CuratorRetryPolicy.RETRY_BUDGET.type 						| CuratorRetryPolicy.RETRY_BUDGET
             CuratorRetryPolicy.RETRY_N_TIMES.type 						| CuratorRetryPolicy.RETRY_N_TIMES
             CuratorRetryPolicy.RETRY_ONE_TIME.type 						| CuratorRetryPolicy.RETRY_ONE_TIME
             CuratorRetryPolicy.RETRY_UNTIL_ELAPSED.type 				| CuratorRetryPolicy.RETRY_UNTIL_ELAPSED
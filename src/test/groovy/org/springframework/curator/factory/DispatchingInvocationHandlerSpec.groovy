@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.factory
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.api.BackgroundCallback
+import org.apache.curator.framework.api.CuratorWatcher
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.WatchedEvent
+import org.apache.zookeeper.Watcher
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class DispatchingInvocationHandlerSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    ExecutorService executor
+
+    CuratorFramework client
+
+    def setupSpec() {
+        server = new TestingServer()
+        executor = Executors.newSingleThreadExecutor({ Runnable runnable -> new Thread(runnable, 'dispatch') } as ThreadFactory)
+    }
+
+    def cleanupSpec() {
+        executor.shutdown()
+        server.stop()
+    }
+
+    def setup() {
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanup() {
+        client.close()
+    }
+
+    def "test dispatching background callbacks to the background executor"() {
+        setup:
+            CuratorFramework dispatching = DispatchingInvocationHandler.createProxy(client, executor, null, null)
+            CountDownLatch latch = new CountDownLatch(2)
+            List<String> threads = Collections.synchronizedList([])
+            BackgroundCallback callback = { c, event ->
+                threads << Thread.currentThread().name
+                latch.countDown()
+            } as BackgroundCallback
+        when:
+            dispatching.create().creatingParentsIfNeeded().inBackground(callback).forPath('/dispatch/background')
+            dispatching.getData().inBackground(callback, 'context').forPath('/zookeeper')
+        then:
+            latch.await(5, TimeUnit.SECONDS)
+            threads == ['dispatch', 'dispatch']
+    }
+
+    def "test background callbacks run on the event thread when no background executor is configured"() {
+        setup:
+            CuratorFramework dispatching = DispatchingInvocationHandler.createProxy(client, null, null, executor)
+            CountDownLatch latch = new CountDownLatch(1)
+            String thread = null
+        when:
+            dispatching.checkExists().inBackground({ c, event ->
+                thread = Thread.currentThread().name
+                latch.countDown()
+            } as BackgroundCallback).forPath('/zookeeper')
+        then:
+            latch.await(5, TimeUnit.SECONDS)
+            thread != 'dispatch'
+    }
+
+    def "test dispatching watchers to the event executor"() {
+        setup:
+            CuratorFramework dispatching = DispatchingInvocationHandler.createProxy(client, null, null, executor)
+            CountDownLatch latch = new CountDownLatch(2)
+            List<String> threads = Collections.synchronizedList([])
+            client.create().creatingParentsIfNeeded().forPath('/dispatch/watched', 'data'.bytes)
+        when:
+            dispatching.getData().usingWatcher({ WatchedEvent event ->
+                threads << Thread.currentThread().name
+                latch.countDown()
+            } as Watcher).forPath('/dispatch/watched')
+            dispatching.checkExists().usingWatcher({ WatchedEvent event ->
+                threads << Thread.currentThread().name
+                latch.countDown()
+            } as CuratorWatcher).forPath('/dispatch/watched')
+            client.setData().forPath('/dispatch/watched', 'changed'.bytes)
+        then:
+            latch.await(5, TimeUnit.SECONDS)
+            threads == ['dispatch', 'dispatch']
+        cleanup:
+            client.delete().forPath('/dispatch/watched')
+    }
+
+    def "test the equality of dispatching watchers follows the wrapped watcher"() {
+        setup:
+            Watcher watcher = Mock(Watcher)
+            CuratorWatcher curatorWatcher = Mock(CuratorWatcher)
+        expect:
+            new DispatchingInvocationHandler.DispatchingWatcher(watcher, executor) == new DispatchingInvocationHandler.DispatchingWatcher(watcher, executor)
+            new DispatchingInvocationHandler.DispatchingWatcher(watcher, executor).hashCode() == watcher.hashCode()
+            new DispatchingInvocationHandler.DispatchingWatcher(watcher, executor) != new DispatchingInvocationHandler.DispatchingWatcher(Mock(Watcher), executor)
+            new DispatchingInvocationHandler.DispatchingCuratorWatcher(curatorWatcher, executor) == new DispatchingInvocationHandler.DispatchingCuratorWatcher(curatorWatcher, executor)
+            new DispatchingInvocationHandler.DispatchingCuratorWatcher(curatorWatcher, executor).hashCode() == curatorWatcher.hashCode()
+    }
+
+    def "test the same watcher set twice through the dispatching client is registered once"() {
+        setup:
+            CuratorFramework dispatching = DispatchingInvocationHandler.createProxy(client, null, null, executor)
+            CountDownLatch latch = new CountDownLatch(1)
+            AtomicInteger events = new AtomicInteger()
+            Watcher watcher = { WatchedEvent event ->
+                events.incrementAndGet()
+                latch.countDown()
+            } as Watcher
+            client.create().creatingParentsIfNeeded().forPath('/dispatch/twice', 'data'.bytes)
+        when:
+            dispatching.getData().usingWatcher(watcher).forPath('/dispatch/twice')
+            dispatching.getData().usingWatcher(watcher).forPath('/dispatch/twice')
+        then:
+            client.getZookeeperClient().getZooKeeper().watchManager.dataWatches['/dispatch/twice'].size() == 1
+        when:
+            client.setData().forPath('/dispatch/twice', 'changed'.bytes)
+        then:
+            latch.await(5, TimeUnit.SECONDS)
+            Thread.sleep(100)
+            events.get() == 1
+        cleanup:
+            client.delete().forPath('/dispatch/twice')
+    }
+
+    def "test dispatching listeners registered without an executor"() {
+        setup:
+            CuratorFramework dispatching = DispatchingInvocationHandler.createProxy(client, null, executor, executor)
+        expect:
+            dispatching.getConnectionStateListenable() instanceof ExecutorListenable
+            dispatching.getCuratorListenable() instanceof ExecutorListenable
+            DispatchingInvocationHandler.createProxy(client, executor, null, null).getConnectionStateListenable().is(client.getConnectionStateListenable())
+    }
+
+    def "test namespaced views continue to dispatch background callbacks"() {
+        setup:
+            CuratorFramework dispatching = DispatchingInvocationHandler.createProxy(client, executor, null, null).usingNamespace('dispatch')
+            CountDownLatch latch = new CountDownLatch(1)
+            String thread = null
+        when:
+            dispatching.checkExists().inBackground({ c, event ->
+                thread = Thread.currentThread().name
+                latch.countDown()
+            } as BackgroundCallback).forPath('/missing')
+        then:
+            latch.await(5, TimeUnit.SECONDS)
+            thread == 'dispatch'
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.health
+
+import org.apache.curator.framework.state.ConnectionState
+import org.apache.curator.test.TestingServer
+import org.springframework.beans.factory.BeanFactory
+import org.springframework.beans.factory.support.DefaultListableBeanFactory
+import org.springframework.curator.factory.CuratorFrameworkFactoryBean
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorHealthIndicatorSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory()
+
+    CuratorHealthIndicator indicator = new CuratorHealthIndicator()
+
+    def setupSpec() {
+        server = new TestingServer()
+    }
+
+    def cleanupSpec() {
+        server.stop()
+    }
+
+    def cleanup() {
+        beanFactory.destroySingletons()
+    }
+
+    def "test reporting the health of every client"() {
+        setup:
+            CuratorFrameworkFactoryBean first = createFactoryBean('first')
+            CuratorFrameworkFactoryBean second = createFactoryBean('second')
+            indicator.setBeanFactory(beanFactory)
+            awaitConnected(first)
+            awaitConnected(second)
+        when:
+            Map<String, Object> health = indicator.health
+        then:
+            indicator.status == CuratorHealthStatus.UP
+            health.status == 'up'
+            health.clients.keySet() == ['first', 'second'] as Set
+            health.clients.first.state == 'CONNECTED'
+        when:
+            second.healthMonitor.stateChanged(second.client, ConnectionState.SUSPENDED)
+        then:
+            indicator.status == CuratorHealthStatus.DOWN
+            indicator.health.status == 'down'
+            indicator.health.clients.first.status == 'up'
+    }
+
+    def "test that the status is unknown if there are no clients"() {
+        setup:
+            indicator.setBeanFactory(beanFactory)
+        expect:
+            indicator.status == CuratorHealthStatus.UNKNOWN
+            indicator.health.status == 'unknown'
+            indicator.health.clients.isEmpty()
+    }
+
+    def "test that a listable bean factory is required"() {
+        when:
+            indicator.setBeanFactory(Mock(BeanFactory))
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    private void awaitConnected(final CuratorFrameworkFactoryBean factoryBean) {
+        // Curator notifies the monitor of the connection on its own thread.
+        long deadline = System.currentTimeMillis() + 5000
+        while(factoryBean.healthMonitor.connectionState == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+    }
+
+    private CuratorFrameworkFactoryBean createFactoryBean(String name) {
+        CuratorFrameworkFactoryBean factoryBean = new CuratorFrameworkFactoryBean(connectionString: server.getConnectString(), retryPolicyType: 'retry-one-time', retryPolicySleepBetweenRetries: 0)
+        factoryBean.setBeanName(name)
+        factoryBean.afterPropertiesSet()
+        beanFactory.registerSingleton(name, factoryBean)
+        factoryBean
+    }
+}
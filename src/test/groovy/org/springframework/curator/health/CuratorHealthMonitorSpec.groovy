@@ -0,0 +1,239 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.health
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.state.ConnectionState
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.springframework.curator.metrics.SimpleCuratorMetricsRegistry
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorHealthMonitorSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    CuratorHealthMonitor monitor
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def cleanup() {
+        monitor?.close()
+    }
+
+    def "test that a connected client is up when the monitor is started"() {
+        setup:
+            monitor = new CuratorHealthMonitor(client, 'test', 0, 3, null)
+        when:
+            monitor.start()
+        then:
+            monitor.connectionState == ConnectionState.CONNECTED
+            monitor.status == CuratorHealthStatus.UP
+            monitor.isAvailable()
+            monitor.getTransitionCount(ConnectionState.CONNECTED) == 1
+    }
+
+    def "test that the initial connection is only counted once when the listener also reports it"() {
+        setup:
+            monitor = new CuratorHealthMonitor(client, 'test', 0, 3, null)
+            monitor.start()
+        when:
+            monitor.stateChanged(client, ConnectionState.CONNECTED)
+        then:
+            monitor.connectionState == ConnectionState.CONNECTED
+            monitor.getTransitionCount(ConnectionState.CONNECTED) == 1
+        when:
+            monitor.stateChanged(client, ConnectionState.SUSPENDED)
+            monitor.stateChanged(client, ConnectionState.CONNECTED)
+        then:
+            monitor.connectionState == ConnectionState.SUSPENDED
+            monitor.getTransitionCount(ConnectionState.CONNECTED) == 1
+    }
+
+    def "test that a client that has not connected is unknown but available"() {
+        setup:
+            CuratorFramework unstarted = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+            monitor = new CuratorHealthMonitor(unstarted, 'test', 0, 3, null)
+        when:
+            monitor.start()
+            monitor.checkAvailable()
+        then:
+            monitor.connectionState == null
+            monitor.status == CuratorHealthStatus.UNKNOWN
+            monitor.isAvailable()
+            monitor.rejectedCount == 0
+        cleanup:
+            unstarted.close()
+    }
+
+    def "test following the connection state transitions"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            monitor = new CuratorHealthMonitor(client, 'test', 0, 3, registry)
+            monitor.start()
+        when:
+            monitor.stateChanged(client, ConnectionState.SUSPENDED)
+        then:
+            monitor.status == CuratorHealthStatus.DOWN
+            !monitor.isAvailable()
+            registry.getTimers()['curator.connection.state.duration[client=test,state=CONNECTED]'].count == 1
+        when:
+            monitor.stateChanged(client, ConnectionState.RECONNECTED)
+        then:
+            monitor.status == CuratorHealthStatus.UP
+            monitor.getTransitionCount(ConnectionState.SUSPENDED) == 1
+            monitor.getTransitionCount(ConnectionState.RECONNECTED) == 1
+            registry.getTimers()['curator.connection.state.duration[client=test,state=SUSPENDED]'].count == 1
+        when:
+            monitor.stateChanged(client, ConnectionState.READ_ONLY)
+        then:
+            monitor.status == CuratorHealthStatus.DEGRADED
+            monitor.isAvailable()
+        when:
+            monitor.stateChanged(client, ConnectionState.LOST)
+        then:
+            monitor.status == CuratorHealthStatus.DOWN
+    }
+
+    def "test that the time spent in the current state is included"() {
+        setup:
+            monitor = new CuratorHealthMonitor(client, 'test', 0, 3, null)
+            monitor.start()
+        when:
+            monitor.stateChanged(client, ConnectionState.SUSPENDED)
+            Thread.sleep(50)
+        then:
+            monitor.getTimeInState(ConnectionState.SUSPENDED) >= 50
+            monitor.getTimeInState(ConnectionState.LOST) == 0
+    }
+
+    def "test that operations are rejected while the client is unavailable"() {
+        setup:
+            monitor = new CuratorHealthMonitor(client, 'test', 0, 3, null)
+            monitor.start()
+        when:
+            monitor.stateChanged(client, state)
+            monitor.checkAvailable()
+        then:
+            CuratorUnavailableException e = thrown(CuratorUnavailableException)
+            e.connectionState == state
+            e.message.contains('test')
+            monitor.rejectedCount == 1
+        where:
+            state << [ConnectionState.SUSPENDED, ConnectionState.LOST]
+    }
+
+    def "test probing the client"() {
+        setup:
+            monitor = new CuratorHealthMonitor(client, 'test', 0, 3, null)
+            monitor.start()
+        when:
+            monitor.probe()
+        then:
+            monitor.probeCount == 1
+            monitor.consecutiveProbeFailures == 0
+            monitor.lastProbeLatencyMs >= 0
+    }
+
+    def "test that no probe is sent while the client is unavailable"() {
+        setup:
+            monitor = new CuratorHealthMonitor(client, 'test', 0, 3, null)
+            monitor.start()
+            monitor.stateChanged(client, ConnectionState.SUSPENDED)
+        when:
+            monitor.probe()
+        then:
+            monitor.probeCount == 0
+            monitor.lastProbeLatencyMs == -1
+    }
+
+    def "test that the client is degraded once the probe failure threshold is reached"() {
+        setup:
+            CuratorFramework closed = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+            closed.start()
+            closed.blockUntilConnected()
+            monitor = new CuratorHealthMonitor(closed, 'test', 0, 2, null)
+            monitor.start()
+            closed.getZookeeperClient().getZooKeeper().close()
+        when:
+            monitor.probe()
+        then:
+            monitor.consecutiveProbeFailures == 1
+            monitor.status == CuratorHealthStatus.UP
+        when:
+            monitor.probe()
+        then:
+            monitor.consecutiveProbeFailures == 2
+            monitor.status == CuratorHealthStatus.DEGRADED
+        cleanup:
+            closed.close()
+    }
+
+    def "test that the client is probed periodically"() {
+        setup:
+            monitor = new CuratorHealthMonitor(client, 'test', 10, 3, null)
+        when:
+            monitor.start()
+            Thread.sleep(200)
+        then:
+            monitor.probeCount > 0
+            monitor.health.probes > 0
+    }
+
+    def "test reporting the health details"() {
+        setup:
+            monitor = new CuratorHealthMonitor(client, 'test', 0, 3, null)
+            monitor.start()
+        when:
+            Map<String, Object> health = monitor.health
+        then:
+            health.status == 'up'
+            health.state == 'CONNECTED'
+            health.timeInStateMs.keySet() == ConnectionState.values()*.name() as Set
+            health.rejected == 0
+            !health.containsKey('probes')
+    }
+
+    def "test that the monitor stops probing the client once closed"() {
+        setup:
+            monitor = new CuratorHealthMonitor(client, 'test', 10, 3, null)
+            monitor.start()
+            Thread.sleep(50)
+        when:
+            monitor.close()
+            long probes = monitor.probeCount
+            Thread.sleep(100)
+        then:
+            monitor.probeCount == probes
+    }
+}
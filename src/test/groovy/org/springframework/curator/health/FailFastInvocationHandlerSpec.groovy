@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.health
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.state.ConnectionState
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class FailFastInvocationHandlerSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    CuratorHealthMonitor monitor
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def setup() {
+        monitor = new CuratorHealthMonitor(client, 'test', 0, 3, null)
+        monitor.start()
+    }
+
+    def cleanup() {
+        monitor.close()
+    }
+
+    def "test that operations are let through while the client is available"() {
+        setup:
+            CuratorFramework proxy = FailFastInvocationHandler.createProxy(client, monitor)
+        expect:
+            proxy.checkExists().forPath('/') != null
+            proxy.getState() == client.getState()
+            monitor.rejectedCount == 0
+    }
+
+    def "test that operations are rejected while the client is unavailable"() {
+        setup:
+            CuratorFramework proxy = FailFastInvocationHandler.createProxy(client, monitor)
+            monitor.stateChanged(client, ConnectionState.SUSPENDED)
+        when:
+            proxy."${operation}"()
+        then:
+            thrown(CuratorUnavailableException)
+            monitor.rejectedCount == 1
+        where:
+            operation << ['checkExists', 'create', 'delete', 'getACL', 'getChildren', 'getData', 'inTransaction', 'setACL', 'setData', 'sync']
+    }
+
+    def "test that methods other than operations are let through while the client is unavailable"() {
+        setup:
+            CuratorFramework proxy = FailFastInvocationHandler.createProxy(client, monitor)
+            monitor.stateChanged(client, ConnectionState.LOST)
+        when:
+            proxy.getConnectionStateListenable()
+            proxy.getNamespace()
+            proxy.isStarted()
+        then:
+            notThrown(CuratorUnavailableException)
+            monitor.rejectedCount == 0
+    }
+
+    def "test that namespace views are guarded"() {
+        setup:
+            CuratorFramework proxy = FailFastInvocationHandler.createProxy(client, monitor)
+            CuratorFramework view = proxy.usingNamespace('view')
+            monitor.stateChanged(client, ConnectionState.SUSPENDED)
+        when:
+            view.getData()
+        then:
+            thrown(CuratorUnavailableException)
+        when:
+            monitor.stateChanged(client, ConnectionState.RECONNECTED)
+            view.checkExists().forPath('/node')
+        then:
+            notThrown(CuratorUnavailableException)
+            view.getNamespace() == 'view'
+    }
+
+    def "test the equality of the proxy"() {
+        setup:
+            CuratorFramework proxy = FailFastInvocationHandler.createProxy(client, monitor)
+        expect:
+            proxy.equals(proxy)
+            !proxy.equals(client)
+            proxy.hashCode() == System.identityHashCode(proxy)
+    }
+
+    def "test creating the proxy through the monitor"() {
+        setup:
+            CuratorFramework proxy = monitor.createFailFastProxy(client)
+            monitor.stateChanged(client, ConnectionState.SUSPENDED)
+        when:
+            proxy.getData()
+        then:
+            thrown(CuratorUnavailableException)
+    }
+}
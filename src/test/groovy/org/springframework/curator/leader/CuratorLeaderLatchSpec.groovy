@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.leader
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.recipes.leader.LeaderLatchListener
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.springframework.curator.metrics.SimpleCuratorMetricsRegistry
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorLeaderLatchSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def "test gaining and relinquishing leadership"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            CountDownLatch elected = new CountDownLatch(1)
+            LeaderLatchListener listener = [isLeader: { elected.countDown() }, notLeader: { }] as LeaderLatchListener
+            CuratorLeaderLatch latch = new CuratorLeaderLatch(client: client, path: '/leaders/basic', participantId: 'first',
+                listeners: [listener], metricsRegistry: registry, beanName: 'basic')
+        when:
+            latch.start()
+        then:
+            latch.isRunning()
+            latch.await(5, TimeUnit.SECONDS)
+            elected.await(5, TimeUnit.SECONDS)
+            latch.hasLeadership()
+            latch.getLeaderLatch().getLeader().id == 'first'
+            registry.getGauges()['curator.leader[latch=basic]'].value() == 1
+            registry.getCounters()['curator.leader.transitions[latch=basic,state=leader]'].count == 1
+        when:
+            latch.stop()
+        then:
+            !latch.isRunning()
+            !latch.hasLeadership()
+            registry.getGauges()['curator.leader[latch=basic]'].value() == 0
+    }
+
+    def "test a second participant takes over when the leader stops"() {
+        setup:
+            CuratorLeaderLatch first = new CuratorLeaderLatch(client: client, path: '/leaders/failover', participantId: 'first')
+            CuratorLeaderLatch second = new CuratorLeaderLatch(client: client, path: '/leaders/failover', participantId: 'second')
+            first.start()
+            first.await(5, TimeUnit.SECONDS)
+            second.start()
+        when:
+            boolean secondLeads = second.await(100, TimeUnit.MILLISECONDS)
+        then:
+            !secondLeads
+        when:
+            first.destroy()
+        then:
+            second.await(5, TimeUnit.SECONDS)
+        cleanup:
+            second.destroy()
+    }
+
+    def "test waiting for leadership before the latch is started"() {
+        when:
+            new CuratorLeaderLatch(client: client, path: '/leaders/stopped').await(1, TimeUnit.SECONDS)
+        then:
+            thrown IllegalStateException
+    }
+
+    def "test starting the latch without a path"() {
+        when:
+            new CuratorLeaderLatch(client: client).start()
+        then:
+            thrown IllegalArgumentException
+    }
+}
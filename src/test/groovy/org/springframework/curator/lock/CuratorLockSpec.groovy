@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.lock
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.springframework.curator.metrics.SimpleCuratorMetricsRegistry
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorLockSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def "test acquiring and releasing the lock"() {
+        setup:
+            CuratorLock lock = new CuratorLock(client: client, path: '/locks/basic')
+            lock.afterPropertiesSet()
+        when:
+            lock.acquire()
+            lock.acquire()
+        then:
+            lock.isAcquiredInThisProcess()
+        when:
+            lock.release()
+        then:
+            lock.isAcquiredInThisProcess()
+        when:
+            lock.release()
+        then:
+            !lock.isAcquiredInThisProcess()
+    }
+
+    def "test local threads wait in memory rather than creating lock nodes"() {
+        setup:
+            CuratorLock lock = new CuratorLock(client: client, path: '/locks/coalesced')
+            lock.afterPropertiesSet()
+            CountDownLatch waiting = new CountDownLatch(4)
+            AtomicInteger completed = new AtomicInteger()
+            lock.acquire()
+        when:
+            List<Thread> threads = (1..4).collect {
+                Thread.start {
+                    waiting.countDown()
+                    lock.acquire()
+                    try {
+                        completed.incrementAndGet()
+                    } finally {
+                        lock.release()
+                    }
+                }
+            }
+            waiting.await(5, TimeUnit.SECONDS)
+            while(lock.getLocalWaiters() < 4) {
+                Thread.sleep(10)
+            }
+            int lockNodes = client.getChildren().forPath('/locks/coalesced').size()
+            lock.release()
+            threads*.join(5000)
+        then:
+            lockNodes == 1
+            completed.get() == 4
+            client.getChildren().forPath('/locks/coalesced').isEmpty()
+    }
+
+    def "test acquiring the lock held by another process times out"() {
+        setup:
+            CuratorLock lock = new CuratorLock(client: client, path: '/locks/contended')
+            lock.afterPropertiesSet()
+            CuratorFramework other = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+            other.start()
+            CuratorLock otherLock = new CuratorLock(client: other, path: '/locks/contended')
+            otherLock.afterPropertiesSet()
+            otherLock.acquire()
+        when:
+            boolean acquired = lock.acquire(100, TimeUnit.MILLISECONDS)
+        then:
+            !acquired
+            !lock.isAcquiredInThisProcess()
+            lock.getLocalWaiters() == 0
+        cleanup:
+            otherLock.release()
+            other.close()
+    }
+
+    def "test publishing the acquisition metrics"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            CuratorLock lock = new CuratorLock(client: client, path: '/locks/metered', metricsRegistry: registry, beanName: 'metered')
+            lock.afterPropertiesSet()
+        when:
+            lock.acquire(1, TimeUnit.SECONDS)
+            lock.release()
+        then:
+            registry.getTimers()['curator.lock.acquire[lock=metered,outcome=acquired]'].count == 1
+            registry.getGauges()['curator.lock.waiting[lock=metered]'].value() == 0
+    }
+
+    def "test releasing a lock that is not held"() {
+        setup:
+            CuratorLock lock = new CuratorLock(client: client, path: '/locks/unheld')
+            lock.afterPropertiesSet()
+        when:
+            lock.release()
+        then:
+            thrown IllegalMonitorStateException
+    }
+
+    def "test initializing the lock without a path"() {
+        when:
+            new CuratorLock(client: client).afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.lock
+
+import java.util.concurrent.TimeUnit
+
+import org.springframework.aop.support.AopUtils
+import org.springframework.beans.factory.BeanFactory
+
+import spock.lang.Specification
+
+class CuratorLockedAnnotationBeanPostProcessorSpec extends Specification {
+
+    CuratorLock lock
+
+    BeanFactory beanFactory
+
+    CuratorLockedAnnotationBeanPostProcessor postProcessor
+
+    def setup() {
+        lock = Mock(CuratorLock)
+        beanFactory = Mock(BeanFactory)
+        beanFactory.getBean('curatorLock', CuratorLock) >> lock
+        postProcessor = new CuratorLockedAnnotationBeanPostProcessor()
+        postProcessor.setBeanClassLoader(getClass().getClassLoader())
+        postProcessor.setProxyTargetClass(true)
+        postProcessor.setBeanFactory(beanFactory)
+    }
+
+    def "test proxying a bean with an annotated method"() {
+        setup:
+            LockedCounter counter = postProcessor.postProcessAfterInitialization(new LockedCounter(lock: lock), 'counter')
+        when:
+            int count = counter.increment()
+        then:
+            AopUtils.isAopProxy(counter)
+            count == 1
+            1 * lock.acquire(5000L, TimeUnit.MILLISECONDS) >> true
+        then:
+            1 * lock.release()
+    }
+
+    def "test the method is not invoked if the lock cannot be acquired in time"() {
+        setup:
+            LockedCounter counter = postProcessor.postProcessAfterInitialization(new LockedCounter(lock: lock), 'counter')
+            lock.acquire(5000L, TimeUnit.MILLISECONDS) >> false
+        when:
+            counter.increment()
+        then:
+            thrown IllegalStateException
+            0 * lock.release()
+    }
+
+    def "test the lock is released if the method throws"() {
+        setup:
+            FailingLocked target = new FailingLocked()
+            FailingLocked failing = postProcessor.postProcessAfterInitialization(target, 'failing')
+        when:
+            failing.fail()
+        then:
+            thrown IllegalArgumentException
+            1 * lock.acquire()
+        then:
+            1 * lock.release()
+    }
+
+    def "test beans without annotated methods are not proxied"() {
+        setup:
+            Object bean = new Object()
+        expect:
+            postProcessor.postProcessAfterInitialization(bean, 'bean').is(bean)
+    }
+
+    static class FailingLocked {
+
+        @CuratorLocked('curatorLock')
+        void fail() {
+            throw new IllegalArgumentException('failed')
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.lock
+
+import java.util.concurrent.TimeUnit
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.recipes.locks.Lease
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.springframework.curator.metrics.SimpleCuratorMetricsRegistry
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorSemaphoreSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def "test acquiring leases up to the maximum"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            CuratorSemaphore semaphore = new CuratorSemaphore(client: client, path: '/semaphores/basic', maxLeases: 2, metricsRegistry: registry, beanName: 'basic')
+            semaphore.afterPropertiesSet()
+        when:
+            Lease first = semaphore.acquire()
+            Lease second = semaphore.acquire(1, TimeUnit.SECONDS)
+            Lease third = semaphore.acquire(100, TimeUnit.MILLISECONDS)
+        then:
+            first != null
+            second != null
+            third == null
+            registry.getTimers()['curator.semaphore.acquire[semaphore=basic,outcome=acquired]'].count == 2
+            registry.getTimers()['curator.semaphore.acquire[semaphore=basic,outcome=timeout]'].count == 1
+        when:
+            first.close()
+            first.close()
+            Lease fourth = semaphore.acquire(1, TimeUnit.SECONDS)
+        then:
+            fourth != null
+            semaphore.getLocalWaiters() == 0
+        cleanup:
+            second?.close()
+            fourth?.close()
+    }
+
+    def "test leases held by another process limit the leases of this process"() {
+        setup:
+            CuratorSemaphore semaphore = new CuratorSemaphore(client: client, path: '/semaphores/shared', maxLeases: 1)
+            semaphore.afterPropertiesSet()
+            CuratorFramework other = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+            other.start()
+            CuratorSemaphore otherSemaphore = new CuratorSemaphore(client: other, path: '/semaphores/shared', maxLeases: 1)
+            otherSemaphore.afterPropertiesSet()
+            Lease otherLease = otherSemaphore.acquire()
+        when:
+            Lease lease = semaphore.acquire(100, TimeUnit.MILLISECONDS)
+        then:
+            lease == null
+        when:
+            otherLease.close()
+            lease = semaphore.acquire(5, TimeUnit.SECONDS)
+        then:
+            lease != null
+        cleanup:
+            lease?.close()
+            other.close()
+    }
+
+    def "test initializing the semaphore with an invalid number of leases"() {
+        when:
+            new CuratorSemaphore(client: client, path: '/semaphores/invalid', maxLeases: maxLeases).afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+        where:
+            maxLeases << [null, 0]
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.metrics
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.state.ConnectionState
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.CreateMode
+
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CuratorFrameworkInstrumentationSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    CuratorFramework client
+
+    SimpleCuratorMetricsRegistry registry
+
+    def setupSpec() {
+        server = new TestingServer()
+    }
+
+    def cleanupSpec() {
+        server.stop()
+    }
+
+    def setup() {
+        registry = new SimpleCuratorMetricsRegistry()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanup() {
+        client.close()
+    }
+
+    def "test timing foreground operations"() {
+        setup:
+            CuratorFramework instrumented = CuratorFrameworkInstrumentation.instrument(client, registry, 'test', 1).client
+        when:
+            instrumented.create().creatingParentsIfNeeded().withMode(CreateMode.PERSISTENT).forPath('/timed/a/b', 'data'.bytes)
+            instrumented.getData().forPath('/timed/a/b')
+            instrumented.getData().forPath('/timed/a')
+        then:
+            registry.getTimers()['curator.operation[client=test,operation=create,path=/timed]'].count == 1
+            registry.getTimers()['curator.operation[client=test,operation=getData,path=/timed]'].count == 2
+    }
+
+    def "test timing failed operations"() {
+        setup:
+            CuratorFramework instrumented = CuratorFrameworkInstrumentation.instrument(client, registry, 'test', 1).client
+        when:
+            instrumented.getData().forPath('/missing')
+        then:
+            thrown Exception
+            registry.getTimers()['curator.operation[client=test,operation=getData,path=/missing]'].count == 1
+    }
+
+    def "test operations of a namespaced view are instrumented"() {
+        setup:
+            CuratorFramework instrumented = CuratorFrameworkInstrumentation.instrument(client, registry, 'test', 1).client
+        when:
+            instrumented.usingNamespace('ns').checkExists().forPath('/node')
+        then:
+            registry.getTimers()['curator.operation[client=test,operation=checkExists,path=/node]'].count == 1
+    }
+
+    def "test the number of path prefixes is capped"() {
+        setup:
+            CuratorFramework instrumented = CuratorFrameworkInstrumentation.instrument(client, registry, 'test', 1).client
+        when:
+            (0..CuratorFrameworkInstrumentation.MAX_PATH_PREFIXES).each { instrumented.checkExists().forPath("/node-${it}") }
+        then:
+            registry.getTimers().keySet().findAll { it.startsWith('curator.operation') }.size() == CuratorFrameworkInstrumentation.MAX_PATH_PREFIXES + 1
+            registry.getTimers()['curator.operation[client=test,operation=checkExists,path=other]'].count == 1
+    }
+
+    def "test operations beyond the path prefix cap share one timer"() {
+        setup:
+            SimpleCuratorMetricsRegistry spy = Spy(SimpleCuratorMetricsRegistry)
+            CuratorFramework instrumented = CuratorFrameworkInstrumentation.instrument(client, spy, 'test', 1).client
+            (1..CuratorFrameworkInstrumentation.MAX_PATH_PREFIXES).each { instrumented.checkExists().forPath("/node-${it}") }
+            instrumented.checkExists().forPath('/overflow-0')
+        when:
+            (1..10).each { instrumented.checkExists().forPath("/overflow-${it}") }
+        then:
+            0 * spy.timer(*_)
+            spy.getTimers()['curator.operation[client=test,operation=checkExists,path=other]'].count == 11
+    }
+
+    @Unroll
+    def "test the prefix of path #path with a depth of #depth"() {
+        setup:
+            CuratorFrameworkInstrumentation instrumentation = new CuratorFrameworkInstrumentation(client, registry, 'test', depth, new java.util.concurrent.ConcurrentHashMap())
+        expect:
+            instrumentation.pathPrefix(path) == prefix
+        where:
+            path        | depth | prefix
+            '/a/b/c'    | 0     | '/'
+            '/a/b/c'    | 1     | '/a'
+            '/a/b/c'    | 2     | '/a/b'
+            '/a/b/c'    | 5     | '/a/b/c'
+            '/'         | 1     | '/'
+            null        | 1     | 'other'
+    }
+
+    def "test recording connection state transitions"() {
+        setup:
+            CuratorFrameworkInstrumentation.ConnectionStateMetrics listener = new CuratorFrameworkInstrumentation.ConnectionStateMetrics(registry, 'test')
+        when:
+            listener.stateChanged(client, ConnectionState.SUSPENDED)
+            listener.stateChanged(client, ConnectionState.LOST)
+            listener.stateChanged(client, ConnectionState.RECONNECTED)
+        then:
+            registry.getCounters()['curator.connection.state[client=test,state=SUSPENDED]'].count == 1
+            registry.getCounters()['curator.connection.state[client=test,state=LOST]'].count == 1
+            registry.getCounters()['curator.connection.state[client=test,state=RECONNECTED]'].count == 1
+            registry.getCounters()['curator.session.expired[client=test]'].count == 1
+            registry.getTimers()['curator.reconnect[client=test]'].count == 1
+    }
+
+    def "test sampling the event queue"() {
+        when:
+            CuratorFrameworkInstrumentation.instrument(client, registry, 'test', 1)
+        then:
+            registry.gaugeValue('curator.event.queue', 'client', 'test') == 0.0d
+    }
+
+    def "test closing the instrumentation stops observing the client"() {
+        setup:
+            int listeners = client.getConnectionStateListenable().size()
+            CuratorFrameworkInstrumentation.Handle instrumentation = CuratorFrameworkInstrumentation.instrument(client, registry, 'test', 1)
+        expect:
+            client.getConnectionStateListenable().size() == listeners + 1
+        when:
+            instrumentation.close()
+        then:
+            client.getConnectionStateListenable().size() == listeners
+            Double.isNaN(registry.gaugeValue('curator.event.queue', 'client', 'test'))
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.metrics
+
+import java.util.concurrent.TimeUnit
+
+import org.apache.curator.RetryPolicy
+import org.apache.curator.RetrySleeper
+
+import spock.lang.Specification
+
+class InstrumentedRetryPolicySpec extends Specification {
+
+    def "test counting the retries allowed and refused by the decorated policy"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            RetryPolicy retryPolicy = Mock(RetryPolicy)
+            RetrySleeper sleeper = Mock(RetrySleeper)
+            InstrumentedRetryPolicy policy = new InstrumentedRetryPolicy(retryPolicy, registry, 'test')
+        when:
+            boolean first = policy.allowRetry(0, 0, sleeper)
+            boolean second = policy.allowRetry(1, 0, sleeper)
+        then:
+            2 * retryPolicy.allowRetry(_, _, _) >>> [true, false]
+            first
+            !second
+            registry.getCounters()['curator.retry[client=test,outcome=allowed]'].count == 1
+            registry.getCounters()['curator.retry[client=test,outcome=exhausted]'].count == 1
+            policy.retryPolicy.is(retryPolicy)
+    }
+
+    def "test recording the time spent backing off"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            RetryPolicy retryPolicy = Mock(RetryPolicy)
+            RetrySleeper sleeper = Mock(RetrySleeper)
+            InstrumentedRetryPolicy policy = new InstrumentedRetryPolicy(retryPolicy, registry, 'test')
+        when:
+            policy.allowRetry(0, 0, sleeper)
+        then:
+            1 * retryPolicy.allowRetry(0, 0, _) >> { int count, long elapsed, RetrySleeper wrapped ->
+                wrapped.sleepFor(25, TimeUnit.MILLISECONDS)
+                true
+            }
+            1 * sleeper.sleepFor(25, TimeUnit.MILLISECONDS)
+            registry.getTimers()['curator.retry.backoff[client=test]'].getTotal(TimeUnit.MILLISECONDS) == 25
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.metrics
+
+import java.util.concurrent.TimeUnit
+
+import spock.lang.Specification
+
+class SimpleCuratorMetricsRegistrySpec extends Specification {
+
+    SimpleCuratorMetricsRegistry registry
+
+    def setup() {
+        registry = new SimpleCuratorMetricsRegistry()
+    }
+
+    def "test that the same timer is returned for the same name and tags"() {
+        expect:
+            registry.timer('timer', 'a', 'b').is(registry.timer('timer', 'a', 'b'))
+            !registry.timer('timer', 'a', 'b').is(registry.timer('timer', 'a', 'c'))
+            registry.getTimers().keySet() == ['timer[a=b]', 'timer[a=c]'] as Set
+    }
+
+    def "test recording durations with a timer"() {
+        setup:
+            SimpleCuratorMetricsRegistry.SimpleTimer timer = registry.timer('timer')
+        when:
+            (1..100).each { timer.record(it, TimeUnit.MILLISECONDS) }
+        then:
+            timer.count == 100
+            timer.getTotal(TimeUnit.MILLISECONDS) == 5050
+            timer.getMax(TimeUnit.MILLISECONDS) == 100
+            timer.getPercentile(0.5, TimeUnit.MILLISECONDS) >= 50
+            timer.getPercentile(0.5, TimeUnit.MILLISECONDS) < 100
+            timer.getPercentile(1.0, TimeUnit.MILLISECONDS) == 100
+    }
+
+    def "test the percentile of an empty timer"() {
+        expect:
+            registry.timer('timer').getPercentile(0.99, TimeUnit.MILLISECONDS) == 0
+    }
+
+    def "test incrementing a counter"() {
+        when:
+            registry.counter('counter', 'a', 'b').increment(2)
+            registry.counter('counter', 'a', 'b').increment(3)
+        then:
+            registry.getCounters()['counter[a=b]'].count == 5
+    }
+
+    def "test sampling a gauge"() {
+        when:
+            registry.gauge('gauge', { 42.0d } as CuratorMetricsRegistry.Gauge, 'a', 'b')
+        then:
+            registry.gaugeValue('gauge', 'a', 'b') == 42.0d
+            Double.isNaN(registry.gaugeValue('missing'))
+    }
+
+    def "test supplying tags that are not key/value pairs"() {
+        when:
+            registry.counter('counter', 'a')
+        then:
+            thrown IllegalArgumentException
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.retry
+
+import org.apache.curator.RetryPolicy
+import org.apache.curator.RetrySleeper
+
+import spock.lang.Specification
+
+class BudgetedRetryPolicySpec extends Specification {
+
+    def "test retries are delegated while the budget lasts"() {
+        setup:
+            RetryPolicy delegate = Mock(RetryPolicy)
+            RetrySleeper sleeper = Mock(RetrySleeper)
+            BudgetedRetryPolicy retryPolicy = new BudgetedRetryPolicy(delegate, new RetryBudget(1, 0))
+        when:
+            boolean first = retryPolicy.allowRetry(0, 0, sleeper)
+            boolean second = retryPolicy.allowRetry(1, 0, sleeper)
+        then:
+            1 * delegate.allowRetry(0, 0, sleeper) >> true
+            0 * delegate.allowRetry(1, _, _)
+            first
+            !second
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.retry
+
+import org.apache.curator.RetryPolicy
+import org.apache.curator.RetrySleeper
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.state.ConnectionState
+
+import spock.lang.Specification
+
+class CircuitBreakerRetryPolicySpec extends Specification {
+
+    RetryPolicy delegate
+
+    RetrySleeper sleeper
+
+    def setup() {
+        delegate = Mock(RetryPolicy)
+        sleeper = Mock(RetrySleeper)
+    }
+
+    def "test retries are delegated while the circuit is closed"() {
+        setup:
+            CircuitBreakerRetryPolicy retryPolicy = new CircuitBreakerRetryPolicy(delegate, 1000)
+        when:
+            boolean allowed = retryPolicy.allowRetry(0, 0, sleeper)
+        then:
+            1 * delegate.allowRetry(0, 0, sleeper) >> true
+            allowed
+            !retryPolicy.isOpen()
+    }
+
+    def "test the circuit opens when the retries of an operation are exhausted"() {
+        setup:
+            CircuitBreakerRetryPolicy retryPolicy = new CircuitBreakerRetryPolicy(delegate, 1000)
+        when:
+            retryPolicy.allowRetry(3, 0, sleeper)
+            boolean allowed = retryPolicy.allowRetry(0, 0, sleeper)
+        then:
+            1 * delegate.allowRetry(3, 0, sleeper) >> false
+            0 * delegate.allowRetry(0, _, _)
+            retryPolicy.isOpen()
+            !allowed
+            retryPolicy.rejectedCount == 1
+    }
+
+    def "test the circuit opens when the session is lost and closes when the client reconnects"() {
+        setup:
+            CircuitBreakerRetryPolicy retryPolicy = new CircuitBreakerRetryPolicy(delegate, 1000)
+            CuratorFramework client = Mock(CuratorFramework)
+        when:
+            retryPolicy.stateChanged(client, ConnectionState.LOST)
+        then:
+            retryPolicy.isOpen()
+            !retryPolicy.allowRetry(0, 0, sleeper)
+        when:
+            retryPolicy.stateChanged(client, ConnectionState.RECONNECTED)
+        then:
+            !retryPolicy.isOpen()
+    }
+
+    def "test a single retry is let through once the open time has elapsed"() {
+        setup:
+            CircuitBreakerRetryPolicy retryPolicy = new CircuitBreakerRetryPolicy(delegate, 10)
+        when:
+            retryPolicy.stateChanged(Mock(CuratorFramework), ConnectionState.LOST)
+            Thread.sleep(20)
+            boolean first = retryPolicy.allowRetry(0, 0, sleeper)
+            boolean second = retryPolicy.allowRetry(0, 0, sleeper)
+        then:
+            1 * delegate.allowRetry(0, 0, sleeper) >> true
+            first
+            !second
+    }
+}
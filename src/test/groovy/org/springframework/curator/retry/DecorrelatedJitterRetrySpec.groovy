@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.retry
+
+import java.util.concurrent.TimeUnit
+
+import org.apache.curator.RetrySleeper
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class DecorrelatedJitterRetrySpec extends Specification {
+
+    @Unroll
+    def "test the sleep time of retry #retryCount is within its bounds"() {
+        setup:
+            DecorrelatedJitterRetry retryPolicy = new DecorrelatedJitterRetry(100, 1000, 10)
+        expect:
+            (1..50).every {
+                long sleepTime = retryPolicy.getSleepTimeMs(retryCount)
+                sleepTime >= 100 && sleepTime <= upperBound
+            }
+        where:
+            retryCount  | upperBound
+            0           | 300
+            1           | 900
+            2           | 1000
+            9           | 1000
+    }
+
+    def "test the sleep times of a retry are spread out"() {
+        setup:
+            DecorrelatedJitterRetry retryPolicy = new DecorrelatedJitterRetry(100, 10000, 10)
+        expect:
+            (1..50).collect { retryPolicy.getSleepTimeMs(3) }.unique().size() > 1
+    }
+
+    def "test allowing retries up to the maximum number of retries"() {
+        setup:
+            DecorrelatedJitterRetry retryPolicy = new DecorrelatedJitterRetry(0, 0, 2)
+            RetrySleeper sleeper = Mock(RetrySleeper)
+        expect:
+            retryPolicy.allowRetry(0, 0, sleeper)
+            retryPolicy.allowRetry(1, 0, sleeper)
+            !retryPolicy.allowRetry(2, 0, sleeper)
+    }
+
+    def "test refusing a retry when interrupted while sleeping"() {
+        setup:
+            DecorrelatedJitterRetry retryPolicy = new DecorrelatedJitterRetry(0, 0, 2)
+            RetrySleeper sleeper = Mock(RetrySleeper)
+        when:
+            boolean allowed = retryPolicy.allowRetry(0, 0, sleeper)
+        then:
+            1 * sleeper.sleepFor(_, TimeUnit.MILLISECONDS) >> { throw new InterruptedException() }
+            !allowed
+            Thread.interrupted()
+    }
+
+    def "test constructing the policy with a maximum sleep time lower than the base sleep time"() {
+        when:
+            new DecorrelatedJitterRetry(100, 10, 1)
+        then:
+            thrown IllegalArgumentException
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.retry
+
+import spock.lang.Specification
+
+class RetryBudgetSpec extends Specification {
+
+    def "test taking tokens until the budget is exhausted"() {
+        setup:
+            RetryBudget budget = new RetryBudget(3, 0)
+        expect:
+            budget.tryAcquire()
+            budget.tryAcquire()
+            budget.tryAcquire()
+            !budget.tryAcquire()
+            budget.availableTokens == 0
+    }
+
+    def "test the budget is replenished over time"() {
+        setup:
+            RetryBudget budget = new RetryBudget(1, 100)
+        when:
+            budget.tryAcquire()
+            Thread.sleep(50)
+        then:
+            budget.tryAcquire()
+    }
+
+    def "test the shared budget is shared by clients with the same configuration"() {
+        expect:
+            RetryBudget.getShared(10, 5).is(RetryBudget.getShared(10, 5))
+            !RetryBudget.getShared(10, 5).is(RetryBudget.getShared(10, 6))
+    }
+
+    def "test constructing a budget with no capacity"() {
+        when:
+            new RetryBudget(0, 1)
+        then:
+            thrown IllegalArgumentException
+    }
+}
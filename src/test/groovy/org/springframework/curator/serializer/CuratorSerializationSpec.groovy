@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CuratorSerializationSpec extends Specification {
+
+    def "test getting the string representation of each enumerated value"() {
+        expect:
+            CuratorSerialization.values().each { CuratorSerialization serialization ->
+                serialization.toString() == serialization.type
+            }
+    }
+
+    @Unroll
+    def "test finding the matching enumerated value for the serialization type #type"() {
+        expect:
+            CuratorSerialization.findByType(type) == expectedValue
+        where:
+            type								| expectedValue
+            CuratorSerialization.JSON.type		| CuratorSerialization.JSON
+            CuratorSerialization.KRYO.type		| CuratorSerialization.KRYO
+            CuratorSerialization.PROTOBUF.type	| CuratorSerialization.PROTOBUF
+            CuratorSerialization.STRING.type	| CuratorSerialization.STRING
+            'unknown'							| null
+            ''									| null
+            null								| null
+    }
+
+    @Unroll
+    def "test creating the serializer for #serialization"() {
+        expect:
+            serialization.createSerializer().getClass() == expectedClass
+        where:
+            serialization					| expectedClass
+            CuratorSerialization.JSON		| JacksonJsonSerializer
+            CuratorSerialization.KRYO		| KryoSerializer
+            CuratorSerialization.PROTOBUF	| ProtobufSerializer
+            CuratorSerialization.STRING		| StringSerializer
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer
+
+import spock.lang.Specification
+
+class KryoSerializerSpec extends Specification {
+
+    def "test writing and reading a value with Kryo"() {
+        setup:
+            KryoSerializer serializer = new KryoSerializer()
+            PooledOutputStream output = new PooledOutputStream()
+        when:
+            serializer.serialize(new Settings(name: 'test', limit: 5, tags: ['a', 'b']), output)
+            Settings settings = serializer.deserialize(output.toByteArray(), Settings)
+        then:
+            settings.name == 'test'
+            settings.limit == 5
+            settings.tags == ['a', 'b']
+        cleanup:
+            output.release()
+    }
+
+    def "test reading truncated data"() {
+        setup:
+            KryoSerializer serializer = new KryoSerializer()
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+            serializer.serialize(new Settings(name: 'test', limit: 5), output)
+        when:
+            serializer.deserialize(Arrays.copyOf(output.toByteArray(), 2), Settings)
+        then:
+            thrown IOException
+    }
+}
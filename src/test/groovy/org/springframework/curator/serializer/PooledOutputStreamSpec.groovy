@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer
+
+import spock.lang.Specification
+
+class PooledOutputStreamSpec extends Specification {
+
+    def "test writing past the size of the pooled buffer"() {
+        setup:
+            PooledOutputStream output = new PooledOutputStream()
+            byte[] data = new byte[10000]
+            new Random(1).nextBytes(data)
+        when:
+            output.write(7)
+            output.write(data, 0, data.length)
+            output.close()
+            byte[] written = output.toByteArray()
+        then:
+            output.size() == 10001
+            written.length == 10001
+            written[0] == 7
+            Arrays.copyOfRange(written, 1, written.length) == data
+        cleanup:
+            output.release()
+            output.release()
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer
+
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto
+
+import spock.lang.Specification
+
+class ProtobufSerializerSpec extends Specification {
+
+    def "test writing and reading a message"() {
+        setup:
+            ProtobufSerializer serializer = new ProtobufSerializer()
+            FileDescriptorProto message = FileDescriptorProto.newBuilder().setName('test.proto').setPackage('test').build()
+            PooledOutputStream output = new PooledOutputStream()
+        when:
+            serializer.serialize(message, output)
+            byte[] data = output.toByteArray()
+        then:
+            data == message.toByteArray()
+            serializer.deserialize(data, FileDescriptorProto) == message
+            serializer.deserialize(data, FileDescriptorProto) == message
+        cleanup:
+            output.release()
+    }
+
+    def "test writing or reading a type that is not a message"() {
+        when:
+            new ProtobufSerializer().serialize('test', new ByteArrayOutputStream())
+        then:
+            thrown IOException
+        when:
+            new ProtobufSerializer().deserialize('test'.bytes, String)
+        then:
+            thrown IOException
+    }
+}
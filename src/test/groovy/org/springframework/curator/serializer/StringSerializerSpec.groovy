@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.serializer
+
+import java.nio.charset.Charset
+
+import spock.lang.Specification
+
+class StringSerializerSpec extends Specification {
+
+    def "test values are stored as UTF-8 by default"() {
+        setup:
+            StringSerializer serializer = new StringSerializer()
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+        when:
+            serializer.serialize('café', output)
+        then:
+            output.toByteArray() == 'café'.getBytes('UTF-8')
+            serializer.deserialize(output.toByteArray(), String) == 'café'
+            serializer.deserialize(output.toByteArray(), Object) == 'café'
+    }
+
+    def "test storing values in another charset"() {
+        setup:
+            StringSerializer serializer = new StringSerializer(Charset.forName('UTF-16'))
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+        when:
+            serializer.serialize(42, output)
+        then:
+            output.toByteArray() == '42'.getBytes('UTF-16')
+            serializer.deserialize(output.toByteArray(), String) == '42'
+    }
+
+    def "test reading a type other than a string"() {
+        when:
+            new StringSerializer().deserialize('42'.bytes, Integer)
+        then:
+            thrown IOException
+    }
+}
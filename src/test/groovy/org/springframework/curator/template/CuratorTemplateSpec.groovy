@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.template
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.CreateMode
+import org.springframework.curator.serializer.JacksonJsonSerializer
+import org.springframework.curator.serializer.Settings
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorTemplateSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def "test setting and getting typed values"() {
+        setup:
+            CuratorTemplate template = new CuratorTemplate(client, new JacksonJsonSerializer())
+        when:
+            template.set('/template/typed/settings', new Settings(name: 'first', limit: 1))
+            template.set('/template/typed/settings', new Settings(name: 'second', limit: 2))
+            Settings settings = template.get('/template/typed/settings', Settings)
+        then:
+            settings.name == 'second'
+            settings.limit == 2
+            template.get('/template/typed/missing', Settings) == null
+            new String(template.get('/template/typed/settings', byte[]), 'UTF-8').startsWith('{')
+    }
+
+    def "test compare and set only writes unmodified nodes"() {
+        setup:
+            CuratorTemplate template = new CuratorTemplate(client: client)
+            template.afterPropertiesSet()
+            template.set('/template/cas', 'initial')
+            Versioned<String> read = template.getVersioned('/template/cas', String)
+        when:
+            boolean first = template.compareAndSet('/template/cas', read.version, 'updated')
+            boolean second = template.compareAndSet('/template/cas', read.version, 'stale')
+        then:
+            read.value == 'initial'
+            first
+            !second
+            template.get('/template/cas', String) == 'updated'
+            !template.compareAndSet('/template/cas/missing', 0, 'value')
+            template.getVersioned('/template/cas/missing', String) == null
+    }
+
+    def "test creating and deleting nodes"() {
+        setup:
+            CuratorTemplate template = new CuratorTemplate(client: client, serialization: 'string')
+            template.afterPropertiesSet()
+        when:
+            boolean created = template.setIfAbsent('/template/nodes/node', 'value')
+            boolean createdAgain = template.setIfAbsent('/template/nodes/node', 'other')
+            String sequential = template.create('/template/nodes/seq-', null, CreateMode.PERSISTENT_SEQUENTIAL)
+        then:
+            created
+            !createdAgain
+            template.get('/template/nodes/node', String) == 'value'
+            sequential.startsWith('/template/nodes/seq-')
+            template.get(sequential, String) == null
+        when:
+            int version = template.getVersioned('/template/nodes/node', String).version
+        then:
+            !template.delete('/template/nodes/node', version + 1)
+            template.delete('/template/nodes/node', version)
+            !template.delete('/template/nodes/node')
+            template.delete(sequential)
+    }
+
+    def "test executing a callback with the client"() {
+        setup:
+            CuratorTemplate template = new CuratorTemplate(client, null)
+        expect:
+            template.execute({ CuratorFramework callbackClient -> callbackClient.is(client) } as CuratorCallback<Boolean>)
+    }
+
+    def "test initializing the template with an invalid configuration"() {
+        when:
+            new CuratorTemplate(client: templateClient, serialization: serialization).afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+        where:
+            templateClient	| serialization
+            null			| 'string'
+            client			| 'unknown'
+    }
+}
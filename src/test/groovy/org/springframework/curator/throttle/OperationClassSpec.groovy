@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.throttle
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class OperationClassSpec extends Specification {
+
+    @Unroll
+    def "test matching the operation #operation on path #path"() {
+        setup:
+            OperationClass operationClass = new OperationClass(name: 'critical')
+            operationClass.setPathPrefixList('/locks, /leader')
+            operationClass.setOperationList('sync')
+        expect:
+            operationClass.matches(operation, path) == expected
+        where:
+            operation		| path				|| expected
+            'getData'		| '/locks/a'		|| true
+            'create'		| '/leader'			|| true
+            'sync'			| '/jobs'			|| true
+            'sync'			| null				|| true
+            'getData'		| '/jobs/locks'		|| false
+            'transaction'	| null				|| false
+    }
+
+    def "test that a class without path prefixes or operations matches no operation"() {
+        expect:
+            !new OperationClass('empty', 1).matches('getData', '/')
+    }
+
+    def "test the defaults of a class"() {
+        setup:
+            OperationClass operationClass = new OperationClass()
+        expect:
+            operationClass.weight == OperationClass.DEFAULT_WEIGHT
+            !operationClass.bypass
+            operationClass.queueDepth == 0
+            operationClass.admittedCount == 0
+            operationClass.operations.isEmpty()
+            operationClass.pathPrefixes.isEmpty()
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.throttle
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+import org.springframework.curator.metrics.SimpleCuratorMetricsRegistry
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class OperationSchedulerSpec extends Specification {
+
+    ExecutorService executor = Executors.newCachedThreadPool()
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    @Unroll
+    def "test the validation of a scheduler with #description"() {
+        setup:
+            OperationScheduler scheduler = new OperationScheduler(maxOpsPerSecond: maxOpsPerSecond, burst: burst, operationClasses: classes)
+        when:
+            scheduler.afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+        where:
+            description					| maxOpsPerSecond	| burst	| classes
+            'no rate'					| null				| null	| []
+            'a rate of zero'			| 0					| null	| []
+            'a burst of zero'			| 10				| 0		| []
+            'a class without weight'	| 10				| null	| [new OperationClass('bulk', 0)]
+    }
+
+    def "test classifying operations"() {
+        setup:
+            OperationClass critical = new OperationClass('critical', 10)
+            critical.setPathPrefixList('/locks')
+            OperationClass bulk = new OperationClass('bulk', 1)
+            bulk.setOperationList('create,setData')
+            OperationScheduler scheduler = createScheduler(10, null, [critical, bulk])
+        expect:
+            scheduler.getOperationClass('create', '/locks/lease') == critical
+            scheduler.getOperationClass('create', '/jobs/1') == bulk
+            scheduler.getOperationClass('getData', '/jobs/1').name == OperationScheduler.DEFAULT_CLASS
+            scheduler.classes*.name == ['critical', 'bulk', OperationScheduler.DEFAULT_CLASS]
+    }
+
+    def "test that operations beyond the burst wait for the rate"() {
+        setup:
+            OperationScheduler scheduler = createScheduler(100, 2, [])
+        when:
+            long start = System.nanoTime()
+            12.times { scheduler.acquire('getData', '/node') }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        then:
+            elapsedMs >= 90
+            elapsedMs < 2000
+            scheduler.getOperationClass('getData', '/node').admittedCount == 12
+    }
+
+    def "test that operations of a class that bypasses the scheduler are admitted at once"() {
+        setup:
+            OperationClass critical = new OperationClass('critical', 1)
+            critical.setPathPrefixList('/leader')
+            critical.bypass = true
+            OperationScheduler scheduler = createScheduler(1, 1, [critical])
+            scheduler.acquire('getData', '/jobs')
+        when:
+            long start = System.nanoTime()
+            100.times { scheduler.acquire('setData', '/leader/heartbeat') }
+        then:
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500
+            critical.admittedCount == 100
+    }
+
+    def "test that operations admitted without waiting delay the operations that follow"() {
+        setup:
+            OperationScheduler scheduler = createScheduler(10, 1, [])
+        when:
+            long start = System.nanoTime()
+            3.times { scheduler.admit('getData', '/node') }
+        then:
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100
+        when:
+            scheduler.acquire('getData', '/node')
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        then:
+            elapsedMs >= 250
+            scheduler.getOperationClass('getData', '/node').admittedCount == 4
+    }
+
+    def "test that waiting classes are admitted in proportion to their weight"() {
+        setup:
+            OperationClass critical = new OperationClass('critical', 4)
+            critical.setPathPrefixList('/critical')
+            OperationClass bulk = new OperationClass('bulk', 1)
+            bulk.setPathPrefixList('/bulk')
+            OperationScheduler scheduler = createScheduler(20, 1, [critical, bulk])
+            List<String> admitted = new CopyOnWriteArrayList<String>()
+            scheduler.acquire('getData', '/warmup')
+        when:
+            20.times {
+                submit(scheduler, '/bulk', admitted)
+                submit(scheduler, '/critical', admitted)
+            }
+            waitFor { critical.queueDepth + bulk.queueDepth + admitted.size() == 40 && critical.queueDepth > 12 && bulk.queueDepth > 12 }
+            int from = admitted.size()
+            waitFor { admitted.size() >= from + 10 }
+            List<String> window = admitted.subList(from, from + 10)
+        then:
+            window.count { it == '/critical' } >= 7
+            window.count { it == '/bulk' } >= 1
+    }
+
+    def "test that an interrupted operation leaves the queue"() {
+        setup:
+            OperationScheduler scheduler = createScheduler(1, 1, [])
+            scheduler.acquire('getData', '/node')
+            OperationClass defaultClass = scheduler.getOperationClass('getData', '/node')
+        when:
+            Future<?> waiting = executor.submit({ scheduler.acquire('getData', '/node') } as Callable)
+            waitFor { defaultClass.queueDepth == 1 }
+            waiting.cancel(true)
+            waitFor { defaultClass.queueDepth == 0 }
+        then:
+            defaultClass.queueDepth == 0
+            defaultClass.admittedCount == 1
+    }
+
+    def "test publishing the wait time and queue depth of each class"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            OperationScheduler scheduler = createScheduler(100, 1, [new OperationClass('bulk', 1)])
+            scheduler.bindMetrics(registry, 'test')
+            scheduler.bindMetrics(registry, 'other')
+        when:
+            3.times { scheduler.acquire('getData', '/node') }
+        then:
+            registry.getTimers()['curator.throttle.wait[client=test,class=default]'].count == 3
+            registry.getTimers()['curator.throttle.wait[client=test,class=bulk]'].count == 0
+            registry.gaugeValue('curator.throttle.queue', 'client', 'test', 'class', 'default') == 0
+            !registry.getTimers().containsKey('curator.throttle.wait[client=other,class=default]')
+    }
+
+    private OperationScheduler createScheduler(Integer maxOpsPerSecond, Integer burst, List<OperationClass> classes) {
+        OperationScheduler scheduler = new OperationScheduler(maxOpsPerSecond: maxOpsPerSecond, burst: burst, operationClasses: classes)
+        scheduler.afterPropertiesSet()
+        scheduler
+    }
+
+    private void submit(OperationScheduler scheduler, String path, List<String> admitted) {
+        executor.submit({
+            scheduler.acquire('getData', path)
+            admitted.add(path)
+        } as Runnable)
+    }
+
+    private void waitFor(Closure<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + 5000
+        while(!condition.call() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1)
+        }
+    }
+}
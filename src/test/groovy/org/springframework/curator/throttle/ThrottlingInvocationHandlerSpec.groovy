@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.throttle
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.api.BackgroundCallback
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class ThrottlingInvocationHandlerSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    CuratorFramework client
+
+    List<String> acquired = new CopyOnWriteArrayList<String>()
+
+    List<String> admitted = new CopyOnWriteArrayList<String>()
+
+    OperationScheduler scheduler = new OperationScheduler() {
+        @Override
+        void acquire(final String operation, final String path) throws InterruptedException {
+            acquired.add(operation + ' ' + path)
+            super.acquire(operation, path)
+        }
+
+        @Override
+        void admit(final String operation, final String path) {
+            admitted.add(operation + ' ' + path)
+            super.admit(operation, path)
+        }
+    }
+
+    def setupSpec() {
+        server = new TestingServer()
+    }
+
+    def cleanupSpec() {
+        server.stop()
+    }
+
+    def setup() {
+        scheduler.maxOpsPerSecond = 1000
+        scheduler.afterPropertiesSet()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+    }
+
+    def cleanup() {
+        client.close()
+    }
+
+    def "test that each operation waits for the scheduler before it is sent"() {
+        setup:
+            CuratorFramework proxy = scheduler.throttle(client)
+        when:
+            proxy.create().creatingParentsIfNeeded().forPath('/throttled/node', 'data'.getBytes())
+            byte[] data = proxy.getData().forPath('/throttled/node')
+            proxy.checkExists().forPath('/throttled/node')
+            proxy.delete().forPath('/throttled/node')
+        then:
+            new String(data) == 'data'
+            acquired == ['create /throttled/node', 'getData /throttled/node', 'checkExists /throttled/node', 'delete /throttled/node']
+    }
+
+    def "test that background operations wait for the scheduler in the calling thread"() {
+        setup:
+            CuratorFramework proxy = scheduler.throttle(client)
+            CountDownLatch done = new CountDownLatch(1)
+        when:
+            proxy.checkExists().inBackground({ c, e -> done.countDown() } as BackgroundCallback).forPath('/missing')
+        then:
+            done.await(5, TimeUnit.SECONDS)
+            acquired == ['checkExists /missing']
+    }
+
+    def "test that operations sent from the event thread are admitted without waiting"() {
+        setup:
+            scheduler.maxOpsPerSecond = 1
+            scheduler.burst = 1
+            scheduler.afterPropertiesSet()
+            CuratorFramework proxy = scheduler.throttle(client)
+            proxy.checkExists().forPath('/first')
+            CountDownLatch done = new CountDownLatch(1)
+            long waitedMs = -1
+        when:
+            client.checkExists().inBackground({ c, e ->
+                long start = System.nanoTime()
+                proxy.checkExists().inBackground({ c2, e2 -> done.countDown() } as BackgroundCallback).forPath('/from-callback')
+                waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+            } as BackgroundCallback).forPath('/missing')
+        then:
+            done.await(5, TimeUnit.SECONDS)
+            waitedMs < 500
+            acquired == ['checkExists /first']
+            admitted == ['checkExists /from-callback']
+    }
+
+    def "test that the scheduler sees the namespaced path"() {
+        setup:
+            CuratorFramework proxy = scheduler.throttle(client).usingNamespace('ns')
+        when:
+            proxy.checkExists().forPath('/node')
+        then:
+            acquired == ['checkExists /ns/node']
+            proxy.namespace == 'ns'
+    }
+
+    def "test that a transaction waits for the scheduler once when committed"() {
+        setup:
+            CuratorFramework proxy = scheduler.throttle(client)
+        when:
+            proxy.inTransaction()
+                .create().forPath('/transaction-a').and()
+                .create().forPath('/transaction-b').and()
+                .commit()
+        then:
+            acquired == ['transaction null']
+            client.checkExists().forPath('/transaction-b') != null
+    }
+
+    def "test that lifecycle methods are not throttled"() {
+        setup:
+            CuratorFramework proxy = scheduler.throttle(client)
+        expect:
+            proxy.state != null
+            proxy == proxy
+            acquired.isEmpty()
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.transfer
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.CreateMode
+import org.apache.zookeeper.KeeperException
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorTreeTransferSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    CuratorTreeTransfer transfer
+
+    File file
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def setup() {
+        client.create().forPath('/source', 'root'.getBytes())
+        (1..20).each { parent ->
+            client.create().forPath("/source/${parent}", "${parent}".getBytes())
+            (1..5).each { child -> client.create().forPath("/source/${parent}/${child}", "${parent}-${child}".getBytes()) }
+        }
+        client.create().forPath('/source/empty', new byte[0])
+        transfer = new CuratorTreeTransfer(client: client, parallelism: 4, batchSize: 7, bufferSize: 128)
+        transfer.afterPropertiesSet()
+        file = File.createTempFile('tree', '.snapshot')
+    }
+
+    def cleanup() {
+        ['/source', '/target', '/nested'].each {
+            if(client.checkExists().forPath(it) != null) {
+                client.delete().deletingChildrenIfNeeded().forPath(it)
+            }
+        }
+        file.delete()
+    }
+
+    def "test exporting and importing a tree"() {
+        when:
+            TransferResult exported = transfer.exportTree('/source', file)
+            TransferResult imported = transfer.importTree(file, '/target')
+        then:
+            exported.nodeCount == 122
+            exported.recordCount == 122
+            exported.byteCount == file.length()
+            exported.highestZxid > 0
+            !new File(file.path + '.part').exists()
+            imported.nodeCount == 122
+            imported.recordCount == 122
+            imported.highestZxid == exported.highestZxid
+            new String(client.getData().forPath('/target')) == 'root'
+            new String(client.getData().forPath('/target/7/3')) == '7-3'
+            client.getData().forPath('/target/empty').length == 0
+            client.getChildren().forPath('/target').size() == 21
+            client.getChildren().forPath('/target/20').size() == 5
+    }
+
+    def "test importing a tree below a path whose parents do not exist"() {
+        setup:
+            transfer.exportTree('/source/3', file)
+        when:
+            transfer.importTree(file, '/nested/copy/3')
+        then:
+            new String(client.getData().forPath('/nested/copy/3')) == '3'
+            new String(client.getData().forPath('/nested/copy/3/5')) == '3-5'
+    }
+
+    def "test importing a tree over an existing tree replaces the data of existing nodes"() {
+        setup:
+            transfer.exportTree('/source', file)
+            transfer.importTree(file, '/target')
+            client.setData().forPath('/target/4/4', 'changed'.getBytes())
+            client.create().forPath('/target/extra')
+        when:
+            TransferResult imported = transfer.importTree(file, '/target')
+        then:
+            imported.recordCount == 122
+            new String(client.getData().forPath('/target/4/4')) == '4-4'
+            client.checkExists().forPath('/target/extra') != null
+    }
+
+    def "test an incremental export only holds the nodes modified since the previous export"() {
+        setup:
+            TransferResult full = transfer.exportTree('/source', file)
+            transfer.importTree(file, '/target')
+            client.setData().forPath('/source/2/2', 'updated'.getBytes())
+            client.create().forPath('/source/new', 'new'.getBytes())
+            client.create().forPath('/source/new/child', 'child'.getBytes())
+        when:
+            TransferResult incremental = transfer.exportTree('/source', file, full.highestZxid)
+            transfer.importTree(file, '/target')
+        then:
+            incremental.nodeCount == 124
+            incremental.recordCount == 3
+            incremental.highestZxid > full.highestZxid
+            new String(client.getData().forPath('/target/2/2')) == 'updated'
+            new String(client.getData().forPath('/target/new/child')) == 'child'
+    }
+
+    def "test resuming an import skips the records that were already written"() {
+        setup:
+            transfer.exportTree('/source/1', file)
+            transfer.importTree(file, '/target')
+            client.setData().forPath('/target/1', 'stale'.getBytes())
+            client.setData().forPath('/target/5', 'stale'.getBytes())
+        when:
+            TransferResult imported = transfer.importTree(file, '/target', 1)
+        then:
+            imported.nodeCount == 6
+            imported.recordCount == 5
+            new String(client.getData().forPath('/target')) == '1'
+            client.getChildren().forPath('/target').findAll { new String(client.getData().forPath("/target/${it}")) == 'stale' }.isEmpty()
+    }
+
+    def "test a failed import reports the number of completed records"() {
+        setup:
+            transfer.exportTree('/source', file)
+            client.create().withMode(CreateMode.EPHEMERAL).forPath('/target')
+        when:
+            transfer.importTree(file, '/target')
+        then:
+            CuratorTreeTransferException e = thrown()
+            e.completedRecords == 1
+            e.cause instanceof KeeperException.NoChildrenForEphemeralsException
+    }
+
+    def "test exporting skips ephemeral nodes"() {
+        setup:
+            client.create().withMode(CreateMode.EPHEMERAL).forPath('/source/ephemeral', 'ephemeral'.getBytes())
+        when:
+            TransferResult exported = transfer.exportTree('/source', file)
+        then:
+            exported.nodeCount == 123
+            exported.recordCount == 122
+    }
+
+    def "test exporting a tree that does not exist"() {
+        when:
+            transfer.exportTree('/missing', file)
+        then:
+            thrown KeeperException.NoNodeException
+            !new File(file.path + '.part').exists()
+    }
+
+    def "test importing a file that is not a snapshot"() {
+        setup:
+            file.text = 'not a snapshot'
+        when:
+            transfer.importTree(file, '/target')
+        then:
+            thrown IOException
+    }
+
+    def "test importing a truncated snapshot"() {
+        setup:
+            transfer.exportTree('/source', file)
+            RandomAccessFile raf = new RandomAccessFile(file, 'rw')
+            raf.setLength(file.length() - 10)
+            raf.close()
+        when:
+            transfer.importTree(file, '/target')
+        then:
+            thrown EOFException
+    }
+
+    def "test the validation of the configuration"() {
+        when:
+            new CuratorTreeTransfer(client: clientRef, parallelism: parallelism).afterPropertiesSet()
+        then:
+            thrown IllegalArgumentException
+        where:
+            clientRef | parallelism
+            null      | 1
+            client    | 0
+    }
+}
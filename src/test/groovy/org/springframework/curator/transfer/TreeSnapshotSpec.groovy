@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.transfer
+
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+
+import spock.lang.Specification
+
+class TreeSnapshotSpec extends Specification {
+
+    File file
+
+    def setup() {
+        file = File.createTempFile('tree', '.snapshot')
+    }
+
+    def cleanup() {
+        file.delete()
+    }
+
+    def "test reading the records that were written"() {
+        setup:
+            byte[] large = new byte[300]
+            new Random(1).nextBytes(large)
+            TreeSnapshotWriter writer = new TreeSnapshotWriter(FileChannel.open(file.toPath(), StandardOpenOption.WRITE), 64)
+            writer.writeHeader('/root', 5L)
+            writer.write(new TreeSnapshotRecord('', 'root'.getBytes(), 1L, 2L))
+            writer.write(new TreeSnapshotRecord('/large', large, 3L, 4L))
+            writer.write(new TreeSnapshotRecord('/null', null, 5L, 6L))
+            writer.writeEnd(6L)
+            writer.close()
+        when:
+            TreeSnapshotReader reader = new TreeSnapshotReader(FileChannel.open(file.toPath(), StandardOpenOption.READ), 64)
+            reader.readHeader()
+            List<TreeSnapshotRecord> records = []
+            TreeSnapshotRecord record
+            while((record = reader.read()) != null) {
+                records << record
+            }
+            reader.close()
+        then:
+            writer.recordCount == 3
+            writer.byteCount == file.length()
+            reader.rootPath == '/root'
+            reader.sinceZxid == 5L
+            reader.highestZxid == 6L
+            records*.relativePath == ['', '/large', '/null']
+            new String(records[0].data) == 'root'
+            records[1].data == large
+            records[2].data == null
+            records*.czxid == [1L, 3L, 5L]
+            records*.mzxid == [2L, 4L, 6L]
+    }
+
+    def "test reading a snapshot whose record count does not match"() {
+        setup:
+            TreeSnapshotWriter writer = new TreeSnapshotWriter(FileChannel.open(file.toPath(), StandardOpenOption.WRITE), 64)
+            writer.writeHeader('/', 0L)
+            writer.write(new TreeSnapshotRecord('', null, 1L, 1L))
+            writer.writeEnd(1L)
+            writer.close()
+            // Rewrite the record count in the end record.
+            RandomAccessFile raf = new RandomAccessFile(file, 'rw')
+            raf.seek(file.length() - 16)
+            raf.writeLong(2L)
+            raf.close()
+            TreeSnapshotReader reader = new TreeSnapshotReader(FileChannel.open(file.toPath(), StandardOpenOption.READ), 64)
+            reader.readHeader()
+            reader.read()
+        when:
+            reader.read()
+        then:
+            thrown IOException
+        cleanup:
+            reader.close()
+    }
+}
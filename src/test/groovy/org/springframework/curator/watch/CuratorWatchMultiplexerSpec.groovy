@@ -0,0 +1,272 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.watch
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+import org.apache.curator.framework.CuratorFramework
+import org.apache.curator.framework.CuratorFrameworkFactory
+import org.apache.curator.framework.api.CuratorWatcher
+import org.apache.curator.framework.state.ConnectionState
+import org.apache.curator.retry.RetryOneTime
+import org.apache.curator.test.TestingServer
+import org.apache.zookeeper.WatchedEvent
+import org.apache.zookeeper.Watcher.Event.EventType
+import org.springframework.curator.metrics.SimpleCuratorMetricsRegistry
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CuratorWatchMultiplexerSpec extends Specification {
+
+    @Shared
+    TestingServer server
+
+    @Shared
+    CuratorFramework client
+
+    CuratorWatchMultiplexer multiplexer
+
+    def setupSpec() {
+        server = new TestingServer()
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(0))
+        client.start()
+        client.blockUntilConnected()
+    }
+
+    def cleanupSpec() {
+        client.close()
+        server.stop()
+    }
+
+    def setup() {
+        client.create().creatingParentsIfNeeded().forPath('/watch/node', 'a'.getBytes())
+        multiplexer = new CuratorWatchMultiplexer(client: client)
+    }
+
+    def cleanup() {
+        multiplexer.destroy()
+        client.delete().deletingChildrenIfNeeded().forPath('/watch')
+    }
+
+    def "test subscribers of the same path and type share a single watch"() {
+        setup:
+            multiplexer.start()
+            List<RecordingWatcher> watchers = (1..100).collect { new RecordingWatcher() }
+            watchers.each { multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, it) }
+        when:
+            client.setData().forPath('/watch/node', 'b'.getBytes())
+            waitFor { watchers.every { it.events.size() == 1 } }
+        then:
+            multiplexer.watchCount == 1
+            multiplexer.subscriberCount == 100
+            multiplexer.dispatchCount == 1
+            watchers.every { it.events*.type == [EventType.NodeDataChanged] }
+            watchers.every { it.events*.path == ['/watch/node'] }
+    }
+
+    def "test subscriptions remain until they are unsubscribed"() {
+        setup:
+            multiplexer.start()
+            RecordingWatcher watcher = new RecordingWatcher()
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, watcher)
+        when:
+            client.setData().forPath('/watch/node', 'b'.getBytes())
+            waitFor { watcher.events.size() == 1 }
+            client.setData().forPath('/watch/node', 'c'.getBytes())
+            waitFor { watcher.events.size() == 2 }
+            client.delete().forPath('/watch/node')
+            waitFor { watcher.events.size() == 3 }
+        then:
+            watcher.events*.type == [EventType.NodeDataChanged, EventType.NodeDataChanged, EventType.NodeDeleted]
+        when:
+            multiplexer.unsubscribe('/watch/node', CuratorWatchType.DATA, watcher)
+            client.create().forPath('/watch/node')
+            Thread.sleep(200)
+        then:
+            multiplexer.watchCount == 0
+            watcher.events.size() == 3
+    }
+
+    def "test watching the children of a node that does not exist yet"() {
+        setup:
+            multiplexer.start()
+            RecordingWatcher watcher = new RecordingWatcher()
+            multiplexer.subscribe('/watch/parent', CuratorWatchType.CHILDREN, watcher)
+        when:
+            client.create().forPath('/watch/parent')
+            waitFor { watcher.events.size() == 1 }
+            client.create().forPath('/watch/parent/child')
+            waitFor { watcher.events.size() == 2 }
+        then:
+            watcher.events*.type == [EventType.NodeCreated, EventType.NodeChildrenChanged]
+    }
+
+    def "test watches of different types on the same path are separate"() {
+        setup:
+            multiplexer.start()
+            RecordingWatcher data = new RecordingWatcher()
+            RecordingWatcher children = new RecordingWatcher()
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, data)
+            multiplexer.subscribe('/watch/node', CuratorWatchType.CHILDREN, children)
+        when:
+            client.create().forPath('/watch/node/child')
+            waitFor { children.events.size() == 1 }
+            Thread.sleep(100)
+        then:
+            multiplexer.watchCount == 2
+            children.events*.type == [EventType.NodeChildrenChanged]
+            data.events.isEmpty()
+    }
+
+    def "test a failing subscriber does not prevent the others from being notified"() {
+        setup:
+            multiplexer.start()
+            RecordingWatcher watcher = new RecordingWatcher()
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, { throw new IllegalStateException('test') } as CuratorWatcher)
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, watcher)
+        when:
+            client.setData().forPath('/watch/node', 'b'.getBytes())
+            waitFor { watcher.events.size() == 1 }
+        then:
+            watcher.events*.type == [EventType.NodeDataChanged]
+    }
+
+    def "test subscriptions made before the multiplexer is started are armed when it starts"() {
+        setup:
+            RecordingWatcher watcher = new RecordingWatcher()
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, watcher)
+        when:
+            multiplexer.start()
+            client.setData().forPath('/watch/node', 'b'.getBytes())
+            waitFor { watcher.events.size() == 1 }
+        then:
+            multiplexer.isRunning()
+            watcher.events*.type == [EventType.NodeDataChanged]
+    }
+
+    def "test subscribing the same watcher twice"() {
+        setup:
+            CuratorWatcher watcher = new RecordingWatcher()
+        expect:
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, watcher)
+            !multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, watcher)
+            multiplexer.subscriberCount == 1
+            multiplexer.unsubscribe('/watch/node', CuratorWatchType.DATA, watcher)
+            !multiplexer.unsubscribe('/watch/node', CuratorWatchType.DATA, watcher)
+            !multiplexer.unsubscribe(null, CuratorWatchType.DATA, watcher)
+    }
+
+    def "test watches are not set again after reconnecting within the same session"() {
+        setup:
+            multiplexer.start()
+            RecordingWatcher watcher = new RecordingWatcher()
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, watcher)
+        when:
+            3.times { multiplexer.connectionStateListener.stateChanged(client, ConnectionState.RECONNECTED) }
+        then:
+            watcher.events.isEmpty()
+            dataWatchers('/watch/node') == 1
+        when:
+            client.setData().forPath('/watch/node', 'b'.getBytes())
+            waitFor { watcher.events.size() == 1 }
+            Thread.sleep(100)
+        then:
+            watcher.events*.type == [EventType.NodeDataChanged]
+            dataWatchers('/watch/node') == 1
+    }
+
+    def "test watches are set again and subscribers are told to resynchronize after the session expired"() {
+        setup:
+            multiplexer.start()
+            RecordingWatcher watcher = new RecordingWatcher()
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, watcher)
+        when:
+            multiplexer.connectionStateListener.stateChanged(client, ConnectionState.LOST)
+            multiplexer.connectionStateListener.stateChanged(client, ConnectionState.RECONNECTED)
+        then:
+            watcher.events*.type == [EventType.None]
+            watcher.events*.path == ['/watch/node']
+        when:
+            client.setData().forPath('/watch/node', 'b'.getBytes())
+            waitFor { watcher.events.size() == 2 }
+            Thread.sleep(100)
+        then:
+            watcher.events*.type == [EventType.None, EventType.NodeDataChanged]
+    }
+
+    def "test the metrics of the multiplexer"() {
+        setup:
+            SimpleCuratorMetricsRegistry registry = new SimpleCuratorMetricsRegistry()
+            multiplexer.metricsRegistry = registry
+            multiplexer.beanName = 'metered'
+            multiplexer.start()
+            RecordingWatcher watcher = new RecordingWatcher()
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, watcher)
+            multiplexer.subscribe('/watch/node', CuratorWatchType.DATA, new RecordingWatcher())
+            multiplexer.subscribe('/watch/node', CuratorWatchType.CHILDREN, new RecordingWatcher())
+        when:
+            client.setData().forPath('/watch/node', 'b'.getBytes())
+            waitFor { watcher.events.size() == 1 }
+        then:
+            registry.gaugeValue('curator.watch.count', 'multiplexer', 'metered') == 2
+            registry.gaugeValue('curator.watch.subscribers', 'multiplexer', 'metered') == 3
+            registry.getTimers()['curator.watch.dispatch[multiplexer=metered,type=data]'].count == 1
+            registry.getTimers()['curator.watch.dispatch[multiplexer=metered,type=children]'].count == 0
+    }
+
+    def "test subscribing with missing arguments"() {
+        when:
+            multiplexer.subscribe(path, type, watcher)
+        then:
+            thrown IllegalArgumentException
+        where:
+            path		| type						| watcher
+            null		| CuratorWatchType.DATA		| Mock(CuratorWatcher)
+            '/watch'	| null						| Mock(CuratorWatcher)
+            '/watch'	| CuratorWatchType.DATA		| null
+    }
+
+    def "test starting the multiplexer without a client"() {
+        setup:
+            multiplexer.client = null
+        when:
+            multiplexer.start()
+        then:
+            thrown IllegalArgumentException
+    }
+
+    private int dataWatchers(String nodePath) {
+        client.getZookeeperClient().getZooKeeper().watchManager.dataWatches[nodePath]?.size() ?: 0
+    }
+
+    private void waitFor(Closure condition) {
+        long deadline = System.currentTimeMillis() + 5000
+        while(!condition() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+    }
+
+    static class RecordingWatcher implements CuratorWatcher {
+
+        List<WatchedEvent> events = new CopyOnWriteArrayList<WatchedEvent>()
+
+        @Override
+        void process(WatchedEvent event) {
+            events << event
+        }
+    }
+}
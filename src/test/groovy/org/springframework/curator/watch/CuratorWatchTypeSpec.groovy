@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.curator.watch
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CuratorWatchTypeSpec extends Specification {
+
+    def "test getting the string representation of each enumerated value"() {
+        expect:
+            CuratorWatchType.values().each { CuratorWatchType watchType ->
+                watchType.toString() == watchType.type
+            }
+    }
+
+    @Unroll
+    def "test finding the matching enumerated value for the watch type #type"() {
+        expect:
+            CuratorWatchType.findByType(type) == expectedValue
+        where:
+            type						| expectedValue
+            'data'						| CuratorWatchType.DATA
+            'children'					| CuratorWatchType.CHILDREN
+            'DATA'						| null
+            'unknown'					| null
+            ''							| null
+            null						| null
+    }
+}